@@ -31,6 +31,38 @@ public class LucenePlugin extends Plugin {
 	 */
 	public static final Object LUCENE_JOB_FAMILY = new Object();
 
+	/**
+	 * Option ID for the number of threads searching the index containers
+	 * concurrently. Value <code>"0"</code> means the number of available
+	 * processors, the default is <code>"1"</code> (sequential search).
+	 */
+	public static final String SEARCH_THREADS = ID + ".searchThreads"; //$NON-NLS-1$
+
+	/**
+	 * Option ID for the minimal interval in milliseconds between the commits
+	 * of the index container changes, the default is <code>"30000"</code>.
+	 * Uncommitted changes are visible to searches anyway, commits only make
+	 * them durable.
+	 */
+	public static final String COMMIT_INTERVAL = ID + ".commitInterval"; //$NON-NLS-1$
+
+	/**
+	 * Option ID for the number of changed source modules which makes the
+	 * index container to be committed before the commit interval elapses.
+	 * Value <code>"0"</code> disables the limit, the default is
+	 * <code>"1000"</code>.
+	 */
+	public static final String COMMIT_MAX_DOCUMENTS = ID
+			+ ".commitMaxDocuments"; //$NON-NLS-1$
+
+	/**
+	 * Option ID for the size in megabytes of the index writers RAM buffers
+	 * which makes the index container to be committed before the commit
+	 * interval elapses. Value <code>"0"</code> disables the limit, the
+	 * default is <code>"16"</code>.
+	 */
+	public static final String COMMIT_MAX_RAM = ID + ".commitMaxRAM"; //$NON-NLS-1$
+
 	private static LucenePlugin plugin;
 
 	public static LucenePlugin getDefault() {
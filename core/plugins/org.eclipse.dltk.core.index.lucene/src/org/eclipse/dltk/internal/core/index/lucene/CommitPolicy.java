@@ -0,0 +1,102 @@
+/*******************************************************************************
+ * Copyright (c) 2016 xored software, Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ *******************************************************************************/
+package org.eclipse.dltk.internal.core.index.lucene;
+
+import org.eclipse.core.runtime.Platform;
+import org.eclipse.dltk.core.index.lucene.LucenePlugin;
+
+/**
+ * Policy deciding when the uncommitted changes of the index container should
+ * be committed. Containers are committed when the configured interval since
+ * their last commit elapses or earlier, when the number of changed source
+ * modules or the size of the writers RAM buffers exceeds the configured
+ * limit.
+ *
+ * @see LucenePlugin#COMMIT_INTERVAL
+ * @see LucenePlugin#COMMIT_MAX_DOCUMENTS
+ * @see LucenePlugin#COMMIT_MAX_RAM
+ */
+final class CommitPolicy {
+
+	private static final long DEFAULT_INTERVAL = 30000;
+	private static final long DEFAULT_MAX_DOCUMENTS = 1000;
+	private static final long DEFAULT_MAX_RAM = 16;
+
+	private final long fInterval;
+	private final long fMaxDocuments;
+	private final long fMaxRamBytes;
+
+	CommitPolicy(long interval, long maxDocuments, long maxRamBytes) {
+		fInterval = interval;
+		fMaxDocuments = maxDocuments;
+		fMaxRamBytes = maxRamBytes;
+	}
+
+	/**
+	 * Creates the policy configured with the plug-in options.
+	 *
+	 * @return commit policy
+	 */
+	static CommitPolicy create() {
+		return new CommitPolicy(
+				getOption(LucenePlugin.COMMIT_INTERVAL, DEFAULT_INTERVAL),
+				getOption(LucenePlugin.COMMIT_MAX_DOCUMENTS,
+						DEFAULT_MAX_DOCUMENTS),
+				getOption(LucenePlugin.COMMIT_MAX_RAM, DEFAULT_MAX_RAM) * 1024
+						* 1024);
+	}
+
+	/**
+	 * Checks if the container has exceeded the documents or RAM limit and
+	 * should be committed without waiting for the commit interval.
+	 *
+	 * @param container
+	 * @return <code>true</code> if container should be committed immediately
+	 */
+	boolean isExceeded(IndexContainer container) {
+		if (fMaxDocuments > 0
+				&& container.getPendingDocuments() >= fMaxDocuments) {
+			return true;
+		}
+		return fMaxRamBytes > 0 && container.getRamBytesUsed() >= fMaxRamBytes;
+	}
+
+	/**
+	 * Answers the time in milliseconds to wait before the dirty container
+	 * should be committed, <code>0</code> means it should be committed now.
+	 *
+	 * @param container
+	 * @param now
+	 *            current time in milliseconds
+	 * @return commit delay
+	 */
+	long getDelay(IndexContainer container, long now) {
+		if (isExceeded(container)) {
+			return 0;
+		}
+		return Math.max(0, container.getLastCommit() + fInterval - now);
+	}
+
+	private static long getOption(String key, long defaultValue) {
+		String value = System.getProperty(key);
+		if (value == null && Platform.isRunning()) {
+			value = Platform.getPreferencesService().getString(LucenePlugin.ID,
+					key, null, null);
+		}
+		if (value != null) {
+			try {
+				return Math.max(0, Long.parseLong(value.trim()));
+			} catch (NumberFormatException e) {
+				Logger.logException("Invalid " + key + " value", e); //$NON-NLS-1$ //$NON-NLS-2$
+			}
+		}
+		return defaultValue;
+	}
+
+}
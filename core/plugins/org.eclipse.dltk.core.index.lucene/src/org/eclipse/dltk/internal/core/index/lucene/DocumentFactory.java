@@ -18,6 +18,7 @@ import org.apache.lucene.document.Field;
 import org.apache.lucene.document.NumericDocValuesField;
 import org.apache.lucene.document.StringField;
 import org.apache.lucene.util.BytesRef;
+import org.eclipse.dltk.core.index2.ContentHash;
 import org.eclipse.dltk.core.index2.IIndexingRequestor.DeclarationInfo;
 import org.eclipse.dltk.core.index2.IIndexingRequestor.ReferenceInfo;
 
@@ -99,12 +100,18 @@ public final class DocumentFactory {
 	 * 
 	 * @param source
 	 * @param timestamp
+	 * @param hash
+	 *            content hash or {@link ContentHash#NONE}
 	 * @return a document for source file time stamp
 	 */
-	public static Document createForTimestamp(String source, long timestamp) {
+	public static Document createForTimestamp(String source, long timestamp,
+			long hash) {
 		Document doc = new Document();
 		addStringEntry(doc, F_PATH, source, true);
 		addLongEntry(doc, NDV_TIMESTAMP, timestamp);
+		if (hash != ContentHash.NONE) {
+			addLongEntry(doc, NDV_HASH, hash);
+		}
 		return doc;
 	}
 
@@ -89,6 +89,8 @@ class IndexContainer {
 	private SearcherManager fTimestampsSearcher;
 	private Map<IndexType, Map<Integer, IndexWriter>> fIndexWriters;
 	private Map<IndexType, Map<Integer, SearcherManager>> fIndexSearchers;
+	private long fLastCommit = System.currentTimeMillis();
+	private int fPendingDocuments;
 
 	public IndexContainer(String indexRoot, String containerId) {
 		fIndexRoot = indexRoot;
@@ -214,6 +216,7 @@ class IndexContainer {
 
 	public synchronized void delete(String sourceModule) {
 		Term term = new Term(IndexFields.F_PATH, sourceModule);
+		fPendingDocuments++;
 		try {
 			// Cleanup related time stamp
 			getTimestampsWriter().deleteDocuments(term);
@@ -269,11 +272,41 @@ class IndexContainer {
 					return true;
 				}
 			}
-			if (fTimestampsWriter != null) {
-				return fTimestampsWriter.hasUncommittedChanges();
+		}
+		return fTimestampsWriter != null
+				&& fTimestampsWriter.hasUncommittedChanges();
+	}
+
+	/**
+	 * Answers the number of source modules changed since the last commit.
+	 */
+	synchronized int getPendingDocuments() {
+		return fPendingDocuments;
+	}
+
+	/**
+	 * Answers the time of the last commit (or creation) of this container.
+	 */
+	synchronized long getLastCommit() {
+		return fLastCommit;
+	}
+
+	/**
+	 * Answers the memory used by the RAM buffers of all the writers.
+	 */
+	synchronized long getRamBytesUsed() {
+		long bytes = 0;
+		for (Map<Integer, IndexWriter> dataWriters : fIndexWriters.values()) {
+			for (IndexWriter writer : dataWriters.values()) {
+				if (writer != null) {
+					bytes += writer.ramBytesUsed();
+				}
 			}
 		}
-		return false;
+		if (fTimestampsWriter != null) {
+			bytes += fTimestampsWriter.ramBytesUsed();
+		}
+		return bytes;
 	}
 
 	synchronized void commit(IProgressMonitor monitor, boolean mergeDeletes) {
@@ -298,6 +331,10 @@ class IndexContainer {
 				fTimestampsWriter.commit();
 				subMonitor.worked(1);
 			}
+			if (!subMonitor.isCanceled()) {
+				fLastCommit = System.currentTimeMillis();
+				fPendingDocuments = 0;
+			}
 			subMonitor.done();
 		} catch (IOException e) {
 			Logger.logException(e);
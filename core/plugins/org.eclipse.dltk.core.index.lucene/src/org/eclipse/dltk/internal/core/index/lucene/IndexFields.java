@@ -29,6 +29,7 @@ public final class IndexFields {
 	public static final String F_PARENT = "parent"; //$NON-NLS-1$
 	// Numeric doc values
 	public static final String NDV_TIMESTAMP = "timestampNDV"; //$NON-NLS-1$
+	public static final String NDV_HASH = "hashNDV"; //$NON-NLS-1$
 	public static final String NDV_OFFSET = "offsetNDV"; //$NON-NLS-1$
 	public static final String NDV_LENGTH = "lengthNDV"; //$NON-NLS-1$
 	public static final String NDV_FLAGS = "flagsNDV"; //$NON-NLS-1$
@@ -21,6 +21,8 @@ import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.LeafReader;
 import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.index.NumericDocValues;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.CollectionTerminatedException;
 import org.apache.lucene.search.Collector;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.LeafCollector;
@@ -35,6 +37,8 @@ import org.eclipse.dltk.core.ISourceModule;
 import org.eclipse.dltk.core.environment.EnvironmentPathUtils;
 import org.eclipse.dltk.core.environment.IFileHandle;
 import org.eclipse.dltk.core.index2.AbstractIndexer;
+import org.eclipse.dltk.core.index2.ContentHash;
+import org.eclipse.dltk.core.index2.IIndexerExtension;
 import org.eclipse.dltk.core.index2.search.ISearchEngine;
 import org.eclipse.dltk.internal.core.ExternalSourceModule;
 import org.eclipse.dltk.internal.core.SourceModule;
@@ -46,16 +50,19 @@ import org.eclipse.dltk.internal.core.util.Util;
  * @author Michal Niewrzal, Bartlomiej Laczkowski
  */
 @SuppressWarnings("restriction")
-public class LuceneIndexer extends AbstractIndexer {
+public class LuceneIndexer extends AbstractIndexer
+		implements IIndexerExtension {
 
 	private static final class TimestampsCollector implements Collector {
 
 		private static final Set<String> fFields = Collections
 				.singleton(IndexFields.F_PATH);
 
+		private final String fField;
 		private final Map<String, Long> fResult;
 
-		public TimestampsCollector(Map<String, Long> result) {
+		public TimestampsCollector(String field, Map<String, Long> result) {
+			this.fField = field;
 			this.fResult = result;
 		}
 
@@ -68,8 +75,12 @@ public class LuceneIndexer extends AbstractIndexer {
 		public LeafCollector getLeafCollector(LeafReaderContext context)
 				throws IOException {
 			final LeafReader reader = context.reader();
-			final NumericDocValues timestampField = context.reader()
-					.getNumericDocValues(IndexFields.NDV_TIMESTAMP);
+			final NumericDocValues valueField = context.reader()
+					.getNumericDocValues(fField);
+			if (valueField == null) {
+				// Segment without values (e.g. hashes of older documents)
+				throw new CollectionTerminatedException();
+			}
 			return new LeafCollector() {
 				@Override
 				public void setScorer(Scorer scorer) throws IOException {
@@ -80,7 +91,7 @@ public class LuceneIndexer extends AbstractIndexer {
 				public void collect(int docId) throws IOException {
 					Document document = reader.document(docId, fFields);
 					fResult.put(document.get(IndexFields.F_PATH),
-							timestampField.get(docId));
+							valueField.get(docId));
 				}
 			};
 		}
@@ -97,6 +108,16 @@ public class LuceneIndexer extends AbstractIndexer {
 
 	@Override
 	public Map<String, Long> getDocuments(IPath containerPath) {
+		return getTimestampsValues(containerPath, IndexFields.NDV_TIMESTAMP);
+	}
+
+	@Override
+	public Map<String, Long> getDocumentHashes(IPath containerPath) {
+		return getTimestampsValues(containerPath, IndexFields.NDV_HASH);
+	}
+
+	private Map<String, Long> getTimestampsValues(IPath containerPath,
+			String field) {
 		IndexSearcher indexSearcher = null;
 		String container = containerPath.toString();
 		try {
@@ -104,7 +125,7 @@ public class LuceneIndexer extends AbstractIndexer {
 			indexSearcher = LuceneManager.INSTANCE
 					.findTimestampsSearcher(container).acquire();
 			indexSearcher.search(new MatchAllDocsQuery(),
-					new TimestampsCollector(result));
+					new TimestampsCollector(field, result));
 			return result;
 		} catch (IOException e) {
 			Logger.logException(e);
@@ -121,6 +142,22 @@ public class LuceneIndexer extends AbstractIndexer {
 		return Collections.emptyMap();
 	}
 
+	@Override
+	public void updateTimestamps(IPath containerPath,
+			Map<String, Long> timestamps) {
+		IndexWriter writer = LuceneManager.INSTANCE
+				.findTimestampsWriter(containerPath.toString());
+		for (Map.Entry<String, Long> entry : timestamps.entrySet()) {
+			try {
+				writer.updateNumericDocValue(
+						new Term(IndexFields.F_PATH, entry.getKey()),
+						IndexFields.NDV_TIMESTAMP, entry.getValue());
+			} catch (IOException e) {
+				Logger.logException(e);
+			}
+		}
+	}
+
 	@Override
 	public void addDeclaration(DeclarationInfo info) {
 		IndexWriter writer = LuceneManager.INSTANCE.findIndexWriter(fContainer,
@@ -155,13 +192,16 @@ public class LuceneIndexer extends AbstractIndexer {
 		}
 		resetDocument(sourceModule, toolkit);
 		long lastModified = fileHandle == null ? 0 : fileHandle.lastModified();
+		// the hash computed when the changes were analyzed, if any
+		long hash = ContentHash.getRemembered(sourceModule);
 		// Cleanup and write new info...
 		LuceneManager.INSTANCE.delete(fContainer, fFile);
 		IndexWriter indexWriter = LuceneManager.INSTANCE
 				.findTimestampsWriter(fContainer);
 		try {
 			indexWriter.addDocument(
-					DocumentFactory.createForTimestamp(fFile, lastModified));
+					DocumentFactory.createForTimestamp(fFile, lastModified,
+							hash));
 		} catch (Exception e) {
 			Logger.logException(e);
 		}
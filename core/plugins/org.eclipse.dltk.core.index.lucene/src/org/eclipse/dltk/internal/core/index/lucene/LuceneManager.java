@@ -94,11 +94,27 @@ public enum LuceneManager {
 			if (dirtyContainers.isEmpty()) {
 				return Status.CANCEL_STATUS;
 			}
-			int containersNumber = dirtyContainers.size();
+			/*
+			 * Commit only the containers due according to the policy, the
+			 * searchers see the uncommitted changes anyway (near real-time
+			 * readers opened on the writers), so the commits are needed for
+			 * durability only.
+			 */
+			long now = System.currentTimeMillis();
+			long nextDelay = Long.MAX_VALUE;
+			List<IndexContainer> dueContainers = new ArrayList<>();
+			for (IndexContainer indexContainer : dirtyContainers) {
+				long delay = fCommitPolicy.getDelay(indexContainer, now);
+				if (delay == 0) {
+					dueContainers.add(indexContainer);
+				} else {
+					nextDelay = Math.min(nextDelay, delay);
+				}
+			}
 			SubMonitor subMonitor = SubMonitor.convert(monitor,
-					containersNumber);
+					dueContainers.size());
 			try {
-				for (IndexContainer indexContainer : dirtyContainers) {
+				for (IndexContainer indexContainer : dueContainers) {
 					if (!monitor.isCanceled()) {
 						// Commit index data without merging deletions (better performance)
 						indexContainer.commit(subMonitor.newChild(1), false);
@@ -108,6 +124,14 @@ public enum LuceneManager {
 			} catch (Exception e) {
 				Logger.logException(e);
 			}
+			if (nextDelay != Long.MAX_VALUE && !monitor.isCanceled()) {
+				// Come back when the remaining containers are due
+				synchronized (this) {
+					if (!fClosed) {
+						schedule(nextDelay);
+					}
+				}
+			}
 			return Status.OK_STATUS;
 		}
 
@@ -134,6 +158,19 @@ public enum LuceneManager {
 			}
 		}
 
+		synchronized void commitNow() {
+			if (fClosed) {
+				return;
+			}
+			int currentState = getState();
+			if (currentState == NONE || currentState == RUNNING) {
+				// Running job is rescheduled as soon as it finishes
+				schedule();
+			} else if (currentState == SLEEPING) {
+				wakeUp();
+			}
+		}
+
 		synchronized void close() {
 			if (!fClosed) {
 				cancel();
@@ -202,12 +239,14 @@ public enum LuceneManager {
 	private final Properties fContainerMappings;
 	private final Map<String, IndexContainer> fIndexContainers;
 	private final Committer fCommitter;
+	private final CommitPolicy fCommitPolicy;
 
 	private LuceneManager() {
 		fIndexProperties = new Properties();
 		fContainerMappings = new Properties();
 		fIndexContainers = new ConcurrentHashMap<>();
 		fCommitter = new Committer();
+		fCommitPolicy = CommitPolicy.create();
 		fIndexRoot = Platform
 				.getStateLocation(LucenePlugin.getDefault().getBundle())
 				.append(INDEX_DIR).toOSString();
@@ -286,7 +325,12 @@ public enum LuceneManager {
 	 */
 	public final void delete(String container, String sourceModule) {
 		if (fContainerMappings.getProperty(container) != null) {
-			getIndexContainer(container).delete(sourceModule);
+			IndexContainer indexContainer = getIndexContainer(container);
+			indexContainer.delete(sourceModule);
+			// Do not wait for the indexer to be idle if too much is pending
+			if (fCommitPolicy.isExceeded(indexContainer)) {
+				fCommitter.commitNow();
+			}
 		}
 	}
 
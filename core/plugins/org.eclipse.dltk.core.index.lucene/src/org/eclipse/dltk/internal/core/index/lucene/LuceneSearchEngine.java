@@ -17,6 +17,17 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.lucene.index.BinaryDocValues;
 import org.apache.lucene.index.LeafReader;
@@ -25,6 +36,7 @@ import org.apache.lucene.index.NumericDocValues;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.search.BooleanClause.Occur;
 import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.CollectionTerminatedException;
 import org.apache.lucene.search.Collector;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.LeafCollector;
@@ -38,7 +50,10 @@ import org.apache.lucene.search.WildcardQuery;
 import org.apache.lucene.util.BytesRef;
 import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.Platform;
+import org.eclipse.dltk.core.ISourceModule;
 import org.eclipse.dltk.core.ScriptModelUtil;
+import org.eclipse.dltk.core.index.lucene.LucenePlugin;
 import org.eclipse.dltk.core.index2.search.ISearchEngineExtension;
 import org.eclipse.dltk.core.index2.search.ISearchRequestor;
 import org.eclipse.dltk.core.search.IDLTKSearchScope;
@@ -92,7 +107,13 @@ public class LuceneSearchEngine implements ISearchEngineExtension {
 
 	}
 
-	private static final class ResultsCollector implements Collector {
+	private static final long WAIT_INTERVAL = 100;
+
+	private static ExecutorService fExecutor;
+
+	private static int fSearchThreads;
+
+	private static abstract class ResultsCollector implements Collector {
 
 		private static final String[] NUMERIC_FIELDS = new String[] {
 				NDV_OFFSET, NDV_LENGTH, NDV_FLAGS, NDV_NAME_OFFSET,
@@ -103,24 +124,49 @@ public class LuceneSearchEngine implements ISearchEngineExtension {
 		private Map<String, NumericDocValues> fDocNumericValues;
 		private Map<String, BinaryDocValues> fDocBinaryValues;
 		private String fContainer;
-		private int fElementType;
-		private List<SearchMatch> fResult;
+		private final int fElementType;
+		private final int fLimit;
+		private final IProgressMonitor fMonitor;
+		private int fCount;
 
-		public ResultsCollector(String container, int elementType,
-				List<SearchMatch> result) {
-			this.fContainer = container;
+		public ResultsCollector(int elementType, int limit,
+				IProgressMonitor monitor) {
 			this.fElementType = elementType;
-			this.fResult = result;
+			this.fLimit = limit;
+			this.fMonitor = monitor;
+		}
+
+		public void setContainer(String container) {
+			this.fContainer = container;
+		}
+
+		/**
+		 * Answers if no more results should be collected, because the limit
+		 * is reached or the search is canceled.
+		 */
+		public boolean isTerminated() {
+			return (fLimit > 0 && fCount >= fLimit)
+					|| (fMonitor != null && fMonitor.isCanceled());
 		}
 
+		/**
+		 * Accepts the found match.
+		 * 
+		 * @return <code>true</code> if the match is counted as the result
+		 */
+		protected abstract boolean accept(SearchMatch match);
+
 		@Override
 		public boolean needsScores() {
-			return true;
+			return false;
 		}
 
 		@Override
 		public LeafCollector getLeafCollector(final LeafReaderContext context)
 				throws IOException {
+			if (isTerminated()) {
+				throw new CollectionTerminatedException();
+			}
 			final LeafReader reader = context.reader();
 			fDocNumericValues = new HashMap<>();
 			for (String field : NUMERIC_FIELDS) {
@@ -144,13 +190,16 @@ public class LuceneSearchEngine implements ISearchEngineExtension {
 
 				@Override
 				public void collect(int docId) throws IOException {
+					if (isTerminated()) {
+						throw new CollectionTerminatedException();
+					}
 					addResult(docId);
 				}
 			};
 		}
 
 		private void addResult(int docId) {
-			fResult.add(new SearchMatch(fContainer, fElementType,
+			SearchMatch match = new SearchMatch(fContainer, fElementType,
 					getNumericValue(NDV_OFFSET, docId),
 					getNumericValue(NDV_LENGTH, docId),
 					getNumericValue(NDV_NAME_OFFSET, docId),
@@ -161,7 +210,10 @@ public class LuceneSearchEngine implements ISearchEngineExtension {
 					getStringValue(BDV_PARENT, docId),
 					getStringValue(BDV_QUALIFIER, docId),
 					getStringValue(BDV_DOC, docId),
-					getStringValue(BDV_METADATA, docId)));
+					getStringValue(BDV_METADATA, docId));
+			if (accept(match)) {
+				fCount++;
+			}
 		}
 
 		private int getNumericValue(String field, int docId) {
@@ -267,40 +319,256 @@ public class LuceneSearchEngine implements ISearchEngineExtension {
 			ISearchRequestor requestor, IProgressMonitor monitor) {
 		Query query = createQuery(elementName, qualifier, parent, trueFlags,
 				falseFlags, searchForRefs, matchRule, scope);
-		IndexSearcher indexSearcher = null;
+		if (query == null) {
+			query = new MatchAllDocsQuery();
+		}
+		final List<String> containers = SearchScope.getContainers(scope);
+		if (containers.size() > 1 && getSearchThreads() > 1) {
+			doParallelSearch(query, containers, elementType, limit,
+					searchForRefs, scope, requestor, monitor);
+			return;
+		}
 		final SearchMatchHandler searchMatchHandler = new SearchMatchHandler(
 				scope, requestor);
-		List<SearchMatch> results = new ArrayList<>();
-		for (String container : SearchScope.getContainers(scope)) {
-			SearcherManager searcherManager = LuceneManager.INSTANCE
-					.findIndexSearcher(container, searchForRefs
-							? IndexType.REFERENCES : IndexType.DECLARATIONS,
-							elementType);
-			try {
-				indexSearcher = searcherManager.acquire();
-				ResultsCollector collector = new ResultsCollector(container,
-						elementType, results);
-				if (query != null) {
-					indexSearcher.search(query, collector);
-				} else {
-					indexSearcher.search(new MatchAllDocsQuery(), collector);
+		final ResultsCollector collector = new ResultsCollector(elementType,
+				limit, monitor) {
+			@Override
+			protected boolean accept(SearchMatch match) {
+				// Pass result to entity handler as soon as it is found
+				return searchMatchHandler.handle(match, searchForRefs);
+			}
+		};
+		for (String container : containers) {
+			if (collector.isTerminated()) {
+				break;
+			}
+			searchContainer(container, query, elementType, searchForRefs,
+					collector);
+		}
+	}
+
+	private void searchContainer(String container, Query query,
+			int elementType, boolean searchForRefs, ResultsCollector collector) {
+		SearcherManager searcherManager = LuceneManager.INSTANCE
+				.findIndexSearcher(container, searchForRefs
+						? IndexType.REFERENCES : IndexType.DECLARATIONS,
+						elementType);
+		IndexSearcher indexSearcher = null;
+		try {
+			indexSearcher = searcherManager.acquire();
+			collector.setContainer(container);
+			indexSearcher.search(query, collector);
+		} catch (IOException e) {
+			Logger.logException(e);
+		} finally {
+			if (indexSearcher != null) {
+				try {
+					searcherManager.release(indexSearcher);
+				} catch (IOException e) {
+					Logger.logException(e);
 				}
-			} catch (IOException e) {
-				Logger.logException(e);
-			} finally {
-				if (indexSearcher != null) {
+			}
+		}
+	}
+
+	/**
+	 * Matches found in the single container together with the source modules
+	 * they were resolved to.
+	 */
+	private static final class ContainerResults {
+
+		final List<SearchMatch> matches = new ArrayList<>();
+		final List<ISourceModule> modules = new ArrayList<>();
+
+	}
+
+	/**
+	 * Number of the matches found in the leading containers, which completed
+	 * their search. Once it reaches the limit the matches of the following
+	 * containers would not be reported.
+	 */
+	private static final class SearchProgress {
+
+		private final int[] fFound;
+		private final boolean[] fCompleted;
+		private int fNext;
+		private int fTotal;
+
+		SearchProgress(int containers) {
+			fFound = new int[containers];
+			fCompleted = new boolean[containers];
+		}
+
+		/**
+		 * Records the matches of the completed container and returns the
+		 * number of the matches in the leading completed containers.
+		 */
+		synchronized int complete(int container, int found) {
+			fFound[container] = found;
+			fCompleted[container] = true;
+			while (fNext < fCompleted.length && fCompleted[fNext]) {
+				fTotal += fFound[fNext++];
+			}
+			return fTotal;
+		}
+
+	}
+
+	/**
+	 * Searches the containers concurrently. The matches of every container
+	 * are resolved by the worker threads, but passed to the requestor on the
+	 * calling thread in the order of the containers, so the results are the
+	 * same as the sequential search produces. Every container is searched up
+	 * to the limit, the remaining searches are stopped as soon as the leading
+	 * containers contain enough matches.
+	 */
+	private void doParallelSearch(final Query query, List<String> containers,
+			final int elementType, final int limit,
+			final boolean searchForRefs, final IDLTKSearchScope scope,
+			final ISearchRequestor requestor, final IProgressMonitor monitor) {
+		final AtomicBoolean stopped = new AtomicBoolean();
+		final SearchProgress progress = new SearchProgress(containers.size());
+		final List<Future<ContainerResults>> futures = new ArrayList<>();
+		for (int index = 0; index < containers.size(); ++index) {
+			final int containerIndex = index;
+			final String container = containers.get(index);
+			futures.add(getExecutor().submit(new Callable<ContainerResults>() {
+				@Override
+				public ContainerResults call() throws Exception {
+					final ContainerResults results = new ContainerResults();
+					final SearchMatchHandler resolver = new SearchMatchHandler(
+							scope, requestor);
+					ResultsCollector collector = new ResultsCollector(
+							elementType, limit, monitor) {
+						@Override
+						public boolean isTerminated() {
+							return stopped.get() || super.isTerminated();
+						}
+
+						@Override
+						protected boolean accept(SearchMatch match) {
+							ISourceModule module = resolver.resolve(match);
+							if (module == null) {
+								return false;
+							}
+							results.matches.add(match);
+							results.modules.add(module);
+							return true;
+						}
+					};
 					try {
-						searcherManager.release(indexSearcher);
-					} catch (IOException e) {
-						Logger.logException(e);
+						if (!collector.isTerminated()) {
+							searchContainer(container, query, elementType,
+									searchForRefs, collector);
+						}
+					} finally {
+						final int found = progress.complete(containerIndex,
+								results.matches.size());
+						if (limit > 0 && found >= limit) {
+							stopped.set(true);
+						}
+					}
+					return results;
+				}
+			}));
+		}
+		final SearchMatchHandler searchMatchHandler = new SearchMatchHandler(
+				scope, requestor);
+		int count = 0;
+		try {
+			for (Future<ContainerResults> future : futures) {
+				ContainerResults results = waitFor(future, monitor);
+				if (results == null) {
+					return;
+				}
+				for (int i = 0; i < results.matches.size(); ++i) {
+					searchMatchHandler.report(results.matches.get(i),
+							results.modules.get(i), searchForRefs);
+					if (limit > 0 && ++count >= limit) {
+						return;
 					}
 				}
 			}
+		} finally {
+			stopped.set(true);
+			for (Future<ContainerResults> future : futures) {
+				future.cancel(false);
+			}
 		}
-		// Pass results to entity handler
-		for (SearchMatch result : results) {
-			searchMatchHandler.handle(result, searchForRefs);
+	}
+
+	/**
+	 * Waits for the container search to complete, returns <code>null</code>
+	 * if the search was canceled.
+	 */
+	private static ContainerResults waitFor(Future<ContainerResults> future,
+			IProgressMonitor monitor) {
+		for (;;) {
+			if (monitor != null && monitor.isCanceled()) {
+				return null;
+			}
+			try {
+				return future.get(WAIT_INTERVAL, TimeUnit.MILLISECONDS);
+			} catch (TimeoutException e) {
+				// check the monitor again
+			} catch (ExecutionException e) {
+				Logger.logException(e.getCause());
+				return new ContainerResults();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return null;
+			}
+		}
+	}
+
+	private static synchronized ExecutorService getExecutor() {
+		if (fExecutor == null) {
+			final int threads = getSearchThreads();
+			ThreadPoolExecutor executor = new ThreadPoolExecutor(threads,
+					threads, 30, TimeUnit.SECONDS,
+					new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+						private final AtomicInteger fCount = new AtomicInteger();
+
+						@Override
+						public Thread newThread(Runnable r) {
+							Thread thread = new Thread(r,
+									"Lucene Search Worker #" //$NON-NLS-1$
+											+ fCount.incrementAndGet());
+							thread.setDaemon(true);
+							return thread;
+						}
+					});
+			executor.allowCoreThreadTimeOut(true);
+			fExecutor = executor;
+		}
+		return fExecutor;
+	}
+
+	/**
+	 * Answers the number of threads searching the containers concurrently,
+	 * configured with the {@link LucenePlugin#SEARCH_THREADS} option.
+	 */
+	private static synchronized int getSearchThreads() {
+		if (fSearchThreads == 0) {
+			fSearchThreads = 1;
+			String value = System.getProperty(LucenePlugin.SEARCH_THREADS);
+			if (value == null && Platform.isRunning()) {
+				value = Platform.getPreferencesService().getString(
+						LucenePlugin.ID, LucenePlugin.SEARCH_THREADS, null,
+						null);
+			}
+			if (value != null) {
+				try {
+					int threads = Integer.parseInt(value.trim());
+					fSearchThreads = threads > 0 ? threads
+							: Runtime.getRuntime().availableProcessors();
+				} catch (NumberFormatException e) {
+					Logger.logException("Invalid " //$NON-NLS-1$
+							+ LucenePlugin.SEARCH_THREADS + " value", e); //$NON-NLS-1$
+				}
+			}
 		}
+		return fSearchThreads;
 	}
 
 }
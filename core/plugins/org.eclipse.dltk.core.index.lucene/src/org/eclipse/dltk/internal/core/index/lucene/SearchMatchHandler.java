@@ -87,8 +87,25 @@ public class SearchMatchHandler {
 	 * 
 	 * @param match
 	 * @param isReference
+	 * @return <code>true</code> if the match was reported to the requestor
 	 */
-	public void handle(SearchMatch match, boolean isReference) {
+	public boolean handle(SearchMatch match, boolean isReference) {
+		ISourceModule sourceModule = resolve(match);
+		if (sourceModule == null) {
+			return false;
+		}
+		report(match, sourceModule, isReference);
+		return true;
+	}
+
+	/**
+	 * Finds the source module of the search match.
+	 * 
+	 * @param match
+	 * @return source module or <code>null</code> if the match is outside of
+	 *         the search scope
+	 */
+	public ISourceModule resolve(SearchMatch match) {
 		String containerPath = match.container;
 		IDLTKLanguageToolkit toolkit = ((DLTKSearchScope) fScope)
 				.getLanguageToolkit();
@@ -116,10 +133,10 @@ public class SearchMatchHandler {
 			fProjectFragmentCache.put(containerPath, projectFragment);
 		}
 		if (projectFragment == null) {
-			return;
+			return null;
 		}
 		if (!fScope.encloses(resourcePath)) {
-			return;
+			return null;
 		}
 		ISourceModule sourceModule = fSourceModuleCache.get(resourcePath);
 		if (sourceModule == null) {
@@ -152,10 +169,22 @@ public class SearchMatchHandler {
 			}
 			fSourceModuleCache.put(resourcePath, sourceModule);
 		}
-		String name = match.elementName;
-		if (name == null) {
-			return;
+		if (match.elementName == null) {
+			return null;
 		}
+		return sourceModule;
+	}
+
+	/**
+	 * Passes the resolved search match to the requestor.
+	 * 
+	 * @param match
+	 * @param sourceModule
+	 * @param isReference
+	 */
+	public void report(SearchMatch match, ISourceModule sourceModule,
+			boolean isReference) {
+		String name = match.elementName;
 		ModelManager modelManager = ModelManager.getModelManager();
 		name = modelManager.intern(name);
 		// Pass to requestor
@@ -163,7 +192,6 @@ public class SearchMatchHandler {
 				match.length, match.nameOffset, match.nameLength, name,
 				match.metadata, match.doc, match.qualifier, match.parent,
 				sourceModule, isReference);
-
 	}
 
 }
\ No newline at end of file
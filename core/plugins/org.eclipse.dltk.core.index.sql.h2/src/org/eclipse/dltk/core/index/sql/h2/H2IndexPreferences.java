@@ -56,6 +56,15 @@ public class H2IndexPreferences extends AbstractPreferenceInitializer {
 	 */
 	public static final String DB_LARGE_RESULT_BUFFER_SIZE = "largeResultBufferSize"; //$NON-NLS-1$
 
+	/**
+	 * Number of the rows inserted into the elements table as a single batch,
+	 * <code>0</code> means the rows are inserted when the whole file is
+	 * indexed.
+	 * 
+	 * @since 5.6
+	 */
+	public static final String DB_BATCH_SIZE = "batchSize"; //$NON-NLS-1$
+
 	/**
 	 * Schema version
 	 */
@@ -71,5 +80,6 @@ public class H2IndexPreferences extends AbstractPreferenceInitializer {
 		p.putInt(DB_LOCK_MODE, 0); // no transaction isolation
 		p.putInt(DB_QUERY_CACHE_SIZE, 32); // last 32 statements
 		p.putInt(DB_LARGE_RESULT_BUFFER_SIZE, 16384); // x4 default value
+		p.putInt(DB_BATCH_SIZE, 1000);
 	}
 }
@@ -13,170 +13,146 @@ package org.eclipse.dltk.internal.core.index.sql.h2;
 
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
-import java.util.Iterator;
-import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
-import org.eclipse.core.runtime.jobs.ILock;
-import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.dltk.core.index.sql.Container;
 import org.eclipse.dltk.core.index.sql.File;
 
 /**
- * This is a cache layer between H2 database and model access
+ * This is a cache layer between H2 database and model access. The lookups by
+ * identifier and by path are served from the concurrent maps without locking,
+ * updates are serialized to keep the indexes consistent.
  * 
  * @author michael
  */
 public class H2Cache {
 
-	private static final ILock containerLock = Job.getJobManager().newLock();
-	private static final Map<Integer, Container> containerById = new HashMap<Integer, Container>();
+	/**
+	 * Files of the single container indexed by identifier and by path
+	 */
+	private static class ContainerFiles {
+		final ConcurrentMap<Integer, File> byId = new ConcurrentHashMap<Integer, File>();
+		final ConcurrentMap<String, File> byPath = new ConcurrentHashMap<String, File>();
+	}
+
+	private static final Object updateLock = new Object();
+
+	private static final ConcurrentMap<Integer, Container> containerById = new ConcurrentHashMap<Integer, Container>();
+	private static final ConcurrentMap<String, Container> containerByPath = new ConcurrentHashMap<String, Container>();
 
-	private static final ILock fileLock = Job.getJobManager().newLock();
-	private static final Map<Integer, Map<Integer, File>> filesByContainer = new HashMap<Integer, Map<Integer, File>>();
+	private static final ConcurrentMap<Integer, File> fileById = new ConcurrentHashMap<Integer, File>();
+	private static final ConcurrentMap<Integer, ContainerFiles> filesByContainer = new ConcurrentHashMap<Integer, ContainerFiles>();
 
 	public static void addContainer(Container container) {
-		containerLock.acquire();
-		try {
+		synchronized (updateLock) {
 			int containerId = container.getId();
-			containerById.put(containerId, container);
-		} finally {
-			containerLock.release();
+			Container old = containerById.put(containerId, container);
+			if (old != null) {
+				containerByPath.remove(old.getPath(), old);
+			}
+			old = containerByPath.put(container.getPath(), container);
+			if (old != null && old.getId() != containerId) {
+				containerById.remove(old.getId(), old);
+			}
 		}
 	}
 
 	public static void addFile(File file) {
-		fileLock.acquire();
-		try {
+		synchronized (updateLock) {
+			int id = file.getId();
+			removeFile(fileById.get(id));
 			int containerId = file.getContainerId();
-			Map<Integer, File> files = filesByContainer.get(containerId);
+			ContainerFiles files = filesByContainer.get(containerId);
 			if (files == null) {
-				files = new HashMap<Integer, File>();
+				files = new ContainerFiles();
 				filesByContainer.put(containerId, files);
 			}
-			files.put(file.getId(), file);
-		} finally {
-			fileLock.release();
+			File old = files.byPath.put(file.getPath(), file);
+			if (old != null && old.getId() != id) {
+				files.byId.remove(old.getId(), old);
+				fileById.remove(old.getId(), old);
+			}
+			files.byId.put(id, file);
+			fileById.put(id, file);
+		}
+	}
+
+	/**
+	 * Removes the file from all the indexes, should be called holding the
+	 * {@link #updateLock}.
+	 */
+	private static void removeFile(File file) {
+		if (file == null) {
+			return;
+		}
+		fileById.remove(file.getId(), file);
+		ContainerFiles files = filesByContainer.get(file.getContainerId());
+		if (files != null) {
+			files.byId.remove(file.getId(), file);
+			files.byPath.remove(file.getPath(), file);
 		}
 	}
 
 	public static void deleteContainerById(int id) {
-		containerLock.acquire();
-		try {
-			containerById.remove(id);
+		synchronized (updateLock) {
+			Container container = containerById.remove(id);
+			if (container != null) {
+				containerByPath.remove(container.getPath(), container);
+			}
 			deleteFilesByContainerId(id);
-		} finally {
-			containerLock.release();
 		}
 	}
 
 	public static void deleteContainerByPath(String path) {
-		containerLock.acquire();
-		try {
-			Container container = selectContainerByPath(path);
+		synchronized (updateLock) {
+			Container container = containerByPath.get(path);
 			if (container != null) {
 				deleteContainerById(container.getId());
 			}
-		} finally {
-			containerLock.release();
 		}
 	}
 
 	public static void deleteFileByContainerIdAndPath(int containerId,
 			String path) {
-		fileLock.acquire();
-		try {
-			File file = selectFileByContainerIdAndPath(containerId, path);
-			if (file != null) {
-				deleteFileById(file.getId());
-			}
-		} finally {
-			fileLock.release();
+		synchronized (updateLock) {
+			removeFile(selectFileByContainerIdAndPath(containerId, path));
 		}
 	}
 
 	public static void deleteFileById(int id) {
-		fileLock.acquire();
-		try {
-			Iterator<Map<Integer, File>> i = filesByContainer.values()
-					.iterator();
-			while (i.hasNext()) {
-				i.next().remove(id);
-			}
-		} finally {
-			fileLock.release();
+		synchronized (updateLock) {
+			removeFile(fileById.get(id));
 		}
 	}
 
 	public static void deleteFilesByContainerId(int id) {
-		fileLock.acquire();
-		try {
-			filesByContainer.remove(id);
-		} finally {
-			fileLock.release();
+		synchronized (updateLock) {
+			ContainerFiles files = filesByContainer.remove(id);
+			if (files != null) {
+				for (File file : files.byId.values()) {
+					fileById.remove(file.getId(), file);
+				}
+			}
 		}
 	}
 
 	public static Container selectContainerById(int id) {
-		containerLock.acquire();
-		try {
-			return containerById.get(id);
-		} finally {
-			containerLock.release();
-		}
+		return containerById.get(id);
 	}
 
 	public static Container selectContainerByPath(String path) {
-		containerLock.acquire();
-		try {
-			Iterator<Container> i = containerById.values().iterator();
-			while (i.hasNext()) {
-				Container container = i.next();
-				if (container.getPath().equals(path)) {
-					return container;
-				}
-			}
-			return null;
-		} finally {
-			containerLock.release();
-		}
+		return containerByPath.get(path);
 	}
 
 	public static File selectFileByContainerIdAndPath(int containerId,
 			String path) {
-		fileLock.acquire();
-		try {
-			Map<Integer, File> files = filesByContainer.get(containerId);
-			if (files != null) {
-				Iterator<File> i = files.values().iterator();
-				while (i.hasNext()) {
-					File file = i.next();
-					if (file.getPath().equals(path)) {
-						return file;
-					}
-				}
-			}
-		} finally {
-			fileLock.release();
-		}
-		return null;
+		ContainerFiles files = filesByContainer.get(containerId);
+		return files != null ? files.byPath.get(path) : null;
 	}
 
 	public static File selectFileById(int id) {
-		fileLock.acquire();
-		try {
-			Iterator<Map<Integer, File>> i = filesByContainer.values()
-					.iterator();
-			while (i.hasNext()) {
-				File file = i.next().get(id);
-				if (file != null) {
-					return file;
-				}
-			}
-			return null;
-		} finally {
-			fileLock.release();
-		}
+		return fileById.get(id);
 	}
 
 	/**
@@ -184,29 +160,19 @@ public class H2Cache {
 	 * @deprecated Use {@link #selectFilesByContainerIdAsArray(int)}
 	 */
 	public static Collection<File> selectFilesByContainerId(int id) {
-		fileLock.acquire();
-		try {
-			Map<Integer, File> files = filesByContainer.get(id);
-			if (files != null) {
-				return files.values();
-			}
-			return Collections.emptyList();
-		} finally {
-			fileLock.release();
+		ContainerFiles files = filesByContainer.get(id);
+		if (files != null) {
+			return files.byId.values();
 		}
+		return Collections.emptyList();
 	}
 
 	public static File[] selectFilesByContainerIdAsArray(int id) {
-		fileLock.acquire();
-		try {
-			Map<Integer, File> files = filesByContainer.get(id);
-			if (files != null) {
-				return files.values().toArray(new File[files.values().size()]);
-			}
-			return null;
-		} finally {
-			fileLock.release();
+		ContainerFiles files = filesByContainer.get(id);
+		if (files != null) {
+			return files.byId.values().toArray(new File[0]);
 		}
+		return null;
 	}
 
 }
@@ -22,10 +22,12 @@ import java.util.Map;
 import java.util.regex.Pattern;
 
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.Platform;
 import org.eclipse.dltk.core.index.sql.Element;
 import org.eclipse.dltk.core.index.sql.IElementDao;
 import org.eclipse.dltk.core.index.sql.IElementHandler;
 import org.eclipse.dltk.core.index.sql.h2.H2Index;
+import org.eclipse.dltk.core.index.sql.h2.H2IndexPreferences;
 import org.eclipse.dltk.core.index2.search.ISearchEngine.MatchRule;
 import org.eclipse.dltk.internal.core.ModelManager;
 import org.eclipse.osgi.util.NLS;
@@ -51,12 +53,33 @@ public class H2ElementDao implements IElementDao {
 	/** Cache for insert element reference queries */
 	private static final Map<String, String> D_INSERT_QUERY_CACHE = new HashMap<String, String>();
 
+	/**
+	 * Batch insert statement together with the number of the pending rows
+	 */
+	private static class BatchStatement {
+		final PreparedStatement statement;
+		int size;
+
+		BatchStatement(PreparedStatement statement) {
+			this.statement = statement;
+		}
+	}
+
 	private final ModelManager modelManager;
-	private final Map<String, PreparedStatement> batchStatements;
+	private final int batchSize;
+
+	/**
+	 * Insert statements prepared for the current connection, they are reused
+	 * until the connection changes or is closed
+	 */
+	private final Map<String, BatchStatement> batchStatements;
+	private Connection batchConnection;
 
 	public H2ElementDao() {
 		this.modelManager = ModelManager.getModelManager();
-		this.batchStatements = new HashMap<String, PreparedStatement>();
+		this.batchStatements = new HashMap<String, BatchStatement>();
+		this.batchSize = Platform.getPreferencesService().getInt(
+				H2Index.PLUGIN_ID, H2IndexPreferences.DB_BATCH_SIZE, 0, null);
 	}
 
 	private String getTableName(Connection connection, int elementType,
@@ -139,31 +162,71 @@ public class H2ElementDao implements IElementDao {
 			}
 		}
 		synchronized (batchStatements) {
-			PreparedStatement statement = batchStatements.get(query);
-			if (statement == null) {
-				statement = connection.prepareStatement(query);
-				batchStatements.put(query, statement);
+			if (connection != batchConnection || batchConnection.isClosed()) {
+				if (batchConnection != null && !batchConnection.isClosed()) {
+					// the rows inserted using the previous connection are not
+					// lost
+					try {
+						executeBatches();
+					} catch (SQLException e) {
+						H2Index.error(
+								"An exception was thrown while inserting pending model elements", //$NON-NLS-1$
+								e);
+					}
+				}
+				closeStatements();
+				batchConnection = connection;
+			}
+			BatchStatement batch = batchStatements.get(query);
+			if (batch == null) {
+				batch = new BatchStatement(connection.prepareStatement(query));
+				batchStatements.put(query, batch);
+			}
+			insertBatch(connection, batch.statement, type, flags, offset,
+					length, nameOffset, nameLength, name, metadata, doc,
+					qualifier, parent, fileId, natureId, isReference);
+			if (++batch.size >= batchSize && batchSize > 0) {
+				batch.size = 0;
+				batch.statement.executeBatch();
 			}
-			insertBatch(connection, statement, type, flags, offset, length,
-					nameOffset, nameLength, name, metadata, doc, qualifier,
-					parent, fileId, natureId, isReference);
 		}
 	}
 
+	/**
+	 * Executes the pending batches, so it should be called before the
+	 * connection is committed. The prepared statements are kept for the next
+	 * insertions using the same connection.
+	 */
 	public void commitInsertions() throws SQLException {
 		synchronized (batchStatements) {
+			executeBatches();
+		}
+	}
+
+	private void executeBatches() throws SQLException {
+		for (BatchStatement batch : batchStatements.values()) {
+			if (batch.size != 0) {
+				batch.size = 0;
+				batch.statement.executeBatch();
+			}
+		}
+	}
+
+	/**
+	 * Closes the statements prepared for the previous connection.
+	 */
+	private void closeStatements() {
+		for (BatchStatement batch : batchStatements.values()) {
 			try {
-				for (PreparedStatement statement : batchStatements.values()) {
-					try {
-						statement.executeBatch();
-					} finally {
-						statement.close();
-					}
-				}
-			} finally {
-				batchStatements.clear();
+				batch.statement.close();
+			} catch (SQLException e) {
+				H2Index.error(
+						"An exception was thrown while closing insert statement", //$NON-NLS-1$
+						e);
 			}
 		}
+		batchStatements.clear();
+		batchConnection = null;
 	}
 
 	public void search(Connection connection, String pattern,
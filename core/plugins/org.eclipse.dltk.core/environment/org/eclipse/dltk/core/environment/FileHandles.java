@@ -12,6 +12,10 @@
 package org.eclipse.dltk.core.environment;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 import org.eclipse.core.filesystem.EFS;
 import org.eclipse.core.filesystem.IFileStore;
@@ -50,6 +54,63 @@ public class FileHandles {
 		return result;
 	}
 
+	/**
+	 * Returns the last modified times of the specified files in the same
+	 * order. The files of each environment are queried with a single request
+	 * if the environment adapts to {@link IFileStatProvider}, otherwise one
+	 * by one.
+	 * 
+	 * @since 5.6
+	 */
+	public static long[] lastModified(IFileHandle[] files) {
+		final long[] result = new long[files.length];
+		final Map<IEnvironment, List<Integer>> byEnvironment = new LinkedHashMap<IEnvironment, List<Integer>>();
+		for (int i = 0; i < files.length; ++i) {
+			final IEnvironment environment = files[i].getEnvironment();
+			List<Integer> indexes = byEnvironment.get(environment);
+			if (indexes == null) {
+				indexes = new ArrayList<Integer>();
+				byEnvironment.put(environment, indexes);
+			}
+			indexes.add(i);
+		}
+		for (Map.Entry<IEnvironment, List<Integer>> entry : byEnvironment
+				.entrySet()) {
+			final List<Integer> indexes = entry.getValue();
+			final IFileStatProvider provider = entry.getKey() != null
+					? entry.getKey().getAdapter(IFileStatProvider.class)
+					: null;
+			long[] stamps = null;
+			if (provider != null) {
+				final IFileHandle[] batch = new IFileHandle[indexes.size()];
+				for (int i = 0; i < batch.length; ++i) {
+					batch[i] = files[indexes.get(i)];
+				}
+				stamps = provider.lastModified(batch);
+			}
+			for (int i = 0; i < indexes.size(); ++i) {
+				final int index = indexes.get(i);
+				result[index] = stamps != null && stamps.length == indexes.size()
+						? stamps[i] : files[index].lastModified();
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the snapshot of the directory subtree taken with a single
+	 * request if the environment adapts to {@link IFileTreeProvider}, otherwise
+	 * <code>null</code>.
+	 * 
+	 * @since 5.6
+	 */
+	public static FileTree getTree(IFileHandle directory) {
+		final IEnvironment environment = directory.getEnvironment();
+		final IFileTreeProvider provider = environment != null ? environment
+				.getAdapter(IFileTreeProvider.class) : null;
+		return provider != null ? provider.getTree(directory) : null;
+	}
+
 	public static IPath asPath(IFileHandle handle, IEnvironment environment)
 			throws CoreException {
 		if (environment.getId().equals(handle.getEnvironmentId())) {
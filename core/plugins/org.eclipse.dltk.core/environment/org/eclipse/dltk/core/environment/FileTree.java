@@ -0,0 +1,121 @@
+/*******************************************************************************
+ * Copyright (c) 2016 xored software, Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ *******************************************************************************/
+package org.eclipse.dltk.core.environment;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Snapshot of the directory subtree with the types, sizes and modification
+ * times of the files, taken by the {@link IFileTreeProvider}. The entries are
+ * addressed by their paths relative to the root directory, with the
+ * <code>'/'</code> separators, the root itself is the empty path.
+ * 
+ * @since 5.6
+ */
+public class FileTree {
+
+	public static class Entry {
+		private final String name;
+		private final boolean directory;
+		private final boolean symlink;
+		private final long length;
+		private final long lastModified;
+
+		public Entry(String name, boolean directory, boolean symlink,
+				long length, long lastModified) {
+			this.name = name;
+			this.directory = directory;
+			this.symlink = symlink;
+			this.length = length;
+			this.lastModified = lastModified;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		/**
+		 * Returns <code>true</code> if the entry is the directory or the
+		 * symbolic link to the directory
+		 */
+		public boolean isDirectory() {
+			return directory;
+		}
+
+		public boolean isSymlink() {
+			return symlink;
+		}
+
+		public long getLength() {
+			return length;
+		}
+
+		public long getLastModified() {
+			return lastModified;
+		}
+
+		@Override
+		public String toString() {
+			return name;
+		}
+	}
+
+	private static final Entry[] NO_ENTRIES = new Entry[0];
+
+	private final Map<String, List<Entry>> directories = new HashMap<String, List<Entry>>();
+
+	public FileTree() {
+		directories.put("", new ArrayList<Entry>()); //$NON-NLS-1$
+	}
+
+	/**
+	 * Adds the entry, the parent directory entries should be added first.
+	 * 
+	 * @param path
+	 *            the relative path of the entry
+	 */
+	public void add(String path, boolean directory, boolean symlink,
+			long length, long lastModified) {
+		final int pos = path.lastIndexOf('/');
+		final String parent = pos >= 0 ? path.substring(0, pos) : ""; //$NON-NLS-1$
+		final List<Entry> children = directories.get(parent);
+		if (children == null) {
+			return;
+		}
+		children.add(new Entry(path.substring(pos + 1), directory, symlink,
+				length, lastModified));
+		if (directory && !symlink) {
+			directories.put(path, new ArrayList<Entry>());
+		}
+	}
+
+	/**
+	 * Returns the entries of the directory or <code>null</code> if the
+	 * directory was not listed.
+	 */
+	public Entry[] getChildren(String path) {
+		final List<Entry> children = directories.get(path);
+		if (children == null) {
+			return null;
+		}
+		return children.isEmpty() ? NO_ENTRIES : children
+				.toArray(new Entry[children.size()]);
+	}
+
+	/**
+	 * Returns the number of the listed directories
+	 */
+	public int getDirectoryCount() {
+		return directories.size();
+	}
+
+}
@@ -0,0 +1,32 @@
+/*******************************************************************************
+ * Copyright (c) 2016 xored software, Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ *******************************************************************************/
+package org.eclipse.dltk.core.environment;
+
+/**
+ * Optional capability of the {@link IEnvironment} (available as its adapter)
+ * to query the modification times of many files with a single request, e.g.
+ * one command instead of the round-trip per file in the remote environments.
+ * 
+ * @see FileHandles#lastModified(IFileHandle[])
+ * @since 5.6
+ */
+public interface IFileStatProvider {
+
+	/**
+	 * Returns the last modified times of the specified files in the same
+	 * order, <code>0L</code> for the files which do not exist.
+	 * 
+	 * @param files
+	 *            files of this environment
+	 * @return last modified times or <code>null</code> if the batched request
+	 *         is not possible and the files should be queried one by one
+	 */
+	long[] lastModified(IFileHandle[] files);
+
+}
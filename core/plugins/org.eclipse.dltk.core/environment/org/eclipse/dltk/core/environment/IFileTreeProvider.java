@@ -0,0 +1,34 @@
+/*******************************************************************************
+ * Copyright (c) 2016 xored software, Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ *******************************************************************************/
+package org.eclipse.dltk.core.environment;
+
+/**
+ * Optional capability of the {@link IEnvironment} (available as its adapter)
+ * to list the whole subtree of the directory with a single request, e.g. one
+ * command instead of the round-trips per directory and file in the remote
+ * environments.
+ * 
+ * @see FileHandles#getTree(IFileHandle)
+ * @since 5.6
+ */
+public interface IFileTreeProvider {
+
+	/**
+	 * Returns the snapshot of the directory subtree. The symbolic links are
+	 * not followed, so the linked directories are included without their
+	 * children.
+	 * 
+	 * @param directory
+	 *            directory of this environment
+	 * @return the snapshot or <code>null</code> if it could not be taken and
+	 *         the tree should be walked file by file
+	 */
+	FileTree getTree(IFileHandle directory);
+
+}
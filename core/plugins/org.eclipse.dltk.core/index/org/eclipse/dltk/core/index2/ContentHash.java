@@ -0,0 +1,94 @@
+/*******************************************************************************
+ * Copyright (c) 2016 xored software, Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ *******************************************************************************/
+package org.eclipse.dltk.core.index2;
+
+import org.eclipse.dltk.core.ISourceModule;
+import org.eclipse.dltk.core.ISourceModuleInfoCache.ISourceModuleInfo;
+import org.eclipse.dltk.core.ModelException;
+import org.eclipse.dltk.core.SourceParserUtil;
+
+/**
+ * Content hash of the indexed documents (64 bit FNV-1a of the source
+ * characters), used to detect the documents which were touched without
+ * changing the contents.
+ * 
+ * @see IIndexerExtension
+ * @since 5.6
+ */
+public final class ContentHash {
+
+	/**
+	 * Value meaning the hash is not known, never returned for the contents.
+	 */
+	public static final long NONE = 0;
+
+	private static final long OFFSET_BASIS = 0xcbf29ce484222325L;
+	private static final long PRIME = 0x100000001b3L;
+
+	private static final String CACHE_KEY = "contentHash"; //$NON-NLS-1$
+
+	private ContentHash() {
+	}
+
+	public static long compute(char[] contents) {
+		long hash = OFFSET_BASIS;
+		for (int i = 0; i < contents.length; ++i) {
+			final char c = contents[i];
+			hash = (hash ^ (c & 0xFF)) * PRIME;
+			hash = (hash ^ (c >>> 8)) * PRIME;
+		}
+		return hash != NONE ? hash : 1;
+	}
+
+	/**
+	 * Computes hash of the source module contents or returns {@link #NONE} if
+	 * the contents could not be read.
+	 */
+	public static long compute(ISourceModule sourceModule) {
+		try {
+			final char[] contents = sourceModule.getSourceAsCharArray();
+			return contents != null ? compute(contents) : NONE;
+		} catch (ModelException e) {
+			return NONE;
+		}
+	}
+
+	/**
+	 * Remembers the hash computed for the current contents of the source
+	 * module in the {@link SourceParserUtil#getCache() source module info
+	 * cache}, so the indexer could store it without reading the contents again.
+	 */
+	public static void remember(ISourceModule sourceModule, long hash) {
+		if (hash != NONE) {
+			final ISourceModuleInfo info = SourceParserUtil.getCache().get(
+					sourceModule);
+			if (info != null) {
+				info.put(CACHE_KEY, Long.valueOf(hash));
+			}
+		}
+	}
+
+	/**
+	 * Returns the hash remembered for the source module or {@link #NONE} if it
+	 * was not computed since the source module was changed. The contents are
+	 * never read.
+	 */
+	public static long getRemembered(ISourceModule sourceModule) {
+		final ISourceModuleInfo info = SourceParserUtil.getCache().get(
+				sourceModule);
+		if (info != null) {
+			final Object hash = info.get(CACHE_KEY);
+			if (hash instanceof Long) {
+				return ((Long) hash).longValue();
+			}
+		}
+		return NONE;
+	}
+
+}
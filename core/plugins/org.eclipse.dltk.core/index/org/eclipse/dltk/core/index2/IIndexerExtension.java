@@ -0,0 +1,50 @@
+/*******************************************************************************
+ * Copyright (c) 2016 xored software, Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ *******************************************************************************/
+package org.eclipse.dltk.core.index2;
+
+import java.util.Map;
+
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.dltk.core.ISourceModule;
+
+/**
+ * Extension of the {@link IIndexer} storing the content hashes of the indexed
+ * documents beside their timestamps, so the documents whose timestamps have
+ * changed without changing the contents are not re-indexed.
+ * 
+ * @since 5.6
+ */
+public interface IIndexerExtension extends IIndexer {
+
+	/**
+	 * Returns content hashes of the existing container documents in index
+	 * 
+	 * @param containerPath
+	 *            Container path
+	 * @return map where the key is a document path relative to the container
+	 *         path, value - content hash computed with
+	 *         {@link ContentHash#compute(ISourceModule)} when the document was
+	 *         indexed. Documents indexed without the hash are not included.
+	 */
+	public Map<String, Long> getDocumentHashes(IPath containerPath);
+
+	/**
+	 * Updates the timestamps of the documents whose contents have not changed
+	 * (their content hashes are the same), so they are not hashed again by the
+	 * next analysis.
+	 * 
+	 * @param containerPath
+	 *            Container path
+	 * @param timestamps
+	 *            map where the key is a document path relative to the
+	 *            container path, value - new timestamp
+	 */
+	public void updateTimestamps(IPath containerPath,
+			Map<String, Long> timestamps);
+}
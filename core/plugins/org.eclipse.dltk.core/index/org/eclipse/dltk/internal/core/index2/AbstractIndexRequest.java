@@ -11,7 +11,10 @@
  *******************************************************************************/
 package org.eclipse.dltk.internal.core.index2;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.eclipse.core.resources.IResource;
@@ -21,8 +24,11 @@ import org.eclipse.dltk.core.IDLTKLanguageToolkit;
 import org.eclipse.dltk.core.IDLTKLanguageToolkitExtension;
 import org.eclipse.dltk.core.ISourceModule;
 import org.eclipse.dltk.core.environment.EnvironmentPathUtils;
+import org.eclipse.dltk.core.environment.FileHandles;
 import org.eclipse.dltk.core.environment.IFileHandle;
+import org.eclipse.dltk.core.index2.ContentHash;
 import org.eclipse.dltk.core.index2.IIndexer;
+import org.eclipse.dltk.core.index2.IIndexerExtension;
 import org.eclipse.dltk.core.index2.ProjectIndexer2;
 import org.eclipse.dltk.core.search.indexing.AbstractJob;
 import org.eclipse.dltk.internal.core.ExternalSourceModule;
@@ -99,6 +105,14 @@ public abstract class AbstractIndexRequest extends AbstractJob {
 	/**
 	 * Analyzes source modules changes, and fills collections with source
 	 * modules that need to be removed/re-indexed.
+	 * <p>
+	 * The timestamps of the indexed source modules are queried all at once
+	 * (see {@link FileHandles#lastModified(IFileHandle[])}), and when the
+	 * indexer stores the content hashes ({@link IIndexerExtension}) the source
+	 * modules with the changed timestamp but the same contents are not
+	 * re-indexed, only their timestamps are updated. The hashes of the changed
+	 * source modules are remembered for the indexer.
+	 * </p>
 	 * 
 	 * @param containerPath
 	 *            Container path
@@ -129,19 +143,67 @@ public abstract class AbstractIndexRequest extends AbstractJob {
 
 		toRemove.addAll(documentNames.keySet());
 
+		List<ISourceModule> indexedModules = new ArrayList<ISourceModule>();
+		List<String> indexedPaths = new ArrayList<String>();
+		List<IFileHandle> handles = new ArrayList<IFileHandle>();
 		for (ISourceModule sourceModule : sourceModules) {
 			String relativePath = Util.relativePath(sourceModule.getPath(),
 					containerPath.segmentCount());
-			IFileHandle handle = EnvironmentPathUtils.getFile(sourceModule,
-					false);
 
 			if (toRemove.remove(relativePath)) {
-				if (documentNames.get(relativePath) < handle.lastModified()) {
+				IFileHandle handle = EnvironmentPathUtils.getFile(sourceModule,
+						false);
+				if (handle != null) {
+					indexedModules.add(sourceModule);
+					indexedPaths.add(relativePath);
+					handles.add(handle);
+				} else {
 					toReindex.add(sourceModule);
 				}
 			} else {
 				toReindex.add(sourceModule);
 			}
 		}
+		if (indexedModules.isEmpty()) {
+			return;
+		}
+
+		long[] timestamps = FileHandles
+				.lastModified(handles.toArray(new IFileHandle[handles.size()]));
+		Map<String, Long> documentHashes = null;
+		Map<String, Long> touched = null;
+		for (int i = 0; i < timestamps.length; ++i) {
+			String relativePath = indexedPaths.get(i);
+			// Any difference, the clock might be skewed or file replaced
+			if (documentNames.get(relativePath).longValue() == timestamps[i]) {
+				continue;
+			}
+			ISourceModule sourceModule = indexedModules.get(i);
+			if (indexer instanceof IIndexerExtension) {
+				if (documentHashes == null) {
+					documentHashes = ((IIndexerExtension) indexer)
+							.getDocumentHashes(containerPath);
+				}
+				long hash = ContentHash.compute(sourceModule);
+				Long indexedHash = documentHashes != null
+						? documentHashes.get(relativePath) : null;
+				if (hash != ContentHash.NONE && indexedHash != null
+						&& indexedHash.longValue() == hash) {
+					// Touched without changing the contents
+					if (touched == null) {
+						touched = new HashMap<String, Long>();
+					}
+					touched.put(relativePath, Long.valueOf(timestamps[i]));
+					continue;
+				}
+				// stored by the indexer without reading the contents again
+				ContentHash.remember(sourceModule, hash);
+			}
+			toReindex.add(sourceModule);
+		}
+		if (touched != null) {
+			((IIndexerExtension) indexer).updateTimestamps(containerPath,
+					touched);
+		}
 	}
 }
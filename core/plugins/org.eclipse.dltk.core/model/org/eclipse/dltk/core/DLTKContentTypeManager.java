@@ -10,7 +10,7 @@
  *******************************************************************************/
 package org.eclipse.dltk.core;
 
-import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
@@ -40,6 +40,7 @@ import org.eclipse.core.runtime.content.IContentTypeManager.ContentTypeChangeEve
 import org.eclipse.core.runtime.content.IContentTypeManager.IContentTypeChangeListener;
 import org.eclipse.dltk.core.environment.EnvironmentPathUtils;
 import org.eclipse.dltk.core.environment.IFileHandle;
+import org.eclipse.dltk.internal.core.ContentVerdictCache;
 import org.eclipse.dltk.internal.core.DLTKAssociationManager;
 import org.eclipse.dltk.internal.core.NopAssociationManager;
 import org.eclipse.dltk.internal.core.ScriptFileConfiguratorManager;
@@ -107,10 +108,12 @@ public class DLTKContentTypeManager {
 				if (file.getEnvironment().isLocal()) {
 					final File localFile = new File(file.toOSString());
 					return toolkit.canValidateContent(file)
-							&& validateLocalFileContent(contentTypes, localFile);
+							&& validateLocalFileContent(toolkit.getNatureId(),
+									contentTypes, localFile);
 				} else {
 					return toolkit.canValidateContent(file)
-							&& validateRemoteFileContent(contentTypes, file);
+							&& validateRemoteFileContent(toolkit.getNatureId(),
+									contentTypes, file);
 				}
 			}
 			return false;
@@ -119,7 +122,8 @@ public class DLTKContentTypeManager {
 			final File file = path.toFile();
 			if (file.isFile()) {
 				return toolkit.canValidateContent(file)
-						&& validateLocalFileContent(contentTypes, file);
+						&& validateLocalFileContent(toolkit.getNatureId(),
+								contentTypes, file);
 			}
 		}
 		final IWorkspaceRoot root = ResourcesPlugin.getWorkspace().getRoot();
@@ -128,53 +132,109 @@ public class DLTKContentTypeManager {
 				&& validateResourceContent(contentTypes, (IFile) member);
 	}
 
-	private static boolean validateRemoteFileContent(
+	private static boolean validateRemoteFileContent(String natureId,
 			final IContentType[] derived, IFileHandle file) {
 		if (DEBUG_CONTENT) {
 			log("validateContent", file); //$NON-NLS-1$
 		}
-		for (int i = 0; i < derived.length; i++) {
-			IContentType type = derived[i];
-			InputStream stream = null;
-			try {
-				stream = new BufferedInputStream(file.openInputStream(null),
-						2048);
-				IContentDescription description = type.getDescriptionFor(
-						stream, IContentDescription.ALL);
-				if (description != null) {
-					if (checkDescription(type, description)) {
-						return true;
-					}
-				}
-			} catch (IOException e) {
-				if (DLTKCore.DEBUG) {
-					e.printStackTrace();
-				}
-			} finally {
-				closeStream(stream);
+		final String path = file.getFullPath().toString();
+		final long length = file.length();
+		final long lastModified = file.lastModified();
+		final ContentVerdictCache verdicts = ContentVerdictCache.getDefault();
+		final Boolean verdict = verdicts.get(natureId, path, length,
+				lastModified);
+		if (verdict != null) {
+			return verdict.booleanValue();
+		}
+		final byte[] header;
+		InputStream stream = null;
+		try {
+			stream = file.openInputStream(null);
+			header = readHeader(stream);
+		} catch (IOException e) {
+			if (DLTKCore.DEBUG) {
+				e.printStackTrace();
 			}
+			return false;
+		} finally {
+			closeStream(stream);
 		}
-		return false;
+		final boolean result = validateHeader(derived, header);
+		verdicts.put(natureId, path, length, lastModified, result);
+		return result;
 	}
 
 	/**
-	 * @param masterType
+	 * @param natureId
 	 * @param derived
 	 * @param file
 	 * @return
 	 */
-	private static boolean validateLocalFileContent(IContentType[] derived,
-			File file) {
+	private static boolean validateLocalFileContent(String natureId,
+			IContentType[] derived, File file) {
 		if (DEBUG_CONTENT) {
 			log("validateContent", file); //$NON-NLS-1$
 		}
+		final String path = file.getAbsolutePath();
+		final long length = file.length();
+		final long lastModified = file.lastModified();
+		final ContentVerdictCache verdicts = ContentVerdictCache.getDefault();
+		final Boolean verdict = verdicts.get(natureId, path, length,
+				lastModified);
+		if (verdict != null) {
+			return verdict.booleanValue();
+		}
+		final byte[] header;
+		InputStream stream = null;
+		try {
+			stream = new FileInputStream(file);
+			header = readHeader(stream);
+		} catch (IOException e) {
+			if (DLTKCore.DEBUG) {
+				e.printStackTrace();
+			}
+			return false;
+		} finally {
+			closeStream(stream);
+		}
+		final boolean result = validateHeader(derived, header);
+		verdicts.put(natureId, path, length, lastModified, result);
+		return result;
+	}
+
+	/**
+	 * Maximum number of the bytes passed to the content describers
+	 */
+	private static final int HEADER_SIZE = 8192;
+
+	/**
+	 * Reads the first {@link #HEADER_SIZE} bytes of the stream, so the
+	 * content is read only once for all the content types.
+	 */
+	private static byte[] readHeader(InputStream stream) throws IOException {
+		final byte[] buffer = new byte[HEADER_SIZE];
+		int count = 0;
+		int n;
+		while (count < buffer.length
+				&& (n = stream.read(buffer, count, buffer.length - count)) != -1) {
+			count += n;
+		}
+		if (count == buffer.length) {
+			return buffer;
+		}
+		final byte[] result = new byte[count];
+		System.arraycopy(buffer, 0, result, 0, count);
+		return result;
+	}
+
+	private static boolean validateHeader(IContentType[] derived,
+			byte[] header) {
 		for (int i = 0; i < derived.length; i++) {
 			IContentType type = derived[i];
-			InputStream stream = null;
 			try {
-				stream = new BufferedInputStream(new FileInputStream(file));
 				IContentDescription description = type.getDescriptionFor(
-						stream, IContentDescription.ALL);
+						new ByteArrayInputStream(header),
+						IContentDescription.ALL);
 				if (description != null) {
 					if (checkDescription(type, description)) {
 						return true;
@@ -184,8 +244,6 @@ public class DLTKContentTypeManager {
 				if (DLTKCore.DEBUG) {
 					e.printStackTrace();
 				}
-			} finally {
-				closeStream(stream);
 			}
 		}
 		return false;
@@ -290,43 +348,33 @@ public class DLTKContentTypeManager {
 				e1.printStackTrace();
 			}
 		}
+		if (contentTypes.length == 0) {
+			return false;
+		}
+		final byte[] header;
+		InputStream contents = null;
 		try {
-			for (int i = 0; i < contentTypes.length; i++) {
-				final IContentType type = contentTypes[i];
-				/*
-				 * TODO use something like LazyInputStream if there are multiple
-				 * content types
-				 */
-				final InputStream contents = new BufferedInputStream(
-						file.getContents(), 2048);
-				try {
-					final IContentDescription description = type
-							.getDescriptionFor(contents,
-									IContentDescription.ALL);
-					if (description != null) {
-						if (checkDescription(type, description)) {
-							return true;
-						}
-					}
-				} catch (IOException e) {
-					if (DLTKCore.DEBUG) {
-						e.printStackTrace();
-					}
-				} finally {
-					closeStream(contents);
-				}
-			}
+			contents = file.getContents();
+			header = readHeader(contents);
 		} catch (CoreException e) {
 			/*
 			 * CoreException is thrown when resource does not exist, is out of
-			 * sync or something similar - there is no need to process other
+			 * sync or something similar - there is no need to process the
 			 * content types if it happens.
 			 */
 			if (DLTKCore.DEBUG) {
 				e.printStackTrace();
 			}
+			return false;
+		} catch (IOException e) {
+			if (DLTKCore.DEBUG) {
+				e.printStackTrace();
+			}
+			return false;
+		} finally {
+			closeStream(contents);
 		}
-		return false;
+		return validateHeader(contentTypes, header);
 	}
 
 	/**
@@ -401,6 +449,7 @@ public class DLTKContentTypeManager {
 						synchronized (contentTypesCache) {
 							contentTypesCache.clear();
 						}
+						ContentVerdictCache.getDefault().clear();
 					}
 				};
 				manager.addContentTypeChangeListener(changeListener);
@@ -359,6 +359,50 @@ public class DLTKCore extends Plugin {
 	 * Possible configurable option ID.
 	 */
 	public static final String INDEXER_ID = PLUGIN_ID + ".indexer.id"; //$NON-NLS-1$
+
+	/**
+	 * Possible configurable option ID. Value is the number of threads used for
+	 * the background indexing, jobs updating different indexes are executed
+	 * concurrently. Value <code>"0"</code> means the number of available
+	 * processors, the default is <code>"1"</code>.
+	 * 
+	 * @since 5.6
+	 */
+	public static final String INDEXER_WORKERS = PLUGIN_ID
+			+ ".indexer.workers"; //$NON-NLS-1$
+
+	/**
+	 * Possible configurable option ID. Value <code>"true"</code> enables the
+	 * reading of the index files through memory mapped buffers instead of
+	 * streams, the default is <code>"false"</code>. The preference is read
+	 * once, the system property is checked whenever an index file is mapped.
+	 * 
+	 * @since 5.6
+	 */
+	public static final String INDEXER_MEMORY_MAPPED = PLUGIN_ID
+			+ ".indexer.memoryMapped"; //$NON-NLS-1$
+
+	/**
+	 * Possible configurable option ID. Value <code>"true"</code> enables the
+	 * concurrent evaluation of the type inference subgoals, the default is
+	 * <code>"false"</code>.
+	 * 
+	 * @see org.eclipse.dltk.ti.DLTKTypeInferenceEngine#isParallelEvaluation()
+	 * @since 5.6
+	 */
+	public static final String TYPE_INFERENCE_PARALLEL = PLUGIN_ID
+			+ ".typeInference.parallel"; //$NON-NLS-1$
+
+	/**
+	 * Possible configurable option ID. Value <code>"true"</code> enables the
+	 * workspace level cache of the type inference goal results, the default
+	 * is <code>"false"</code>.
+	 * 
+	 * @see org.eclipse.dltk.ti.GoalResultCache
+	 * @since 5.6
+	 */
+	public static final String TYPE_INFERENCE_CACHE = PLUGIN_ID
+			+ ".typeInference.cache"; //$NON-NLS-1$
 	
 	/**
 	 * Possible project configurable option ID. Value is the identifier of
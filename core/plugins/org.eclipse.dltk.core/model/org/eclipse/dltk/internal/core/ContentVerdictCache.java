@@ -0,0 +1,246 @@
+/*******************************************************************************
+ * Copyright (c) 2016 xored software, Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ *******************************************************************************/
+package org.eclipse.dltk.internal.core;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.dltk.core.DLTKCore;
+import org.eclipse.dltk.core.DLTKContentTypeManager;
+import org.eclipse.dltk.internal.core.util.Util;
+
+/**
+ * Persistent cache of the content validation results of the files outside of
+ * the workspace, used by the {@link DLTKContentTypeManager}. The results are
+ * stored per nature and path with the size and the modification time of the
+ * file, so the content of the unchanged files is not read again after
+ * restart. The least recently used entries are evicted when the limit is
+ * reached.
+ */
+public class ContentVerdictCache {
+
+	private static final int VERSION = 1;
+
+	/**
+	 * Default maximum number of the entries, the least recently used ones are
+	 * evicted when it is exceeded
+	 */
+	private static final int LIMIT = 100000;
+
+	private static ContentVerdictCache instance;
+
+	public static synchronized ContentVerdictCache getDefault() {
+		if (instance == null) {
+			instance = new ContentVerdictCache(DLTKCore.getDefault()
+					.getStateLocation().append("contentVerdicts.dat") //$NON-NLS-1$
+					.toFile());
+		}
+		return instance;
+	}
+
+	private static class Entry {
+		final long length;
+		final long lastModified;
+		final boolean valid;
+
+		Entry(long length, long lastModified, boolean valid) {
+			this.length = length;
+			this.lastModified = lastModified;
+			this.valid = valid;
+		}
+	}
+
+	private final File file;
+	private final int limit;
+	/* access ordered, guarded by itself */
+	private volatile Map<String, Entry> entries;
+	private volatile boolean dirty;
+
+	public ContentVerdictCache(File file) {
+		this(file, LIMIT);
+	}
+
+	public ContentVerdictCache(File file, int limit) {
+		this.file = file;
+		this.limit = limit;
+	}
+
+	@SuppressWarnings("serial")
+	private Map<String, Entry> createMap() {
+		return new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(
+					Map.Entry<String, Entry> eldest) {
+				return size() > limit;
+			}
+		};
+	}
+
+	private Map<String, Entry> getEntries() {
+		Map<String, Entry> result = entries;
+		if (result == null) {
+			synchronized (this) {
+				result = entries;
+				if (result == null) {
+					result = read();
+					entries = result;
+				}
+			}
+		}
+		return result;
+	}
+
+	private static String key(String natureId, String path) {
+		return natureId + '|' + path;
+	}
+
+	/**
+	 * Returns the validation result of the file with the same size and
+	 * modification time or <code>null</code> if it is not known.
+	 */
+	public Boolean get(String natureId, String path, long length,
+			long lastModified) {
+		final Map<String, Entry> map = getEntries();
+		final Entry entry;
+		synchronized (map) {
+			entry = map.get(key(natureId, path));
+		}
+		if (entry != null && entry.length == length
+				&& entry.lastModified == lastModified) {
+			return Boolean.valueOf(entry.valid);
+		}
+		return null;
+	}
+
+	public void put(String natureId, String path, long length,
+			long lastModified, boolean valid) {
+		final Map<String, Entry> map = getEntries();
+		synchronized (map) {
+			map.put(key(natureId, path), new Entry(length, lastModified,
+					valid));
+		}
+		dirty = true;
+	}
+
+	public void clear() {
+		final Map<String, Entry> map = getEntries();
+		synchronized (map) {
+			if (map.isEmpty()) {
+				return;
+			}
+			map.clear();
+		}
+		dirty = true;
+	}
+
+	private Map<String, Entry> read() {
+		final Map<String, Entry> result = createMap();
+		if (!file.exists()) {
+			return result;
+		}
+		DataInputStream in = null;
+		try {
+			in = new DataInputStream(new BufferedInputStream(
+					new FileInputStream(file)));
+			if (in.readInt() != VERSION) {
+				return result;
+			}
+			int size = in.readInt();
+			while (size-- > 0) {
+				final String key = in.readUTF();
+				final long length = in.readLong();
+				final long lastModified = in.readLong();
+				final boolean valid = in.readBoolean();
+				result.put(key, new Entry(length, lastModified, valid));
+			}
+		} catch (IOException e) {
+			Util.log(e, "Unable to read content verdicts"); //$NON-NLS-1$
+			result.clear();
+		} finally {
+			if (in != null) {
+				try {
+					in.close();
+				} catch (IOException e) {
+					// nothing we can do: ignore
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Saves the entries to a temporary file which then replaces the previous
+	 * one, so the saved entries are never left half written.
+	 */
+	public synchronized void save() throws CoreException {
+		final Map<String, Entry> map = entries;
+		if (map == null || !dirty) {
+			return;
+		}
+		dirty = false;
+		final String[] keys;
+		final Entry[] values;
+		synchronized (map) {
+			keys = map.keySet().toArray(new String[map.size()]);
+			values = map.values().toArray(new Entry[map.size()]);
+		}
+		final File temp = new File(file.getPath() + ".tmp"); //$NON-NLS-1$
+		DataOutputStream out = null;
+		boolean saved = false;
+		try {
+			out = new DataOutputStream(new BufferedOutputStream(
+					new FileOutputStream(temp)));
+			out.writeInt(VERSION);
+			out.writeInt(keys.length);
+			for (int i = 0; i < keys.length; ++i) {
+				final Entry entry = values[i];
+				out.writeUTF(keys[i]);
+				out.writeLong(entry.length);
+				out.writeLong(entry.lastModified);
+				out.writeBoolean(entry.valid);
+			}
+			out.close();
+			out = null;
+			// renameTo() does not replace the existing file on all platforms
+			if (!temp.renameTo(file)
+					&& !(file.delete() && temp.renameTo(file))) {
+				throw new IOException("Unable to rename " + temp + " to " //$NON-NLS-1$ //$NON-NLS-2$
+						+ file);
+			}
+			saved = true;
+		} catch (IOException e) {
+			dirty = true;
+			IStatus status = new Status(IStatus.ERROR, DLTKCore.PLUGIN_ID,
+					IStatus.ERROR, "Problems while saving content verdicts", e); //$NON-NLS-1$
+			throw new CoreException(status);
+		} finally {
+			if (out != null) {
+				try {
+					out.close();
+				} catch (IOException e) {
+					// nothing we can do: ignore
+				}
+			}
+			if (!saved) {
+				temp.delete();
+			}
+		}
+	}
+}
@@ -30,6 +30,8 @@ import org.eclipse.dltk.core.ModelException;
 import org.eclipse.dltk.core.WorkingCopyOwner;
 import org.eclipse.dltk.core.environment.EnvironmentManager;
 import org.eclipse.dltk.core.environment.EnvironmentPathUtils;
+import org.eclipse.dltk.core.environment.FileHandles;
+import org.eclipse.dltk.core.environment.FileTree;
 import org.eclipse.dltk.core.environment.IEnvironment;
 import org.eclipse.dltk.core.environment.IFileHandle;
 import org.eclipse.dltk.core.internal.environment.EFSFileHandle;
@@ -72,10 +74,23 @@ public class ExternalProjectFragment extends ProjectFragment implements
 		char[][] inclusionPatterns = this.fullInclusionPatternChars();
 		char[][] exclusionPatterns = this.fullExclusionPatternChars();
 		Set realPaths = new HashSet();
+		// the remote environments list the whole tree with a single request
+		FileTree tree = null;
+		String treeRoot = null;
+		IEnvironment environment = EnvironmentPathUtils
+				.getPathEnvironment(this.fPath);
+		if (environment != null) {
+			IFileHandle root = environment.getFile(EnvironmentPathUtils
+					.getLocalPath(this.fPath));
+			tree = FileHandles.getTree(root);
+			if (tree != null) {
+				treeRoot = root.getCanonicalPath();
+			}
+		}
 		this.computeFolderChildren(this.fPath, !Util.isExcluded(this.fPath,
 				inclusionPatterns, exclusionPatterns, true), vChildren,
 				vForeign, newElements, inclusionPatterns, exclusionPatterns,
-				realPaths);
+				realPaths, tree, treeRoot, tree != null ? "" : null); //$NON-NLS-1$
 		IModelElement[] children = new IModelElement[vChildren.size()];
 		vChildren.toArray(children);
 		info.setChildren(children);
@@ -96,15 +111,43 @@ public class ExternalProjectFragment extends ProjectFragment implements
 			ArrayList vChildren, ArrayList vForeign, Map newElements,
 			char[][] inclusionPatterns, char[][] exclusionPatterns,
 			Set realPaths) throws ModelException {
-		IEnvironment environment = EnvironmentPathUtils
-				.getPathEnvironment(path);
-		if (environment != null) {
-			IFileHandle file = environment.getFile(EnvironmentPathUtils
-					.getLocalPath(path));
-			String canonicalPath = file.getCanonicalPath();
-			if (!realPaths.add(canonicalPath)) {
+		computeFolderChildren(path, isIncluded, vChildren, vForeign,
+				newElements, inclusionPatterns, exclusionPatterns, realPaths,
+				null, null, null);
+	}
+
+	/**
+	 * Walks the folder using the snapshot of the fragment tree if the
+	 * <code>relativePath</code> of the folder in the snapshot is specified,
+	 * otherwise requests the file handles. The linked folders are not
+	 * included in the snapshot and are walked file by file.
+	 */
+	private void computeFolderChildren(IPath path, boolean isIncluded,
+			ArrayList vChildren, ArrayList vForeign, Map newElements,
+			char[][] inclusionPatterns, char[][] exclusionPatterns,
+			Set realPaths, FileTree tree, String treeRoot, String relativePath)
+			throws ModelException {
+		FileTree.Entry[] entries = null;
+		if (relativePath != null) {
+			entries = tree.getChildren(relativePath);
+		}
+		if (entries != null) {
+			// the snapshot does not follow the links, so the path is real
+			if (!realPaths.add(relativePath.length() == 0 ? treeRoot
+					: treeRoot + '/' + relativePath)) {
 				return;
 			}
+		} else {
+			IEnvironment environment = EnvironmentPathUtils
+					.getPathEnvironment(path);
+			if (environment != null) {
+				IFileHandle file = environment.getFile(EnvironmentPathUtils
+						.getLocalPath(path));
+				String canonicalPath = file.getCanonicalPath();
+				if (!realPaths.add(canonicalPath)) {
+					return;
+				}
+			}
 		}
 		IPath lpath = path.setDevice(null).removeFirstSegments(
 				this.fPath.segmentCount());
@@ -125,8 +168,34 @@ public class ExternalProjectFragment extends ProjectFragment implements
 		List scriptElements = new ArrayList();
 		List nonScriptElements = new ArrayList();
 		try {
-			IFileHandle file = EnvironmentPathUtils.getFile(path);
-			IFileHandle[] members = file.getChildren();
+			if (entries != null) {
+				for (int i = 0; i < entries.length; i++) {
+					FileTree.Entry entry = entries[i];
+					IPath memberPath = path.append(entry.getName());
+					if (entry.isDirectory()) {
+						boolean isMemberIncluded = !Util.isExcluded(memberPath,
+								inclusionPatterns, exclusionPatterns, true);
+						String memberRelativePath = null;
+						if (!entry.isSymlink()) {
+							memberRelativePath = relativePath.length() == 0 ? entry
+									.getName() : relativePath + '/'
+									+ entry.getName();
+						}
+						computeFolderChildren(memberPath, isMemberIncluded,
+								vChildren, vForeign, newElements,
+								inclusionPatterns, exclusionPatterns,
+								realPaths, tree, treeRoot, memberRelativePath);
+					} else if (Util.isValidSourceModule(this, memberPath)) {
+						scriptElements.add(memberPath);
+					} else if (!this.fOnlyScriptResources || valid) {
+						nonScriptElements.add(memberPath);
+					}
+				}
+			}
+			IFileHandle[] members = null;
+			if (entries == null) {
+				members = EnvironmentPathUtils.getFile(path).getChildren();
+			}
 			if (members != null) {
 				for (int i = 0, max = members.length; i < max; i++) {
 					IFileHandle memberFile = members[i];
@@ -2520,6 +2520,8 @@ public class ModelManager implements ISaveParticipant {
 		}
 		// save external libs timestamps
 		this.deltaState.saveExternalLibTimeStamps();
+		// save content validation results of the external files
+		ContentVerdictCache.getDefault().save();
 	}
 
 	private File getContainersFile() {
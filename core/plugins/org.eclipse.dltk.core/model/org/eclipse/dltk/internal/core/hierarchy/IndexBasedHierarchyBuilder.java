@@ -44,7 +44,8 @@ import org.eclipse.dltk.internal.core.ModelManager;
 import org.eclipse.dltk.internal.core.Openable;
 import org.eclipse.dltk.internal.core.ScriptProject;
 import org.eclipse.dltk.internal.core.search.IndexQueryRequestor;
-import org.eclipse.dltk.internal.core.search.SubTypeSearchJob;
+import org.eclipse.dltk.internal.core.search.SuperTypeGraph;
+import org.eclipse.dltk.internal.core.search.SuperTypeGraphJob;
 import org.eclipse.dltk.internal.core.search.matching.SuperTypeReferencePattern;
 import org.eclipse.dltk.internal.core.util.HandleFactory;
 
@@ -542,49 +543,45 @@ public class IndexBasedHierarchyBuilder extends HierarchyBuilder {
 				null, superRefKind, SearchPattern.R_EXACT_MATCH
 						| SearchPattern.R_CASE_SENSITIVE, scope.getLanguageToolkit());
 		MatchLocator.setFocus(pattern, type);
-		SubTypeSearchJob job = new SubTypeSearchJob(pattern,
-				new DLTKSearchParticipant(), // java search only
-				scope, searchRequestor);
+		SearchParticipant participant = new DLTKSearchParticipant();
+		/*
+		 * load the super type graphs of all the indexes at once (cached until
+		 * the index changes) instead of searching the indexes for every super
+		 * type name found
+		 */
+		SuperTypeGraphJob job = new SuperTypeGraphJob(pattern, participant,
+				scope);
+		indexManager.performConcurrentJob(job, waitingPolicy, null);
+		SuperTypeGraph[] graphs = job.getGraphs();
+		SuperTypeReferencePattern decoded = (SuperTypeReferencePattern) pattern
+				.getBlankPattern();
 
 		int ticks = 0;
 		queue.add(type.getElementName().toCharArray());
-		try {
-			while (queue.start <= queue.end) {
-				if (progressMonitor != null && progressMonitor.isCanceled()) {
-					return;
-				}
+		while (queue.start <= queue.end) {
+			if (progressMonitor != null && progressMonitor.isCanceled()) {
+				return;
+			}
 
-				// all subclasses of OBJECT are actually all types
-				char[] currentTypeName = queue.retrieve();
-				if (CharOperation.equals(currentTypeName,
-						IIndexConstants.OBJECT)) {
-					currentTypeName = null;
-				}
+			// all subclasses of OBJECT are actually all types
+			char[] currentTypeName = queue.retrieve();
+			if (CharOperation.equals(currentTypeName, IIndexConstants.OBJECT)) {
+				currentTypeName = null;
+			}
 
-				// search all index references to a given supertype
-				pattern.superSimpleName = currentTypeName;
-				indexManager.performConcurrentJob(job, waitingPolicy, null); // no
-																				// sub
-																				// progress
-																				// monitor
-																				// since
-																				// its
-																				// too
-																				// costly
-																				// for
-																				// deep
-																				// hierarchies
-				if (progressMonitor != null && ++ticks <= MAXTICKS) {
-					progressMonitor.worked(1);
-				}
+			// walk all references to a given supertype
+			for (int i = 0; i < graphs.length; i++) {
+				graphs[i].acceptSubTypes(currentTypeName, pattern, decoded,
+						searchRequestor, participant, scope);
+			}
+			if (progressMonitor != null && ++ticks <= MAXTICKS) {
+				progressMonitor.worked(1);
+			}
 
-				// in case, we search all subtypes, no need to search further
-				if (currentTypeName == null) {
-					break;
-				}
+			// in case, we search all subtypes, no need to search further
+			if (currentTypeName == null) {
+				break;
 			}
-		} finally {
-			job.finished();
 		}
 	}
 }
@@ -0,0 +1,131 @@
+/*******************************************************************************
+ * Copyright (c) 2016 xored software, Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ *******************************************************************************/
+package org.eclipse.dltk.internal.core.util;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Thread safe bounded LRU cache. The keys are distributed between the
+ * stripes by their hash codes, each stripe is locked separately and evicts
+ * its least recently used entries when its part of the limit is exceeded.
+ */
+public class StripedLRUCache<K, V> {
+
+	private static class Stripe<K, V> extends LinkedHashMap<K, V> {
+		private static final long serialVersionUID = 1L;
+
+		private final int limit;
+
+		Stripe(int limit) {
+			super(16, 0.75f, true);
+			this.limit = limit;
+		}
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+			return size() > limit;
+		}
+	}
+
+	private final Stripe<K, V>[] stripes;
+
+	/**
+	 * @param limit
+	 *            the maximum number of the entries
+	 * @param concurrency
+	 *            the number of the stripes
+	 */
+	@SuppressWarnings("unchecked")
+	public StripedLRUCache(int limit, int concurrency) {
+		int count = 1;
+		while (count < concurrency)
+			count <<= 1;
+		this.stripes = new Stripe[count];
+		final int stripeLimit = Math.max(1, (limit + count - 1) / count);
+		for (int i = 0; i < count; i++)
+			this.stripes[i] = new Stripe<K, V>(stripeLimit);
+	}
+
+	private Stripe<K, V> stripeFor(Object key) {
+		int h = key.hashCode();
+		h ^= (h >>> 20) ^ (h >>> 12);
+		h ^= (h >>> 7) ^ (h >>> 4);
+		return this.stripes[h & (this.stripes.length - 1)];
+	}
+
+	public V get(Object key) {
+		final Stripe<K, V> stripe = stripeFor(key);
+		synchronized (stripe) {
+			return stripe.get(key);
+		}
+	}
+
+	public void put(K key, V value) {
+		final Stripe<K, V> stripe = stripeFor(key);
+		synchronized (stripe) {
+			stripe.put(key, value);
+		}
+	}
+
+	public V remove(Object key) {
+		final Stripe<K, V> stripe = stripeFor(key);
+		synchronized (stripe) {
+			return stripe.remove(key);
+		}
+	}
+
+	/**
+	 * Removes the entry only if the key is currently mapped to the specified
+	 * value.
+	 */
+	public boolean remove(Object key, V value) {
+		final Stripe<K, V> stripe = stripeFor(key);
+		synchronized (stripe) {
+			if (stripe.get(key) == value) {
+				stripe.remove(key);
+				return true;
+			}
+			return false;
+		}
+	}
+
+	public void clear() {
+		for (Stripe<K, V> stripe : this.stripes) {
+			synchronized (stripe) {
+				stripe.clear();
+			}
+		}
+	}
+
+	public int size() {
+		int size = 0;
+		for (Stripe<K, V> stripe : this.stripes) {
+			synchronized (stripe) {
+				size += stripe.size();
+			}
+		}
+		return size;
+	}
+
+	/**
+	 * Returns the snapshot of the values currently in the cache
+	 */
+	public List<V> values() {
+		final List<V> values = new ArrayList<V>();
+		for (Stripe<K, V> stripe : this.stripes) {
+			synchronized (stripe) {
+				values.addAll(stripe.values());
+			}
+		}
+		return values;
+	}
+}
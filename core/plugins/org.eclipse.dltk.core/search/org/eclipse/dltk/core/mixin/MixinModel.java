@@ -47,11 +47,10 @@ import org.eclipse.dltk.core.mixin.IMixinRequestor.ElementInfo;
 import org.eclipse.dltk.core.search.IDLTKSearchScope;
 import org.eclipse.dltk.core.search.SearchEngine;
 import org.eclipse.dltk.core.search.indexing.IIndexConstants;
-import org.eclipse.dltk.internal.core.OverflowingLRUCache;
 import org.eclipse.dltk.internal.core.mixin.IInternalMixinElement;
 import org.eclipse.dltk.internal.core.mixin.MixinCache;
 import org.eclipse.dltk.internal.core.mixin.MixinManager;
-import org.eclipse.dltk.internal.core.util.LRUCache;
+import org.eclipse.dltk.internal.core.util.StripedLRUCache;
 
 public class MixinModel {
 	private static final long REQUEST_CACHE_EXPIRE_TIME = 2000;
@@ -64,6 +63,7 @@ public class MixinModel {
 	private static final int CACHE_LIMIT = 250000;
 	private static final int KEYS_CACHE_LIMIT = 500000;
 	private static final int REQUEST_CACHE_LIMIT = 500;
+	private static final int CACHE_CONCURRENCY = 16;
 
 	private final MixinCache cache;
 
@@ -72,13 +72,14 @@ public class MixinModel {
 	 */
 	private Map<ISourceModule, List<MixinElement>> elementToMixinCache = new HashMap<ISourceModule, List<MixinElement>>();
 
-	private final RequestCache requestCache = new RequestCache(
-			REQUEST_CACHE_LIMIT);
+	private final StripedLRUCache<String, RequestCacheEntry> requestCache = new StripedLRUCache<String, RequestCacheEntry>(
+			REQUEST_CACHE_LIMIT, CACHE_CONCURRENCY);
 
-	// true if exists, false if doesn't
-	private Map<String, Boolean> knownKeysCache = new HashMap<String, Boolean>();
+	// true if exists, false if doesn't, could be read without the lock
+	private final StripedLRUCache<String, Boolean> knownKeysCache = new StripedLRUCache<String, Boolean>(
+			KEYS_CACHE_LIMIT, CACHE_CONCURRENCY);
 	// boolean, for the atomicity of it
-	public boolean removes = true;
+	public volatile boolean removes = true;
 
 	private final IDLTKLanguageToolkit toolkit;
 
@@ -86,7 +87,10 @@ public class MixinModel {
 
 	private MixinRequestor mixinRequestor = new MixinRequestor();
 
-	private ISourceModule currentModule;
+	/**
+	 * The module being parsed by the current thread
+	 */
+	private final ThreadLocal<ISourceModule> currentModule = new ThreadLocal<ISourceModule>();
 
 	/**
 	 * modules required to be reparsed
@@ -134,17 +138,17 @@ public class MixinModel {
 		if (DLTKCore.VERBOSE) {
 			System.out.println("MixinModel.get(" + key + ')'); //$NON-NLS-1$
 		}
+		if (knownKeysCache.get(key) == Boolean.FALSE) {
+			return null;
+		}
 		MixinElement element = null;
 		synchronized (this) {
-			if (knownKeysCache.get(key) == Boolean.FALSE) {
-				return null;
-			}
 			element = (MixinElement) cache.get(key);
 			if (element == null) {
 				if (!removes) {
 					return null;
 				} else {
-					element = new MixinElement(key, currentModule);
+					element = new MixinElement(key, currentModule.get());
 					cache.put(key, element);
 					cache.ensureSpaceLimit(1, element);
 				}
@@ -183,27 +187,6 @@ public class MixinModel {
 		Set<String> keys = null;
 	}
 
-	private static class RequestCache extends OverflowingLRUCache {
-
-		public RequestCache(int size) {
-			super(size);
-		}
-
-		public RequestCache(int size, int overflow) {
-			super(size, overflow);
-		}
-
-		@Override
-		protected boolean close(LRUCacheEntry entry) {
-			return true;
-		}
-
-		@Override
-		protected LRUCache newInstance(int size, int overflow) {
-			return new RequestCache(size, overflow);
-		}
-	}
-
 	/**
 	 * @deprecated
 	 */
@@ -271,15 +254,12 @@ public class MixinModel {
 	private RequestCacheEntry findFromMixin(String pattern,
 			IProgressMonitor monitor) {
 		PerformanceNode p = RuntimePerformanceMonitor.begin();
-		RequestCacheEntry entry;
-		synchronized (this) {
-			entry = (RequestCacheEntry) requestCache.get(pattern);
-			if (entry != null && entry.expireTime >= System.currentTimeMillis())
-				return entry;
-			entry = new RequestCacheEntry();
-			// TODO searches with clashing keys
-			// requestCache.put(pattern, entry);
-		}
+		RequestCacheEntry entry = requestCache.get(pattern);
+		if (entry != null && entry.expireTime >= System.currentTimeMillis())
+			return entry;
+		entry = new RequestCacheEntry();
+		// TODO searches with clashing keys
+		// requestCache.put(pattern, entry);
 		Map<ISourceModule, Set<String>> keys = new HashMap<ISourceModule, Set<String>>();
 		ISourceModule[] containedModules = null;
 		try {
@@ -298,9 +278,7 @@ public class MixinModel {
 			entry.keys.addAll(strs);
 		}
 		if (!monitor.isCanceled()) {
-			synchronized (this) {
-				requestCache.put(pattern, entry);
-			}
+			requestCache.put(pattern, entry);
 		}
 		p.done(getNature(), "Mixin model search items", 0);
 		return entry;
@@ -332,6 +310,12 @@ public class MixinModel {
 
 	// long-running operation
 	public boolean keyExists(String key) {
+		if (removes) {
+			// answer the known keys without taking the lock
+			Boolean cached = knownKeysCache.get(key);
+			if (cached != null)
+				return cached;
+		}
 		synchronized (this) {
 			// TODO: For this version we cache all information, so should be
 			// false.
@@ -342,17 +326,10 @@ public class MixinModel {
 			if (e != null && e.sourceModules.size() > 0) {
 				return true;
 			}
-			Boolean cached = knownKeysCache.get(key);
-			if (cached != null)
-				return cached;
 		}
 		boolean exists = get(key) != null;
-		synchronized (this) {
-			if (knownKeysCache.size() > KEYS_CACHE_LIMIT) {
-				knownKeysCache.clear();
-			}
-			knownKeysCache.put(key, exists);
-		}
+		// the least recently used keys are evicted when the limit is reached
+		knownKeysCache.put(key, exists);
 		return exists;
 	}
 
@@ -387,30 +364,55 @@ public class MixinModel {
 		}
 	}
 
-	// TODO long-running operation. shouldn't be synchronized
-	public synchronized void reportModule(ISourceModule sourceModule) {
-			if (!elementToMixinCache.containsKey(sourceModule)) {
-				elementToMixinCache.put(sourceModule,
-						new ArrayList<MixinElement>());
-			} else {
-				// Module already in model. So we do not to rebuild it.
-				if (!modulesToReparse.remove(sourceModule)) {
-					return;
+	/**
+	 * Parses the module and adds its elements to the model. The model lock is
+	 * held only while updating the model, so the readers are not blocked by
+	 * the parsing. The parser instance is shared, so the modules are parsed
+	 * one at a time and the threads reporting the module being parsed wait for
+	 * its completion. The parser lock is always taken before the model lock,
+	 * so this method must not be called with the model lock being held.
+	 */
+	// long-running operation
+	public void reportModule(ISourceModule sourceModule) {
+		final IMixinParser mixinParser;
+		try {
+			mixinParser = MixinManager.getMixinParser(sourceModule);
+		} catch (CoreException e) {
+			DLTKCore.error("Error in reportModule", e); //$NON-NLS-1$
+			return;
+		}
+		if (mixinParser == null) {
+			synchronized (this) {
+				if (!elementToMixinCache.containsKey(sourceModule)) {
+					elementToMixinCache.put(sourceModule,
+							new ArrayList<MixinElement>());
 				}
-				// We need to reparse module if some elements are moved from it.
+				modulesToReparse.remove(sourceModule);
 			}
-		try {
-			IMixinParser mixinParser = MixinManager
-					.getMixinParser(sourceModule);
-			if (mixinParser != null) {
-				this.currentModule = sourceModule;
+			return;
+		}
+		synchronized (mixinParser) {
+			synchronized (this) {
+				if (!elementToMixinCache.containsKey(sourceModule)) {
+					elementToMixinCache.put(sourceModule,
+							new ArrayList<MixinElement>());
+				} else {
+					// Module already in model. So we do not to rebuild it.
+					if (!modulesToReparse.remove(sourceModule)) {
+						return;
+					}
+					// We need to reparse module if some elements are moved
+					// from it.
+				}
+			}
+			final ISourceModule previousModule = currentModule.get();
+			currentModule.set(sourceModule);
+			try {
 				mixinParser.setRequirestor(mixinRequestor);
 				mixinParser.parserSourceModule(true, sourceModule);
-				this.currentModule = null;
+			} finally {
+				currentModule.set(previousModule);
 			}
-		} catch (CoreException e) {
-			DLTKCore.error("Error in reportModule", e); //$NON-NLS-1$
-			return;
 		}
 	}
 
@@ -445,7 +447,7 @@ public class MixinModel {
 		// called with lock being held
 		MixinElement element = (MixinElement) cache.get(key);
 		if (element == null) {
-			element = new MixinElement(key, currentModule);
+			element = new MixinElement(key, currentModule.get());
 			this.cache.put(key, element);
 			this.cache.ensureSpaceLimit(1, element);
 		}
@@ -460,13 +462,19 @@ public class MixinModel {
 		@Override
 		public void elementChanged(ElementChangedEvent event) {
 			IModelElementDelta delta = event.getDelta();
+			final List<ISourceModule> added = new ArrayList<ISourceModule>();
 			synchronized (MixinModel.this) {
-				processDelta(delta);
+				processDelta(delta, added);
+			}
+			// parse the added modules without holding the lock
+			for (ISourceModule module : added) {
+				reportModule(module);
 			}
 		}
 
 		// called with lock being held
-		private void processDelta(IModelElementDelta delta) {
+		private void processDelta(IModelElementDelta delta,
+				List<ISourceModule> added) {
 			IModelElement element = delta.getElement();
 			if (delta.getKind() == IModelElementDelta.REMOVED
 					|| delta.getKind() == IModelElementDelta.CHANGED
@@ -517,16 +525,16 @@ public class MixinModel {
 			if (delta.getKind() == IModelElementDelta.ADDED) {
 				if (element.getElementType() == IModelElement.SOURCE_MODULE) {
 					if (modulesToReparse.add((ISourceModule) element)) {
-						reportModule((ISourceModule) element);
+						added.add((ISourceModule) element);
 					}
 				}
 				knownKeysCache.clear();
-				requestCache.flush();
+				requestCache.clear();
 			}
 
 			if ((delta.getFlags() & IModelElementDelta.F_CHILDREN) != 0) {
 				for (IModelElementDelta child : delta.getAffectedChildren()) {
-					processDelta(child);
+					processDelta(child, added);
 				}
 			} else if (delta.getKind() == IModelElementDelta.REMOVED
 					&& element.getElementType() == IModelElement.SCRIPT_FOLDER) {
@@ -666,15 +674,11 @@ public class MixinModel {
 	// called with lock being held
 	private void removeFromRequestCache(ISourceModule element) {
 		// Clear requests cache.
-		@SuppressWarnings("unchecked")
-		Enumeration<RequestCacheEntry> enumeration = this.requestCache
-				.elements();
-		while (enumeration.hasMoreElements()) {
-			RequestCacheEntry entry = enumeration.nextElement();
+		for (RequestCacheEntry entry : this.requestCache.values()) {
 			if (entry.modules != null) {
 				if (entry.modules.contains(element)) {
 					// we can do it now
-					this.requestCache.remove(entry.prefix);
+					this.requestCache.remove(entry.prefix, entry);
 				}
 			}
 		}
@@ -822,24 +826,19 @@ public class MixinModel {
 		public Object[] getObjects(ISourceModule module) {
 			this.validate();
 			synchronized (MixinModel.this) {
-				List<Object> list = this.sourceModuleToObject.get(module);
-				if (list == null)
-					return NO_OBJECTS;
-				Object[] objs = list.toArray();
-				for (Object obj : objs) {
-					notifyInitializeListener(this, module, obj);
-				}
-				return objs;
+				return collectObjects(module);
 			}
 		}
 
 		@Override
 		public Object[] getAllObjects() {
+			// validated before taking the model lock, since the modules are
+			// reported without it
 			this.validate();
 			synchronized (MixinModel.this) {
 				Set<Object> objects = new HashSet<Object>();
 				for (ISourceModule module : sourceModules) {
-					for (Object obj : this.getObjects(module)) {
+					for (Object obj : collectObjects(module)) {
 						objects.add(obj);
 					}
 				}
@@ -847,6 +846,18 @@ public class MixinModel {
 			}
 		}
 
+		// called with lock being held
+		private Object[] collectObjects(ISourceModule module) {
+			List<Object> list = this.sourceModuleToObject.get(module);
+			if (list == null)
+				return NO_OBJECTS;
+			Object[] objs = list.toArray();
+			for (Object obj : objs) {
+				notifyInitializeListener(this, module, obj);
+			}
+			return objs;
+		}
+
 		public boolean isFinal() {
 			return bFinal;
 		}
@@ -907,14 +918,15 @@ public class MixinModel {
 			// if( DLTKCore.VERBOSE_MIXIN ) {
 			// System.out.println("Append mixin:" + info.key);
 			// }
+			final ISourceModule module = currentModule.get();
+			knownKeysCache.put(info.key, Boolean.TRUE);
 			synchronized (MixinModel.this) {
-				knownKeysCache.put(info.key, Boolean.TRUE);
 				String[] list = info.key.split("\\" //$NON-NLS-1$
 						+ IMixinRequestor.MIXIN_NAME_SEPARATOR);
 				MixinElement element = getCreateEmpty(info.key);
-				addElementToModules(element);
-				element.addModule(currentModule);
-				element.addInfo(info, currentModule);
+				addElementToModules(element, module);
+				element.addModule(module);
+				element.addInfo(info, module);
 				// Append as childs for all other elements. Also append modules
 				// to
 				// all selected elements.
@@ -923,7 +935,7 @@ public class MixinModel {
 						MixinElement parent = getCreateEmpty(element
 								.getParentKey());
 						parent.children.add(element);
-						addElementToModules(parent);
+						addElementToModules(parent, module);
 						element = parent;
 					}
 				}
@@ -931,13 +943,13 @@ public class MixinModel {
 		}
 
 		// called with lock being held
-		private void addElementToModules(MixinElement element) {
+		private void addElementToModules(MixinElement element,
+				ISourceModule module) {
 			List<MixinElement> elements = MixinModel.this.elementToMixinCache
-					.get(currentModule);
+					.get(module);
 			if (elements == null) {
 				elements = new ArrayList<MixinElement>();
-				MixinModel.this.elementToMixinCache
-						.put(currentModule, elements);
+				MixinModel.this.elementToMixinCache.put(module, elements);
 			}
 			elements.add(element);
 		}
@@ -977,7 +989,7 @@ public class MixinModel {
 
 	public synchronized void clearKeysCache() {
 		knownKeysCache.clear();
-		requestCache.flush();
+		requestCache.clear();
 	}
 
 	// // Mixin object initialize listeners code
@@ -1007,7 +1019,7 @@ public class MixinModel {
 		elementToMixinCache.clear();
 		knownKeysCache.clear();
 		modulesToReparse.clear();
-		requestCache.flush();
+		requestCache.clear();
 	}
 
 	public String getNature() {
@@ -12,13 +12,20 @@ package org.eclipse.dltk.core.search.index;
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.RandomAccessFile;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
 import java.util.regex.Pattern;
 
 import org.eclipse.dltk.compiler.CharOperation;
@@ -26,6 +33,8 @@ import org.eclipse.dltk.compiler.util.HashtableOfIntValues;
 import org.eclipse.dltk.compiler.util.HashtableOfObject;
 import org.eclipse.dltk.compiler.util.SimpleLookupTable;
 import org.eclipse.dltk.compiler.util.SimpleSet;
+import org.eclipse.core.runtime.Platform;
+import org.eclipse.dltk.core.DLTKCore;
 import org.eclipse.dltk.core.search.SearchPattern;
 import org.eclipse.dltk.core.search.indexing.IIndexConstants;
 import org.eclipse.dltk.internal.core.util.Messages;
@@ -60,10 +69,36 @@ public class DiskIndex {
 	// int[] of document #'s) or
 	// offset if not read yet
 
+	private HashtableOfObject categoryBlocks; // category name ->
+	// CategoryBlocks, the skip index of the sorted category table
+
 	private char[] cachedCategoryName;
 	char separator = Index.DEFAULT_SEPARATOR;
 
-	public static final String SIGNATURE = "DLTK INDEX VERSION 1.014"; //$NON-NLS-1$
+	private boolean sortedTables; // false if the file has the previous format
+
+	private boolean compressedPostings; // false if the document numbers are
+	// written with documentReferenceSize bytes each
+
+	private MappedByteBuffer mappedBuffer; // whole file if memory mapped
+
+	private boolean mappingFailed;
+
+	private static Boolean memoryMapped; // DLTKCore.INDEXER_MEMORY_MAPPED
+
+	private static Method invokeCleaner; // Unsafe.invokeCleaner() on Java 9+
+
+	private static Object unsafe;
+
+	public static final String SIGNATURE = "DLTK INDEX VERSION 1.016"; //$NON-NLS-1$
+
+	/*
+	 * previous formats without compressed document numbers and without sorted
+	 * category tables, such files are still readable and are converted to the
+	 * current format when saved
+	 */
+	private static final String SIGNATURE_1_015 = "DLTK INDEX VERSION 1.015"; //$NON-NLS-1$
+	private static final String SIGNATURE_1_014 = "DLTK INDEX VERSION 1.014"; //$NON-NLS-1$
 
 	public final static boolean DEBUG = false;
 
@@ -73,6 +108,94 @@ public class DiskIndex {
 
 	private static final int CHUNK_SIZE = 100;
 
+	private static final int BLOCK_SIZE = 32; // number of words in a block of
+	// the sorted category table
+
+	private static final int LARGE_ARRAY_SIZE = 256;
+
+	/**
+	 * The skip index of the sorted category table: the first word and the
+	 * file offset of every block of {@link #BLOCK_SIZE} words.
+	 */
+	static class CategoryBlocks {
+
+		final int size;
+
+		final char[][] firstWords;
+
+		final int[] offsets;
+
+		CategoryBlocks(int size, char[][] firstWords, int[] offsets) {
+			this.size = size;
+			this.firstWords = firstWords;
+			this.offsets = offsets;
+		}
+
+		/**
+		 * Answers the last block which could contain the specified word
+		 */
+		int findBlock(char[] word) {
+			int low = 0;
+			int high = this.firstWords.length - 1;
+			while (low <= high) {
+				int mid = (low + high) >>> 1;
+				int compare = Util.compare(this.firstWords[mid], word);
+				if (compare < 0) {
+					low = mid + 1;
+				} else if (compare > 0) {
+					high = mid - 1;
+				} else {
+					return mid;
+				}
+			}
+			return high < 0 ? 0 : high;
+		}
+	}
+
+	/**
+	 * Stream reading the mapped index file from the specified position
+	 */
+	static class ByteBufferInputStream extends InputStream {
+
+		private final ByteBuffer buffer;
+
+		ByteBufferInputStream(ByteBuffer buffer) {
+			this.buffer = buffer;
+		}
+
+		@Override
+		public int read() {
+			return this.buffer.hasRemaining() ? this.buffer.get() & 0xFF : -1;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) {
+			if (len == 0)
+				return 0;
+			int remaining = this.buffer.remaining();
+			if (remaining == 0)
+				return -1;
+			if (len > remaining)
+				len = remaining;
+			this.buffer.get(b, off, len);
+			return len;
+		}
+
+		@Override
+		public long skip(long n) {
+			if (n <= 0)
+				return 0;
+			int count = (int) Math.min(n, this.buffer.remaining());
+			this.buffer.position(this.buffer.position() + count);
+			return count;
+		}
+
+		@Override
+		public int available() {
+			return this.buffer.remaining();
+		}
+	}
+
 	static class IntList {
 
 		int size;
@@ -116,6 +239,9 @@ public class DiskIndex {
 		this.categoryTables = null;
 		this.cachedCategoryName = null;
 		this.categoryOffsets = null;
+		this.categoryBlocks = null;
+		this.sortedTables = true;
+		this.compressedPostings = true;
 	}
 
 	SimpleSet addDocumentNames(String substring, MemoryIndex memoryIndex)
@@ -171,9 +297,10 @@ public class DiskIndex {
 			SimpleLookupTable docsToRefs = memoryIndex.docsToReferences;
 			if (result == null)
 				result = new EntryResult(word, null);
-			int[] docNumbers = readDocumentNumbers(wordsToDocNumbers.get(word));
-			for (int i = 0, l = docNumbers.length; i < l; i++) {
-				String docName = readDocumentName(docNumbers[i]);
+			PostingIterator docNumbers = iterateDocumentNumbers(wordsToDocNumbers
+					.get(word));
+			while (docNumbers.hasNext()) {
+				String docName = readDocumentName(docNumbers.next());
 				if (!docsToRefs.containsKey(docName))
 					result.addDocumentName(docName);
 			}
@@ -214,7 +341,7 @@ public class DiskIndex {
 			case SearchPattern.R_EXACT_MATCH | SearchPattern.R_CASE_SENSITIVE:
 				for (int i = 0, l = categories.length; i < l; i++) {
 					HashtableOfObject wordsToDocNumbers = readCategoryTable(
-							categories[i], false);
+							categories[i], key, matchRule);
 					if (wordsToDocNumbers != null
 							&& wordsToDocNumbers.containsKey(key))
 						results = addQueryResult(results, key,
@@ -224,7 +351,7 @@ public class DiskIndex {
 			case SearchPattern.R_PREFIX_MATCH | SearchPattern.R_CASE_SENSITIVE:
 				for (int i = 0, l = categories.length; i < l; i++) {
 					HashtableOfObject wordsToDocNumbers = readCategoryTable(
-							categories[i], false);
+							categories[i], key, matchRule);
 					if (wordsToDocNumbers != null) {
 						char[][] words = wordsToDocNumbers.keyTable;
 						for (int j = 0, m = words.length; j < m; j++) {
@@ -274,7 +401,7 @@ public class DiskIndex {
 			default:
 				for (int i = 0, l = categories.length; i < l; i++) {
 					HashtableOfObject wordsToDocNumbers = readCategoryTable(
-							categories[i], false);
+							categories[i], key, matchRule);
 					if (wordsToDocNumbers != null) {
 						char[][] words = wordsToDocNumbers.keyTable;
 						for (int j = 0, m = words.length; j < m; j++) {
@@ -298,11 +425,9 @@ public class DiskIndex {
 	private void cacheDocumentNames() throws IOException {
 		// will need all document names so get them now
 		this.cachedChunks = new String[this.numberOfChunks][];
-		DataInputStream stream = new DataInputStream(new BufferedInputStream(
-				new FileInputStream(getIndexFile()),
-				this.numberOfChunks > 5 ? 4096 : 2048));
+		DataInputStream stream = openStream(this.chunkOffsets[0],
+				this.numberOfChunks > 5 ? 4096 : 2048);
 		try {
-			stream.skip(this.chunkOffsets[0]);
 			for (int i = 0; i < this.numberOfChunks; i++) {
 				int size = i == this.numberOfChunks - 1 ? this.sizeOfLastChunk
 						: CHUNK_SIZE;
@@ -488,8 +613,14 @@ public class DiskIndex {
 				RandomAccessFile file = new RandomAccessFile(this.fileName, "r"); //$NON-NLS-1$
 				try {
 					String signature = file.readUTF();
-					if (!signature.equals(SIGNATURE))
+					if (signature.equals(SIGNATURE_1_014)) {
+						this.sortedTables = false;
+						this.compressedPostings = false;
+					} else if (signature.equals(SIGNATURE_1_015)) {
+						this.compressedPostings = false;
+					} else if (!signature.equals(SIGNATURE)) {
 						throw new IOException(Messages.exception_wrongFormat);
+					}
 
 					this.headerInfoOffset = file.readInt();
 					if (this.headerInfoOffset > 0) // file is empty if its not
@@ -498,8 +629,13 @@ public class DiskIndex {
 				} finally {
 					file.close();
 				}
-				return;
+				if (!needsMigration() || this.headerInfoOffset > 0)
+					return;
+				// empty file of the previous format is simply recreated
+				this.sortedTables = true;
+				this.compressedPostings = true;
 			}
+			releaseMappedBuffer();
 			if (!indexFile.delete()) {
 				if (DEBUG)
 					System.out
@@ -523,6 +659,137 @@ public class DiskIndex {
 		}
 	}
 
+	/**
+	 * Answers if the file has the previous format and should be rewritten, the
+	 * conversion happens on the next {@link #mergeWith(MemoryIndex)}.
+	 */
+	boolean needsMigration() {
+		return !this.sortedTables || !this.compressedPostings;
+	}
+
+	/**
+	 * Answers if the file contains no documents
+	 */
+	boolean isEmpty() {
+		return this.numberOfChunks <= 0;
+	}
+
+	static synchronized boolean isMemoryMapped() {
+		String value = System.getProperty(DLTKCore.INDEXER_MEMORY_MAPPED);
+		if (value != null)
+			return Boolean.valueOf(value).booleanValue();
+		if (memoryMapped == null) {
+			if (Platform.isRunning()) {
+				value = Platform.getPreferencesService().getString(
+						DLTKCore.PLUGIN_ID, DLTKCore.INDEXER_MEMORY_MAPPED,
+						null, null);
+			}
+			memoryMapped = Boolean.valueOf(value);
+		}
+		return memoryMapped.booleanValue();
+	}
+
+	/**
+	 * Answers the buffer mapping the whole index file or <code>null</code> if
+	 * the file should be read through streams.
+	 */
+	private synchronized ByteBuffer getMappedBuffer() {
+		if (this.mappedBuffer == null && !this.mappingFailed
+				&& this.headerInfoOffset > 0 && isMemoryMapped()) {
+			try {
+				RandomAccessFile file = new RandomAccessFile(this.fileName,
+						"r"); //$NON-NLS-1$
+				try {
+					FileChannel channel = file.getChannel();
+					// the mapping stays valid after the file is closed
+					this.mappedBuffer = channel.map(
+							FileChannel.MapMode.READ_ONLY, 0, channel.size());
+				} finally {
+					file.close();
+				}
+			} catch (IOException e) {
+				this.mappingFailed = true;
+				if (DLTKCore.DEBUG_INDEX)
+					Util.log(e, "Failed to map index " + this.fileName); //$NON-NLS-1$
+			}
+		}
+		return this.mappedBuffer;
+	}
+
+	/**
+	 * Releases the memory mapped buffer, so the file could be deleted or
+	 * replaced. The buffer is unmapped immediately where the VM allows it,
+	 * otherwise it is left to the garbage collector.
+	 */
+	synchronized void releaseMappedBuffer() {
+		MappedByteBuffer buffer = this.mappedBuffer;
+		if (buffer == null)
+			return;
+		this.mappedBuffer = null;
+		try {
+			if (getInvokeCleaner() != null) {
+				// Java 9+, the buffer class is not accessible any more
+				invokeCleaner.invoke(unsafe, buffer);
+				return;
+			}
+			Method cleanerMethod = buffer.getClass().getMethod("cleaner"); //$NON-NLS-1$
+			cleanerMethod.setAccessible(true);
+			Object cleaner = cleanerMethod.invoke(buffer);
+			if (cleaner != null) {
+				Method cleanMethod = cleaner.getClass().getMethod("clean"); //$NON-NLS-1$
+				cleanMethod.setAccessible(true);
+				cleanMethod.invoke(cleaner);
+			}
+		} catch (Exception e) {
+			// not supported by this VM
+		}
+	}
+
+	/**
+	 * Answers the <code>sun.misc.Unsafe.invokeCleaner(ByteBuffer)</code>
+	 * method or <code>null</code> if the VM does not provide it.
+	 */
+	private static synchronized Method getInvokeCleaner() {
+		if (unsafe == null) {
+			try {
+				Class<?> unsafeClass = Class.forName("sun.misc.Unsafe"); //$NON-NLS-1$
+				Method method = unsafeClass.getMethod(
+						"invokeCleaner", ByteBuffer.class); //$NON-NLS-1$
+				Field field = unsafeClass.getDeclaredField("theUnsafe"); //$NON-NLS-1$
+				field.setAccessible(true);
+				unsafe = field.get(null);
+				invokeCleaner = method;
+			} catch (Exception e) {
+				// Java 8 and older, the buffer cleaner is used instead
+				unsafe = Boolean.FALSE;
+			}
+		}
+		return invokeCleaner;
+	}
+
+	/**
+	 * Opens the stream reading the index file from the specified offset,
+	 * directly from the mapped buffer if the file is memory mapped.
+	 */
+	private DataInputStream openStream(int offset, int bufferSize)
+			throws IOException {
+		ByteBuffer buffer = getMappedBuffer();
+		if (buffer != null) {
+			buffer = buffer.duplicate();
+			buffer.position(offset);
+			return new DataInputStream(new ByteBufferInputStream(buffer));
+		}
+		DataInputStream stream = new DataInputStream(new BufferedInputStream(
+				new FileInputStream(getIndexFile()), bufferSize));
+		try {
+			stream.skip(offset);
+		} catch (IOException e) {
+			stream.close();
+			throw e;
+		}
+		return stream;
+	}
+
 	private void initializeFrom(DiskIndex diskIndex, File newIndexFile)
 			throws IOException {
 		if (newIndexFile.exists() && !newIndexFile.delete()) { // delete the
@@ -644,6 +911,7 @@ public class DiskIndex {
 			// deleted documents that had never been saved
 
 			// index is now empty since all the saved documents were removed
+			releaseMappedBuffer();
 			DiskIndex newDiskIndex = new DiskIndex(this.fileName);
 			newDiskIndex.initialize(false);
 			return newDiskIndex;
@@ -691,6 +959,7 @@ public class DiskIndex {
 			newDiskIndex.writeOffsetToHeader(offsetToHeader);
 
 			// rename file by deleting previous index file & renaming temp one
+			releaseMappedBuffer();
 			File old = getIndexFile();
 			if (old.exists() && !old.delete()) {
 				if (DEBUG)
@@ -722,11 +991,9 @@ public class DiskIndex {
 		if (this.numberOfChunks <= 0)
 			return new String[0];
 
-		DataInputStream stream = new DataInputStream(new BufferedInputStream(
-				new FileInputStream(getIndexFile()),
-				this.numberOfChunks > 5 ? 4096 : 2048));
+		DataInputStream stream = openStream(this.chunkOffsets[0],
+				this.numberOfChunks > 5 ? 4096 : 2048);
 		try {
-			stream.skip(this.chunkOffsets[0]);
 			int lastIndex = this.numberOfChunks - 1;
 			String[] docNames = new String[lastIndex * CHUNK_SIZE
 					+ sizeOfLastChunk];
@@ -763,15 +1030,18 @@ public class DiskIndex {
 			}
 		}
 
-		DataInputStream stream = new DataInputStream(new BufferedInputStream(
-				new FileInputStream(getIndexFile()), 2048));
+		DataInputStream stream = openStream(offset, 2048);
 		HashtableOfObject categoryTable = null;
 		char[][] matchingWords = null;
 		int count = 0;
 		int firstOffset = -1;
 		try {
-			stream.skip(offset);
 			int size = stream.readInt();
+			if (this.sortedTables) {
+				// skip index precedes the words
+				stream.readInt(); // number of blocks
+				stream.skipBytes(stream.readInt());
+			}
 			try {
 				if (size < 0) { // DEBUG
 					System.err
@@ -795,7 +1065,7 @@ public class DiskIndex {
 						.println("--------------------   END   --------------------"); //$NON-NLS-1$
 				throw oom;
 			}
-			int largeArraySize = 256;
+			int largeArraySize = LARGE_ARRAY_SIZE;
 			for (int i = 0; i < size; i++) {
 				char[] word = Util.readUTF(stream);
 				int arrayOffset = stream.readInt();
@@ -845,14 +1115,170 @@ public class DiskIndex {
 		}
 
 		if (matchingWords != null && count > 0) {
-			stream = new DataInputStream(new BufferedInputStream(
-					new FileInputStream(getIndexFile()), 2048));
+			stream = openStream(firstOffset, 2048);
 			try {
-				stream.skip(firstOffset);
 				for (int i = 0; i < count; i++)
 					// each array follows the previous one
 					categoryTable.put(matchingWords[i],
-							readDocumentArray(stream, stream.readInt()));
+							readLargeDocumentArray(stream));
+			} finally {
+				stream.close();
+			}
+		}
+		return categoryTable;
+	}
+
+	/**
+	 * Answers the words of the category table which could match the key. If
+	 * the table is sorted only the ranges of the words selected by
+	 * {@link #seekRanges(char[], int)} are read, otherwise the whole table.
+	 */
+	private HashtableOfObject readCategoryTable(char[] categoryName,
+			char[] key, int matchRule) throws IOException {
+		if (this.sortedTables
+				&& (this.categoryTables == null || this.categoryTables
+						.get(categoryName) == null)) {
+			char[][] ranges = seekRanges(key, matchRule);
+			if (ranges != null)
+				return readCategoryRanges(categoryName, ranges);
+		}
+		return readCategoryTable(categoryName, false);
+	}
+
+	/**
+	 * Answers the ranges of the sorted words which contain all the possible
+	 * matches of the key, as pairs of the lower (inclusive) and upper
+	 * (exclusive, <code>null</code> if unlimited) bounds, or <code>null</code>
+	 * if all the words should be checked.
+	 */
+	static char[][] seekRanges(char[] key, int matchRule) {
+		if (key == null || key.length == 0)
+			return null;
+		boolean isCamelCase = (matchRule & SearchPattern.R_CAMELCASE_MATCH) != 0;
+		boolean isCaseSensitive = (matchRule & SearchPattern.R_CASE_SENSITIVE) != 0;
+		char[] prefix;
+		switch (matchRule
+				& ~(SearchPattern.R_CAMELCASE_MATCH | SearchPattern.R_CASE_SENSITIVE)) {
+		case SearchPattern.R_EXACT_MATCH:
+			if (isCaseSensitive && !isCamelCase) // the key itself
+				return new char[][] { key, CharOperation.append(key, '\0') };
+			prefix = key;
+			break;
+		case SearchPattern.R_PREFIX_MATCH:
+			prefix = key;
+			break;
+		case SearchPattern.R_PATTERN_MATCH:
+			int length = 0;
+			while (length < key.length && key[length] != '*'
+					&& key[length] != '?')
+				length++;
+			if (length == 0)
+				return null;
+			prefix = CharOperation.subarray(key, 0, length);
+			break;
+		default:
+			return null;
+		}
+		if (isCamelCase) // camel case matches start with the same character
+			prefix = new char[] { key[0] };
+		if (isCaseSensitive)
+			return new char[][] { prefix, nextPrefix(prefix) };
+
+		// case insensitive matches are partitioned by the first letter, words
+		// starting with non-ASCII characters are checked too
+		char first = prefix[0];
+		if (first >= 0x80)
+			return null;
+		char upper = Character.toUpperCase(first);
+		char lower = Character.toLowerCase(first);
+		char[] nonAscii = new char[] { 0x80 };
+		if (upper == lower)
+			return new char[][] { new char[] { first },
+					new char[] { (char) (first + 1) }, nonAscii, null };
+		return new char[][] { new char[] { upper },
+				new char[] { (char) (upper + 1) }, new char[] { lower },
+				new char[] { (char) (lower + 1) }, nonAscii, null };
+	}
+
+	/**
+	 * Answers the smallest word greater than all the words starting with the
+	 * prefix, or <code>null</code> if there is no such word.
+	 */
+	private static char[] nextPrefix(char[] prefix) {
+		int length = prefix.length;
+		while (length > 0 && prefix[length - 1] == Character.MAX_VALUE)
+			length--;
+		if (length == 0)
+			return null;
+		char[] next = CharOperation.subarray(prefix, 0, length);
+		next[length - 1]++;
+		return next;
+	}
+
+	private synchronized CategoryBlocks readCategoryBlocks(char[] categoryName)
+			throws IOException {
+		if (this.categoryBlocks == null) {
+			this.categoryBlocks = new HashtableOfObject(3);
+		} else {
+			CategoryBlocks blocks = (CategoryBlocks) this.categoryBlocks
+					.get(categoryName);
+			if (blocks != null)
+				return blocks;
+		}
+		int offset = this.categoryOffsets.get(categoryName);
+		if (offset == HashtableOfIntValues.NO_VALUE)
+			return null;
+
+		DataInputStream stream = openStream(offset, 2048);
+		try {
+			int size = stream.readInt();
+			int blockCount = stream.readInt();
+			int blocksLength = stream.readInt();
+			int start = offset + 12 + blocksLength; // offset of the first word
+			char[][] firstWords = new char[blockCount][];
+			int[] offsets = new int[blockCount];
+			for (int i = 0; i < blockCount; i++) {
+				firstWords[i] = Util.readUTF(stream);
+				offsets[i] = start + stream.readInt();
+			}
+			CategoryBlocks blocks = new CategoryBlocks(size, firstWords,
+					offsets);
+			this.categoryBlocks.put(categoryName, blocks);
+			return blocks;
+		} finally {
+			stream.close();
+		}
+	}
+
+	/**
+	 * Reads the words of the sorted category table which are in the specified
+	 * ranges, see {@link #seekRanges(char[], int)}
+	 */
+	private synchronized HashtableOfObject readCategoryRanges(
+			char[] categoryName, char[][] ranges) throws IOException {
+		CategoryBlocks blocks = readCategoryBlocks(categoryName);
+		if (blocks == null)
+			return null;
+		HashtableOfObject categoryTable = new HashtableOfObject(13);
+		if (blocks.size == 0)
+			return categoryTable;
+		for (int r = 0; r < ranges.length; r += 2) {
+			char[] low = ranges[r];
+			char[] high = ranges[r + 1];
+			int block = blocks.findBlock(low);
+			if (high != null
+					&& Util.compare(blocks.firstWords[block], high) >= 0)
+				continue; // the range is before the first word
+			DataInputStream stream = openStream(blocks.offsets[block], 2048);
+			try {
+				for (int i = block * BLOCK_SIZE; i < blocks.size; i++) {
+					char[] word = Util.readUTF(stream);
+					Object docNumbers = readCategoryEntry(stream);
+					if (high != null && Util.compare(word, high) >= 0)
+						break;
+					if (Util.compare(word, low) >= 0)
+						categoryTable.put(word, docNumbers);
+				}
 			} finally {
 				stream.close();
 			}
@@ -860,6 +1286,20 @@ public class DiskIndex {
 		return categoryTable;
 	}
 
+	/**
+	 * Reads the document numbers of the word in the category table, large
+	 * arrays are answered as offsets to be read later.
+	 */
+	private Object readCategoryEntry(DataInputStream stream)
+			throws IOException {
+		int arrayOffset = stream.readInt();
+		if (arrayOffset <= 0)
+			return new int[] { -arrayOffset };
+		if (arrayOffset < LARGE_ARRAY_SIZE)
+			return readDocumentArray(stream, arrayOffset);
+		return Integer.valueOf(stream.readInt());
+	}
+
 	private void readChunk(String[] docNames, DataInputStream stream,
 			int index, int size) throws IOException {
 		String current = stream.readUTF();
@@ -891,6 +1331,12 @@ public class DiskIndex {
 	private int[] readDocumentArray(DataInputStream stream, int arraySize)
 			throws IOException {
 		int[] result = new int[arraySize];
+		if (this.compressedPostings) {
+			int documentNumber = 0;
+			for (int i = 0; i < arraySize; i++)
+				result[i] = documentNumber += readVarInt(stream);
+			return result;
+		}
 		switch (this.documentReferenceSize) {
 		case 1:
 			for (int i = 0; i < arraySize; i++)
@@ -921,17 +1367,26 @@ public class DiskIndex {
 					: this.chunkOffsets[chunkNumber + 1]) - start;
 			if (numberOfBytes < 0)
 				throw new IllegalArgumentException();
-			byte[] bytes = new byte[numberOfBytes];
-			FileInputStream file = new FileInputStream(getIndexFile());
-			try {
-				file.skip(start);
-				if (file.read(bytes, 0, numberOfBytes) != numberOfBytes)
-					throw new IOException();
-			} finally {
-				file.close();
+			DataInputStream stream;
+			ByteBuffer buffer = getMappedBuffer();
+			if (buffer != null) {
+				// decode the names directly from the mapped file
+				buffer = buffer.duplicate();
+				buffer.position(start);
+				buffer.limit(start + numberOfBytes);
+				stream = new DataInputStream(new ByteBufferInputStream(buffer));
+			} else {
+				byte[] bytes = new byte[numberOfBytes];
+				FileInputStream file = new FileInputStream(getIndexFile());
+				try {
+					file.skip(start);
+					if (file.read(bytes, 0, numberOfBytes) != numberOfBytes)
+						throw new IOException();
+				} finally {
+					file.close();
+				}
+				stream = new DataInputStream(new ByteArrayInputStream(bytes));
 			}
-			DataInputStream stream = new DataInputStream(
-					new ByteArrayInputStream(bytes));
 			int numberOfNames = isLastChunk ? this.sizeOfLastChunk : CHUNK_SIZE;
 			chunk = this.cachedChunks[chunkNumber] = new String[numberOfNames];
 			readChunk(chunk, stream, 0, numberOfNames);
@@ -946,16 +1401,76 @@ public class DiskIndex {
 		if (arrayOffset instanceof int[])
 			return (int[]) arrayOffset;
 
-		DataInputStream stream = new DataInputStream(new BufferedInputStream(
-				new FileInputStream(getIndexFile()), 2048));
+		DataInputStream stream = openStream(
+				((Integer) arrayOffset).intValue(), 2048);
 		try {
-			stream.skip(((Integer) arrayOffset).intValue());
-			return readDocumentArray(stream, stream.readInt());
+			return readLargeDocumentArray(stream);
 		} finally {
 			stream.close();
 		}
 	}
 
+	/**
+	 * Answers the iterator over the sorted document numbers, which are either
+	 * a cached array or an Integer offset in the file. Compressed arrays are
+	 * decoded while iterating, directly from the mapped file if possible.
+	 */
+	synchronized PostingIterator iterateDocumentNumbers(Object arrayOffset)
+			throws IOException {
+		if (arrayOffset instanceof int[] || !this.compressedPostings)
+			return new PostingIterator(readDocumentNumbers(arrayOffset));
+
+		int offset = ((Integer) arrayOffset).intValue();
+		ByteBuffer buffer = getMappedBuffer();
+		if (buffer != null) {
+			buffer = buffer.duplicate();
+			buffer.position(offset);
+			int size = buffer.getInt();
+			int length = buffer.getInt();
+			buffer.limit(buffer.position() + length);
+			return new PostingIterator(buffer.slice(), size);
+		}
+		DataInputStream stream = openStream(offset, 2048);
+		try {
+			int size = stream.readInt();
+			byte[] bytes = new byte[stream.readInt()];
+			stream.readFully(bytes);
+			return new PostingIterator(ByteBuffer.wrap(bytes), size);
+		} finally {
+			stream.close();
+		}
+	}
+
+	/**
+	 * Reads the array of document numbers written before the category table
+	 */
+	private int[] readLargeDocumentArray(DataInputStream stream)
+			throws IOException {
+		int size = stream.readInt();
+		if (this.compressedPostings)
+			stream.readInt(); // length in bytes
+		return readDocumentArray(stream, size);
+	}
+
+	static int readVarInt(DataInputStream stream) throws IOException {
+		int b = stream.readByte();
+		int value = b & 0x7F;
+		for (int shift = 7; b < 0; shift += 7) {
+			b = stream.readByte();
+			value |= (b & 0x7F) << shift;
+		}
+		return value;
+	}
+
+	static void writeVarInt(DataOutputStream stream, int value)
+			throws IOException {
+		while ((value & ~0x7F) != 0) {
+			stream.writeByte((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		stream.writeByte(value);
+	}
+
 	private void readHeaderInfo(RandomAccessFile file) throws IOException {
 		file.seek(this.headerInfoOffset);
 
@@ -1090,61 +1605,84 @@ public class DiskIndex {
 		// any document number arrays with >= 256 elements are written before
 		// the table (the offset to each array is remembered)
 		// then the number of word->int[] pairs in the table is written
-		// for each word -> int[] pair, the word is written followed by:
+		// followed by the skip index: the number of blocks, the length of
+		// the index and for each block of BLOCK_SIZE words its first word
+		// and the offset of the block relative to the first word
+		// the words are written in sorted order, for each word -> int[] pair,
+		// the word is written followed by:
 		// an int <= 0 if the array size == 1
 		// an int > 1 & < 256 for the size of the array if its > 1 & < 256, the
 		// document array follows immediately
 		// 256 if the array size >= 256 followed by another int which is the
 		// offset to the array (written prior to the table)
 
-		int largeArraySize = 256;
 		Object[] values = wordsToDocs.valueTable;
-		for (int i = 0, l = values.length; i < l; i++) {
-			Object o = values[i];
-			if (o != null) {
-				if (o instanceof IntList)
-					o = values[i] = ((IntList) values[i]).asArray();
+		char[][] keys = wordsToDocs.keyTable;
+		char[][] words = new char[wordsToDocs.elementSize][];
+		int size = 0;
+		for (int i = 0, l = keys.length; i < l; i++)
+			if (values[i] != null)
+				words[size++] = keys[i];
+		if (size < words.length)
+			System.arraycopy(words, 0, words = new char[size][], 0, size);
+		Util.sort(words);
+
+		// large arrays are written in the order of the words, so they could
+		// be read sequentially
+		for (int i = 0; i < size; i++) {
+			Object o = wordsToDocs.get(words[i]);
+			if (o instanceof IntList)
+				wordsToDocs.put(words[i], o = ((IntList) o).asArray());
+			int[] documentNumbers = (int[]) o;
+			if (documentNumbers.length >= LARGE_ARRAY_SIZE) {
+				wordsToDocs.put(words[i], Integer.valueOf(stream.size()));
+				writeLargeDocumentNumbers(documentNumbers, stream);
+			}
+		}
+
+		int blockCount = (size + BLOCK_SIZE - 1) / BLOCK_SIZE;
+		int[] blockOffsets = new int[blockCount];
+		ByteArrayOutputStream entryBytes = new ByteArrayOutputStream(
+				size * 16);
+		DataOutputStream entries = new DataOutputStream(entryBytes);
+		for (int i = 0; i < size; i++) {
+			if (i % BLOCK_SIZE == 0)
+				blockOffsets[i / BLOCK_SIZE] = entries.size();
+			Util.writeUTF(entries, words[i]);
+			Object o = wordsToDocs.get(words[i]);
+			if (o instanceof int[]) {
 				int[] documentNumbers = (int[]) o;
-				if (documentNumbers.length >= largeArraySize) {
-					values[i] = stream.size();
-					writeDocumentNumbers(documentNumbers, stream);
-				}
+				if (documentNumbers.length == 1)
+					// store an array of 1 element by negating the
+					// documentNumber (can be zero)
+					entries.writeInt(-documentNumbers[0]);
+				else
+					writeDocumentNumbers(documentNumbers, entries);
+			} else {
+				// mark to identify that an offset follows
+				entries.writeInt(LARGE_ARRAY_SIZE);
+				// offset in the file of the array of document numbers
+				entries.writeInt(((Integer) o).intValue());
 			}
 		}
+		ByteArrayOutputStream blockBytes = new ByteArrayOutputStream(
+				blockCount * 16);
+		DataOutputStream blocks = new DataOutputStream(blockBytes);
+		for (int i = 0; i < blockCount; i++) {
+			Util.writeUTF(blocks, words[i * BLOCK_SIZE]);
+			blocks.writeInt(blockOffsets[i]);
+		}
 
 		this.categoryOffsets.put(categoryName, stream.size()); // remember the
 		// offset to the
 		// start of the
 		// table
 		this.categoryTables.put(categoryName, null); // flush cached table
-		stream.writeInt(wordsToDocs.elementSize);
-		char[][] words = wordsToDocs.keyTable;
-		for (int i = 0, l = words.length; i < l; i++) {
-			Object o = values[i];
-			if (o != null) {
-				Util.writeUTF(stream, words[i]);
-				if (o instanceof int[]) {
-					int[] documentNumbers = (int[]) o;
-					if (documentNumbers.length == 1)
-						stream.writeInt(-documentNumbers[0]); // store an
-					// array of 1
-					// element by
-					// negating the
-					// documentNumber
-					// (can be zero)
-					else
-						writeDocumentNumbers(documentNumbers, stream);
-				} else {
-					stream.writeInt(largeArraySize); // mark to identify that
-					// an offset follows
-					stream.writeInt(((Integer) o).intValue()); // offset in the
-					// file of the
-					// array of
-					// document
-					// numbers
-				}
-			}
-		}
+		stream.writeInt(size);
+		stream.writeInt(blockCount);
+		stream.writeInt(blocks.size());
+		blockBytes.writeTo(stream);
+		entryBytes.writeTo(stream);
 	}
 
 	private void writeDocumentNumbers(int[] documentNumbers,
@@ -1154,22 +1692,27 @@ public class DiskIndex {
 		int length = documentNumbers.length;
 		stream.writeInt(length);
 		Util.sort(documentNumbers);
-		switch (this.documentReferenceSize) {
-		case 1:
-			for (int i = 0; i < length; i++)
-				stream.writeByte(documentNumbers[i]);
-			break;
-		case 2:
-			for (int i = 0; i < length; i++)
-				stream.writeShort(documentNumbers[i]);
-			break;
-		default:
-			for (int i = 0; i < length; i++)
-				stream.writeInt(documentNumbers[i]);
-			break;
+		// the sorted numbers are written as the varint encoded differences
+		int previous = 0;
+		for (int i = 0; i < length; i++) {
+			writeVarInt(stream, documentNumbers[i] - previous);
+			previous = documentNumbers[i];
 		}
 	}
 
+	private void writeLargeDocumentNumbers(int[] documentNumbers,
+			DataOutputStream stream) throws IOException {
+		// the length in bytes follows the number of elements, so the array
+		// could be decoded lazily
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(
+				documentNumbers.length * 2);
+		DataOutputStream encoded = new DataOutputStream(bytes);
+		writeDocumentNumbers(documentNumbers, encoded);
+		stream.writeInt(documentNumbers.length);
+		stream.writeInt(encoded.size() - 4);
+		stream.write(bytes.toByteArray(), 4, encoded.size() - 4);
+	}
+
 	private void writeHeaderInfo(DataOutputStream stream) throws IOException {
 		stream.writeInt(this.numberOfChunks);
 		stream.writeByte(this.sizeOfLastChunk);
@@ -51,22 +51,55 @@ public class EntryResult {
 	public String[] getDocumentNames(Index index) throws java.io.IOException {
 		if (this.documentTables != null) {
 			int length = this.documentTables.length;
-			if (length == 1 && this.documentNames == null) { // have a single
-				// table
-				Object offset = this.documentTables[0].get(word);
-				int[] numbers = index.diskIndex.readDocumentNumbers(offset);
-				String[] names = new String[numbers.length];
-				for (int i = 0, l = numbers.length; i < l; i++)
-					names[i] = index.diskIndex.readDocumentName(numbers[i]);
+			if (this.documentNames == null) {
+				// the word is only on disk, merge the sorted document numbers
+				// of the tables and skip the duplicates
+				PostingIterator[] iterators = new PostingIterator[length];
+				int size = 0;
+				for (int i = 0; i < length; i++) {
+					iterators[i] = index.diskIndex
+							.iterateDocumentNumbers(this.documentTables[i]
+									.get(word));
+					size += iterators[i].size();
+				}
+				String[] names = new String[size];
+				int count = 0;
+				if (length == 1) {
+					PostingIterator numbers = iterators[0];
+					while (numbers.hasNext())
+						names[count++] = index.diskIndex
+								.readDocumentName(numbers.next());
+					return names;
+				}
+				int[] heads = new int[length];
+				for (int i = 0; i < length; i++)
+					heads[i] = iterators[i].hasNext() ? iterators[i].next()
+							: Integer.MAX_VALUE;
+				for (;;) {
+					int min = Integer.MAX_VALUE;
+					for (int i = 0; i < length; i++)
+						if (heads[i] < min)
+							min = heads[i];
+					if (min == Integer.MAX_VALUE)
+						break;
+					names[count++] = index.diskIndex.readDocumentName(min);
+					for (int i = 0; i < length; i++)
+						while (heads[i] == min)
+							heads[i] = iterators[i].hasNext() ? iterators[i]
+									.next() : Integer.MAX_VALUE;
+				}
+				if (count < size)
+					System.arraycopy(names, 0, names = new String[count], 0,
+							count);
 				return names;
 			}
 
 			for (int i = 0; i < length; i++) {
-				Object offset = this.documentTables[i].get(word);
-				int[] numbers = index.diskIndex.readDocumentNumbers(offset);
-				for (int j = 0, k = numbers.length; j < k; j++)
-					addDocumentName(index.diskIndex
-							.readDocumentName(numbers[j]));
+				PostingIterator numbers = index.diskIndex
+						.iterateDocumentNumbers(this.documentTables[i].get(word));
+				while (numbers.hasNext())
+					addDocumentName(index.diskIndex.readDocumentName(numbers
+							.next()));
 			}
 		}
 
@@ -42,10 +42,30 @@ public class Index {
 	public static final char JAR_SEPARATOR = IDLTKSearchScope.FILE_ENTRY_SEPARATOR
 			.charAt(0);
 
+	/**
+	 * Suffix of the file containing the changes not merged into the index
+	 * file yet, it is appended to the name of the index file.
+	 * 
+	 * @since 5.6
+	 */
+	public static final String SEGMENTS_SUFFIX = ".segments"; //$NON-NLS-1$
+
 	protected DiskIndex diskIndex;
 
 	protected MemoryIndex memoryIndex;
 
+	/**
+	 * Changes saved after the last rewrite of the disk index, could be
+	 * <code>null</code> if the subclass does not support segments.
+	 */
+	IndexSegments segments;
+
+	/**
+	 * Incremented on every change of the index entries, the changes are made
+	 * under the write lock of the {@link #monitor}.
+	 */
+	private volatile int modificationStamp;
+
 	/**
 	 * Mask used on match rule for indexing.
 	 */
@@ -109,8 +129,13 @@ public class Index {
 		this.memoryIndex = new MemoryIndex();
 		this.diskIndex = new DiskIndex(fileName);
 		this.diskIndex.initialize(reuseExistingFile);
-		if (reuseExistingFile)
+		this.segments = new IndexSegments(fileName);
+		if (reuseExistingFile) {
 			this.separator = this.diskIndex.separator;
+			this.segments.load(this.diskIndex.getIndexFile(), this.memoryIndex);
+		} else {
+			this.segments.delete();
+		}
 	}
 
 	protected Index(String fileName, String containerPath) {
@@ -124,6 +149,18 @@ public class Index {
 			System.out.println("DEBUG INDEX: Add Index Entry:" + new String( category ) + " " + new String( key ) + " path:" + containerRelativePath ); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
 		}
 		this.memoryIndex.addIndexEntry(category, key, containerRelativePath);
+		this.modificationStamp++;
+	}
+
+	/**
+	 * Returns the stamp changed every time entries are added or removed, so
+	 * the data derived from the index entries could be cached until the index
+	 * changes.
+	 * 
+	 * @since 5.6
+	 */
+	public int getModificationStamp() {
+		return this.modificationStamp;
 	}
 
 	public File getIndexFile() {
@@ -134,7 +171,19 @@ public class Index {
 	}
 
 	public boolean hasChanged() {
-		return this.memoryIndex.hasChanged();
+		// indexes in the previous file format are rewritten on the next save
+		return this.memoryIndex.hasUnsavedChanges()
+				|| (this.diskIndex != null && this.diskIndex.needsMigration());
+	}
+
+	/**
+	 * Answers if the saved segments should be merged into the disk index, see
+	 * {@link #compact()}
+	 */
+	public boolean needsCompaction() {
+		return this.segments != null
+				&& this.memoryIndex.hasChanged()
+				&& (this.segments.isFull() || this.memoryIndex.shouldMerge());
 	}
 
 	/**
@@ -147,7 +196,7 @@ public class Index {
 			throws IOException {
 		if (this.memoryIndex.shouldMerge() && monitor.exitReadEnterWrite()) {
 			try {
-				save();
+				compact();
 			} finally {
 				monitor.exitWriteEnterRead();
 			}
@@ -205,13 +254,47 @@ public class Index {
 
 	public void remove(String containerRelativePath) {
 		this.memoryIndex.remove(containerRelativePath);
+		this.modificationStamp++;
 	}
 
+	/**
+	 * Saves the changes as the new segment, the disk index is rewritten only
+	 * if there are too many changes in memory or the segment could not be
+	 * written.
+	 */
 	public void save() throws IOException {
 		// must own the write lock of the monitor
 		if (!hasChanged())
 			return;
 
+		// the disk index is written directly if empty, as well as if its
+		// header should be updated
+		if (this.segments != null && !this.diskIndex.isEmpty()
+				&& !this.diskIndex.needsMigration()
+				&& this.diskIndex.separator == this.separator
+				&& !this.memoryIndex.shouldMerge()) {
+			try {
+				this.segments.append(this.diskIndex.getIndexFile(),
+						this.memoryIndex);
+				this.memoryIndex.segmentSaved();
+				if (DLTKCore.DEBUG_INDEX) {
+					System.out.println("Index for " + this.containerPath + " (" + new Path(diskIndex.fileName).lastSegment() + ") segment saved"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+				}
+				return;
+			} catch (IOException e) {
+				// rewrite the whole index below
+				if (DLTKCore.DEBUG_INDEX)
+					e.printStackTrace();
+			}
+		}
+		compact();
+	}
+
+	/**
+	 * Merges the changes into the disk index and discards the saved segments.
+	 */
+	public void compact() throws IOException {
+		// must own the write lock of the monitor
 		if (DLTKCore.DEBUG_INDEX) {
 			System.out.println("Index for " + this.containerPath + " (" + new Path(diskIndex.fileName).lastSegment() + ") saved"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$		
 		}
@@ -219,10 +302,24 @@ public class Index {
 		this.diskIndex.separator = this.separator;
 		this.diskIndex = this.diskIndex.mergeWith(this.memoryIndex);
 		this.memoryIndex = new MemoryIndex();
+		if (this.segments != null)
+			this.segments.delete();
 		// if (numberOfChanges > 1000)
 		// System.gc(); // reclaim space if the MemoryIndex was very BIG
 	}
 
+	/**
+	 * Releases the memory mapped buffer of the disk index, so the index file
+	 * could be deleted or replaced. The file is mapped again by the next
+	 * query.
+	 * 
+	 * @since 5.6
+	 */
+	public void releaseMappedBuffer() {
+		if (this.diskIndex != null)
+			this.diskIndex.releaseMappedBuffer();
+	}
+
 	public void startQuery() {
 		if (this.diskIndex != null)
 			this.diskIndex.startQuery();
@@ -0,0 +1,212 @@
+/*******************************************************************************
+ * Copyright (c) 2016 xored software, Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ *******************************************************************************/
+package org.eclipse.dltk.core.search.index;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import org.eclipse.dltk.compiler.util.HashtableOfObject;
+import org.eclipse.dltk.internal.core.util.SimpleWordSet;
+import org.eclipse.dltk.internal.core.util.Util;
+
+/**
+ * Append only file of the changes not merged into the {@link DiskIndex} yet.
+ * Each segment contains the complete state of the documents changed since the
+ * previous one, so saving is proportional to the number of the changed
+ * documents. The segments are replayed into the {@link MemoryIndex} when the
+ * index is opened and discarded when the disk index is rewritten.
+ */
+class IndexSegments {
+
+	private static final String SIGNATURE = "DLTK INDEX SEGMENTS 1.000"; //$NON-NLS-1$
+
+	/**
+	 * Number of the segments which triggers the compaction
+	 */
+	static final int MAX_SEGMENTS = 32;
+
+	/**
+	 * Size of the segments file which triggers the compaction
+	 */
+	static final long MAX_SIZE = 1024 * 1024;
+
+	private static final int REMOVED = -1;
+
+	private final File file;
+
+	private int segmentCount;
+
+	IndexSegments(String indexFileName) {
+		this.file = new File(indexFileName + Index.SEGMENTS_SUFFIX);
+	}
+
+	File getFile() {
+		return this.file;
+	}
+
+	boolean isFull() {
+		return this.segmentCount >= MAX_SEGMENTS
+				|| this.segmentCount > 0 && this.file.length() >= MAX_SIZE;
+	}
+
+	/**
+	 * Replays the saved segments into the memory index. Segments saved
+	 * against another version of the disk index are discarded, as well as
+	 * the incomplete last segment.
+	 */
+	void load(File indexFile, MemoryIndex memoryIndex) throws IOException {
+		this.segmentCount = 0;
+		if (!this.file.exists())
+			return;
+		long validLength = -1; // discard the file unless the header is valid
+		DataInputStream stream = new DataInputStream(new BufferedInputStream(
+				new FileInputStream(this.file), 4096));
+		try {
+			if (SIGNATURE.equals(stream.readUTF())
+					&& stream.readLong() == indexFile.length()
+					&& stream.readLong() == indexFile.lastModified()) {
+				validLength = headerLength();
+				for (;;) {
+					int length;
+					try {
+						length = stream.readInt();
+					} catch (EOFException e) {
+						break;
+					}
+					byte[] bytes = new byte[length];
+					stream.readFully(bytes);
+					readSegment(new DataInputStream(
+							new ByteArrayInputStream(bytes)),
+							memoryIndex);
+					validLength += 4 + length;
+					this.segmentCount++;
+				}
+			}
+		} catch (EOFException e) {
+			// incomplete segment, written when the workbench crashed
+		} finally {
+			stream.close();
+		}
+		if (validLength < 0) {
+			delete();
+		} else if (validLength < this.file.length()) {
+			RandomAccessFile raf = new RandomAccessFile(this.file, "rw"); //$NON-NLS-1$
+			try {
+				raf.setLength(validLength);
+			} finally {
+				raf.close();
+			}
+		}
+		memoryIndex.segmentSaved();
+	}
+
+	/**
+	 * Appends the documents changed since the last segment as the new
+	 * segment.
+	 */
+	void append(File indexFile, MemoryIndex memoryIndex) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(1024);
+		writeSegment(new DataOutputStream(bytes), memoryIndex);
+		boolean created = !this.file.exists() || this.file.length() == 0;
+		DataOutputStream stream = new DataOutputStream(
+				new BufferedOutputStream(new FileOutputStream(this.file,
+						!created), 4096));
+		try {
+			if (created) {
+				stream.writeUTF(SIGNATURE);
+				stream.writeLong(indexFile.length());
+				stream.writeLong(indexFile.lastModified());
+				this.segmentCount = 0;
+			}
+			stream.writeInt(bytes.size());
+			bytes.writeTo(stream);
+		} finally {
+			stream.close();
+		}
+		this.segmentCount++;
+	}
+
+	void delete() {
+		this.segmentCount = 0;
+		if (this.file.exists() && !this.file.delete()) {
+			if (DiskIndex.DEBUG)
+				System.out
+						.println("Failed to delete index segments " + this.file); //$NON-NLS-1$
+		}
+	}
+
+	private static int headerLength() throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream stream = new DataOutputStream(bytes);
+		stream.writeUTF(SIGNATURE);
+		return stream.size() + 16;
+	}
+
+	private static void writeSegment(DataOutputStream stream,
+			MemoryIndex memoryIndex) throws IOException {
+		Object[] names = memoryIndex.unsavedDocuments.values;
+		stream.writeInt(memoryIndex.unsavedDocuments.elementSize);
+		for (int i = 0, l = names.length; i < l; i++) {
+			String documentName = (String) names[i];
+			if (documentName == null)
+				continue;
+			Util.writeUTF(stream, documentName.toCharArray());
+			HashtableOfObject referenceTable = (HashtableOfObject) memoryIndex.docsToReferences
+					.get(documentName);
+			if (referenceTable == null) {
+				stream.writeInt(REMOVED);
+				continue;
+			}
+			stream.writeInt(referenceTable.elementSize);
+			char[][] categories = referenceTable.keyTable;
+			Object[] wordSets = referenceTable.valueTable;
+			for (int j = 0, m = categories.length; j < m; j++) {
+				if (categories[j] == null)
+					continue;
+				Util.writeUTF(stream, categories[j]);
+				SimpleWordSet wordSet = (SimpleWordSet) wordSets[j];
+				stream.writeInt(wordSet.elementSize);
+				char[][] words = wordSet.words;
+				for (int k = 0, n = words.length; k < n; k++)
+					if (words[k] != null)
+						Util.writeUTF(stream, words[k]);
+			}
+		}
+	}
+
+	private static void readSegment(DataInputStream stream,
+			MemoryIndex memoryIndex) throws IOException {
+		int documentCount = stream.readInt();
+		for (int i = 0; i < documentCount; i++) {
+			String documentName = new String(Util.readUTF(stream));
+			int categoryCount = stream.readInt();
+			// the segment contains the complete state of the document
+			memoryIndex.remove(documentName);
+			if (categoryCount == REMOVED)
+				continue;
+			for (int j = 0; j < categoryCount; j++) {
+				char[] category = Util.readUTF(stream);
+				int wordCount = stream.readInt();
+				for (int k = 0; k < wordCount; k++)
+					memoryIndex.addIndexEntry(category, Util.readUTF(stream),
+							documentName);
+			}
+		}
+	}
+}
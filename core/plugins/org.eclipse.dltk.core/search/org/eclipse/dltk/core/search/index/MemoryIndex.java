@@ -36,9 +36,13 @@ public class MemoryIndex {
 
 	HashtableOfObject lastReferenceTable;
 
+	SimpleSet unsavedDocuments; // names of the documents changed since the
+	// last saved segment
+
 	MemoryIndex() {
 		this.docsToReferences = new SimpleLookupTable(7);
 		this.allWords = new SimpleWordSet(7);
+		this.unsavedDocuments = new SimpleSet(7);
 	}
 
 	void addDocumentNames(String substring, SimpleSet results) {
@@ -71,6 +75,7 @@ public class MemoryIndex {
 						referenceTable = new HashtableOfObject(3));
 			this.lastDocumentName = documentName;
 			this.lastReferenceTable = referenceTable;
+			this.unsavedDocuments.add(documentName);
 		}
 
 		SimpleWordSet existingWords = (SimpleWordSet) referenceTable
@@ -190,12 +195,30 @@ public class MemoryIndex {
 		return this.docsToReferences.elementSize > 0;
 	}
 
+	/**
+	 * Answers if some documents were changed since the last saved segment
+	 */
+	boolean hasUnsavedChanges() {
+		return this.unsavedDocuments.elementSize > 0;
+	}
+
+	/**
+	 * Marks the changes as saved to a segment, they are kept to be queried
+	 * until the segments are merged into the disk index.
+	 */
+	void segmentSaved() {
+		this.unsavedDocuments = new SimpleSet(7);
+		this.lastDocumentName = null;
+		this.lastReferenceTable = null;
+	}
+
 	void remove(String documentName) {
 		if (documentName.equals(this.lastDocumentName)) {
 			this.lastDocumentName = null;
 			this.lastReferenceTable = null;
 		}
 		this.docsToReferences.put(documentName, null);
+		this.unsavedDocuments.add(documentName);
 	}
 
 	boolean shouldMerge() {
@@ -0,0 +1,61 @@
+/*******************************************************************************
+ * Copyright (c) 2016 xored software, Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ *******************************************************************************/
+package org.eclipse.dltk.core.search.index;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Iterator over the sorted document numbers of the word, either decoded
+ * array or the varint encoded differences decoded on demand.
+ */
+final class PostingIterator {
+
+	private final int[] numbers;
+
+	private final ByteBuffer encoded;
+
+	private final int size;
+
+	private int index;
+
+	private int current;
+
+	PostingIterator(int[] numbers) {
+		this.numbers = numbers;
+		this.encoded = null;
+		this.size = numbers.length;
+	}
+
+	PostingIterator(ByteBuffer encoded, int size) {
+		this.numbers = null;
+		this.encoded = encoded;
+		this.size = size;
+	}
+
+	int size() {
+		return this.size;
+	}
+
+	boolean hasNext() {
+		return this.index < this.size;
+	}
+
+	int next() {
+		if (this.numbers != null)
+			return this.numbers[this.index++];
+		this.index++;
+		int b = this.encoded.get();
+		int delta = b & 0x7F;
+		for (int shift = 7; b < 0; shift += 7) {
+			b = this.encoded.get();
+			delta |= (b & 0x7F) << shift;
+		}
+		return this.current += delta;
+	}
+}
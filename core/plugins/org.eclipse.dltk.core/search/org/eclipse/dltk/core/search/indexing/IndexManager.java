@@ -27,6 +27,7 @@ import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.ListenerList;
 import org.eclipse.core.runtime.Path;
+import org.eclipse.core.runtime.Platform;
 import org.eclipse.dltk.compiler.CharOperation;
 import org.eclipse.dltk.compiler.util.SimpleLookupTable;
 import org.eclipse.dltk.core.DLTKCore;
@@ -147,12 +148,17 @@ public class IndexManager extends JobManager implements IIndexConstants {
 			if (indexesFiles != null) {
 				for (int i = 0, indexesFilesLength = indexesFiles.length; i < indexesFilesLength; i++) {
 					String fileName = indexesFiles[i].getAbsolutePath();
+					if (fileName.endsWith(Index.SEGMENTS_SUFFIX)) {
+						fileName = fileName.substring(0, fileName.length()
+								- Index.SEGMENTS_SUFFIX.length());
+					}
 					if (!knownPaths.containsKey(fileName)
 							&& fileName.toLowerCase().endsWith(".index")) { //$NON-NLS-1$
 						if (VERBOSE) {
 							Util
 									.verbose("Deleting index file " + indexesFiles[i]); //$NON-NLS-1$
 						}
+						releaseMappedBuffer(fileName);
 						indexesFiles[i].delete();
 					}
 				}
@@ -160,6 +166,17 @@ public class IndexManager extends JobManager implements IIndexConstants {
 		}
 	}
 
+	/**
+	 * Releases the memory mapped buffer of the loaded index before its file is
+	 * deleted or replaced.
+	 */
+	private synchronized void releaseMappedBuffer(String indexLocation) {
+		final Object o = this.indexes.get(indexLocation);
+		if (o instanceof Index) {
+			((Index) o).releaseMappedBuffer();
+		}
+	}
+
 	public synchronized String computeIndexLocation(IPath containerPath) {
 		String indexLocation = (String) this.indexLocations.get(containerPath);
 		if (indexLocation == null) {
@@ -470,11 +487,19 @@ public class IndexManager extends JobManager implements IIndexConstants {
 					if (files != null) {
 						for (int i = 0, l = files.length; i < l; i++) {
 							String fileName = files[i].getAbsolutePath();
-							if (fileName.toLowerCase().endsWith(".index")) { //$NON-NLS-1$
+							if (fileName.toLowerCase().endsWith(".index") //$NON-NLS-1$
+									|| fileName.endsWith(Index.SEGMENTS_SUFFIX)) {
 								if (VERBOSE) {
 									Util
 											.verbose("Deleting index file " + files[i]); //$NON-NLS-1$
 								}
+								if (fileName.endsWith(Index.SEGMENTS_SUFFIX)) {
+									fileName = fileName.substring(0,
+											fileName.length()
+													- Index.SEGMENTS_SUFFIX
+															.length());
+								}
+								releaseMappedBuffer(fileName);
 								files[i].delete();
 							}
 						}
@@ -516,6 +541,35 @@ public class IndexManager extends JobManager implements IIndexConstants {
 		super.moveToNextJob();
 	}
 
+	@Override
+	protected synchronized void jobFinished(IJob job) {
+		this.needToSave = true;
+		super.jobFinished(job);
+	}
+
+	/**
+	 * Answers the number of indexing threads configured with the
+	 * {@link DLTKCore#INDEXER_WORKERS} option.
+	 */
+	@Override
+	protected int getWorkerCount() {
+		String value = System.getProperty(DLTKCore.INDEXER_WORKERS);
+		if (value == null) {
+			value = Platform.getPreferencesService().getString(
+					DLTKCore.PLUGIN_ID, DLTKCore.INDEXER_WORKERS, null, null);
+		}
+		if (value != null) {
+			try {
+				final int workers = Integer.parseInt(value.trim());
+				return workers > 0 ? workers : Runtime.getRuntime()
+						.availableProcessors();
+			} catch (NumberFormatException e) {
+				Util.log(e, "Invalid " + DLTKCore.INDEXER_WORKERS + " value"); //$NON-NLS-1$ //$NON-NLS-2$
+			}
+		}
+		return super.getWorkerCount();
+	}
+
 	@Override
 	protected void notifyIdle() {
 		for (Object listener : indexerThreadListeners.getListeners()) {
@@ -626,6 +680,10 @@ public class IndexManager extends JobManager implements IIndexConstants {
 			String indexLocation = this.computeIndexLocation(containerPath);
 			Index index = (Index) this.indexes.get(indexLocation);
 			ReadWriteMonitor monitor = index == null ? null : index.monitor;
+			if (index != null) {
+				// the file is deleted by the new index
+				index.releaseMappedBuffer();
+			}
 			if (VERBOSE) {
 				Util
 						.verbose("-> recreating index: " + indexLocation + " for path: " + containerPathString); //$NON-NLS-1$ //$NON-NLS-2$
@@ -671,11 +729,16 @@ public class IndexManager extends JobManager implements IIndexConstants {
 			Util.verbose("removing index " + containerPath); //$NON-NLS-1$
 		}
 		String indexLocation = this.computeIndexLocation(containerPath);
+		final Object o = this.indexes.remove(indexLocation);
+		if (o instanceof Index) {
+			// the mapped file could not be deleted on some platforms
+			((Index) o).releaseMappedBuffer();
+		}
 		File indexFile = new File(indexLocation);
 		if (indexFile.exists()) {
 			indexFile.delete();
 		}
-		final Object o = this.indexes.remove(indexLocation);
+		new File(indexLocation + Index.SEGMENTS_SUFFIX).delete();
 		if (o instanceof Index) {
 			final Index index = (Index) o;
 			index.monitor = null;
@@ -702,6 +765,7 @@ public class IndexManager extends JobManager implements IIndexConstants {
 				Index index = (Index) this.indexes.get(indexLocation);
 				if (index != null) {
 					index.monitor = null;
+					index.releaseMappedBuffer();
 				}
 				if (locations == null) {
 					locations = new String[max];
@@ -711,6 +775,7 @@ public class IndexManager extends JobManager implements IIndexConstants {
 				if (indexFile.exists()) {
 					indexFile.delete();
 				}
+				new File(indexLocation + Index.SEGMENTS_SUFFIX).delete();
 			} else if (locations == null) {
 				max--;
 			}
@@ -790,7 +855,13 @@ public class IndexManager extends JobManager implements IIndexConstants {
 
 	public synchronized void saveIndex(Index index) throws IOException {
 		// must have permission to write from the write monitor
-		if (index.hasChanged()) {
+		if (index.needsCompaction()) {
+			// indexes are saved from the background, so merge the segments
+			if (VERBOSE) {
+				Util.verbose("-> compacting index " + index.getIndexFile()); //$NON-NLS-1$
+			}
+			index.compact();
+		} else if (index.hasChanged()) {
 			if (VERBOSE) {
 				Util.verbose("-> saving index " + index.getIndexFile()); //$NON-NLS-1$
 			}
@@ -853,7 +924,7 @@ public class IndexManager extends JobManager implements IIndexConstants {
 				// don't take write lock yet since it can cause a deadlock (see
 				// https://bugs.eclipse.org/bugs/show_bug.cgi?id=50571)
 				monitor.enterRead();
-				if (index.hasChanged()) {
+				if (index.hasChanged() || index.needsCompaction()) {
 					if (monitor.exitReadEnterWrite()) {
 						try {
 							this.saveIndex(index);
@@ -999,6 +1070,12 @@ public class IndexManager extends JobManager implements IIndexConstants {
 		this.disable();
 		File indexesDirectory = this.getScriptPluginWorkingLocation().toFile();
 		// this.
+		for (Iterator i = this.indexes.values().iterator(); i.hasNext();) {
+			final Object o = i.next();
+			if (o instanceof Index) {
+				((Index) o).releaseMappedBuffer();
+			}
+		}
 		if (indexesDirectory.isDirectory()) {
 			File[] indexesFiles = indexesDirectory.listFiles();
 			if (indexesFiles != null) {
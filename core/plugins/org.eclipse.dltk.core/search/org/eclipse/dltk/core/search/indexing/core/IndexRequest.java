@@ -33,11 +33,13 @@ import org.eclipse.dltk.core.search.indexing.IProjectIndexer;
 import org.eclipse.dltk.core.search.indexing.IProjectIndexer.Internal;
 import org.eclipse.dltk.core.search.indexing.ReadWriteMonitor;
 import org.eclipse.dltk.internal.core.ModelManager;
+import org.eclipse.dltk.internal.core.search.processing.IParallelJob;
 
 /**
  * @since 2.0
  */
-public abstract class IndexRequest extends AbstractJob {
+public abstract class IndexRequest extends AbstractJob implements
+		IParallelJob {
 	private IProjectIndexer indexer;
 
 	public IndexRequest(IProjectIndexer indexer) {
@@ -48,6 +50,17 @@ public abstract class IndexRequest extends AbstractJob {
 		return (Internal) indexer;
 	}
 
+	/**
+	 * Answers the container path of the index updated by this request, by
+	 * default requests are executed exclusively.
+	 * 
+	 * @since 5.6
+	 */
+	@Override
+	public Object getJobKey() {
+		return null;
+	}
+
 	/**
 	 * Returns all the document names. Read lock is acquired automatically.
 	 * 
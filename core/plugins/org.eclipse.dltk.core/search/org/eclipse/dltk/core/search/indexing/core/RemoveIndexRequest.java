@@ -31,6 +31,11 @@ public class RemoveIndexRequest extends IndexRequest {
 		return path.toString();
 	}
 
+	@Override
+	public Object getJobKey() {
+		return SourceIndexUtil.containerKey(path);
+	}
+
 	@Override
 	protected void run() throws CoreException, IOException {
 		getIndexer().getIndexManager().removeIndex(path);
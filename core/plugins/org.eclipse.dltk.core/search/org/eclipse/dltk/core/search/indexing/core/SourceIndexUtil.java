@@ -1,15 +1,32 @@
 package org.eclipse.dltk.core.search.indexing.core;
 
 import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.Path;
 import org.eclipse.dltk.core.IExternalSourceModule;
 import org.eclipse.dltk.core.IModelElement;
 import org.eclipse.dltk.core.IProjectFragment;
 import org.eclipse.dltk.core.ISourceModule;
+import org.eclipse.dltk.core.search.indexing.IndexManager;
 import org.eclipse.dltk.internal.core.BuiltinSourceModule;
 import org.eclipse.dltk.internal.core.ExternalSourceModule;
 import org.eclipse.dltk.internal.core.SourceModule;
 
 public class SourceIndexUtil {
+	/**
+	 * Returns the key used to serialize the indexing jobs of the specified
+	 * container: special mixin indexes share the key with the container they
+	 * were built for.
+	 * 
+	 * @since 5.6
+	 */
+	public static IPath containerKey(IPath containerPath) {
+		final String path = containerPath.toString();
+		if (path.startsWith(IndexManager.SPECIAL_MIXIN)) {
+			return new Path(path.substring(IndexManager.SPECIAL_MIXIN.length()));
+		}
+		return containerPath;
+	}
+
 	public static String containerRelativePath(IPath containerPath,
 			ISourceModule module) {
 		return containerRelativePath(containerPath, module, module.getPath());
@@ -0,0 +1,159 @@
+/*******************************************************************************
+ * Copyright (c) 2016 xored software, Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ *******************************************************************************/
+package org.eclipse.dltk.internal.core.search;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import org.eclipse.dltk.compiler.util.HashtableOfObject;
+import org.eclipse.dltk.core.search.IDLTKSearchScope;
+import org.eclipse.dltk.core.search.SearchParticipant;
+import org.eclipse.dltk.core.search.SearchPattern;
+import org.eclipse.dltk.core.search.index.EntryResult;
+import org.eclipse.dltk.core.search.index.Index;
+import org.eclipse.dltk.internal.core.search.matching.SuperTypeReferencePattern;
+
+/**
+ * Inverted super type graph of the index: the super type simple name to the
+ * super type references of its direct subtypes with the documents declaring
+ * them.
+ * <p>
+ * The graph is built with a single scan of the super type references of the
+ * index and cached until the index changes, so the type hierarchy is computed
+ * by walking the graph in memory instead of querying the index for every
+ * super type name found.
+ * </p>
+ */
+public class SuperTypeGraph {
+
+	private static final Map<Index, SuperTypeGraph> graphs = new WeakHashMap<Index, SuperTypeGraph>();
+
+	/**
+	 * Returns the graph of the current index entries, the caller should own
+	 * the read lock of the index monitor.
+	 */
+	public static SuperTypeGraph get(Index index, SearchPattern pattern)
+			throws IOException {
+		final int stamp = index.getModificationStamp();
+		synchronized (graphs) {
+			final SuperTypeGraph graph = graphs.get(index);
+			if (graph != null && graph.stamp == stamp) {
+				return graph;
+			}
+		}
+		final SuperTypeGraph graph = new SuperTypeGraph(index, stamp);
+		graph.build(index, pattern);
+		synchronized (graphs) {
+			graphs.put(index, graph);
+		}
+		return graph;
+	}
+
+	private static class Edge {
+		final char[] key;
+		final String[] documentNames;
+
+		Edge(char[] key, String[] documentNames) {
+			this.key = key;
+			this.documentNames = documentNames;
+		}
+	}
+
+	private static final Edge[] NO_EDGES = new Edge[0];
+
+	private final String containerPath;
+	private final char separator;
+	private final int stamp;
+
+	private final HashtableOfObject edgesBySuperName = new HashtableOfObject();
+	private Edge[] allEdges = NO_EDGES;
+
+	private SuperTypeGraph(Index index, int stamp) {
+		this.containerPath = index.getContainerPath();
+		this.separator = index.separator;
+		this.stamp = stamp;
+	}
+
+	@SuppressWarnings("unchecked")
+	private void build(Index index, SearchPattern pattern) throws IOException {
+		final EntryResult[] entries;
+		index.startQuery();
+		try {
+			entries = index.query(pattern.getIndexCategories(), null,
+					SearchPattern.R_EXACT_MATCH
+							| SearchPattern.R_CASE_SENSITIVE);
+			if (entries == null) {
+				return;
+			}
+			allEdges = new Edge[entries.length];
+			for (int i = 0; i < entries.length; ++i) {
+				allEdges[i] = new Edge(entries[i].getWord(),
+						entries[i].getDocumentNames(index));
+			}
+		} finally {
+			index.stopQuery();
+		}
+		final HashtableOfObject lists = new HashtableOfObject();
+		final SuperTypeReferencePattern decoded = (SuperTypeReferencePattern) pattern
+				.getBlankPattern();
+		for (Edge edge : allEdges) {
+			decoded.decodeIndexKey(edge.key);
+			List<Edge> list = (List<Edge>) lists.get(decoded.superSimpleName);
+			if (list == null) {
+				list = new ArrayList<Edge>();
+				lists.put(decoded.superSimpleName, list);
+			}
+			list.add(edge);
+		}
+		for (int i = 0; i < lists.keyTable.length; ++i) {
+			if (lists.keyTable[i] != null) {
+				final List<Edge> list = (List<Edge>) lists.valueTable[i];
+				edgesBySuperName.put(lists.keyTable[i],
+						list.toArray(new Edge[list.size()]));
+			}
+		}
+	}
+
+	/**
+	 * Reports the super type references of the direct subtypes of the
+	 * specified type (of all the types if the name is <code>null</code>)
+	 * matching the pattern to the requestor, as if the pattern was searched in
+	 * the index.
+	 *
+	 * @param superSimpleName
+	 *            super type simple name or <code>null</code>
+	 * @param pattern
+	 *            pattern used to filter the references
+	 * @param decoded
+	 *            blank pattern the references are decoded into
+	 */
+	public void acceptSubTypes(char[] superSimpleName,
+			SuperTypeReferencePattern pattern,
+			SuperTypeReferencePattern decoded, IndexQueryRequestor requestor,
+			SearchParticipant participant, IDLTKSearchScope scope) {
+		final Edge[] edges = superSimpleName == null ? allEdges
+				: (Edge[]) edgesBySuperName.get(superSimpleName);
+		if (edges == null) {
+			return;
+		}
+		for (Edge edge : edges) {
+			decoded.decodeIndexKey(edge.key);
+			if (pattern.matchesDecodedKey(decoded)) {
+				for (String documentName : edge.documentNames) {
+					pattern.acceptMatch(documentName, containerPath,
+							separator, decoded, requestor, participant, scope);
+				}
+			}
+		}
+	}
+
+}
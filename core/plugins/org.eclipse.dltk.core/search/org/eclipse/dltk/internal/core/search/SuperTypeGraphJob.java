@@ -0,0 +1,65 @@
+/*******************************************************************************
+ * Copyright (c) 2016 xored software, Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ *******************************************************************************/
+package org.eclipse.dltk.internal.core.search;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.dltk.core.search.IDLTKSearchScope;
+import org.eclipse.dltk.core.search.SearchParticipant;
+import org.eclipse.dltk.core.search.index.Index;
+import org.eclipse.dltk.core.search.indexing.ReadWriteMonitor;
+import org.eclipse.dltk.internal.core.search.matching.SuperTypeReferencePattern;
+
+/**
+ * Collects the {@link SuperTypeGraph}s of the indexes selected for the super
+ * type references pattern.
+ */
+public class SuperTypeGraphJob extends PatternSearchJob {
+
+	private final List<SuperTypeGraph> graphs = new ArrayList<SuperTypeGraph>();
+
+	public SuperTypeGraphJob(SuperTypeReferencePattern pattern,
+			SearchParticipant participant, IDLTKSearchScope scope) {
+		super(pattern, participant, scope, null);
+	}
+
+	public SuperTypeGraph[] getGraphs() {
+		return graphs.toArray(new SuperTypeGraph[graphs.size()]);
+	}
+
+	@Override
+	public boolean search(Index index, IProgressMonitor progressMonitor) {
+		if (index == null || participant.isSkipped(index))
+			return COMPLETE;
+		if (progressMonitor != null && progressMonitor.isCanceled())
+			throw new OperationCanceledException();
+
+		ReadWriteMonitor monitor = index.monitor;
+		if (monitor == null)
+			return COMPLETE; // index got deleted since acquired
+		try {
+			monitor.enterRead(); // ask permission to read
+			graphs.add(SuperTypeGraph.get(index, pattern));
+			return COMPLETE;
+		} catch (IOException e) {
+			return FAILED;
+		} finally {
+			monitor.exitRead(); // finished reading
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "collecting super type graphs for " + pattern.toString(); //$NON-NLS-1$
+	}
+}
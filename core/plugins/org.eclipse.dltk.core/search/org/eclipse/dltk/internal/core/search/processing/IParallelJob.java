@@ -0,0 +1,29 @@
+/*******************************************************************************
+ * Copyright (c) 2016 xored software, Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ *******************************************************************************/
+package org.eclipse.dltk.internal.core.search.processing;
+
+/**
+ * Optional interface for the jobs which could be executed in parallel with
+ * other jobs when {@link JobManager} runs several worker threads.
+ * 
+ * @since 5.6
+ */
+public interface IParallelJob extends IJob {
+
+	/**
+	 * Answers the key of the data (usually the container path of the index)
+	 * updated by this job. Jobs with equal keys are executed one after another
+	 * in the order they were requested, jobs with different keys could be
+	 * executed concurrently. If <code>null</code> is returned the job is
+	 * executed exclusively, after all the previously requested jobs have
+	 * completed.
+	 */
+	public Object getJobKey();
+
+}
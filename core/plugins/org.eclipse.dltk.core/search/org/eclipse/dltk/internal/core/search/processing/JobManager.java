@@ -8,6 +8,10 @@
  *******************************************************************************/
 package org.eclipse.dltk.internal.core.search.processing;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.eclipse.core.runtime.IProgressMonitor;
@@ -37,6 +41,23 @@ public abstract class JobManager implements Runnable {
 	protected Thread processingThread;
 	protected Job progressJob;
 
+	/*
+	 * max number of awaiting jobs inspected when looking for a job which could
+	 * be started in parallel with the running ones
+	 */
+	private static final int PARALLEL_LOOKAHEAD = 256;
+
+	/* number of worker threads, fixed when background processing starts */
+	private int workerCount = 1;
+	/* additional worker threads, used if workerCount > 1 */
+	private Thread[] workerThreads;
+	/* jobs executed by the worker threads at the moment */
+	private final List<IJob> runningJobs = new ArrayList<IJob>();
+	/* start of the idle period of the worker threads, -1 if not idle */
+	private long poolIdlingStart = -1;
+	/* true while the end of the idle period is being notified */
+	private boolean resuming = false;
+
 	/*
 	 * counter indicating whether job execution is enabled or not, disabled if
 	 * <= 0 it cannot go beyond 1
@@ -93,12 +114,19 @@ public abstract class JobManager implements Runnable {
 
 		try {
 			IJob currentJob;
+			IJob[] running = null;
 			// cancel current job if it belongs to the given family
 			synchronized (this) {
 				currentJob = this.currentJob();
+				if (isParallel()) {
+					running = this.runningJobs
+							.toArray(new IJob[this.runningJobs.size()]);
+				}
 				disable();
 			}
-			if (currentJob != null
+			if (running != null) {
+				cancelRunningJobs(jobFamily, running);
+			} else if (currentJob != null
 					&& (jobFamily == null || currentJob.belongsTo(jobFamily))) {
 				currentJob.cancel();
 
@@ -145,6 +173,42 @@ public abstract class JobManager implements Runnable {
 					.verbose("DISCARD   DONE with background job family - " + jobFamily); //$NON-NLS-1$
 	}
 
+	/**
+	 * Cancels the running jobs which belong to the given family and waits until
+	 * they have finished.
+	 */
+	private void cancelRunningJobs(String jobFamily, IJob[] running) {
+		final List<IJob> cancelled = new ArrayList<IJob>();
+		for (IJob job : running) {
+			if (jobFamily == null || job.belongsTo(jobFamily)) {
+				job.cancel();
+				cancelled.add(job);
+			}
+		}
+		for (IJob job : cancelled) {
+			// wait until the job has finished
+			while (this.processingThread != null && isRunning(job)) {
+				try {
+					if (VERBOSE)
+						Util
+								.verbose("-> waiting end of background job - " + job); //$NON-NLS-1$
+					Thread.sleep(50);
+				} catch (InterruptedException e) {
+					// ignore
+				}
+			}
+		}
+	}
+
+	private synchronized boolean isRunning(IJob job) {
+		for (IJob running : this.runningJobs) {
+			if (running == job) {
+				return true;
+			}
+		}
+		return false;
+	}
+
 	public synchronized void enable() {
 		this.enableCount++;
 		if (VERBOSE)
@@ -154,6 +218,15 @@ public abstract class JobManager implements Runnable {
 	}
 
 	public synchronized boolean isJobWaiting(IJob request) {
+		if (isParallel()) {
+			for (int i = this.jobEnd; i >= this.jobStart; i--) {
+				// don't check running jobs
+				final IJob job = this.awaitingJobs[i];
+				if (request.equals(job) && !isRunning(job))
+					return true;
+			}
+			return false;
+		}
 		for (int i = this.jobEnd; i > this.jobStart; i--)
 			// don't check job at jobStart, as it may have already started
 			if (request.equals(this.awaitingJobs[i]))
@@ -178,6 +251,99 @@ public abstract class JobManager implements Runnable {
 		}
 	}
 
+	/**
+	 * Removes the specified job from the queue once it has been completed by
+	 * one of the worker threads. Jobs could complete in any order if several
+	 * workers are used.
+	 *
+	 * @since 5.6
+	 */
+	protected synchronized void jobFinished(IJob job) {
+		for (int i = this.runningJobs.size(); --i >= 0;) {
+			if (this.runningJobs.get(i) == job) {
+				this.runningJobs.remove(i);
+				break;
+			}
+		}
+		this.executing = !this.runningJobs.isEmpty();
+		if (this.jobStart <= this.jobEnd
+				&& this.awaitingJobs[this.jobStart] == job) {
+			moveToNextJob();
+		} else {
+			for (int i = this.jobStart + 1; i <= this.jobEnd; i++) {
+				if (this.awaitingJobs[i] == job) {
+					System.arraycopy(this.awaitingJobs, i + 1,
+							this.awaitingJobs, i, this.jobEnd - i);
+					this.awaitingJobs[this.jobEnd--] = null;
+					break;
+				}
+			}
+		}
+		notifyAll(); // wake up the workers waiting for this job key
+	}
+
+	/**
+	 * Answers the number of worker threads to be used for the background
+	 * processing. Jobs are executed in parallel only if they implement
+	 * {@link IParallelJob} and have different keys.
+	 *
+	 * @since 5.6
+	 */
+	protected int getWorkerCount() {
+		return 1;
+	}
+
+	/**
+	 * Answers the key of the specified job, <code>null</code> means the job
+	 * should be executed exclusively.
+	 *
+	 * @since 5.6
+	 */
+	protected Object getJobKey(IJob job) {
+		return job instanceof IParallelJob ? ((IParallelJob) job).getJobKey()
+				: null;
+	}
+
+	private boolean isParallel() {
+		return this.workerCount > 1;
+	}
+
+	/**
+	 * Answers the awaiting job which could be started now, according to the
+	 * keys of the running jobs. Context must be synchronized.
+	 */
+	private IJob nextParallelJob() {
+		if (this.enableCount <= 0 || this.resuming) {
+			return null;
+		}
+		final Set<Object> busyKeys = new HashSet<Object>();
+		for (IJob running : this.runningJobs) {
+			final Object key = getJobKey(running);
+			if (key == null) {
+				return null; // exclusive job is running
+			}
+			busyKeys.add(key);
+		}
+		final int end = Math.min(this.jobEnd, this.jobStart
+				+ PARALLEL_LOOKAHEAD - 1);
+		for (int i = this.jobStart; i <= end; i++) {
+			final IJob job = this.awaitingJobs[i];
+			if (job == null || isRunning(job)) {
+				continue;
+			}
+			final Object key = getJobKey(job);
+			if (key == null) {
+				// exclusive job waits for all the previous ones, and the
+				// following jobs wait for it
+				return this.runningJobs.isEmpty() ? job : null;
+			}
+			if (busyKeys.add(key)) {
+				return job;
+			}
+		}
+		return null;
+	}
+
 	/**
 	 * Notifies that processing thread idle state has come to an end.
 	 */
@@ -387,6 +553,7 @@ public abstract class JobManager implements Runnable {
 			discardJobs(null); // discard all jobs
 		} else {
 			/* initiate background processing */
+			this.workerCount = Math.max(1, getWorkerCount());
 			this.processingThread = new Thread(this, this.processName());
 			this.processingThread.setDaemon(true);
 			// less prioritary by default, priority is raised if clients are
@@ -435,6 +602,14 @@ public abstract class JobManager implements Runnable {
 	public void run() {
 		long idlingStart = -1;
 		activateProcessing();
+		if (isParallel()) {
+			// the workers handle the crash recovery by themselves
+			this.progressJob = null;
+			final Thread owner = Thread.currentThread();
+			startWorkers(owner);
+			runWorker(owner);
+			return;
+		}
 		try {
 			this.progressJob = null;
 			while (this.processingThread != null) {
@@ -520,6 +695,139 @@ public abstract class JobManager implements Runnable {
 		}
 	}
 
+	/**
+	 * Starts the additional worker threads, they are running until the
+	 * specified processing thread is replaced or the job manager is shutdown.
+	 */
+	private void startWorkers(final Thread owner) {
+		final Thread[] workers = new Thread[this.workerCount - 1];
+		for (int i = 0; i < workers.length; ++i) {
+			workers[i] = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					runWorker(owner);
+				}
+			}, this.processName() + " #" + (i + 2)); //$NON-NLS-1$
+			workers[i].setDaemon(true);
+			workers[i].setPriority(owner.getPriority());
+			workers[i].start();
+		}
+		this.workerThreads = workers;
+	}
+
+	/**
+	 * Loop performing the jobs in one of the worker threads. Jobs with
+	 * different keys are executed concurrently, idle notifications are sent
+	 * only when all the workers are idle. If a worker crashes the whole pool is
+	 * restarted the same way as the single background thread.
+	 */
+	private void runWorker(Thread owner) {
+		try {
+			while (this.processingThread == owner) {
+				try {
+					IJob job;
+					long idlingTime = -1;
+					synchronized (this) {
+						if (this.processingThread != owner)
+							break;
+						job = nextParallelJob();
+						if (job == null) {
+							if (this.runningJobs.isEmpty() && !this.resuming) {
+								hideProgress();
+								if (this.poolIdlingStart < 0) {
+									this.poolIdlingStart = System
+											.currentTimeMillis();
+									notifyIdle();
+								}
+							}
+							this.wait(); // wait until a job is posted or
+							// finished
+							continue;
+						}
+						if (this.poolIdlingStart >= 0) {
+							// the pool is waking up, the other workers wait
+							// until the end of the idle period is notified
+							idlingTime = System.currentTimeMillis()
+									- this.poolIdlingStart;
+							this.poolIdlingStart = -1;
+							this.resuming = true;
+						} else {
+							this.runningJobs.add(job);
+							this.executing = true;
+							showProgress();
+						}
+					}
+					if (idlingTime >= 0) {
+						try {
+							notifyIdle(idlingTime);
+							// just woke up, delay before processing any new
+							// jobs, allow some time for the active thread to
+							// finish
+							synchronized (delaySignal) {
+								delaySignal.wait(500);
+							}
+						} finally {
+							synchronized (this) {
+								this.resuming = false;
+								this.notifyAll();
+							}
+						}
+						continue;
+					}
+					if (VERBOSE) {
+						Util.verbose(awaitingJobsCount() + " awaiting jobs"); //$NON-NLS-1$
+						Util.verbose("STARTING background job - " + job); //$NON-NLS-1$
+					}
+					try {
+						job.execute(null);
+					} finally {
+						if (VERBOSE)
+							Util.verbose("FINISHED background job - " + job); //$NON-NLS-1$
+						jobFinished(job);
+					}
+					if (ENABLE_DELAYS && this.awaitingClients.get() == 0)
+						Thread.sleep(50);
+				} catch (InterruptedException e) { // background indexing was
+					// interrupted
+				}
+			}
+		} catch (RuntimeException e) {
+			recoverWorkers(owner, e);
+			throw e;
+		} catch (Error e) {
+			if (!(e instanceof ThreadDeath)) {
+				recoverWorkers(owner, e);
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * Restarts the background processing after one of the workers has
+	 * crashed, the other workers of the crashed pool stop by themselves.
+	 */
+	private void recoverWorkers(Thread owner, Throwable e) {
+		synchronized (this) {
+			if (this.processingThread != owner) {
+				return; // shutting down or already recovered
+			}
+		}
+		// keep job manager alive
+		this.discardJobs(null);
+		synchronized (this) {
+			if (this.processingThread != owner) {
+				return;
+			}
+			this.processingThread = null;
+			this.notifyAll(); // stop the other workers of this pool
+			this.reset(); // this will fork a new thread with no waiting
+			// jobs, some indexes will be inconsistent
+		}
+
+		// log exception
+		Util.log(e, "Background Indexer Crash Recovery"); //$NON-NLS-1$
+	}
+
 	private void showProgress() {
 		if (this.progressJob == null) {
 			this.progressJob = new ProgressJob(
@@ -565,6 +873,13 @@ public abstract class JobManager implements Runnable {
 				// XXX wait not more than 1 minute
 				thread.join(60000);
 			}
+			final Thread[] workers = this.workerThreads;
+			if (workers != null) {
+				this.workerThreads = null;
+				for (Thread worker : workers) {
+					worker.join(60000);
+				}
+			}
 			Job job = this.progressJob;
 			if (job != null) {
 				job.cancel();
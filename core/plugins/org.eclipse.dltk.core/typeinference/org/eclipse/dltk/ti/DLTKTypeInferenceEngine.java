@@ -22,6 +22,7 @@ import org.eclipse.core.runtime.IConfigurationElement;
 import org.eclipse.core.runtime.IExtension;
 import org.eclipse.core.runtime.IExtensionPoint;
 import org.eclipse.core.runtime.Platform;
+import org.eclipse.dltk.core.DLTKCore;
 import org.eclipse.dltk.core.IScriptProject;
 import org.eclipse.dltk.core.IType;
 import org.eclipse.dltk.core.ModelException;
@@ -74,6 +75,88 @@ public class DLTKTypeInferenceEngine implements ITypeInferencer {
 	public DLTKTypeInferenceEngine() {
 	}
 
+	private static Boolean parallelEvaluation; // DLTKCore.TYPE_INFERENCE_PARALLEL
+
+	/**
+	 * Answers if the goals are evaluated by the {@link ParallelGoalEngine}.
+	 * The default value is read from the
+	 * {@link DLTKCore#TYPE_INFERENCE_PARALLEL} system property or preference.
+	 * 
+	 * @since 5.6
+	 */
+	public static synchronized boolean isParallelEvaluation() {
+		if (parallelEvaluation == null) {
+			String value = System
+					.getProperty(DLTKCore.TYPE_INFERENCE_PARALLEL);
+			if (value == null && Platform.isRunning()) {
+				value = Platform.getPreferencesService().getString(
+						DLTKCore.PLUGIN_ID, DLTKCore.TYPE_INFERENCE_PARALLEL,
+						null, null);
+			}
+			parallelEvaluation = Boolean.valueOf(value);
+		}
+		return parallelEvaluation.booleanValue();
+	}
+
+	/**
+	 * Selects the goal engine used by the type inferencers created afterwards.
+	 * 
+	 * @since 5.6
+	 */
+	public static synchronized void setParallelEvaluation(boolean value) {
+		parallelEvaluation = Boolean.valueOf(value);
+	}
+
+	private static Boolean cacheEnabled; // DLTKCore.TYPE_INFERENCE_CACHE
+
+	/**
+	 * Answers if the goal engines reuse the results from the
+	 * {@link GoalResultCache#getDefault() shared cache}. The default value is
+	 * read from the {@link DLTKCore#TYPE_INFERENCE_CACHE} system property or
+	 * preference, the cache is disabled if neither is set.
+	 * 
+	 * @since 5.6
+	 */
+	public static synchronized boolean isCacheEnabled() {
+		if (cacheEnabled == null) {
+			String value = System.getProperty(DLTKCore.TYPE_INFERENCE_CACHE);
+			if (value == null && Platform.isRunning()) {
+				value = Platform.getPreferencesService().getString(
+						DLTKCore.PLUGIN_ID, DLTKCore.TYPE_INFERENCE_CACHE,
+						null, null);
+			}
+			cacheEnabled = Boolean.valueOf(value);
+		}
+		return cacheEnabled.booleanValue();
+	}
+
+	/**
+	 * @since 5.6
+	 */
+	public static synchronized void setCacheEnabled(boolean value) {
+		cacheEnabled = Boolean.valueOf(value);
+	}
+
+	/**
+	 * Creates the goal engine selected by {@link #isParallelEvaluation()}
+	 * using the shared cache if {@link #isCacheEnabled() enabled}.
+	 * 
+	 * @since 5.6
+	 */
+	public static GoalEngine createGoalEngine(
+			IGoalEvaluatorFactory evaluatorFactory) {
+		final GoalEngine engine;
+		if (isParallelEvaluation()) {
+			engine = new ParallelGoalEngine(evaluatorFactory);
+		} else {
+			engine = new GoalEngine(evaluatorFactory);
+		}
+		if (isCacheEnabled()) {
+			engine.setCache(GoalResultCache.getDefault());
+		}
+		return engine;
+	}
+
 	private void flattenTypes(AmbiguousType type, Set typeSet) {
 		IEvaluatedType[] possibleTypes = type.getPossibleTypes();
 		for (int cnt = 0, max = possibleTypes.length; cnt < max; cnt++) {
@@ -37,11 +37,17 @@ public class GoalEngine {
 
 	private IEvaluationStatisticsRequestor statisticsRequestor;
 
+	private GoalResultCache cache;
+
 	private static class EvaluatorState {
 		public long timeCreated;
 		public int totalSubgoals;
 		public int successfulSubgoals;
 		public int subgoalsLeft;
+		/**
+		 * Some of the subgoals were pruned or recursive
+		 */
+		public boolean incomplete;
 		public List<IGoal> subgoals = new ArrayList<IGoal>();
 
 		public EvaluatorState(int subgoalsLeft) {
@@ -67,14 +73,35 @@ public class GoalEngine {
 		public GoalEvaluator creator;
 		public GoalState state;
 		public Object result;
+		public long stamp = GoalResultCache.NO_STAMP;
+		public boolean incomplete;
 	}
 
 	public GoalEngine(IGoalEvaluatorFactory evaluatorFactory) {
 		this.evaluatorFactory = evaluatorFactory;
 	}
 
-	private void storeGoal(IGoal goal, GoalState state, Object result,
-			GoalEvaluator creator) {
+	/**
+	 * Returns the cache of the goal results or <code>null</code>.
+	 * 
+	 * @since 5.6
+	 */
+	public GoalResultCache getCache() {
+		return cache;
+	}
+
+	/**
+	 * Sets the cache used to reuse the results of the goals evaluated
+	 * before.
+	 * 
+	 * @since 5.6
+	 */
+	public void setCache(GoalResultCache cache) {
+		this.cache = cache;
+	}
+
+	private GoalEvaluationState storeGoal(IGoal goal, GoalState state,
+			Object result, GoalEvaluator creator) {
 		GoalEvaluationState es = new GoalEvaluationState();
 		es.result = result;
 		es.state = state;
@@ -82,6 +109,7 @@ public class GoalEngine {
 		goalStates.put(goal, es);
 		this.statisticsRequestor.goalStateChanged(goal, state, null);
 		// TODO: add old state
+		return es;
 	}
 
 	private EvaluatorState getEvaluatorState(GoalEvaluator evaluator) {
@@ -102,6 +130,10 @@ public class GoalEngine {
 		if (state == GoalState.WAITING) {
 			state = GoalState.RECURSIVE;
 		}
+		EvaluatorState ev = getEvaluatorState(evaluator);
+		if (state != GoalState.DONE || subGoalState.incomplete) {
+			ev.incomplete = true;
+		}
 
 		t = System.currentTimeMillis();
 		IGoal[] newGoals = evaluator.subGoalDone(subGoal, result, state);
@@ -113,7 +145,6 @@ public class GoalEngine {
 		for (int i = 0; i < newGoals.length; i++) {
 			workingQueue.add(new WorkingPair(newGoals[i], evaluator));
 		}
-		EvaluatorState ev = getEvaluatorState(evaluator);
 		ev.subgoalsLeft--;
 		ev.subgoalsLeft += newGoals.length;
 		ev.totalSubgoals += newGoals.length;
@@ -130,6 +161,10 @@ public class GoalEngine {
 			Assert.isNotNull(st);
 			st.state = GoalState.DONE;
 			st.result = newRes;
+			st.incomplete = ev.incomplete;
+			if (cache != null && !ev.incomplete) {
+				cache.put(evaluator.getGoal(), st.stamp, newRes);
+			}
 			if (st.creator != null) {
 				notifyEvaluator(st.creator, evaluator.getGoal());
 			}
@@ -204,12 +239,23 @@ public class GoalEngine {
 			if (state != null && pair.creator != null) {
 				notifyEvaluator(pair.creator, pair.goal);
 			} else {
+				long stamp = GoalResultCache.NO_STAMP;
+				Object cached = null;
+				if (cache != null) {
+					stamp = cache.getStamp(pair.goal);
+					cached = cache.get(pair.goal, stamp);
+				}
 				boolean prune = false;
-				if (pruner != null && pair.creator != null) {
+				if (cached == null && pruner != null && pair.creator != null) {
 					prune = pruner.prune(pair.goal,
 							getEvaluatorStatistics(pair.creator));
 				}
-				if (prune) {
+				if (cached != null) {
+					storeGoal(pair.goal, GoalState.DONE, cached, pair.creator);
+					if (pair.creator != null) {
+						notifyEvaluator(pair.creator, pair.goal);
+					}
+				} else if (prune) {
 					storeGoal(pair.goal, GoalState.PRUNED, null, pair.creator);
 					notifyEvaluator(pair.creator, pair.goal);
 				} else {
@@ -242,8 +288,9 @@ public class GoalEngine {
 								newGoals.length);
 						evaluatorState.subgoals.addAll(Arrays.asList(newGoals));
 						putEvaluatorState(evaluator, evaluatorState);
-						storeGoal(pair.goal, GoalState.WAITING, null,
-								pair.creator);
+						GoalEvaluationState goalState = storeGoal(pair.goal,
+								GoalState.WAITING, null, pair.creator);
+						goalState.stamp = stamp;
 					} else {
 						time = System.currentTimeMillis();
 						Object result = evaluator.produceResult();
@@ -251,6 +298,9 @@ public class GoalEngine {
 								result, System.currentTimeMillis() - time);
 						storeGoal(pair.goal, GoalState.DONE, result,
 								pair.creator);
+						if (cache != null) {
+							cache.put(pair.goal, stamp, result);
+						}
 						if (pair.creator != null) {
 							notifyEvaluator(pair.creator, pair.goal);
 						}
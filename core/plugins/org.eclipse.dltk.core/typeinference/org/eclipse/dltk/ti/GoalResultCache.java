@@ -0,0 +1,165 @@
+/*******************************************************************************
+ * Copyright (c) 2016 xored software, Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ *******************************************************************************/
+package org.eclipse.dltk.ti;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.dltk.core.DLTKCore;
+import org.eclipse.dltk.core.ElementChangedEvent;
+import org.eclipse.dltk.core.IElementChangedListener;
+import org.eclipse.dltk.internal.core.util.StripedLRUCache;
+import org.eclipse.dltk.ti.goals.AbstractTypeGoal;
+import org.eclipse.dltk.ti.goals.IGoal;
+
+/**
+ * Workspace level cache of the type goal results shared by the goal engines.
+ * The results are cached only for the {@link AbstractTypeGoal}s evaluated in
+ * the {@link ISourceModuleContext}, when neither the goal nor its subgoals
+ * were pruned or cut because of recursion.
+ *
+ * <p>
+ * The results may depend on the other modules and their working copies, so
+ * the whole cache is invalidated on every model change and reconcile. The
+ * results evaluated before the invalidation are not stored.
+ *
+ * <p>
+ * The goals keep their AST nodes, so the cache is disabled by default, see
+ * {@link DLTKTypeInferenceEngine#isCacheEnabled()}.
+ *
+ * @since 5.6
+ */
+public class GoalResultCache {
+
+	/**
+	 * Stamp returned for the goals which are not cached
+	 */
+	public static final long NO_STAMP = -1;
+
+	private static final int DEFAULT_LIMIT = 4096;
+
+	private static GoalResultCache instance;
+
+	/**
+	 * Returns the shared cache, which is registered as the model changes
+	 * listener when created.
+	 */
+	public static synchronized GoalResultCache getDefault() {
+		if (instance == null) {
+			instance = new GoalResultCache(DEFAULT_LIMIT);
+			DLTKCore.addElementChangedListener(instance.listener,
+					ElementChangedEvent.POST_CHANGE
+							| ElementChangedEvent.POST_RECONCILE);
+		}
+		return instance;
+	}
+
+	private final StripedLRUCache<IGoal, Object> entries;
+
+	/**
+	 * Stamp changed by every invalidation
+	 */
+	private final AtomicLong generation = new AtomicLong();
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+
+	private final IElementChangedListener listener = new IElementChangedListener() {
+		@Override
+		public void elementChanged(ElementChangedEvent event) {
+			invalidateAll();
+		}
+	};
+
+	public GoalResultCache(int limit) {
+		this.entries = new StripedLRUCache<IGoal, Object>(limit, 16);
+	}
+
+	/**
+	 * Returns the current stamp of the cache or {@link #NO_STAMP} if results
+	 * of the goal are not cached. The stamp should be obtained before the
+	 * evaluation is started.
+	 */
+	public long getStamp(IGoal goal) {
+		if (!(goal instanceof AbstractTypeGoal)
+				|| !(goal.getContext() instanceof ISourceModuleContext)) {
+			return NO_STAMP;
+		}
+		return generation.get();
+	}
+
+	/**
+	 * Returns the cached result of the goal or <code>null</code>.
+	 */
+	public Object get(IGoal goal, long stamp) {
+		if (stamp == NO_STAMP) {
+			return null;
+		}
+		final Object result = entries.get(goal);
+		if (result != null) {
+			hits.incrementAndGet();
+			return result;
+		}
+		misses.incrementAndGet();
+		return null;
+	}
+
+	/**
+	 * Stores the result of the goal evaluated with the specified stamp, unless
+	 * the cache was invalidated since the stamp was obtained.
+	 */
+	public void put(IGoal goal, long stamp, Object result) {
+		if (stamp == NO_STAMP || result == null
+				|| stamp != generation.get()) {
+			return;
+		}
+		entries.put(goal, result);
+		if (stamp != generation.get()) {
+			// invalidated concurrently, the entry could survive the clear()
+			entries.remove(goal, result);
+		}
+	}
+
+	public void invalidateAll() {
+		generation.incrementAndGet();
+		entries.clear();
+	}
+
+	public int size() {
+		return entries.size();
+	}
+
+	public long getHitCount() {
+		return hits.get();
+	}
+
+	public long getMissCount() {
+		return misses.get();
+	}
+
+	/**
+	 * Returns the ratio of the successful lookups or <code>0</code> if there
+	 * were no lookups.
+	 */
+	public double getHitRate() {
+		final long h = hits.get();
+		final long total = h + misses.get();
+		return total != 0 ? (double) h / total : 0;
+	}
+
+	public void resetStatistics() {
+		hits.set(0);
+		misses.set(0);
+	}
+
+	@Override
+	public String toString() {
+		return "GoalResultCache[size=" + size() + ", hits=" + getHitCount() //$NON-NLS-1$ //$NON-NLS-2$
+				+ ", misses=" + getMissCount() + "]"; //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+}
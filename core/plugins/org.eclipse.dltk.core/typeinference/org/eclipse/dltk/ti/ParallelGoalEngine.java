@@ -0,0 +1,516 @@
+/*******************************************************************************
+ * Copyright (c) 2016 xored software, Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ *******************************************************************************/
+package org.eclipse.dltk.ti;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.core.runtime.Assert;
+import org.eclipse.dltk.ti.goals.GoalEvaluator;
+import org.eclipse.dltk.ti.goals.IGoal;
+import org.eclipse.dltk.ti.statistics.IEvaluationStatisticsRequestor;
+
+/**
+ * Goal engine evaluating the independent subgoals concurrently on the shared
+ * pool of worker threads. The calls of every evaluator are still serialized,
+ * so the evaluators are not required to be thread safe, however different
+ * evaluators as well as the {@link IGoalEvaluatorFactory} are called from
+ * different threads at the same time.
+ *
+ * <p>
+ * The goal requested while it is being evaluated is reported as
+ * {@link GoalState#RECURSIVE} only if it depends on the requesting goal,
+ * otherwise the requesting evaluator waits for its result. The order of the
+ * {@link GoalEvaluator#subGoalDone(IGoal, Object, GoalState)} calls is not
+ * deterministic.
+ *
+ * <p>
+ * The goals requested from the evaluators already running on the worker
+ * threads are evaluated sequentially on the current thread, so nested
+ * evaluations can't exhaust the pool.
+ *
+ * @since 5.6
+ */
+public class ParallelGoalEngine extends GoalEngine {
+
+	private static ExecutorService executor;
+
+	private final IGoalEvaluatorFactory evaluatorFactory;
+
+	public ParallelGoalEngine(IGoalEvaluatorFactory evaluatorFactory) {
+		super(evaluatorFactory);
+		this.evaluatorFactory = evaluatorFactory;
+	}
+
+	@Override
+	public Object evaluateGoal(IGoal rootGoal, IPruner pruner,
+			IEvaluationStatisticsRequestor statisticsRequestor) {
+		if (Thread.currentThread() instanceof Worker) {
+			synchronized (this) {
+				return super.evaluateGoal(rootGoal, pruner,
+						statisticsRequestor);
+			}
+		}
+		return new Evaluation(rootGoal, pruner, statisticsRequestor)
+				.evaluate();
+	}
+
+	private static synchronized ExecutorService getExecutor() {
+		if (executor == null) {
+			final int threads = Math.max(2, Runtime.getRuntime()
+					.availableProcessors());
+			final ThreadPoolExecutor pool = new ThreadPoolExecutor(threads,
+					threads, 30, TimeUnit.SECONDS,
+					new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+						private int count;
+
+						@Override
+						public Thread newThread(Runnable r) {
+							return new Worker(r, ++count);
+						}
+					});
+			pool.allowCoreThreadTimeOut(true);
+			executor = pool;
+		}
+		return executor;
+	}
+
+	private static class Worker extends Thread {
+		Worker(Runnable target, int index) {
+			super(target, "DLTK Type Inference Worker #" + index); //$NON-NLS-1$
+			setDaemon(true);
+		}
+	}
+
+	private static class Notification {
+		final IGoal goal;
+		final Object result;
+		final GoalState state;
+		final boolean incomplete;
+
+		Notification(IGoal goal, Object result, GoalState state,
+				boolean incomplete) {
+			this.goal = goal;
+			this.result = result;
+			this.state = state;
+			this.incomplete = incomplete;
+		}
+	}
+
+	private static class GoalNode {
+		final GoalEvaluator creator;
+		GoalState state;
+		Object result;
+		GoalEvaluator evaluator;
+		long timeCreated;
+		int totalSubgoals;
+		int successfulSubgoals;
+		int subgoalsLeft;
+		long stamp = GoalResultCache.NO_STAMP;
+		/**
+		 * Some of the subgoals were pruned or recursive
+		 */
+		boolean incomplete;
+		/**
+		 * Subgoals not reported to the evaluator yet
+		 */
+		final List<IGoal> pending = new ArrayList<IGoal>();
+		/**
+		 * Other evaluators waiting for this goal
+		 */
+		List<GoalEvaluator> waiters;
+		final LinkedList<Notification> mailbox = new LinkedList<Notification>();
+		boolean scheduled;
+
+		GoalNode(GoalEvaluator creator, GoalState state) {
+			this.creator = creator;
+			this.state = state;
+		}
+	}
+
+	/**
+	 * State of the single {@link #evaluateGoal(IGoal, IPruner, IEvaluationStatisticsRequestor)}
+	 * call, all the fields are guarded by the instance lock.
+	 */
+	private class Evaluation {
+		private final IGoal rootGoal;
+		private final IPruner pruner;
+		private final IEvaluationStatisticsRequestor statisticsRequestor;
+		private final GoalResultCache cache = getCache();
+		private final Map<IGoal, GoalNode> goals = new HashMap<IGoal, GoalNode>();
+		private int activeTasks;
+		private Throwable failure;
+
+		Evaluation(IGoal rootGoal, IPruner pruner,
+				IEvaluationStatisticsRequestor statisticsRequestor) {
+			this.rootGoal = rootGoal;
+			this.pruner = pruner;
+			this.statisticsRequestor = new SynchronizedStatisticsRequestor(
+					statisticsRequestor);
+		}
+
+		synchronized Object evaluate() {
+			if (pruner != null) {
+				pruner.init();
+			}
+			statisticsRequestor.evaluationStarted(rootGoal);
+			submit(new EvaluateTask(rootGoal, null));
+			GoalNode root;
+			for (;;) {
+				root = goals.get(rootGoal);
+				if (failure != null || activeTasks == 0 || root != null
+						&& root.state == GoalState.DONE) {
+					break;
+				}
+				try {
+					wait();
+				} catch (InterruptedException e) {
+					failure = e;
+					Thread.currentThread().interrupt();
+					return null;
+				}
+			}
+			if (failure instanceof RuntimeException) {
+				throw (RuntimeException) failure;
+			} else if (failure instanceof Error) {
+				throw (Error) failure;
+			}
+			Assert.isTrue(root != null && root.state == GoalState.DONE);
+			return root.result;
+		}
+
+		private void submit(final Runnable task) {
+			++activeTasks;
+			getExecutor().execute(new Runnable() {
+				@Override
+				public void run() {
+					Throwable error = null;
+					try {
+						task.run();
+					} catch (Throwable e) {
+						error = e;
+					}
+					synchronized (Evaluation.this) {
+						if (error != null && failure == null) {
+							failure = error;
+						}
+						if (--activeTasks == 0 || failure != null) {
+							Evaluation.this.notifyAll();
+						}
+					}
+				}
+			});
+		}
+
+		private EvaluatorStatistics getEvaluatorStatistics(
+				GoalEvaluator evaluator) {
+			final GoalNode node = goals.get(evaluator.getGoal());
+			if (node == null || node.evaluator == null) {
+				return null;
+			}
+			return new EvaluatorStatistics(node.totalSubgoals,
+					System.currentTimeMillis() - node.timeCreated,
+					node.totalSubgoals - node.subgoalsLeft,
+					node.successfulSubgoals);
+		}
+
+		/**
+		 * Checks if the specified goal is still waiting (directly or
+		 * transitively) for the target goal.
+		 */
+		private boolean dependsOn(IGoal goal, IGoal target) {
+			final Set<IGoal> visited = new HashSet<IGoal>();
+			final LinkedList<IGoal> queue = new LinkedList<IGoal>();
+			queue.add(goal);
+			while (!queue.isEmpty()) {
+				final IGoal g = queue.removeFirst();
+				if (g.equals(target)) {
+					return true;
+				}
+				if (visited.add(g)) {
+					final GoalNode node = goals.get(g);
+					if (node != null && node.state == GoalState.WAITING) {
+						queue.addAll(node.pending);
+					}
+				}
+			}
+			return false;
+		}
+
+		private void deliver(GoalEvaluator evaluator, IGoal subgoal,
+				Object result, GoalState state, boolean incomplete) {
+			final GoalNode node = goals.get(evaluator.getGoal());
+			node.pending.remove(subgoal);
+			node.mailbox.add(new Notification(subgoal, result, state,
+					incomplete));
+			if (!node.scheduled) {
+				node.scheduled = true;
+				submit(new NotifyTask(node));
+			}
+		}
+
+		private void addSubgoals(GoalNode node, IGoal[] subgoals) {
+			for (int i = 0; i < subgoals.length; i++) {
+				node.pending.add(subgoals[i]);
+				submit(new EvaluateTask(subgoals[i], node.evaluator));
+			}
+		}
+
+		private void produceResult(IGoal goal, GoalNode node) {
+			final long time = System.currentTimeMillis();
+			final Object result = node.evaluator.produceResult();
+			statisticsRequestor.evaluatorProducedResult(node.evaluator,
+					result, System.currentTimeMillis() - time);
+			if (cache != null && !node.incomplete) {
+				cache.put(goal, node.stamp, result);
+			}
+			synchronized (this) {
+				node.state = GoalState.DONE;
+				node.result = result;
+				statisticsRequestor.goalStateChanged(goal, GoalState.DONE,
+						GoalState.WAITING);
+				if (node.creator != null) {
+					deliver(node.creator, goal, result, GoalState.DONE,
+							node.incomplete);
+				}
+				if (node.waiters != null) {
+					for (GoalEvaluator waiter : node.waiters) {
+						deliver(waiter, goal, result, GoalState.DONE,
+								node.incomplete);
+					}
+					node.waiters = null;
+				}
+				if (goal.equals(rootGoal)) {
+					notifyAll();
+				}
+			}
+		}
+
+		private class EvaluateTask implements Runnable {
+			private final IGoal goal;
+			private final GoalEvaluator creator;
+
+			EvaluateTask(IGoal goal, GoalEvaluator creator) {
+				this.goal = goal;
+				this.creator = creator;
+			}
+
+			@Override
+			public void run() {
+				final GoalNode node;
+				synchronized (Evaluation.this) {
+					if (failure != null) {
+						return;
+					}
+					final GoalNode existing = goals.get(goal);
+					if (existing != null) {
+						if (existing.state != GoalState.WAITING) {
+							deliver(creator, goal, existing.result,
+									existing.state, existing.incomplete);
+						} else if (dependsOn(goal, creator.getGoal())) {
+							deliver(creator, goal, null, GoalState.RECURSIVE,
+									true);
+						} else {
+							if (existing.waiters == null) {
+								existing.waiters = new ArrayList<GoalEvaluator>();
+							}
+							existing.waiters.add(creator);
+						}
+						return;
+					}
+					long stamp = GoalResultCache.NO_STAMP;
+					if (cache != null) {
+						stamp = cache.getStamp(goal);
+						final Object cached = cache.get(goal, stamp);
+						if (cached != null) {
+							final GoalNode done = new GoalNode(creator,
+									GoalState.DONE);
+							done.result = cached;
+							goals.put(goal, done);
+							statisticsRequestor.goalStateChanged(goal,
+									GoalState.DONE, null);
+							if (creator != null) {
+								deliver(creator, goal, cached,
+										GoalState.DONE, false);
+							} else {
+								Evaluation.this.notifyAll();
+							}
+							return;
+						}
+					}
+					if (pruner != null
+							&& creator != null
+							&& pruner.prune(goal,
+									getEvaluatorStatistics(creator))) {
+						goals.put(goal, new GoalNode(creator,
+								GoalState.PRUNED));
+						statisticsRequestor.goalStateChanged(goal,
+								GoalState.PRUNED, null);
+						deliver(creator, goal, null, GoalState.PRUNED, true);
+						return;
+					}
+					node = new GoalNode(creator, GoalState.WAITING);
+					node.stamp = stamp;
+					goals.put(goal, node);
+				}
+				final GoalEvaluator evaluator = evaluatorFactory
+						.createEvaluator(goal);
+				Assert.isNotNull(evaluator);
+				statisticsRequestor.goalEvaluatorAssigned(goal, evaluator);
+				final long time = System.currentTimeMillis();
+				IGoal[] newGoals = evaluator.init();
+				if (newGoals == null) {
+					newGoals = IGoal.NO_GOALS;
+				}
+				statisticsRequestor.evaluatorInitialized(evaluator, newGoals,
+						System.currentTimeMillis() - time);
+				synchronized (Evaluation.this) {
+					node.evaluator = evaluator;
+					node.timeCreated = time;
+					node.totalSubgoals = newGoals.length;
+					node.subgoalsLeft = newGoals.length;
+					if (newGoals.length != 0) {
+						statisticsRequestor.goalStateChanged(goal,
+								GoalState.WAITING, null);
+						addSubgoals(node, newGoals);
+						return;
+					}
+				}
+				produceResult(goal, node);
+			}
+		}
+
+		/**
+		 * Reports the finished subgoals to the evaluator, one at a time.
+		 */
+		private class NotifyTask implements Runnable {
+			private final GoalNode node;
+
+			NotifyTask(GoalNode node) {
+				this.node = node;
+			}
+
+			@Override
+			public void run() {
+				for (;;) {
+					final Notification notification;
+					synchronized (Evaluation.this) {
+						notification = failure == null ? node.mailbox.poll()
+								: null;
+						if (notification == null) {
+							node.scheduled = false;
+							return;
+						}
+					}
+					final long time = System.currentTimeMillis();
+					IGoal[] newGoals = node.evaluator.subGoalDone(
+							notification.goal, notification.result,
+							notification.state);
+					statisticsRequestor.evaluatorReceivedResult(
+							node.evaluator, notification.goal, newGoals,
+							System.currentTimeMillis() - time);
+					if (newGoals == null) {
+						newGoals = IGoal.NO_GOALS;
+					}
+					synchronized (Evaluation.this) {
+						node.subgoalsLeft += newGoals.length - 1;
+						node.totalSubgoals += newGoals.length;
+						if (notification.state == GoalState.DONE
+								&& notification.result != null) {
+							node.successfulSubgoals++;
+						}
+						if (notification.state != GoalState.DONE
+								|| notification.incomplete) {
+							node.incomplete = true;
+						}
+						addSubgoals(node, newGoals);
+						if (node.subgoalsLeft != 0) {
+							continue;
+						}
+					}
+					produceResult(node.evaluator.getGoal(), node);
+					return;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Serializes the calls of the statistics requestor, which are made from
+	 * the different threads.
+	 */
+	private static class SynchronizedStatisticsRequestor implements
+			IEvaluationStatisticsRequestor {
+		private final IEvaluationStatisticsRequestor requestor;
+
+		SynchronizedStatisticsRequestor(IEvaluationStatisticsRequestor requestor) {
+			this.requestor = requestor;
+		}
+
+		@Override
+		public synchronized void evaluationStarted(IGoal rootGoal) {
+			if (requestor != null) {
+				requestor.evaluationStarted(rootGoal);
+			}
+		}
+
+		@Override
+		public synchronized void goalStateChanged(IGoal goal, GoalState state,
+				GoalState oldState) {
+			if (requestor != null) {
+				requestor.goalStateChanged(goal, state, oldState);
+			}
+		}
+
+		@Override
+		public synchronized void goalEvaluatorAssigned(IGoal goal,
+				GoalEvaluator evaluator) {
+			if (requestor != null) {
+				requestor.goalEvaluatorAssigned(goal, evaluator);
+			}
+		}
+
+		@Override
+		public synchronized void evaluatorInitialized(GoalEvaluator evaluator,
+				IGoal[] subgoals, long time) {
+			if (requestor != null) {
+				requestor.evaluatorInitialized(evaluator, subgoals, time);
+			}
+		}
+
+		@Override
+		public synchronized void evaluatorReceivedResult(
+				GoalEvaluator evaluator, IGoal finishedGoal,
+				IGoal[] newSubgoals, long time) {
+			if (requestor != null) {
+				requestor.evaluatorReceivedResult(evaluator, finishedGoal,
+						newSubgoals, time);
+			}
+		}
+
+		@Override
+		public synchronized void evaluatorProducedResult(
+				GoalEvaluator evaluator, Object result, long time) {
+			if (requestor != null) {
+				requestor.evaluatorProducedResult(evaluator, result, time);
+			}
+		}
+	}
+
+}
@@ -11,6 +11,7 @@ package org.eclipse.dltk.dbgp;
 
 import org.eclipse.dltk.dbgp.exceptions.DbgpException;
 import org.eclipse.dltk.dbgp.internal.DbgpTransactionManager;
+import org.eclipse.dltk.dbgp.internal.commands.DbgpDoneFuture;
 import org.w3c.dom.Element;
 
 public class DbgpBaseCommands {
@@ -43,6 +44,21 @@ public class DbgpBaseCommands {
 		return communicator.communicate(request);
 	}
 
+	/**
+	 * Sends the request without waiting for the response if supported by the
+	 * communicator, otherwise executes it synchronously.
+	 * 
+	 * @since 5.6
+	 */
+	protected IDbgpFuture<Element> communicateAsync(DbgpRequest request)
+			throws DbgpException {
+		if (communicator instanceof IDbgpCommunicatorExtension) {
+			return ((IDbgpCommunicatorExtension) communicator)
+					.communicateAsync(request);
+		}
+		return new DbgpDoneFuture<Element>(communicator.communicate(request));
+	}
+
 	protected void send(DbgpRequest request) throws DbgpException {
 		communicator.send(request);
 	}
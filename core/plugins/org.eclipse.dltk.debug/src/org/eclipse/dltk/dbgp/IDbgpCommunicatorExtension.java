@@ -0,0 +1,28 @@
+/*******************************************************************************
+ * Copyright (c) 2016 xored software, Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ *******************************************************************************/
+package org.eclipse.dltk.dbgp;
+
+import org.eclipse.dltk.dbgp.exceptions.DbgpException;
+import org.w3c.dom.Element;
+
+/**
+ * Optional interface of the {@link IDbgpCommunicator} sending the requests
+ * without waiting for the responses, so several commands could be pipelined
+ * over the single connection.
+ * 
+ * @since 5.6
+ */
+public interface IDbgpCommunicatorExtension {
+
+	/**
+	 * Sends the request and returns the future of its response.
+	 */
+	IDbgpFuture<Element> communicateAsync(DbgpRequest request)
+			throws DbgpException;
+}
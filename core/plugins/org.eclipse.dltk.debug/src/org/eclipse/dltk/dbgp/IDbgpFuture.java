@@ -0,0 +1,32 @@
+/*******************************************************************************
+ * Copyright (c) 2016 xored software, Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ *******************************************************************************/
+package org.eclipse.dltk.dbgp;
+
+import org.eclipse.dltk.dbgp.exceptions.DbgpException;
+
+/**
+ * The result of the command sent without waiting for the response.
+ * 
+ * @since 5.6
+ */
+public interface IDbgpFuture<T> {
+
+	/**
+	 * Tests if the response was already received.
+	 */
+	boolean isDone();
+
+	/**
+	 * Waits for the response and returns the result.
+	 * 
+	 * @throws DbgpException
+	 *             if the command failed or response was not received in time
+	 */
+	T get() throws DbgpException;
+}
@@ -0,0 +1,29 @@
+/*******************************************************************************
+ * Copyright (c) 2016 xored software, Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ *******************************************************************************/
+package org.eclipse.dltk.dbgp.commands;
+
+import java.util.Map;
+
+import org.eclipse.dltk.dbgp.IDbgpFuture;
+import org.eclipse.dltk.dbgp.IDbgpProperty;
+import org.eclipse.dltk.dbgp.exceptions.DbgpException;
+
+/**
+ * Context commands sent without waiting for the responses, so the commands
+ * for several contexts or stack levels could be pipelined.
+ * 
+ * @since 5.6
+ */
+public interface IDbgpContextCommandsExtension {
+
+	IDbgpFuture<Map> getContextNamesAsync(int stackDepth) throws DbgpException;
+
+	IDbgpFuture<IDbgpProperty[]> getContextPropertiesAsync(int stackDepth,
+			int contextId) throws DbgpException;
+}
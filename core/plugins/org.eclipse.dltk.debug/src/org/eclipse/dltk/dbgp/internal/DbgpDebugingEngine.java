@@ -22,6 +22,7 @@ import org.eclipse.dltk.dbgp.IDbgpRawPacket;
 import org.eclipse.dltk.dbgp.internal.packets.DbgpNotifyPacket;
 import org.eclipse.dltk.dbgp.internal.packets.DbgpPacketReceiver;
 import org.eclipse.dltk.dbgp.internal.packets.DbgpPacketSender;
+import org.eclipse.dltk.dbgp.internal.packets.DbgpResponseFuture;
 import org.eclipse.dltk.dbgp.internal.packets.DbgpResponsePacket;
 import org.eclipse.dltk.dbgp.internal.packets.DbgpStreamPacket;
 import org.eclipse.dltk.dbgp.internal.packets.IDbgpRawLogger;
@@ -94,6 +95,10 @@ public class DbgpDebugingEngine extends DbgpTermination implements
 		return receiver.getResponsePacket(transactionId, timeout);
 	}
 
+	public DbgpResponseFuture getResponseFuture(int transactionId) {
+		return receiver.getResponseFuture(transactionId);
+	}
+
 	public void sendCommand(DbgpRequest command) throws IOException {
 		sender.sendCommand(command);
 	}
@@ -9,6 +9,8 @@
  *******************************************************************************/
 package org.eclipse.dltk.dbgp.internal;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 public class DbgpTransactionManager {
 	private static DbgpTransactionManager instance = new DbgpTransactionManager();
 
@@ -16,17 +18,12 @@ public class DbgpTransactionManager {
 		return instance;
 	}
 
-	private final Object lock = new Object();
-
-	private int id;
+	private final AtomicInteger id = new AtomicInteger();
 
 	private DbgpTransactionManager() {
-		this.id = 0;
 	}
 
 	public int generateId() {
-		synchronized (lock) {
-			return id++;
-		}
+		return id.getAndIncrement();
 	}
 }
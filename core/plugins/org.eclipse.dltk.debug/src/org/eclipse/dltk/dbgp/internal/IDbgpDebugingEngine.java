@@ -14,6 +14,7 @@ import java.io.IOException;
 import org.eclipse.dltk.dbgp.DbgpRequest;
 import org.eclipse.dltk.dbgp.IDbgpRawListener;
 import org.eclipse.dltk.dbgp.internal.packets.DbgpNotifyPacket;
+import org.eclipse.dltk.dbgp.internal.packets.DbgpResponseFuture;
 import org.eclipse.dltk.dbgp.internal.packets.DbgpResponsePacket;
 import org.eclipse.dltk.dbgp.internal.packets.DbgpStreamPacket;
 
@@ -25,6 +26,12 @@ public interface IDbgpDebugingEngine extends IDbgpTermination {
 	DbgpResponsePacket getResponsePacket(int transactionId, int timeout)
 			throws IOException, InterruptedException;
 
+	/**
+	 * Returns the future of the response, it should be obtained before the
+	 * command is sent.
+	 */
+	DbgpResponseFuture getResponseFuture(int transactionId);
+
 	DbgpNotifyPacket getNotifyPacket() throws IOException, InterruptedException;
 
 	DbgpStreamPacket getStreamPacket() throws IOException, InterruptedException;
@@ -9,24 +9,23 @@
  *******************************************************************************/
 package org.eclipse.dltk.dbgp.internal.commands;
 
-import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 import org.eclipse.dltk.dbgp.DbgpBaseCommands;
 import org.eclipse.dltk.dbgp.DbgpRequest;
 import org.eclipse.dltk.dbgp.IDbgpCommunicator;
+import org.eclipse.dltk.dbgp.IDbgpFuture;
 import org.eclipse.dltk.dbgp.IDbgpProperty;
 import org.eclipse.dltk.dbgp.commands.IDbgpContextCommands;
+import org.eclipse.dltk.dbgp.commands.IDbgpContextCommandsExtension;
 import org.eclipse.dltk.dbgp.exceptions.DbgpException;
 import org.eclipse.dltk.dbgp.internal.utils.DbgpXmlEntityParser;
 import org.w3c.dom.Element;
-import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
 
 public class DbgpContextCommands extends DbgpBaseCommands implements
-		IDbgpContextCommands {
+		IDbgpContextCommands, IDbgpContextCommandsExtension {
 	private static final String CONTEXT_NAMES_COMMAND = "context_names"; //$NON-NLS-1$
 
 	private static final String CONTEXT_GET = "context_get"; //$NON-NLS-1$
@@ -58,20 +57,7 @@ public class DbgpContextCommands extends DbgpBaseCommands implements
 
 	protected IDbgpProperty[] parseContextPropertiesResponse(Element response)
 			throws DbgpException {
-		NodeList properties = response.getChildNodes();
-
-		List list = new ArrayList();
-		for (int i = 0; i < properties.getLength(); ++i) {
-
-			Node item = properties.item(i);
-			if (item instanceof Element) {
-				if (item.getNodeName().equals(DbgpXmlEntityParser.TAG_PROPERTY)) {
-					list.add(DbgpXmlEntityParser.parseProperty((Element) item));
-				}
-			}
-		}
-
-		return (IDbgpProperty[]) list.toArray(new IDbgpProperty[list.size()]);
+		return DbgpXmlEntityParser.getProperties(response);
 	}
 
 	public Map getContextNames(int stackDepth) throws DbgpException {
@@ -80,6 +66,18 @@ public class DbgpContextCommands extends DbgpBaseCommands implements
 		return parseContextNamesResponse(communicate(request));
 	}
 
+	public IDbgpFuture<Map> getContextNamesAsync(int stackDepth)
+			throws DbgpException {
+		DbgpRequest request = createRequest(CONTEXT_NAMES_COMMAND);
+		request.addOption("-d", stackDepth); //$NON-NLS-1$
+		return new DbgpParsedFuture<Map>(communicateAsync(request)) {
+			@Override
+			protected Map parse(Element response) throws DbgpException {
+				return parseContextNamesResponse(response);
+			}
+		};
+	}
+
 	public IDbgpProperty[] getContextProperties(int stackDepth)
 			throws DbgpException {
 		DbgpRequest request = createRequest(CONTEXT_GET);
@@ -94,4 +92,18 @@ public class DbgpContextCommands extends DbgpBaseCommands implements
 		request.addOption("-c", contextId); //$NON-NLS-1$
 		return parseContextPropertiesResponse(communicate(request));
 	}
+
+	public IDbgpFuture<IDbgpProperty[]> getContextPropertiesAsync(
+			int stackDepth, int contextId) throws DbgpException {
+		DbgpRequest request = createRequest(CONTEXT_GET);
+		request.addOption("-d", stackDepth); //$NON-NLS-1$
+		request.addOption("-c", contextId); //$NON-NLS-1$
+		return new DbgpParsedFuture<IDbgpProperty[]>(communicateAsync(request)) {
+			@Override
+			protected IDbgpProperty[] parse(Element response)
+					throws DbgpException {
+				return parseContextPropertiesResponse(response);
+			}
+		};
+	}
 }
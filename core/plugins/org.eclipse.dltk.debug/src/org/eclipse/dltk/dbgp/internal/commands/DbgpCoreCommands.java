@@ -14,13 +14,14 @@ import java.util.Map;
 
 import org.eclipse.dltk.dbgp.IDbgpCommunicator;
 import org.eclipse.dltk.dbgp.IDbgpFeature;
+import org.eclipse.dltk.dbgp.IDbgpFuture;
 import org.eclipse.dltk.dbgp.IDbgpProperty;
 import org.eclipse.dltk.dbgp.IDbgpStackLevel;
 import org.eclipse.dltk.dbgp.IDbgpStatus;
 import org.eclipse.dltk.dbgp.breakpoints.DbgpBreakpointConfig;
 import org.eclipse.dltk.dbgp.breakpoints.IDbgpBreakpoint;
 import org.eclipse.dltk.dbgp.commands.IDbgpBreakpointCommands;
-import org.eclipse.dltk.dbgp.commands.IDbgpContextCommands;
+import org.eclipse.dltk.dbgp.commands.IDbgpContextCommandsExtension;
 import org.eclipse.dltk.dbgp.commands.IDbgpContinuationCommands;
 import org.eclipse.dltk.dbgp.commands.IDbgpCoreCommands;
 import org.eclipse.dltk.dbgp.commands.IDbgpDataTypeCommands;
@@ -32,7 +33,8 @@ import org.eclipse.dltk.dbgp.commands.IDbgpStatusCommands;
 import org.eclipse.dltk.dbgp.commands.IDbgpStreamCommands;
 import org.eclipse.dltk.dbgp.exceptions.DbgpException;
 
-public class DbgpCoreCommands implements IDbgpCoreCommands {
+public class DbgpCoreCommands implements IDbgpCoreCommands,
+		IDbgpContextCommandsExtension {
 
 	private final IDbgpFeatureCommands featureCommands;
 
@@ -42,7 +44,7 @@ public class DbgpCoreCommands implements IDbgpCoreCommands {
 
 	private final IDbgpSourceCommands sourceCommands;
 
-	private final IDbgpContextCommands contextCommands;
+	private final DbgpContextCommands contextCommands;
 
 	private final IDbgpStackCommands stackCommands;
 
@@ -200,6 +202,16 @@ public class DbgpCoreCommands implements IDbgpCoreCommands {
 		return contextCommands.getContextProperties(stackDepth, contextId);
 	}
 
+	public IDbgpFuture<Map> getContextNamesAsync(int stackDepth)
+			throws DbgpException {
+		return contextCommands.getContextNamesAsync(stackDepth);
+	}
+
+	public IDbgpFuture<IDbgpProperty[]> getContextPropertiesAsync(
+			int stackDepth, int contextId) throws DbgpException {
+		return contextCommands.getContextPropertiesAsync(stackDepth, contextId);
+	}
+
 	public boolean configureStderr(int value) throws DbgpException {
 		return streamCommands.configureStderr(value);
 	}
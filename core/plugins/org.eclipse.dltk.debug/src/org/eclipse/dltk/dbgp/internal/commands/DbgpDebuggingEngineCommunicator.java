@@ -16,11 +16,14 @@ import java.util.Map;
 import org.eclipse.dltk.dbgp.DbgpBaseCommands;
 import org.eclipse.dltk.dbgp.DbgpRequest;
 import org.eclipse.dltk.dbgp.IDbgpCommunicator;
+import org.eclipse.dltk.dbgp.IDbgpCommunicatorExtension;
+import org.eclipse.dltk.dbgp.IDbgpFuture;
 import org.eclipse.dltk.dbgp.exceptions.DbgpException;
 import org.eclipse.dltk.dbgp.exceptions.DbgpIOException;
 import org.eclipse.dltk.dbgp.exceptions.DbgpOpertionCanceledException;
 import org.eclipse.dltk.dbgp.exceptions.DbgpTimeoutException;
 import org.eclipse.dltk.dbgp.internal.IDbgpDebugingEngine;
+import org.eclipse.dltk.dbgp.internal.packets.DbgpResponseFuture;
 import org.eclipse.dltk.dbgp.internal.packets.DbgpResponsePacket;
 import org.eclipse.dltk.dbgp.internal.utils.DbgpXmlParser;
 import org.eclipse.dltk.debug.core.DLTKDebugPlugin;
@@ -29,7 +32,8 @@ import org.eclipse.dltk.debug.core.DebugOption;
 import org.eclipse.dltk.debug.core.IDebugOptions;
 import org.w3c.dom.Element;
 
-public class DbgpDebuggingEngineCommunicator implements IDbgpCommunicator {
+public class DbgpDebuggingEngineCommunicator implements IDbgpCommunicator,
+		IDbgpCommunicatorExtension {
 	private final int timeout;
 
 	private final IDbgpDebugingEngine engine;
@@ -84,23 +88,72 @@ public class DbgpDebuggingEngineCommunicator implements IDbgpCommunicator {
 				}
 			}
 
-			if (packet == null) {
-				throw new DbgpTimeoutException();
-			}
+			return checkResponse(packet);
+		} catch (InterruptedException e) {
+			throw new DbgpOpertionCanceledException(e);
+		} catch (IOException e) {
+			throw new DbgpIOException(e);
+		}
+	}
 
-			Element response = packet.getContent();
+	private static Element checkResponse(DbgpResponsePacket packet)
+			throws DbgpException {
+		if (packet == null) {
+			throw new DbgpTimeoutException();
+		}
 
-			DbgpException e = DbgpXmlParser.checkError(response);
-			if (e != null) {
-				throw e;
-			}
+		Element response = packet.getContent();
 
-			return response;
-		} catch (InterruptedException e) {
-			throw new DbgpOpertionCanceledException(e);
+		DbgpException e = DbgpXmlParser.checkError(response);
+		if (e != null) {
+			throw e;
+		}
+
+		return response;
+	}
+
+	/**
+	 * The requests are not serialized here, if the
+	 * {@link DebugOption#DBGP_ASYNC} option is disabled the request is
+	 * executed synchronously.
+	 */
+	public IDbgpFuture<Element> communicateAsync(DbgpRequest request)
+			throws DbgpException {
+		if (!options.get(DebugOption.DBGP_ASYNC) && !request.isAsync()) {
+			return new DbgpDoneFuture<Element>(communicate(request));
+		}
+		final int requestId = Integer.parseInt(request
+				.getOption(DbgpBaseCommands.ID_OPTION));
+		final DbgpResponseFuture future = engine.getResponseFuture(requestId);
+		try {
+			sendRequest(request);
 		} catch (IOException e) {
+			future.cancel();
 			throw new DbgpIOException(e);
 		}
+		return new ResponseFuture(future, timeout);
+	}
+
+	private static class ResponseFuture implements IDbgpFuture<Element> {
+		private final DbgpResponseFuture future;
+		private final int timeout;
+
+		ResponseFuture(DbgpResponseFuture future, int timeout) {
+			this.future = future;
+			this.timeout = timeout;
+		}
+
+		public boolean isDone() {
+			return future.isDone();
+		}
+
+		public Element get() throws DbgpException {
+			try {
+				return checkResponse(future.get(timeout));
+			} catch (InterruptedException e) {
+				throw new DbgpOpertionCanceledException(e);
+			}
+		}
 	}
 
 	private void endSyncRequest(DbgpRequest request) {
@@ -0,0 +1,30 @@
+/*******************************************************************************
+ * Copyright (c) 2016 xored software, Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ *******************************************************************************/
+package org.eclipse.dltk.dbgp.internal.commands;
+
+import org.eclipse.dltk.dbgp.IDbgpFuture;
+
+/**
+ * The future of the already received result.
+ */
+public class DbgpDoneFuture<T> implements IDbgpFuture<T> {
+	private final T result;
+
+	public DbgpDoneFuture(T result) {
+		this.result = result;
+	}
+
+	public boolean isDone() {
+		return true;
+	}
+
+	public T get() {
+		return result;
+	}
+}
@@ -18,16 +18,13 @@ import org.eclipse.dltk.dbgp.exceptions.DbgpException;
 import org.eclipse.dltk.dbgp.internal.utils.DbgpXmlEntityParser;
 import org.eclipse.dltk.dbgp.internal.utils.DbgpXmlParser;
 import org.w3c.dom.Element;
-import org.w3c.dom.NodeList;
 
 public class DbgpExtendedCommands extends DbgpBaseCommands implements
 		IDbgpExtendedCommands {
 
 	private IDbgpProperty parseResponse(Element response) {
 		if (DbgpXmlParser.parseSuccess(response)) {
-			NodeList list = response
-					.getElementsByTagName(DbgpXmlEntityParser.TAG_PROPERTY);
-			return DbgpXmlEntityParser.parseProperty((Element) list.item(0));
+			return DbgpXmlEntityParser.getFirstProperty(response);
 		}
 		return null;
 	}
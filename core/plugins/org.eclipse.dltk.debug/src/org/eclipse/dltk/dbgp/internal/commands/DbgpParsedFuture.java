@@ -0,0 +1,41 @@
+/*******************************************************************************
+ * Copyright (c) 2016 xored software, Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ *******************************************************************************/
+package org.eclipse.dltk.dbgp.internal.commands;
+
+import org.eclipse.dltk.dbgp.IDbgpFuture;
+import org.eclipse.dltk.dbgp.exceptions.DbgpException;
+import org.w3c.dom.Element;
+
+/**
+ * The future of the command result parsed from the response when it is
+ * requested for the first time.
+ */
+public abstract class DbgpParsedFuture<T> implements IDbgpFuture<T> {
+	private final IDbgpFuture<Element> response;
+	private T result;
+	private boolean parsed = false;
+
+	public DbgpParsedFuture(IDbgpFuture<Element> response) {
+		this.response = response;
+	}
+
+	public boolean isDone() {
+		return response.isDone();
+	}
+
+	public synchronized T get() throws DbgpException {
+		if (!parsed) {
+			result = parse(response.get());
+			parsed = true;
+		}
+		return result;
+	}
+
+	protected abstract T parse(Element response) throws DbgpException;
+}
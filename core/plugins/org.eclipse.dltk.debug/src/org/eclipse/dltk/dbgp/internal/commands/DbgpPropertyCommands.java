@@ -18,7 +18,6 @@ import org.eclipse.dltk.dbgp.exceptions.DbgpException;
 import org.eclipse.dltk.dbgp.internal.utils.DbgpXmlEntityParser;
 import org.eclipse.dltk.dbgp.internal.utils.DbgpXmlParser;
 import org.w3c.dom.Element;
-import org.w3c.dom.NodeList;
 
 public class DbgpPropertyCommands extends DbgpBaseCommands implements
 		IDbgpPropertyCommands {
@@ -29,9 +28,7 @@ public class DbgpPropertyCommands extends DbgpBaseCommands implements
 	protected IDbgpProperty parsePropertyResponse(Element response)
 			throws DbgpException {
 		// TODO: check length!!!
-		NodeList properties = response
-				.getElementsByTagName(DbgpXmlEntityParser.TAG_PROPERTY);
-		return DbgpXmlEntityParser.parseProperty((Element) properties.item(0));
+		return DbgpXmlEntityParser.getFirstProperty(response);
 	}
 
 	public DbgpPropertyCommands(IDbgpCommunicator communicator) {
@@ -22,6 +22,17 @@ public class DbgpPacket {
 		this.content = content;
 	}
 
+	/**
+	 * Creates the packet decoded without the DOM content.
+	 */
+	protected DbgpPacket() {
+		this.content = null;
+	}
+
+	/**
+	 * Returns the packet content or <code>null</code> if the packet was
+	 * decoded without the DOM content.
+	 */
 	public Element getContent() {
 		return this.content;
 	}
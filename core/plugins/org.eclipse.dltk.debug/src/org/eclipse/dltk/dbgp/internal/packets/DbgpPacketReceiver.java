@@ -13,6 +13,7 @@ import java.io.InputStream;
 
 import org.eclipse.dltk.dbgp.internal.DbgpRawPacket;
 import org.eclipse.dltk.dbgp.internal.DbgpWorkingThread;
+import org.eclipse.dltk.dbgp.internal.utils.DbgpXmlPacketParser;
 import org.w3c.dom.Document;
 
 public class DbgpPacketReceiver extends DbgpWorkingThread {
@@ -33,7 +34,7 @@ public class DbgpPacketReceiver extends DbgpWorkingThread {
 					logger.log(packet);
 				}
 
-				addDocument(packet.getParsedXml());
+				addPacket(DbgpXmlPacketParser.parsePacket(packet.getXml()));
 			}
 		} finally {
 			responseWaiter.terminate();
@@ -48,6 +49,11 @@ public class DbgpPacketReceiver extends DbgpWorkingThread {
 				streamWaiter);
 	}
 
+	protected void addPacket(DbgpPacket packet) {
+		packatProcessor.processPacket(packet, notifyWaiter, responseWaiter,
+				streamWaiter);
+	}
+
 	public DbgpNotifyPacket getNotifyPacket() throws InterruptedException {
 		return (DbgpNotifyPacket) notifyWaiter.waitPacket();
 	}
@@ -61,6 +67,10 @@ public class DbgpPacketReceiver extends DbgpWorkingThread {
 		return responseWaiter.waitPacket(transactionId, timeout);
 	}
 
+	public DbgpResponseFuture getResponseFuture(int transactionId) {
+		return responseWaiter.getFuture(transactionId);
+	}
+
 	public DbgpPacketReceiver(InputStream input) {
 		super("DBGP - Packet receiver"); //$NON-NLS-1$
 
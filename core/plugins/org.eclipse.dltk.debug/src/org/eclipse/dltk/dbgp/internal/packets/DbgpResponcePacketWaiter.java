@@ -1,55 +1,59 @@
 package org.eclipse.dltk.dbgp.internal.packets;
 
-import java.util.HashMap;
-
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Pending transactions of the session. Every transaction has its own future
+ * completed by the receiver, so the waiting threads are not woken by the
+ * responses of the other transactions.
+ */
 public final class DbgpResponcePacketWaiter {
-	private static final int MIN_TIMEOUT = 5;
-	private final HashMap map;
-	private boolean terminated;
+	private final ConcurrentMap<Integer, DbgpResponseFuture> pending = new ConcurrentHashMap<Integer, DbgpResponseFuture>();
+	private volatile boolean terminated;
 
 	public DbgpResponcePacketWaiter() {
-		map = new HashMap();
 		terminated = false;
 	}
 
-	public synchronized void put(DbgpResponsePacket packet) {
-		int id = packet.getTransactionId();
-		map.put(Integer.valueOf(id), packet);
-		notifyAll();
-	}
-
-	public synchronized DbgpResponsePacket waitPacket(int id, int timeout)
-			throws InterruptedException {
-		Integer key = Integer.valueOf(id);
-		long endTime = 0;
-		if (timeout > 0) {
-			endTime = System.currentTimeMillis() + timeout;
-		}
-		while (!terminated && !map.containsKey(key)) {
-			long current = System.currentTimeMillis();
-			if (endTime != 0 && current >= endTime) {
-				break;
+	/**
+	 * Returns the future of the transaction, it should be obtained before the
+	 * request is sent to not miss the response.
+	 */
+	public DbgpResponseFuture getFuture(int id) {
+		final Integer key = Integer.valueOf(id);
+		DbgpResponseFuture future = pending.get(key);
+		if (future == null) {
+			final DbgpResponseFuture newFuture = new DbgpResponseFuture(
+					this, id);
+			future = pending.putIfAbsent(key, newFuture);
+			if (future == null) {
+				future = newFuture;
 			}
-			if (endTime == 0)
-				wait();
-			else
-				wait(endTime - current);
-		}
-
-		if (map.containsKey(key)) {
-			return (DbgpResponsePacket) map.remove(key);
 		}
-
 		if (terminated) {
-			throw new InterruptedException(
-					Messages.DbgpPacketReceiver_responsePacketWaiterTerminated);
+			future.terminate();
 		}
+		return future;
+	}
+
+	void remove(int id, DbgpResponseFuture future) {
+		pending.remove(Integer.valueOf(id), future);
+	}
 
-		return null;
+	public void put(DbgpResponsePacket packet) {
+		getFuture(packet.getTransactionId()).complete(packet);
 	}
 
-	public synchronized void terminate() {
+	public DbgpResponsePacket waitPacket(int id, int timeout)
+			throws InterruptedException {
+		return getFuture(id).get(timeout);
+	}
+
+	public void terminate() {
 		terminated = true;
-		notifyAll();
+		for (DbgpResponseFuture future : pending.values()) {
+			future.terminate();
+		}
 	}
-}
\ No newline at end of file
+}
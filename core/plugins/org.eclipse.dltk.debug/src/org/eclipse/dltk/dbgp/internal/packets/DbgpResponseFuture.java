@@ -0,0 +1,78 @@
+/*******************************************************************************
+ * Copyright (c) 2016 xored software, Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ *******************************************************************************/
+package org.eclipse.dltk.dbgp.internal.packets;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The pending response of the single transaction. The transaction is
+ * forgotten by the waiter after the first {@link #get(int)}.
+ */
+public final class DbgpResponseFuture {
+	private final DbgpResponcePacketWaiter owner;
+	private final int id;
+	private final CountDownLatch done = new CountDownLatch(1);
+	private volatile DbgpResponsePacket packet;
+
+	DbgpResponseFuture(DbgpResponcePacketWaiter owner, int id) {
+		this.owner = owner;
+		this.id = id;
+	}
+
+	void complete(DbgpResponsePacket packet) {
+		this.packet = packet;
+		done.countDown();
+	}
+
+	void terminate() {
+		done.countDown();
+	}
+
+	/**
+	 * Forgets the transaction, e.g. if the request was not sent.
+	 */
+	public void cancel() {
+		owner.remove(id, this);
+	}
+
+	public boolean isDone() {
+		return done.getCount() == 0;
+	}
+
+	/**
+	 * Waits for the response, returns <code>null</code> if the timeout has
+	 * elapsed.
+	 * 
+	 * @param timeout
+	 *            timeout in milliseconds, <code>0</code> to wait without
+	 *            timeout
+	 * @throws InterruptedException
+	 *             if interrupted or receiver was terminated
+	 */
+	public DbgpResponsePacket get(int timeout) throws InterruptedException {
+		try {
+			if (timeout > 0) {
+				if (!done.await(timeout, TimeUnit.MILLISECONDS)) {
+					return null;
+				}
+			} else {
+				done.await();
+			}
+		} finally {
+			owner.remove(id, this);
+		}
+		final DbgpResponsePacket result = packet;
+		if (result == null) {
+			throw new InterruptedException(
+					Messages.DbgpPacketReceiver_responsePacketWaiterTerminated);
+		}
+		return result;
+	}
+}
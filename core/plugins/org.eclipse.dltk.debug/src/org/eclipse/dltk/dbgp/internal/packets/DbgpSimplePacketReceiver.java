@@ -11,6 +11,7 @@ package org.eclipse.dltk.dbgp.internal.packets;
 
 import org.eclipse.dltk.dbgp.exceptions.DbgpException;
 import org.eclipse.dltk.dbgp.internal.DbgpRawPacket;
+import org.eclipse.dltk.dbgp.internal.utils.DbgpXmlPacketParser;
 import org.eclipse.dltk.debug.core.DLTKDebugPlugin;
 import org.w3c.dom.Document;
 
@@ -40,6 +41,11 @@ public class DbgpSimplePacketReceiver {
 				.processPacket(doc, notifyWaiter, responseWaiter, streamWaiter);
 	}
 
+	protected void addPacket(DbgpPacket packet) {
+		processor.processPacket(packet, notifyWaiter, responseWaiter,
+				streamWaiter);
+	}
+
 	public DbgpNotifyPacket getNotifyPacket() throws InterruptedException {
 		return (DbgpNotifyPacket) notifyWaiter.waitPacket();
 	}
@@ -53,6 +59,10 @@ public class DbgpSimplePacketReceiver {
 		return responseWaiter.waitPacket(transactionId, timeout);
 	}
 
+	public DbgpResponseFuture getResponseFuture(int transactionId) {
+		return responseWaiter.getFuture(transactionId);
+	}
+
 	public void setLogger(IDbgpRawLogger logger) {
 		this.logger = logger;
 	}
@@ -63,7 +73,7 @@ public class DbgpSimplePacketReceiver {
 		}
 
 		try {
-			addDocument(packet.getParsedXml());
+			addPacket(DbgpXmlPacketParser.parsePacket(packet.getXml()));
 		} catch (DbgpException e) {
 			DLTKDebugPlugin.logError(e.getMessage(), e);
 		}
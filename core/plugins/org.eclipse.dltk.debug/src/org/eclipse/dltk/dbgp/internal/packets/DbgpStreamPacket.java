@@ -22,17 +22,27 @@ public class DbgpStreamPacket extends DbgpPacket {
 
 	public DbgpStreamPacket(String type, String textContent, Element content) {
 		super(content);
-		
+		this.type = checkType(type);
+		this.textContent = checkTextContent(textContent);
+	}
+
+	public DbgpStreamPacket(String type, String textContent) {
+		this.type = checkType(type);
+		this.textContent = checkTextContent(textContent);
+	}
+
+	private static String checkType(String type) {
 		if (!STDERR.equalsIgnoreCase(type) && !STDOUT.equalsIgnoreCase(type)) {
 			throw new IllegalArgumentException(Messages.DbgpStreamPacket_invalidTypeValue);
 		}
+		return type;
+	}
 
+	private static String checkTextContent(String textContent) {
 		if (textContent == null) {
 			throw new IllegalArgumentException(Messages.DbgpStreamPacket_contentCannotBeNull);
 		}
-
-		this.type = type;
-		this.textContent = textContent;
+		return textContent;
 	}
 
 	public boolean isStdout() {
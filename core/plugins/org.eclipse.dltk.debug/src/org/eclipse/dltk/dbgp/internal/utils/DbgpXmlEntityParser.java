@@ -47,6 +47,12 @@ public class DbgpXmlEntityParser extends DbgpXmlParser {
 
 	public static final String TAG_PROPERTY = "property"; //$NON-NLS-1$
 
+	/**
+	 * The key of the response element user data holding the properties
+	 * decoded by the packet parser.
+	 */
+	public static final String PROPERTIES_KEY = "org.eclipse.dltk.dbgp.properties"; //$NON-NLS-1$
+
 	protected DbgpXmlEntityParser() {
 
 	}
@@ -262,6 +268,37 @@ public class DbgpXmlEntityParser extends DbgpXmlParser {
 				pagesize);
 	}
 
+	/**
+	 * Returns the top level properties of the response, decoded by the packet
+	 * parser or parsed from the response element.
+	 */
+	public static IDbgpProperty[] getProperties(Element response) {
+		final Object decoded = response.getUserData(PROPERTIES_KEY);
+		if (decoded instanceof IDbgpProperty[]) {
+			return (IDbgpProperty[]) decoded;
+		}
+		final Element[] elements = getChildElements(response, TAG_PROPERTY);
+		final IDbgpProperty[] properties = new IDbgpProperty[elements.length];
+		for (int i = 0; i < elements.length; ++i) {
+			properties[i] = parseProperty(elements[i]);
+		}
+		return properties;
+	}
+
+	/**
+	 * Returns the first property of the response, decoded by the packet parser
+	 * or parsed from the response element.
+	 */
+	public static IDbgpProperty getFirstProperty(Element response) {
+		final Object decoded = response.getUserData(PROPERTIES_KEY);
+		if (decoded instanceof IDbgpProperty[]) {
+			return ((IDbgpProperty[]) decoded)[0];
+		}
+		final NodeList properties = response
+				.getElementsByTagName(TAG_PROPERTY);
+		return parseProperty((Element) properties.item(0));
+	}
+
 	private static final String ATTR_REASON = "reason"; //$NON-NLS-1$
 	private static final String ATTR_STATUS = "status"; //$NON-NLS-1$
 
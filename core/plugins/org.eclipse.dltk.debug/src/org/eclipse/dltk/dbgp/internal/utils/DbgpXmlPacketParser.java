@@ -9,16 +9,69 @@
  *******************************************************************************/
 package org.eclipse.dltk.dbgp.internal.utils;
 
+import org.eclipse.dltk.dbgp.exceptions.DbgpProtocolException;
 import org.eclipse.dltk.dbgp.internal.packets.DbgpNotifyPacket;
+import org.eclipse.dltk.dbgp.internal.packets.DbgpPacket;
 import org.eclipse.dltk.dbgp.internal.packets.DbgpResponsePacket;
 import org.eclipse.dltk.dbgp.internal.packets.DbgpStreamPacket;
+import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 
 public class DbgpXmlPacketParser extends DbgpXmlParser {
+	/**
+	 * The system property selecting the packet parser: <code>"dom"</code> to
+	 * build the complete DOM of every packet, otherwise the streaming parser is
+	 * used.
+	 */
+	public static final String PARSER_PROPERTY = "org.eclipse.dltk.dbgp.packetParser"; //$NON-NLS-1$
+
+	public static final String PARSER_DOM = "dom"; //$NON-NLS-1$
+
+	private static final String INIT_TAG = "init"; //$NON-NLS-1$
+	private static final String RESPONSE_TAG = "response"; //$NON-NLS-1$
+	private static final String STREAM_TAG = "stream"; //$NON-NLS-1$
+	private static final String NOTIFY_TAG = "notify"; //$NON-NLS-1$
+
+	private static final boolean STREAMING = !PARSER_DOM.equals(System
+			.getProperty(PARSER_PROPERTY));
+
 	protected DbgpXmlPacketParser() {
 
 	}
 
+	/**
+	 * Decodes the raw packet xml into the response, stream or notify packet.
+	 * Returns <code>null</code> if the packet type is not known.
+	 */
+	public static DbgpPacket parsePacket(byte[] xml)
+			throws DbgpProtocolException {
+		if (STREAMING) {
+			return DbgpXmlStreamingParser.getInstance().parse(xml);
+		}
+		return parsePacket(parseXml(xml));
+	}
+
+	/**
+	 * Decodes the parsed packet document into the response, stream or notify
+	 * packet. Returns <code>null</code> if the packet type is not known.
+	 */
+	public static DbgpPacket parsePacket(Document doc) {
+		Element element = (Element) doc.getFirstChild();
+		String tag = element.getTagName();
+
+		// TODO: correct init tag handling without this hack
+		if (tag.equals(INIT_TAG)) {
+			return new DbgpResponsePacket(element, -1);
+		} else if (tag.equals(RESPONSE_TAG)) {
+			return parseResponsePacket(element);
+		} else if (tag.equals(STREAM_TAG)) {
+			return parseStreamPacket(element);
+		} else if (tag.equals(NOTIFY_TAG)) {
+			return parseNotifyPacket(element);
+		}
+		return null;
+	}
+
 	public static DbgpResponsePacket parseResponsePacket(Element element) {
 		final String ATTR_TRANSACTION_ID = "transaction_id"; //$NON-NLS-1$
 
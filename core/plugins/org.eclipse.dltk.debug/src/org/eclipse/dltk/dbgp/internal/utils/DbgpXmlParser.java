@@ -52,29 +52,32 @@ public class DbgpXmlParser {
 		return Integer.parseInt(s) == 0 ? false : true;
 	}
 
+	private static final ThreadLocal<DocumentBuilder> builders = new ThreadLocal<DocumentBuilder>();
+
+	/**
+	 * Returns the document builder of the current thread. Builders are created
+	 * once per thread and reused for all the packets parsed by this thread.
+	 */
+	protected static DocumentBuilder getDocumentBuilder()
+			throws ParserConfigurationException {
+		DocumentBuilder builder = builders.get();
+		if (builder == null) {
+			builder = DocumentBuilderFactory.newInstance().newDocumentBuilder();
+			builders.set(builder);
+		}
+		return builder;
+	}
+
 	public static Document parseXml(byte[] xml) throws DbgpProtocolException {
 		try {
-			DocumentBuilderFactory factory = DocumentBuilderFactory
-					.newInstance();
-
-			DocumentBuilder builder = factory.newDocumentBuilder();
-
-			// builder.setErrorHandler(new ErrorHandler() {
-			// public void error(SAXParseException exception)
-			// throws SAXException {
-			// }
-			//
-			// public void fatalError(SAXParseException exception)
-			// throws SAXException {
-			// }
-			//
-			// public void warning(SAXParseException exception)
-			// throws SAXException {
-			// }
-			// });
-
-			InputSource source = new InputSource(new ByteArrayInputStream(xml));
-			return builder.parse(source);
+			final DocumentBuilder builder = getDocumentBuilder();
+			try {
+				InputSource source = new InputSource(new ByteArrayInputStream(
+						xml));
+				return builder.parse(source);
+			} finally {
+				builder.reset();
+			}
 		} catch (ParserConfigurationException e) {
 			throw new DbgpProtocolException(e);
 		} catch (SAXException e) {
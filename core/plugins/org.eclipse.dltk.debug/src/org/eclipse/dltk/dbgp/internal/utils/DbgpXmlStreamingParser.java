@@ -0,0 +1,539 @@
+/*******************************************************************************
+ * Copyright (c) 2016 xored software, Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ *******************************************************************************/
+package org.eclipse.dltk.dbgp.internal.utils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParserFactory;
+
+import org.eclipse.dltk.dbgp.IDbgpProperty;
+import org.eclipse.dltk.dbgp.exceptions.DbgpProtocolException;
+import org.eclipse.dltk.dbgp.internal.DbgpProperty;
+import org.eclipse.dltk.dbgp.internal.packets.DbgpNotifyPacket;
+import org.eclipse.dltk.dbgp.internal.packets.DbgpPacket;
+import org.eclipse.dltk.dbgp.internal.packets.DbgpResponsePacket;
+import org.eclipse.dltk.dbgp.internal.packets.DbgpStreamPacket;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.Text;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.ext.LexicalHandler;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * SAX based DBGP packet parser. Stream packets are decoded directly from the
+ * parser events. The properties of the responses are decoded directly into
+ * the {@link IDbgpProperty} objects, which are attached to the response
+ * element, see {@link DbgpXmlEntityParser#getProperties(Element)}. The element
+ * trees are built only for the rest of the response and notify packets, since
+ * their content is exposed as DOM to the commands and the notification
+ * listeners.
+ * <p>
+ * The parser is not thread safe, the instances are pooled per thread, see
+ * {@link #getInstance()}.
+ * </p>
+ */
+final class DbgpXmlStreamingParser extends DefaultHandler implements
+		LexicalHandler {
+
+	private static final String LEXICAL_HANDLER = "http://xml.org/sax/properties/lexical-handler"; //$NON-NLS-1$
+
+	private static final String INIT_TAG = "init"; //$NON-NLS-1$
+	private static final String RESPONSE_TAG = "response"; //$NON-NLS-1$
+	private static final String STREAM_TAG = "stream"; //$NON-NLS-1$
+	private static final String NOTIFY_TAG = "notify"; //$NON-NLS-1$
+
+	private static final String ATTR_TRANSACTION_ID = "transaction_id"; //$NON-NLS-1$
+	private static final String ATTR_NAME = "name"; //$NON-NLS-1$
+	private static final String ATTR_TYPE = "type"; //$NON-NLS-1$
+
+	private static final String TAG_NAME = "name"; //$NON-NLS-1$
+	private static final String TAG_FULLNAME = "fullname"; //$NON-NLS-1$
+	private static final String TAG_VALUE = "value"; //$NON-NLS-1$
+
+	private static final String ATTR_FULLNAME = "fullname"; //$NON-NLS-1$
+	private static final String ATTR_CHILDREN = "children"; //$NON-NLS-1$
+	private static final String ATTR_NUMCHILDREN = "numchildren"; //$NON-NLS-1$
+	private static final String ATTR_CONSTANT = "constant"; //$NON-NLS-1$
+	private static final String ATTR_KEY = "key"; //$NON-NLS-1$
+	private static final String ATTR_PAGE = "page"; //$NON-NLS-1$
+	private static final String ATTR_PAGE_SIZE = "pagesize"; //$NON-NLS-1$
+	private static final String ATTR_ADDRESS = "address"; //$NON-NLS-1$
+	private static final String ATTR_ENCODING = "encoding"; //$NON-NLS-1$
+
+	private static final String ENCODING_NONE = "none"; //$NON-NLS-1$
+	private static final String ENCODING_BASE64 = "base64"; //$NON-NLS-1$
+
+	private static final IDbgpProperty[] NO_CHILDREN = new IDbgpProperty[0];
+
+	private static final ThreadLocal<DbgpXmlStreamingParser> parsers = new ThreadLocal<DbgpXmlStreamingParser>();
+
+	/**
+	 * Returns the parser of the current thread.
+	 */
+	static DbgpXmlStreamingParser getInstance() throws DbgpProtocolException {
+		DbgpXmlStreamingParser parser = parsers.get();
+		if (parser == null) {
+			try {
+				parser = new DbgpXmlStreamingParser();
+			} catch (ParserConfigurationException e) {
+				throw new DbgpProtocolException(e);
+			} catch (SAXException e) {
+				throw new DbgpProtocolException(e);
+			}
+			parsers.set(parser);
+		}
+		return parser;
+	}
+
+	private final XMLReader reader;
+
+	private final StringBuilder streamContent = new StringBuilder();
+
+	private String rootTag;
+	private String rootAttribute;
+	private int depth;
+
+	/**
+	 * The document and the current element if the element tree is built
+	 */
+	private Document document;
+	private Node current;
+	private boolean inCDATA;
+
+	/**
+	 * Decodes the first text or CDATA node of the element, the same way as
+	 * {@link DbgpXmlParser#parseContent(Element)} does.
+	 */
+	private static class Content {
+		final String encoding;
+		final StringBuilder text = new StringBuilder();
+		private boolean started;
+		private boolean cdata;
+		private boolean completed;
+
+		Content(String encoding) {
+			this.encoding = encoding;
+		}
+
+		void append(char[] ch, int start, int length, boolean inCDATA) {
+			if (completed) {
+				return;
+			}
+			if (!started) {
+				started = true;
+				cdata = inCDATA;
+			} else if (cdata != inCDATA) {
+				completed = true;
+				return;
+			}
+			text.append(ch, start, length);
+		}
+
+		void startCDATA() {
+			if (!started) {
+				started = true;
+				cdata = true;
+			} else {
+				completed = true;
+			}
+		}
+
+		/**
+		 * Marks the end of the current node, called when the child element,
+		 * the comment or the end of the CDATA section is found.
+		 */
+		void complete() {
+			if (started) {
+				completed = true;
+			}
+		}
+
+		String decode() {
+			if (encoding == null || ENCODING_NONE.equals(encoding)) {
+				return text.toString();
+			}
+			if (ENCODING_BASE64.equals(encoding)) {
+				return Base64Helper.decodeString(text.toString());
+			}
+			throw new IllegalArgumentException(encoding);
+		}
+	}
+
+	/**
+	 * Collects the property, the same way as
+	 * {@link DbgpXmlEntityParser#parseProperty(Element)} does.
+	 */
+	private static class PropertyContent extends Content {
+		final String name;
+		final String fullName;
+		final String type;
+		final String children;
+		final String numChildren;
+		final String page;
+		final String pageSize;
+		final String constant;
+		final String key;
+		final String address;
+		Content nameContent;
+		Content fullNameContent;
+		Content valueContent;
+		final List<IDbgpProperty> availableChildren = new ArrayList<IDbgpProperty>();
+
+		PropertyContent(Attributes attributes) {
+			super(attributes.getValue(ATTR_ENCODING));
+			name = attributes.getValue(ATTR_NAME);
+			fullName = attributes.getValue(ATTR_FULLNAME);
+			type = attributes.getValue(ATTR_TYPE);
+			children = attributes.getValue(ATTR_CHILDREN);
+			numChildren = attributes.getValue(ATTR_NUMCHILDREN);
+			page = attributes.getValue(ATTR_PAGE);
+			pageSize = attributes.getValue(ATTR_PAGE_SIZE);
+			constant = attributes.getValue(ATTR_CONSTANT);
+			key = attributes.getValue(ATTR_KEY);
+			address = attributes.getValue(ATTR_ADDRESS);
+		}
+
+		/**
+		 * Returns the content of the child element being decoded or
+		 * <code>null</code> if the element is ignored.
+		 */
+		Content startChild(String qName, Attributes attributes) {
+			complete();
+			if (TAG_NAME.equals(qName)) {
+				if (nameContent == null) {
+					return nameContent = new Content(attributes
+							.getValue(ATTR_ENCODING));
+				}
+			} else if (TAG_FULLNAME.equals(qName)) {
+				if (fullNameContent == null) {
+					return fullNameContent = new Content(attributes
+							.getValue(ATTR_ENCODING));
+				}
+			} else if (TAG_VALUE.equals(qName)) {
+				if (valueContent == null) {
+					return valueContent = new Content(attributes
+							.getValue(ATTR_ENCODING));
+				}
+			} else if (DbgpXmlEntityParser.TAG_PROPERTY.equals(qName)) {
+				return new PropertyContent(attributes);
+			}
+			return null;
+		}
+
+		IDbgpProperty build() {
+			final boolean hasChildren = children != null
+					&& DbgpXmlParser.makeBoolean(children);
+			int childrenCount = numChildren != null ? Integer
+					.parseInt(numChildren) : -1;
+			final IDbgpProperty[] available = hasChildren
+					&& !availableChildren.isEmpty() ? availableChildren
+					.toArray(new IDbgpProperty[availableChildren.size()])
+					: NO_CHILDREN;
+			if (childrenCount < 0) {
+				childrenCount = available.length;
+			}
+			return new DbgpProperty(nameContent != null ? nameContent.decode()
+					: emptyIfNull(name), fullNameContent != null ? fullNameContent
+					.decode() : emptyIfNull(fullName), emptyIfNull(type),
+					valueContent != null ? valueContent.decode() : decode(),
+					childrenCount, hasChildren, constant != null
+							&& DbgpXmlParser.makeBoolean(constant), key,
+					address, available, page != null ? Integer.parseInt(page)
+							: 0, pageSize != null ? Integer.parseInt(pageSize)
+							: -1);
+		}
+
+		private static String emptyIfNull(String value) {
+			return value != null ? value : ""; //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * If the properties of the response are decoded without the element tree
+	 */
+	private boolean streamProperties;
+	/**
+	 * Contents of the open elements of the property being decoded, the
+	 * ignored elements are represented by <code>null</code>
+	 */
+	private final List<Content> contents = new ArrayList<Content>();
+	/**
+	 * The decoded top level properties of the response
+	 */
+	private final List<IDbgpProperty> properties = new ArrayList<IDbgpProperty>();
+	/**
+	 * Set if some property could not be decoded
+	 */
+	private boolean invalidProperty;
+
+	private DbgpXmlStreamingParser() throws ParserConfigurationException,
+			SAXException {
+		reader = SAXParserFactory.newInstance().newSAXParser().getXMLReader();
+		reader.setContentHandler(this);
+		reader.setErrorHandler(this);
+		try {
+			reader.setProperty(LEXICAL_HANDLER, this);
+		} catch (SAXException e) {
+			// CDATA sections are reported as text then
+		}
+	}
+
+	/**
+	 * Parses the packet, returns <code>null</code> if the packet type is not
+	 * known.
+	 */
+	DbgpPacket parse(byte[] xml) throws DbgpProtocolException {
+		invalidProperty = false;
+		try {
+			final DbgpPacket packet = parse(xml, true);
+			if (invalidProperty) {
+				// leave the invalid properties to be reported by the commands
+				return parse(xml, false);
+			}
+			return packet;
+		} finally {
+			invalidProperty = false;
+		}
+	}
+
+	private DbgpPacket parse(byte[] xml, boolean streamProperties)
+			throws DbgpProtocolException {
+		// the state could be left by the failed parse
+		reset();
+		this.streamProperties = streamProperties;
+		try {
+			reader.parse(new InputSource(new ByteArrayInputStream(xml)));
+			if (rootTag == null) {
+				return null;
+			}
+			if (INIT_TAG.equals(rootTag)) {
+				return new DbgpResponsePacket(document.getDocumentElement(), -1);
+			} else if (RESPONSE_TAG.equals(rootTag)) {
+				final Element response = document.getDocumentElement();
+				if (!properties.isEmpty()) {
+					response.setUserData(DbgpXmlEntityParser.PROPERTIES_KEY,
+							properties.toArray(new IDbgpProperty[properties
+									.size()]), null);
+				}
+				return new DbgpResponsePacket(response, Integer
+						.parseInt(rootAttribute));
+			} else if (NOTIFY_TAG.equals(rootTag)) {
+				return new DbgpNotifyPacket(document.getDocumentElement(),
+						rootAttribute);
+			} else if (STREAM_TAG.equals(rootTag)) {
+				return new DbgpStreamPacket(rootAttribute,
+						Base64Helper.decodeString(streamContent.toString()));
+			}
+			return null;
+		} catch (SAXException e) {
+			throw new DbgpProtocolException(e);
+		} catch (IOException e) {
+			throw new DbgpProtocolException(e);
+		} catch (NumberFormatException e) {
+			throw new DbgpProtocolException(e);
+		} finally {
+			reset();
+		}
+	}
+
+	/**
+	 * Clears the state of the parsed packet, except {@link #invalidProperty}
+	 * which is checked after the parse.
+	 */
+	private void reset() {
+		rootTag = null;
+		rootAttribute = null;
+		depth = 0;
+		document = null;
+		current = null;
+		inCDATA = false;
+		streamContent.setLength(0);
+		contents.clear();
+		properties.clear();
+	}
+
+	@Override
+	public void startDocument() throws SAXException {
+		depth = 0;
+		inCDATA = false;
+	}
+
+	@Override
+	public void startElement(String uri, String localName, String qName,
+			Attributes attributes) throws SAXException {
+		if (!contents.isEmpty()) {
+			final Content parent = contents.get(contents.size() - 1);
+			if (parent instanceof PropertyContent) {
+				contents.add(((PropertyContent) parent).startChild(qName,
+						attributes));
+			} else {
+				if (parent != null) {
+					parent.complete();
+				}
+				contents.add(null);
+			}
+			++depth;
+			return;
+		}
+		if (depth == 1 && streamProperties && RESPONSE_TAG.equals(rootTag)
+				&& DbgpXmlEntityParser.TAG_PROPERTY.equals(qName)) {
+			contents.add(new PropertyContent(attributes));
+			++depth;
+			return;
+		}
+		if (depth++ == 0) {
+			rootTag = qName;
+			if (RESPONSE_TAG.equals(qName)) {
+				rootAttribute = attributes.getValue(ATTR_TRANSACTION_ID);
+			} else if (NOTIFY_TAG.equals(qName)) {
+				rootAttribute = attributes.getValue(ATTR_NAME);
+			} else if (STREAM_TAG.equals(qName)) {
+				rootAttribute = attributes.getValue(ATTR_TYPE);
+				return;
+			} else if (!INIT_TAG.equals(qName)) {
+				return;
+			}
+			try {
+				document = DbgpXmlParser.getDocumentBuilder().newDocument();
+			} catch (ParserConfigurationException e) {
+				throw new SAXException(e);
+			}
+			current = document;
+		}
+		if (document != null) {
+			final Element element = document.createElement(qName);
+			for (int i = 0, len = attributes.getLength(); i < len; ++i) {
+				element.setAttribute(attributes.getQName(i),
+						attributes.getValue(i));
+			}
+			current.appendChild(element);
+			current = element;
+		}
+	}
+
+	@Override
+	public void endElement(String uri, String localName, String qName)
+			throws SAXException {
+		--depth;
+		if (!contents.isEmpty()) {
+			final Content content = contents.remove(contents.size() - 1);
+			if (content instanceof PropertyContent) {
+				endProperty((PropertyContent) content);
+			}
+			return;
+		}
+		if (document != null) {
+			current = current.getParentNode();
+		}
+	}
+
+	private void endProperty(PropertyContent content) {
+		final IDbgpProperty property;
+		try {
+			property = content.build();
+		} catch (RuntimeException e) {
+			invalidProperty = true;
+			return;
+		}
+		if (contents.isEmpty()) {
+			properties.add(property);
+		} else {
+			// the parent of the property content is always a property
+			((PropertyContent) contents.get(contents.size() - 1)).availableChildren
+					.add(property);
+		}
+	}
+
+	private Content currentContent() {
+		return contents.isEmpty() ? null : contents.get(contents.size() - 1);
+	}
+
+	@Override
+	public void characters(char[] ch, int start, int length)
+			throws SAXException {
+		if (!contents.isEmpty()) {
+			final Content content = currentContent();
+			if (content != null) {
+				content.append(ch, start, length, inCDATA);
+			}
+		} else if (document != null) {
+			final Node last = current.getLastChild();
+			if (last != null
+					&& last.getNodeType() == (inCDATA ? Node.CDATA_SECTION_NODE
+							: Node.TEXT_NODE)) {
+				((Text) last).appendData(new String(ch, start, length));
+			} else if (inCDATA) {
+				current.appendChild(document.createCDATASection(new String(ch,
+						start, length)));
+			} else {
+				current.appendChild(document.createTextNode(new String(ch,
+						start, length)));
+			}
+		} else if (depth == 1 && STREAM_TAG.equals(rootTag)) {
+			streamContent.append(ch, start, length);
+		}
+	}
+
+	@Override
+	public void ignorableWhitespace(char[] ch, int start, int length)
+			throws SAXException {
+		characters(ch, start, length);
+	}
+
+	public void startCDATA() throws SAXException {
+		inCDATA = true;
+		if (!contents.isEmpty()) {
+			final Content content = currentContent();
+			if (content != null) {
+				content.startCDATA();
+			}
+		} else if (document != null) {
+			// adjacent sections are not merged
+			current.appendChild(document.createCDATASection("")); //$NON-NLS-1$
+		}
+	}
+
+	public void endCDATA() throws SAXException {
+		inCDATA = false;
+		final Content content = currentContent();
+		if (content != null) {
+			content.complete();
+		}
+	}
+
+	public void startDTD(String name, String publicId, String systemId)
+			throws SAXException {
+	}
+
+	public void endDTD() throws SAXException {
+	}
+
+	public void startEntity(String name) throws SAXException {
+	}
+
+	public void endEntity(String name) throws SAXException {
+	}
+
+	public void comment(char[] ch, int start, int length) throws SAXException {
+		final Content content = currentContent();
+		if (content != null) {
+			content.complete();
+		}
+	}
+
+}
@@ -10,7 +10,6 @@ package org.eclipse.dltk.internal.debug.core.model;
 
 import java.net.URI;
 import java.util.Arrays;
-import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
@@ -24,9 +23,11 @@ import org.eclipse.debug.core.model.IRegisterGroup;
 import org.eclipse.debug.core.model.IThread;
 import org.eclipse.debug.core.model.IVariable;
 import org.eclipse.dltk.core.DLTKCore;
+import org.eclipse.dltk.dbgp.IDbgpFuture;
 import org.eclipse.dltk.dbgp.IDbgpProperty;
 import org.eclipse.dltk.dbgp.IDbgpStackLevel;
 import org.eclipse.dltk.dbgp.commands.IDbgpContextCommands;
+import org.eclipse.dltk.dbgp.commands.IDbgpContextCommandsExtension;
 import org.eclipse.dltk.dbgp.exceptions.DbgpDebuggingEngineException;
 import org.eclipse.dltk.dbgp.exceptions.DbgpException;
 import org.eclipse.dltk.debug.core.DLTKDebugPlugin;
@@ -55,26 +56,21 @@ public class ScriptStackFrame extends ScriptDebugElement
 			IDbgpContextCommands commands) throws DbgpException {
 
 		try {
-			IDbgpProperty[] properties = commands
-					.getContextProperties(parentFrame.getLevel(), contextId);
-
-			IScriptVariable[] variables = new IScriptVariable[properties.length];
-
-			// Workaround for bug 215215
-			// https://bugs.eclipse.org/bugs/show_bug.cgi?id=215215
-			// Remove this code when Tcl active state debugger fixed
-			Set duplicates = findDuplicateNames(properties);
-
-			for (int i = 0; i < properties.length; ++i) {
-				IDbgpProperty property = properties[i];
-				String name = property.getName();
-				if (duplicates.contains(name)) {
-					name = property.getEvalName();
-				}
-				variables[i] = new ScriptVariable(parentFrame, name, property);
+			return createVariables(parentFrame, commands
+					.getContextProperties(parentFrame.getLevel(), contextId));
+		} catch (DbgpDebuggingEngineException e) {
+			if (DLTKCore.DEBUG) {
+				e.printStackTrace();
 			}
+			return new IScriptVariable[0];
+		}
+	}
 
-			return variables;
+	private static IScriptVariable[] readVariables(
+			ScriptStackFrame parentFrame,
+			IDbgpFuture<IDbgpProperty[]> properties) throws DbgpException {
+		try {
+			return createVariables(parentFrame, properties.get());
 		} catch (DbgpDebuggingEngineException e) {
 			if (DLTKCore.DEBUG) {
 				e.printStackTrace();
@@ -83,6 +79,27 @@ public class ScriptStackFrame extends ScriptDebugElement
 		}
 	}
 
+	private static IScriptVariable[] createVariables(
+			ScriptStackFrame parentFrame, IDbgpProperty[] properties) {
+		IScriptVariable[] variables = new IScriptVariable[properties.length];
+
+		// Workaround for bug 215215
+		// https://bugs.eclipse.org/bugs/show_bug.cgi?id=215215
+		// Remove this code when Tcl active state debugger fixed
+		Set duplicates = findDuplicateNames(properties);
+
+		for (int i = 0; i < properties.length; ++i) {
+			IDbgpProperty property = properties[i];
+			String name = property.getName();
+			if (duplicates.contains(name)) {
+				name = property.getEvalName();
+			}
+			variables[i] = new ScriptVariable(parentFrame, name, property);
+		}
+
+		return variables;
+	}
+
 	private static Set findDuplicateNames(IDbgpProperty[] properties) {
 		final Set duplicates = new HashSet();
 		final Set alreadyExsisting = new HashSet();
@@ -98,7 +115,8 @@ public class ScriptStackFrame extends ScriptDebugElement
 
 	/**
 	 * Return null in case suspend more is no more active during calculation of
-	 * variables.
+	 * variables. Only the local variables are retrieved here, the global and
+	 * class variables are retrieved when their containers are expanded.
 	 * 
 	 * @return
 	 * @throws DbgpException
@@ -114,27 +132,45 @@ public class ScriptStackFrame extends ScriptDebugElement
 
 		final ScriptVariableContainer result = new ScriptVariableContainer();
 
-		final Map names = commands.getContextNames(getLevel());
+		final Map names;
+		IDbgpFuture<IDbgpProperty[]> locals = null;
+		if (commands instanceof IDbgpContextCommandsExtension) {
+			// context_get is pipelined with context_names
+			final IDbgpContextCommandsExtension asyncCommands = (IDbgpContextCommandsExtension) commands;
+			final IDbgpFuture<Map> namesFuture = asyncCommands
+					.getContextNamesAsync(getLevel());
+			if (thread.retrieveLocalVariables()) {
+				locals = asyncCommands.getContextPropertiesAsync(getLevel(),
+						IDbgpContextCommands.LOCAL_CONTEXT_ID);
+			}
+			names = namesFuture.get();
+		} else {
+			names = commands.getContextNames(getLevel());
+		}
 		if (thread.retrieveLocalVariables()
 				&& names.containsKey(
 						Integer.valueOf(IDbgpContextCommands.LOCAL_CONTEXT_ID))
 				&& thread.isSuspended()) {
-			result.locals = readVariables(this,
-					IDbgpContextCommands.LOCAL_CONTEXT_ID, commands);
+			result.locals = sort(locals != null ? readVariables(this, locals)
+					: readVariables(this,
+							IDbgpContextCommands.LOCAL_CONTEXT_ID, commands));
+		} else if (locals != null) {
+			// the response is not needed, but the transaction is completed
+			readVariables(this, locals);
 		}
-		if (thread.retrieveGlobalVariables()
-				&& names.containsKey(
-						Integer.valueOf(IDbgpContextCommands.GLOBAL_CONTEXT_ID))
-				&& thread.isSuspended()) {
-			result.globals = readVariables(this,
-					IDbgpContextCommands.GLOBAL_CONTEXT_ID, commands);
+		if (thread.retrieveGlobalVariables() && names.containsKey(
+				Integer.valueOf(IDbgpContextCommands.GLOBAL_CONTEXT_ID))) {
+			result.globals = new ContextVariables(
+					Messages.ScriptStackFrame_globalVariables,
+					IDbgpContextCommands.GLOBAL_CONTEXT_ID,
+					IScriptVariableContainer.ContainerKind.Global);
 		}
-		if (thread.retrieveClassVariables()
-				&& names.containsKey(
-						Integer.valueOf(IDbgpContextCommands.CLASS_CONTEXT_ID))
-				&& thread.isSuspended()) {
-			result.classes = readVariables(this,
-					IDbgpContextCommands.CLASS_CONTEXT_ID, commands);
+		if (thread.retrieveClassVariables() && names.containsKey(
+				Integer.valueOf(IDbgpContextCommands.CLASS_CONTEXT_ID))) {
+			result.classes = new ContextVariables(
+					Messages.ScriptStackFrame_classVariables,
+					IDbgpContextCommands.CLASS_CONTEXT_ID,
+					IScriptVariableContainer.ContainerKind.Class);
 		}
 		// TODO: Until more sequence approach will be implemented
 		if (!thread.isSuspended()) {
@@ -143,28 +179,73 @@ public class ScriptStackFrame extends ScriptDebugElement
 		return result;
 	}
 
-	private static class ScriptVariableContainer {
-		IVariable[] locals = null;
-		IVariable[] globals = null;
-		IVariable[] classes = null;
-		ScriptVariableWrapper globalsWrapper = null;
-		ScriptVariableWrapper classesWrapper = null;
-
-		ScriptVariableContainer sort(IDebugTarget target) {
-			final Comparator variableComparator = ScriptDebugManager
-					.getInstance().getVariableNameComparatorByDebugModel(
-							target.getModelIdentifier());
-			if (locals != null) {
-				Arrays.sort(locals, variableComparator);
+	private IVariable[] sort(IVariable[] variables) {
+		Arrays.sort(variables, ScriptDebugManager.getInstance()
+				.getVariableNameComparatorByDebugModel(
+						getDebugTarget().getModelIdentifier()));
+		return variables;
+	}
+
+	/**
+	 * The container of the variables of the context, which are retrieved when
+	 * the container is expanded for the first time after suspend.
+	 */
+	private class ContextVariables extends ScriptVariableWrapper {
+		private final int contextId;
+		private boolean loaded = false;
+
+		ContextVariables(String name, int contextId, ContainerKind kind) {
+			super(ScriptStackFrame.this.getDebugTarget(), name, null, kind);
+			this.contextId = contextId;
+		}
+
+		@Override
+		public IVariable[] getChildren() throws DebugException {
+			synchronized (ScriptStackFrame.this) {
+				if (!loaded && thread.isSuspended()) {
+					final IVariable[] oldChildren = super.getChildren();
+					final IVariable[] children;
+					try {
+						children = sort(readVariables(ScriptStackFrame.this,
+								contextId,
+								thread.getDbgpSession().getCoreCommands()));
+					} catch (DbgpException e) {
+						final Status status = new Status(IStatus.ERROR,
+								DLTKDebugPlugin.PLUGIN_ID,
+								Messages.ScriptStackFrame_unableToLoadVariables,
+								e);
+						DLTKDebugPlugin.log(status);
+						throw new DebugException(status);
+					}
+					refreshValue(refreshVariables(children, oldChildren));
+					loaded = true;
+				}
+				return super.getChildren();
 			}
-			if (globals != null) {
-				Arrays.sort(globals, variableComparator);
+		}
+
+		@Override
+		public boolean hasChildren() {
+			synchronized (ScriptStackFrame.this) {
+				return !loaded || super.hasChildren();
 			}
-			if (classes != null) {
-				Arrays.sort(classes, variableComparator);
+		}
+
+		/**
+		 * Forces the variables to be retrieved again on the next expand, the
+		 * already retrieved variables are refreshed then.
+		 */
+		void invalidate() {
+			synchronized (ScriptStackFrame.this) {
+				loaded = false;
 			}
-			return this;
 		}
+	}
+
+	private static class ScriptVariableContainer {
+		IVariable[] locals = null;
+		ContextVariables globals = null;
+		ContextVariables classes = null;
 
 		private int size() {
 			int size = 0;
@@ -180,32 +261,16 @@ public class ScriptStackFrame extends ScriptDebugElement
 			return size;
 		}
 
-		IScriptVariable[] toArray(IDebugTarget target) {
+		IScriptVariable[] toArray() {
 			final int size = size();
 			final IScriptVariable[] result = new IScriptVariable[size];
 			if (size != 0) {
 				int index = 0;
 				if (globals != null) {
-					if (globalsWrapper == null) {
-						globalsWrapper = new ScriptVariableWrapper(target,
-								Messages.ScriptStackFrame_globalVariables,
-								globals,
-								IScriptVariableContainer.ContainerKind.Global);
-					} else {
-						globalsWrapper.refreshValue(globals);
-					}
-					result[index++] = globalsWrapper;
+					result[index++] = globals;
 				}
 				if (classes != null) {
-					if (classesWrapper == null) {
-						classesWrapper = new ScriptVariableWrapper(target,
-								Messages.ScriptStackFrame_classVariables,
-								classes,
-								IScriptVariableContainer.ContainerKind.Class);
-					} else {
-						classesWrapper.refreshValue(classes);
-					}
-					result[index++] = classesWrapper;
+					result[index++] = classes;
 				}
 				if (locals != null) {
 					System.arraycopy(locals, 0, result, index, locals.length);
@@ -236,7 +301,8 @@ public class ScriptStackFrame extends ScriptDebugElement
 				}
 			}
 			if (globals != null) {
-				final IVariable variable = findVariable(varName, globals);
+				final IVariable variable = findVariable(varName,
+						globals.getChildren());
 				if (variable != null) {
 					return variable;
 				}
@@ -397,9 +463,6 @@ public class ScriptStackFrame extends ScriptDebugElement
 		try {
 			if (variables == null) {
 				variables = readAllVariables();
-				if (variables != null) {
-					variables.sort(getDebugTarget());
-				}
 			} else if (needRefreshVariables) {
 				try {
 					refreshVariables();
@@ -428,12 +491,18 @@ public class ScriptStackFrame extends ScriptDebugElement
 			variables = null;
 			return;
 		}
-		newVars.sort(getDebugTarget());
 		variables.locals = refreshVariables(newVars.locals, variables.locals);
-		variables.globals = refreshVariables(newVars.globals,
-				variables.globals);
-		variables.classes = refreshVariables(newVars.classes,
-				variables.classes);
+		variables.globals = refreshContext(newVars.globals, variables.globals);
+		variables.classes = refreshContext(newVars.classes, variables.classes);
+	}
+
+	private static ContextVariables refreshContext(ContextVariables newVars,
+			ContextVariables oldVars) {
+		if (newVars == null || oldVars == null) {
+			return newVars;
+		}
+		oldVars.invalidate();
+		return oldVars;
 	}
 
 	/**
@@ -455,6 +524,9 @@ public class ScriptStackFrame extends ScriptDebugElement
 			if (newVars != null) {
 				for (int i = 0; i < newVars.length; ++i) {
 					final IVariable variable = newVars[i];
+					if (variable == null) {
+						continue;
+					}
 					final IRefreshableScriptVariable old;
 					old = (IRefreshableScriptVariable) map
 							.get(variable.getName());
@@ -470,7 +542,7 @@ public class ScriptStackFrame extends ScriptDebugElement
 	public synchronized IVariable[] getVariables() throws DebugException {
 		checkVariablesAvailable();
 		if (variables != null) {
-			return variables.toArray(getDebugTarget());
+			return variables.toArray();
 		}
 		return new IVariable[0];
 	}
@@ -277,6 +277,23 @@ public class ScriptValue extends ScriptDebugElement
 		return address;
 	}
 
+	/**
+	 * Loads the pages of the children loaded in the old value and refreshes
+	 * them with the old children, so the changed values are detected.
+	 * 
+	 * @param oldValue
+	 * @throws DebugException
+	 */
+	void refreshVariables(ScriptValue oldValue) throws DebugException {
+		final int size = Math.min(variables.length, oldValue.variables.length);
+		for (int i = 0; i < size; ++i) {
+			if (oldValue.variables[i] != null && variables[i] == null) {
+				getVariable(i);
+			}
+		}
+		ScriptStackFrame.refreshVariables(variables, oldValue.variables);
+	}
+
 	/**
 	 * Tests that some of the children are already created.
 	 * 
@@ -143,12 +143,12 @@ public class ScriptVariable extends ScriptDebugElement implements
 				if (value != null
 						&& ((ScriptValue) value).hasChildrenValuesLoaded()) {
 					/*
-					 * Refresh children if some of them are loaded. Since it
-					 * could be a hash - it is safer to get all of the new
-					 * children.
+					 * Refresh children if some of them are loaded. Only the
+					 * pages loaded before are retrieved, the other pages are
+					 * retrieved when expanded.
 					 */
-					ScriptStackFrame.refreshVariables(v.getValue()
-							.getVariables(), ((ScriptValue) value).variables);
+					((ScriptValue) v.getValue())
+							.refreshVariables((ScriptValue) value);
 				}
 			}
 			isValueChanged = !equals(property, v.property);
@@ -25,7 +25,10 @@ import org.eclipse.dltk.ui.editor.highlighting.AbortSemanticHighlightingExceptio
 import org.eclipse.dltk.ui.editor.highlighting.AbstractSemanticHighlighter;
 import org.eclipse.dltk.ui.editor.highlighting.ISemanticHighlighter;
 import org.eclipse.dltk.ui.editor.highlighting.ISemanticHighlighterExtension;
+import org.eclipse.dltk.ui.editor.highlighting.ISemanticHighlighterExtension2;
 import org.eclipse.dltk.ui.editor.highlighting.SemanticHighlighting;
+import org.eclipse.jface.text.IRegion;
+import org.eclipse.jface.text.Region;
 import org.eclipse.swt.graphics.RGB;
 
 public class ContributedSemanticHighlighter extends AbstractSemanticHighlighter {
@@ -51,6 +54,61 @@ public class ContributedSemanticHighlighter extends AbstractSemanticHighlighter
 		return true;
 	}
 
+	/**
+	 * Maximal number of passes to make all the highlighters process the same
+	 * region.
+	 */
+	private static final int MAX_REGION_PASSES = 3;
+
+	@Override
+	protected IRegion doHighlighting(IModuleSource code, IRegion damage)
+			throws Exception {
+		for (ISemanticHighlighter highlighter : highlighters) {
+			if (!(highlighter instanceof ISemanticHighlighterExtension2)) {
+				return null;
+			}
+		}
+		final IRegion[] processed = new IRegion[highlighters.length];
+		IRegion region = damage;
+		for (int pass = 0; pass < MAX_REGION_PASSES; ++pass) {
+			int start = region.getOffset();
+			int end = start + region.getLength();
+			for (int i = 0; i < highlighters.length; ++i) {
+				if (processed[i] != null && covers(processed[i], start, end)) {
+					continue;
+				}
+				try {
+					processed[i] = ((ISemanticHighlighterExtension2) highlighters[i])
+							.process(code, region, this);
+				} catch (AbortSemanticHighlightingException e) {
+					return null;
+				}
+				if (processed[i] == null) {
+					return null;
+				}
+			}
+			for (IRegion r : processed) {
+				start = Math.min(start, r.getOffset());
+				end = Math.max(end, r.getOffset() + r.getLength());
+			}
+			region = new Region(start, end - start);
+			boolean covered = true;
+			for (IRegion r : processed) {
+				covered &= covers(r, start, end);
+			}
+			if (covered) {
+				return region;
+			}
+			// the other highlighters should process the expanded region too
+		}
+		return null;
+	}
+
+	private static boolean covers(IRegion region, int start, int end) {
+		return region.getOffset() <= start
+				&& region.getOffset() + region.getLength() >= end;
+	}
+
 	private boolean initialized = false;
 	private final Map<String, SemanticHighlighting> highlightings = new HashMap<String, SemanticHighlighting>();
 
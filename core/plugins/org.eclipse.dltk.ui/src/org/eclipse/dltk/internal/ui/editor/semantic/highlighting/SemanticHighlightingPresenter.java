@@ -285,6 +285,22 @@ public class SemanticHighlightingPresenter implements
 	/** <code>true</code> iff the current reconcile is canceled. */
 	private boolean fIsCanceled = false;
 
+	/** Damage lock */
+	private final Object fDamageLock = new Object();
+	/**
+	 * <code>false</code> if the whole document should be reconciled,
+	 * otherwise only the damaged region.
+	 */
+	private boolean fDamageKnown = false;
+	/**
+	 * The region of the document changed since the positions were reconciled,
+	 * empty if the start is greater than the end.
+	 */
+	private int fDamageStart = 0;
+	private int fDamageEnd = -1;
+	/** Incremented on every document change */
+	private int fDamageStamp = 0;
+
 	/**
 	 * Creates and returns a new highlighted position with the given offset,
 	 * length and highlighting.
@@ -710,6 +726,82 @@ public class SemanticHighlightingPresenter implements
 	 * @see IDocumentListener#documentChanged(DocumentEvent)
 	 */
 	public void documentChanged(DocumentEvent event) {
+		final String text = event.getText();
+		final int offset = event.getOffset();
+		final int oldEnd = offset + event.getLength();
+		final int newEnd = offset + (text != null ? text.length() : 0);
+		final int delta = newEnd - oldEnd;
+		synchronized (fDamageLock) {
+			++fDamageStamp;
+			if (fDamageStart > fDamageEnd) {
+				fDamageStart = offset;
+				fDamageEnd = newEnd;
+			} else {
+				// shift the damage following the change, then add the change
+				if (fDamageStart >= oldEnd)
+					fDamageStart += delta;
+				fDamageEnd = fDamageEnd >= oldEnd ? fDamageEnd + delta
+						: newEnd;
+				fDamageStart = Math.min(fDamageStart, offset);
+				fDamageEnd = Math.max(fDamageEnd, newEnd);
+			}
+		}
+	}
+
+	/**
+	 * Returns the stamp of the damage, which should be passed to
+	 * {@link #clearDamage(int)} when the positions are reconciled.
+	 * <p>
+	 * NOTE: Called from background thread.
+	 * </p>
+	 */
+	public int getDamageStamp() {
+		synchronized (fDamageLock) {
+			return fDamageStamp;
+		}
+	}
+
+	/**
+	 * Returns the region of the document changed since the positions were
+	 * reconciled or <code>null</code> if the whole document should be
+	 * reconciled.
+	 * <p>
+	 * NOTE: Called from background thread.
+	 * </p>
+	 */
+	public IRegion getDamage() {
+		synchronized (fDamageLock) {
+			if (!fDamageKnown || fDamageStart > fDamageEnd)
+				return null;
+			return new Region(fDamageStart, fDamageEnd - fDamageStart);
+		}
+	}
+
+	/**
+	 * Marks the positions as reconciled, unless the document was changed
+	 * after the damage with the specified stamp was retrieved.
+	 * <p>
+	 * NOTE: Called from background thread.
+	 * </p>
+	 */
+	public void clearDamage(int stamp) {
+		synchronized (fDamageLock) {
+			if (fDamageStamp == stamp) {
+				fDamageKnown = true;
+				fDamageStart = 0;
+				fDamageEnd = -1;
+			}
+		}
+	}
+
+	/**
+	 * Requests the whole document to be reconciled.
+	 */
+	public void invalidateDamage() {
+		synchronized (fDamageLock) {
+			++fDamageStamp;
+			fDamageKnown = false;
+		}
 	}
 
 	/**
@@ -869,6 +961,7 @@ public class SemanticHighlightingPresenter implements
 		synchronized (fPositionLock) {
 			fPositions.clear();
 		}
+		invalidateDamage();
 	}
 
 	/**
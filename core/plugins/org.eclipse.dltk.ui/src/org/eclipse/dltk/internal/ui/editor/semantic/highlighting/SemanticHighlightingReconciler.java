@@ -29,9 +29,11 @@ import org.eclipse.dltk.ui.DLTKUIPlugin;
 import org.eclipse.dltk.ui.editor.highlighting.HighlightedPosition;
 import org.eclipse.dltk.ui.editor.highlighting.HighlightingStyle;
 import org.eclipse.dltk.ui.editor.highlighting.ISemanticHighlightingUpdater;
+import org.eclipse.dltk.ui.editor.highlighting.ISemanticHighlightingUpdaterExtension;
 import org.eclipse.dltk.ui.editor.highlighting.ISemanticHighlightingUpdater.UpdateResult;
 import org.eclipse.dltk.ui.editor.highlighting.SemanticHighlighting;
 import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IRegion;
 import org.eclipse.jface.text.ITextInputListener;
 import org.eclipse.jface.text.TextPresentation;
 import org.eclipse.jface.text.source.ISourceViewer;
@@ -135,11 +137,24 @@ public class SemanticHighlightingReconciler implements
 
 			HighlightedPosition[] added = HighlightedPosition.NO_POSITIONS;
 			HighlightedPosition[] removed = HighlightedPosition.NO_POSITIONS;
+			final int damageStamp = fJobPresenter.getDamageStamp();
 			if (!fJobPresenter.isCanceled()) {
 				final List<HighlightedPosition> currentPositions = new ArrayList<HighlightedPosition>();
 				fJobPresenter.addAllPositions(currentPositions);
-				final UpdateResult result = positionUpdater.reconcile(
-						(IModuleSource) ast, currentPositions);
+				UpdateResult result = null;
+				// re-highlight only the edited region if supported
+				final IRegion damage = forced ? null : fJobPresenter
+						.getDamage();
+				if (damage != null
+						&& positionUpdater instanceof ISemanticHighlightingUpdaterExtension) {
+					result = ((ISemanticHighlightingUpdaterExtension) positionUpdater)
+							.reconcile((IModuleSource) ast, currentPositions,
+									damage);
+				}
+				if (result == null) {
+					result = positionUpdater.reconcile((IModuleSource) ast,
+							currentPositions);
+				}
 				added = result.addedPositions;
 				removed = result.removedPositions;
 			}
@@ -152,6 +167,8 @@ public class SemanticHighlightingReconciler implements
 						updatePresentation(textPresentation, added, removed);
 				}
 			}
+			if (!fJobPresenter.isCanceled())
+				fJobPresenter.clearDamage(damageStamp);
 
 			// long t1 = System.currentTimeMillis();
 			// System.out.println(t1 - t0);
@@ -323,6 +340,8 @@ public class SemanticHighlightingReconciler implements
 	 * @since 3.2
 	 */
 	public void refresh() {
+		if (fPresenter != null)
+			fPresenter.invalidateDamage();
 		scheduleJob();
 	}
 }
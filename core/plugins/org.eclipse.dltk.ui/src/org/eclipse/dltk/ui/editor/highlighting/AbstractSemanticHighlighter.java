@@ -22,6 +22,7 @@ import java.util.Map;
 
 import org.eclipse.dltk.compiler.env.IModuleSource;
 import org.eclipse.dltk.core.DLTKCore;
+import org.eclipse.jface.text.IRegion;
 import org.eclipse.jface.text.Position;
 
 /**
@@ -35,9 +36,14 @@ import org.eclipse.jface.text.Position;
  * "delta" is returned from the
  * {@link #reconcile(org.eclipse.dltk.compiler.env.ISourceModule, HighlightedPosition[])}
  * method.
+ * 
+ * Descendant classes supporting the highlighting of the code regions should
+ * also override {@link #doHighlighting(IModuleSource, IRegion)}, then only
+ * the positions in the damaged region are compared.
  */
 public abstract class AbstractSemanticHighlighter implements
-		ISemanticHighlightingUpdater, ISemanticHighlightingRequestor {
+		ISemanticHighlightingUpdater, ISemanticHighlightingUpdaterExtension,
+		ISemanticHighlightingRequestor {
 
 	private IHighlightedPositionFactory positionFactory;
 	private Map<String, HighlightingStyle> highlightingStyles = new HashMap<String, HighlightingStyle>();
@@ -62,19 +68,8 @@ public abstract class AbstractSemanticHighlighter implements
 			List<HighlightedPosition> currentPositions) {
 		try {
 			newPositions.clear();
-			this.oldPositionCount = currentPositions.size();
-			this.oldPositions.clear();
-			this.oldPositions.addAll(currentPositions);
 			if (doHighlighting(code)) {
-				checkNewPositionOrdering();
-				final HighlightedPosition[] removed = getRemovedPositions();
-				if (DEBUG) {
-					System.out
-							.println("Add:" + newPositions.size() + " " + newPositions); //$NON-NLS-1$ //$NON-NLS-2$
-					System.out
-							.println("Remove:" + removed.length + " " + Arrays.asList(removed)); //$NON-NLS-1$ //$NON-NLS-2$
-				}
-				return new UpdateResult(getAddedPositions(), removed);
+				return computeDelta(currentPositions, null);
 			}
 		} catch (Exception e) {
 			DLTKCore.error("Error in SemanticPositionUpdater", e); //$NON-NLS-1$
@@ -83,6 +78,122 @@ public abstract class AbstractSemanticHighlighter implements
 				HighlightedPosition.NO_POSITIONS);
 	}
 
+	/**
+	 * @since 5.6
+	 */
+	public UpdateResult reconcile(IModuleSource code,
+			List<HighlightedPosition> currentPositions, IRegion damage) {
+		try {
+			newPositions.clear();
+			final IRegion region = doHighlighting(code, damage);
+			if (region != null) {
+				return computeDelta(currentPositions, region);
+			}
+		} catch (Exception e) {
+			DLTKCore.error("Error in SemanticPositionUpdater", e); //$NON-NLS-1$
+		}
+		return null;
+	}
+
+	/**
+	 * Compares the new positions with the current ones (only with the ones
+	 * overlapping the region if specified). Both lists are sorted, so they are
+	 * merged in a single pass.
+	 */
+	private UpdateResult computeDelta(
+			List<HighlightedPosition> currentPositions, IRegion region) {
+		checkNewPositionOrdering();
+		List<HighlightedPosition> current = currentPositions;
+		if (region != null) {
+			final int start = region.getOffset();
+			final int end = start + region.getLength();
+			current = currentPositions.subList(
+					indexOfEndAfter(currentPositions, start),
+					indexOfStartAt(currentPositions, end));
+			for (Iterator<HighlightedPosition> i = newPositions.iterator(); i
+					.hasNext();) {
+				final Position p = i.next();
+				if (p.getOffset() >= end
+						|| p.getOffset() + p.getLength() <= start) {
+					i.remove();
+				}
+			}
+		}
+		final List<HighlightedPosition> added = new ArrayList<HighlightedPosition>();
+		oldPositions.clear();
+		int i = 0, j = 0;
+		final int oldSize = current.size(), newSize = newPositions.size();
+		while (i < oldSize && j < newSize) {
+			final HighlightedPosition o = current.get(i);
+			final HighlightedPosition n = newPositions.get(j);
+			if (o.getOffset() < n.getOffset()) {
+				oldPositions.add(o);
+				++i;
+			} else if (o.getOffset() > n.getOffset()) {
+				added.add(n);
+				++j;
+			} else {
+				if (!o.isEqual(n.getOffset(), n.getLength(),
+						n.getHighlighting())) {
+					oldPositions.add(o);
+					added.add(n);
+				}
+				++i;
+				++j;
+			}
+		}
+		while (i < oldSize) {
+			oldPositions.add(current.get(i++));
+		}
+		while (j < newSize) {
+			added.add(newPositions.get(j++));
+		}
+		newPositions.clear();
+		newPositions.addAll(added);
+		oldPositionCount = oldPositions.size();
+		final HighlightedPosition[] removed = getRemovedPositions();
+		if (DEBUG) {
+			System.out.println("Add:" + newPositions.size() + " " + newPositions); //$NON-NLS-1$ //$NON-NLS-2$
+			System.out.println("Remove:" + removed.length + " " + Arrays.asList(removed)); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		return new UpdateResult(getAddedPositions(), removed);
+	}
+
+	/**
+	 * Returns the index of the first position ending after the offset.
+	 */
+	private static int indexOfEndAfter(List<HighlightedPosition> positions,
+			int offset) {
+		int low = 0, high = positions.size();
+		while (low < high) {
+			final int mid = (low + high) >>> 1;
+			final Position p = positions.get(mid);
+			if (p.getOffset() + p.getLength() <= offset) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Returns the index of the first position starting at or after the offset.
+	 */
+	private static int indexOfStartAt(List<HighlightedPosition> positions,
+			int offset) {
+		int low = 0, high = positions.size();
+		while (low < high) {
+			final int mid = (low + high) >>> 1;
+			if (positions.get(mid).getOffset() < offset) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
 	/**
 	 * This method should do all of the semantic highlighting. When something
 	 * should be highlighted
@@ -94,6 +205,24 @@ public abstract class AbstractSemanticHighlighter implements
 	protected abstract boolean doHighlighting(IModuleSource code)
 			throws Exception;
 
+	/**
+	 * This method should do the semantic highlighting of the AST subtrees
+	 * overlapping the damaged region and return the region actually
+	 * highlighted, see {@link ISemanticHighlighterExtension2}. The default
+	 * implementation returns <code>null</code>, so the whole code is
+	 * highlighted with {@link #doHighlighting(IModuleSource)}.
+	 * 
+	 * @param code
+	 * @param damage
+	 * @return the highlighted region or <code>null</code>
+	 * @throws Exception
+	 * @since 5.6
+	 */
+	protected IRegion doHighlighting(IModuleSource code, IRegion damage)
+			throws Exception {
+		return null;
+	}
+
 	public void addPosition(int start, int end, String highlightingKey) {
 		final int len = end - start;
 		if (len <= 0) {
@@ -103,14 +232,6 @@ public abstract class AbstractSemanticHighlighter implements
 		if (hl == null) {
 			return;
 		}
-		for (int i = 0, size = oldPositions.size(); i < size; ++i) {
-			final HighlightedPosition p = oldPositions.get(i);
-			if (p != null && p.isEqual(start, len, hl)) {
-				oldPositions.set(i, null);
-				--oldPositionCount;
-				return;
-			}
-		}
 		if (!newPositions.isEmpty()) {
 			final int lowBound = Math.max(newPositions.size() - 2, 0);
 			for (int i = newPositions.size(); --i >= lowBound;) {
@@ -0,0 +1,42 @@
+/*******************************************************************************
+ * Copyright (c) 2016 xored software, Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ *******************************************************************************/
+package org.eclipse.dltk.ui.editor.highlighting;
+
+import org.eclipse.dltk.compiler.env.IModuleSource;
+import org.eclipse.jface.text.IRegion;
+
+/**
+ * Extension of the {@link ISemanticHighlighter} supporting the highlighting
+ * of the regions of the code, so only the edited regions of the module are
+ * re-highlighted when it is reconciled.
+ * 
+ * @since 5.6
+ */
+public interface ISemanticHighlighterExtension2 {
+
+	/**
+	 * Performs the highlighting of the AST subtrees overlapping the specified
+	 * <code>region</code> of the <code>code</code> and reports positions to be
+	 * highlighted to the specified <code>requestor</code>.
+	 * 
+	 * @param code
+	 * @param region
+	 *            the region of the code changed since the last highlighting
+	 * @param requestor
+	 * @return the region actually highlighted, which should include the
+	 *         specified one and is usually expanded to the bounds of the
+	 *         processed AST subtrees. The current positions in this region are
+	 *         replaced with the reported ones. Returns <code>null</code> if the
+	 *         whole code should be highlighted instead.
+	 * @throws AbortSemanticHighlightingException
+	 */
+	IRegion process(IModuleSource code, IRegion region,
+			ISemanticHighlightingRequestor requestor);
+
+}
@@ -0,0 +1,42 @@
+/*******************************************************************************
+ * Copyright (c) 2016 xored software, Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ *******************************************************************************/
+package org.eclipse.dltk.ui.editor.highlighting;
+
+import java.util.List;
+
+import org.eclipse.dltk.compiler.env.IModuleSource;
+import org.eclipse.dltk.ui.editor.highlighting.ISemanticHighlightingUpdater.UpdateResult;
+import org.eclipse.jface.text.IRegion;
+
+/**
+ * Extension of the {@link ISemanticHighlightingUpdater} supporting the
+ * incremental update of the damaged region of the code.
+ * 
+ * @since 5.6
+ */
+public interface ISemanticHighlightingUpdaterExtension {
+
+	/**
+	 * @param code
+	 *            source module
+	 * @param currentPositions
+	 *            current semantic {@link HighlightedPosition}s sorted by
+	 *            starting offset.
+	 * @param damage
+	 *            the region of the code changed since the current positions
+	 *            were computed
+	 * @return the changes of the positions in the re-highlighted region or
+	 *         <code>null</code> if the region could not be highlighted
+	 *         separately and the whole code should be reconciled with
+	 *         {@link ISemanticHighlightingUpdater#reconcile(IModuleSource, List)}
+	 */
+	UpdateResult reconcile(IModuleSource code,
+			List<HighlightedPosition> currentPositions, IRegion damage);
+
+}
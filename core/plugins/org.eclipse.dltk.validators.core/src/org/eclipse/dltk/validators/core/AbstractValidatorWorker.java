@@ -1,11 +1,24 @@
 package org.eclipse.dltk.validators.core;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.eclipse.core.resources.IMarker;
 import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IWorkspace;
+import org.eclipse.core.resources.IWorkspaceRunnable;
+import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.core.runtime.Status;
-
+import org.eclipse.dltk.core.ISourceModule;
 import org.eclipse.dltk.validators.internal.core.ValidatorsCore;
 
 abstract class AbstractValidatorWorker {
@@ -46,13 +59,16 @@ abstract class AbstractValidatorWorker {
 		return objects.length;
 	}
 
-	protected void clean(IResource[] resources) {
+	protected void clean(final IResource[] resources) {
 		final String markerType = getMarkerId();
-		// TODO execute single operation via IWorkspaceRunnable ?
-		for (int i = 0; i < resources.length; ++i) {
-			final IResource resource = resources[i];
-			clean(resource, markerType);
-		}
+		run(new IWorkspaceRunnable() {
+			public void run(IProgressMonitor monitor) {
+				for (int i = 0; i < resources.length; ++i) {
+					final IResource resource = resources[i];
+					clean(resource, markerType);
+				}
+			}
+		});
 	}
 
 	protected void clean(final IResource resource) {
@@ -92,6 +108,24 @@ abstract class AbstractValidatorWorker {
 		return true;
 	}
 
+	/**
+	 * Returns <code>true</code> if the <code>runValidator()</code> could be
+	 * called concurrently from several threads, so the objects are validated
+	 * by the pool of {@link ValidatorRuntime#VALIDATION_WORKERS} threads.
+	 * 
+	 * <p>
+	 * Default returns <code>false</code>. The reporter passed to the
+	 * concurrent validator is owned by the calling thread, the markers are
+	 * created when all the objects are validated, so its <code>report()</code>
+	 * methods return <code>null</code> instead of the created marker.
+	 * </p>
+	 * 
+	 * @since 5.6
+	 */
+	protected boolean isConcurrent() {
+		return false;
+	}
+
 	abstract IResource getResource(Object resource);
 
 	abstract boolean isValidResource(Object object);
@@ -100,49 +134,183 @@ abstract class AbstractValidatorWorker {
 			IValidatorReporter reporter, IProgressMonitor monitor)
 			throws CoreException;
 
-	final IStatus doValidate(Object[] objects, IValidatorOutput console,
-			IProgressMonitor monitor) {
+	/**
+	 * Validates the objects. The markers are created within a single workspace
+	 * operation. If the validator is concurrent the problems are collected by
+	 * the {@link ReportBuffer}s of the pool threads and the old markers are
+	 * replaced with the new ones at the end.
+	 */
+	final IStatus doValidate(final Object[] objects,
+			final IValidatorOutput console, final IProgressMonitor monitor) {
 		if (!isValidatorConfigured()) {
 			// don't bother continuing if we're not properly configured
 			return Status.CANCEL_STATUS;
 		}
 
-		IValidatorReporter reporter = createValidatorReporter();
+		final IValidatorReporter reporter = createValidatorReporter();
 		// so it begins... ;)
 		monitor.beginTask(getTaskName(), calcTotalWork(objects));
 
 		try {
-			for (int i = 0; i < objects.length; i++) {
-				if (monitor.isCanceled()) {
-					return Status.CANCEL_STATUS;
+			final int workers = isConcurrent() ? Math.min(getWorkerCount(),
+					objects.length) : 1;
+			if (workers > 1) {
+				final List<ReportBuffer> buffers = new ArrayList<ReportBuffer>();
+				try {
+					return validateConcurrently(objects, workers, reporter,
+							buffers, console, monitor);
+				} finally {
+					endValidation(console, monitor);
+					flush(buffers);
 				}
-
-				if (getResource(objects[i]) == null) {
-					// XXX: make this an error level instead?
-					IStatus status = new Status(IStatus.WARNING, getPluginId(),
-							getNullResourceMessage());
-					ValidatorsCore.log(status);
-				} else {
-					validate(objects[i], reporter, console, monitor);
+			}
+			final IStatus[] result = { Status.CANCEL_STATUS };
+			run(new IWorkspaceRunnable() {
+				public void run(IProgressMonitor workspaceMonitor) {
+					try {
+						result[0] = validate(objects, 0, objects.length,
+								reporter, console, monitor, monitor);
+					} finally {
+						endValidation(console, monitor);
+					}
 				}
+			});
+			return result[0];
+		} finally {
+			monitor.done();
+		}
+	}
 
-				monitor.worked(1);
+	/**
+	 * Validates the objects partitioned across the pool threads, each
+	 * partition is validated with its own buffer.
+	 */
+	private IStatus validateConcurrently(final Object[] objects, int workers,
+			IValidatorReporter reporter, List<ReportBuffer> buffers,
+			final IValidatorOutput console, final IProgressMonitor monitor) {
+		final ExecutorService executor = Executors.newFixedThreadPool(workers);
+		try {
+			final IProgressMonitor workerMonitor = new NullProgressMonitor() {
+				@Override
+				public boolean isCanceled() {
+					return monitor.isCanceled();
+				}
+			};
+			// more partitions than threads to balance the load
+			final int partitions = Math.min(workers * 4, objects.length);
+			final List<Future<IStatus>> futures = new ArrayList<Future<IStatus>>(
+					partitions);
+			final int[] sizes = new int[partitions];
+			for (int i = 0; i < partitions; ++i) {
+				final int start = (int) ((long) objects.length * i / partitions);
+				final int end = (int) ((long) objects.length * (i + 1) / partitions);
+				final ReportBuffer buffer = new ReportBuffer(reporter);
+				buffers.add(buffer);
+				sizes[i] = end - start;
+				futures.add(executor.submit(new Callable<IStatus>() {
+					public IStatus call() {
+						return validate(objects, start, end, buffer, console,
+								workerMonitor, null);
+					}
+				}));
+			}
+			IStatus result = Status.OK_STATUS;
+			for (int i = 0; i < partitions; ++i) {
+				final IStatus status;
+				try {
+					status = futures.get(i).get();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					for (Future<IStatus> future : futures) {
+						future.cancel(true);
+					}
+					// the buffers could be still modified by the workers
+					buffers.clear();
+					return Status.CANCEL_STATUS;
+				} catch (ExecutionException e) {
+					ValidatorsCore.error(e.getCause().toString(), e.getCause());
+					continue;
+				}
+				if (status.getSeverity() == IStatus.CANCEL) {
+					result = status;
+				}
+				monitor.worked(sizes[i]);
 			}
+			return result;
 		} finally {
-			monitor.done();
+			executor.shutdown();
 		}
+	}
+
+	private IStatus validate(Object[] objects, int start, int end,
+			IValidatorReporter reporter, IValidatorOutput console,
+			IProgressMonitor monitor, IProgressMonitor progress) {
+		for (int i = start; i < end; i++) {
+			if (monitor.isCanceled()) {
+				return Status.CANCEL_STATUS;
+			}
+
+			if (getResource(objects[i]) == null) {
+				// XXX: make this an error level instead?
+				IStatus status = new Status(IStatus.WARNING, getPluginId(),
+						getNullResourceMessage());
+				ValidatorsCore.log(status);
+			} else {
+				validate(objects[i], reporter, console, monitor);
+			}
 
+			if (progress != null) {
+				progress.worked(1);
+			}
+		}
 		return Status.OK_STATUS;
 	}
 
+	private int getWorkerCount() {
+		final String value = System
+				.getProperty(ValidatorRuntime.VALIDATION_WORKERS);
+		if (value != null) {
+			try {
+				final int workers = Integer.parseInt(value.trim());
+				if (workers > 0) {
+					return workers;
+				}
+			} catch (NumberFormatException e) {
+				ValidatorsCore.warn("Invalid " //$NON-NLS-1$
+						+ ValidatorRuntime.VALIDATION_WORKERS + " value", e); //$NON-NLS-1$
+			}
+		}
+		return Runtime.getRuntime().availableProcessors();
+	}
+
+	/**
+	 * Called when the validation is finished or canceled, after the
+	 * <code>runValidator()</code> was called for the objects.
+	 * 
+	 * <p>
+	 * Default implementation does nothing. Sub-classes deferring the
+	 * validation of the passed objects should complete it here or discard it
+	 * if the monitor is canceled.
+	 * </p>
+	 * 
+	 * @since 5.6
+	 */
+	protected void endValidation(IValidatorOutput console,
+			IProgressMonitor monitor) {
+		// empty
+	}
+
 	private void validate(Object object, IValidatorReporter reporter,
 			IValidatorOutput console, IProgressMonitor monitor) {
 		if (!isValidResource(object)) {
 			return;
 		}
 
-		IResource resource = getResource(object);
-		clean(resource);
+		if (reporter instanceof ReportBuffer) {
+			((ReportBuffer) reporter).clean(getResource(object));
+		} else {
+			clean(getResource(object));
+		}
 
 		try {
 			runValidator(object, console, reporter, monitor);
@@ -150,4 +318,75 @@ abstract class AbstractValidatorWorker {
 			ValidatorsCore.log(e.getStatus());
 		}
 	}
+
+	private void flush(final List<ReportBuffer> buffers) {
+		run(new IWorkspaceRunnable() {
+			public void run(IProgressMonitor monitor) {
+				for (ReportBuffer buffer : buffers) {
+					buffer.flush();
+				}
+			}
+		});
+	}
+
+	private static void run(IWorkspaceRunnable runnable) {
+		try {
+			ResourcesPlugin.getWorkspace().run(runnable, null,
+					IWorkspace.AVOID_UPDATE, null);
+		} catch (CoreException e) {
+			ValidatorsCore.log(e.getStatus());
+		}
+	}
+
+	/**
+	 * Reporter collecting the markers to delete and the problems to report,
+	 * which are applied to the resources by {@link #flush()}. Used only for the
+	 * concurrent validators, each buffer is used by the single thread.
+	 * {@link #report(IResource, IValidatorProblem)} returns <code>null</code>
+	 * since the markers are not created yet.
+	 */
+	private class ReportBuffer implements IValidatorReporter {
+
+		private final IValidatorReporter target;
+		private final List<Object> operations = new ArrayList<Object>();
+
+		ReportBuffer(IValidatorReporter target) {
+			this.target = target;
+		}
+
+		void clean(IResource resource) {
+			operations.add(resource);
+		}
+
+		public IMarker report(IResource resource, IValidatorProblem problem) {
+			operations.add(new Object[] { resource, problem });
+			return null;
+		}
+
+		public IMarker report(ISourceModule module, IValidatorProblem problem) {
+			operations.add(new Object[] { module, problem });
+			return null;
+		}
+
+		void flush() {
+			for (Object operation : operations) {
+				if (operation instanceof IResource) {
+					AbstractValidatorWorker.this.clean((IResource) operation);
+					continue;
+				}
+				final Object[] report = (Object[]) operation;
+				final IValidatorProblem problem = (IValidatorProblem) report[1];
+				try {
+					if (report[0] instanceof ISourceModule) {
+						target.report((ISourceModule) report[0], problem);
+					} else {
+						target.report((IResource) report[0], problem);
+					}
+				} catch (CoreException e) {
+					ValidatorsCore.log(e.getStatus());
+				}
+			}
+			operations.clear();
+		}
+	}
 }
@@ -48,6 +48,16 @@ public final class ValidatorRuntime {
 	public static final String PREF_CONFIGURATION = ValidatorsCore.PLUGIN_ID
 			+ ".configuration"; //$NON-NLS-1$
 
+	/**
+	 * System property with the maximum number of threads running the
+	 * validators which support concurrent validation, the number of available
+	 * processors by default.
+	 * 
+	 * @since 5.6
+	 */
+	public static final String VALIDATION_WORKERS = ValidatorsCore.PLUGIN_ID
+			+ ".workers"; //$NON-NLS-1$
+
 	// public static final String MARKER_VALIDATOR = ValidatorsCore.PLUGIN_ID
 	//			+ ".marker_validator_id"; //$NON-NLS-1$
 
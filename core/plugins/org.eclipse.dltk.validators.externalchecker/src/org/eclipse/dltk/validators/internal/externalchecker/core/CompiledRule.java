@@ -0,0 +1,83 @@
+/*******************************************************************************
+ * Copyright (c) 2016 xored software, Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ *******************************************************************************/
+package org.eclipse.dltk.validators.internal.externalchecker.core;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.eclipse.dltk.validators.core.IValidatorProblem;
+import org.eclipse.dltk.validators.core.ValidatorProblem;
+
+/**
+ * The {@link Rule} with the wildcards expanded and the patterns compiled. The
+ * instances are immutable and could be shared between the threads.
+ *
+ * @see WildcardMatcher#compile(Rule)
+ */
+public class CompiledRule {
+
+	private final Pattern pattern;
+	private final Pattern fileNamePattern;
+	private final Pattern lineNumberPattern;
+	private final Pattern messagePattern;
+	private final IValidatorProblem.Type problemType;
+
+	CompiledRule(Pattern pattern, Pattern fileNamePattern,
+			Pattern lineNumberPattern, Pattern messagePattern,
+			IValidatorProblem.Type problemType) {
+		this.pattern = pattern;
+		this.fileNamePattern = fileNamePattern;
+		this.lineNumberPattern = lineNumberPattern;
+		this.messagePattern = messagePattern;
+		this.problemType = problemType;
+	}
+
+	/**
+	 * Returns the problem described by the specified output line or
+	 * <code>null</code> if the line does not match this rule.
+	 */
+	public IValidatorProblem match(String input) {
+		final Matcher matcher = pattern.matcher(input);
+		if (!matcher.matches()) {
+			return null;
+		}
+		String fileName = null;
+		int lineNumber = -1;
+		String message = null;
+		for (int i = 1; i <= matcher.groupCount(); i++) {
+			final String group = matcher.group(i);
+			if (group != null) {
+				Matcher lMatch = lineNumberPattern.matcher(group);
+				if (lMatch.find()) {
+					lineNumber = Integer.parseInt(lMatch.group());
+					continue;
+				}
+
+				Matcher fMatch = fileNamePattern.matcher(group);
+				if (fMatch.find()) {
+					if (fileName == null) {
+						fileName = fMatch.group();
+						continue;
+					}
+				}
+
+				Matcher mMatch = messagePattern.matcher(group);
+				if (mMatch.find()) {
+					message = mMatch.group();
+					continue;
+				}
+			}
+		}
+		if (message == null) {
+			message = input;
+		}
+		return new ValidatorProblem(fileName, message, lineNumber, problemType);
+	}
+
+}
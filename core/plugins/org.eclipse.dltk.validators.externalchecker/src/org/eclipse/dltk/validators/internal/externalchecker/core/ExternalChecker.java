@@ -9,6 +9,7 @@ import java.util.Vector;
 
 import org.eclipse.core.runtime.Path;
 import org.eclipse.dltk.compiler.util.Util;
+import org.eclipse.dltk.core.DLTKCore;
 import org.eclipse.dltk.core.IScriptProject;
 import org.eclipse.dltk.core.environment.EnvironmentManager;
 import org.eclipse.dltk.core.environment.IEnvironment;
@@ -39,6 +40,12 @@ public class ExternalChecker extends AbstractValidator {
 	private String extensions;
 	private boolean passInterpreterEnvironmentVars;
 
+	/**
+	 * The compiled rules and the wildcards they were compiled with
+	 */
+	private CompiledRule[] compiledRules;
+	private String compiledWildcards;
+
 	public void setCommand(Map<IEnvironment, String> command) {
 		this.paths = command;
 		fireChanged();
@@ -47,6 +54,7 @@ public class ExternalChecker extends AbstractValidator {
 	public void setRules(Vector<Rule> list) {
 		rules.clear();
 		rules.addAll(list);
+		resetCompiledRules();
 		fireChanged();
 	}
 
@@ -107,6 +115,7 @@ public class ExternalChecker extends AbstractValidator {
 				rules.add(r);
 			}
 		}
+		resetCompiledRules();
 	}
 
 	public void storeTo(Document doc, Element element) {
@@ -146,6 +155,7 @@ public class ExternalChecker extends AbstractValidator {
 
 	public void setNewRule(Rule s) {
 		rules.add(s);
+		resetCompiledRules();
 	}
 
 	public Rule getRule(int index) {
@@ -158,6 +168,39 @@ public class ExternalChecker extends AbstractValidator {
 		return rules.size();
 	}
 
+	/**
+	 * Returns the rules with the patterns compiled. The rules are compiled
+	 * once and recompiled only if the rules or the wildcards are changed. The
+	 * rules which could not be compiled are skipped.
+	 */
+	synchronized CompiledRule[] getCompiledRules() {
+		final String wildcards = ExternalCheckerWildcardManager
+				.getWildcardsPreference();
+		if (compiledRules == null || !wildcards.equals(compiledWildcards)) {
+			final WildcardMatcher matcher = new WildcardMatcher(
+					ExternalCheckerWildcardManager.parseWildcards(wildcards));
+			final List<CompiledRule> result = new ArrayList<CompiledRule>(
+					rules.size());
+			for (Rule rule : rules) {
+				try {
+					result.add(matcher.compile(rule));
+				} catch (Exception x) {
+					if (DLTKCore.DEBUG) {
+						System.out.println(x.toString());
+					}
+				}
+			}
+			compiledRules = result.toArray(new CompiledRule[result.size()]);
+			compiledWildcards = wildcards;
+		}
+		return compiledRules;
+	}
+
+	private synchronized void resetCompiledRules() {
+		compiledRules = null;
+		compiledWildcards = null;
+	}
+
 	public boolean isValidatorValid(IScriptProject project) {
 		final IEnvironment environment = getEnvrironment(project);
 		String path = (String) this.paths.get(environment);
@@ -218,6 +261,7 @@ public class ExternalChecker extends AbstractValidator {
 			final ExternalChecker clone = (ExternalChecker) super.clone();
 			clone.paths = new HashMap<IEnvironment, String>(paths);
 			clone.rules = new ArrayList<Rule>(rules);
+			clone.resetCompiledRules();
 			return clone;
 		} catch (CloneNotSupportedException e) {
 			// should not happen
@@ -5,13 +5,23 @@ import java.io.IOException;
 import java.io.InputStreamReader;
 import java.net.URI;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IResource;
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
 import org.eclipse.dltk.compiler.CharOperation;
 import org.eclipse.dltk.core.DLTKCore;
 import org.eclipse.dltk.core.environment.IEnvironment;
@@ -42,7 +52,10 @@ class ExternalCheckerDelegate {
 	private final IExecutionEnvironment execEnvironment;
 	private final String[] extensions;
 	private final boolean passInterpreterEnvironmentVars;
-	private final List<Rule> rules = new ArrayList<Rule>();
+	private final CompiledRule[] rules;
+	private final boolean batchMode;
+	private final int batchSize;
+	private final int processes;
 
 	static interface IExternalReporterDelegate {
 		void report(IValidatorProblem problem) throws CoreException;
@@ -54,11 +67,14 @@ class ExternalCheckerDelegate {
 		this.execEnvironment = (IExecutionEnvironment) environment
 				.getAdapter(IExecutionEnvironment.class);
 
-		for (int i = 0; i < externalChecker.getNRules(); ++i) {
-			rules.add(externalChecker.getRule(i));
-		}
+		this.rules = externalChecker.getCompiledRules();
 
 		this.arguments = externalChecker.getArguments();
+		this.batchMode = new CommandLine(arguments).contains(BATCH_SEQUENCE);
+		this.batchSize = batchMode ? getOption(
+				ExternalCheckerPlugin.BATCH_SIZE, DEFAULT_BATCH_SIZE) : 1;
+		this.processes = getOption(ExternalCheckerPlugin.PROCESSES, Runtime
+				.getRuntime().availableProcessors());
 		this.extensions = prepareExtensions(externalChecker.getExtensions());
 		this.passInterpreterEnvironmentVars = externalChecker
 				.isPassInterpreterEnvironmentVars();
@@ -101,53 +117,268 @@ class ExternalCheckerDelegate {
 
 	private final Map<IProject, EnvContainer> projectEnvs = new HashMap<IProject, EnvContainer>();
 
+	/**
+	 * The resource to validate
+	 */
+	private static class Request {
+		final String path;
+		final String[] environmentVars;
+		final IExternalReporterDelegate reporter;
+
+		Request(String path, String[] environmentVars,
+				IExternalReporterDelegate reporter) {
+			this.path = path;
+			this.environmentVars = environmentVars;
+			this.reporter = reporter;
+		}
+	}
+
+	/**
+	 * Single execution of the checker for one or more resources. The output is
+	 * collected by the pool thread and reported by the validation thread.
+	 */
+	private class Invocation implements Callable<List<String>> {
+		final List<Request> requests;
+		private volatile Process process;
+		private volatile boolean canceled;
+		Future<List<String>> future;
+
+		Invocation(List<Request> requests) {
+			this.requests = requests;
+		}
+
+		public List<String> call() throws Exception {
+			if (canceled) {
+				return Collections.emptyList();
+			}
+			process = execEnvironment.exec(createCommandLine(requests),
+					null, requests.get(0).environmentVars);
+			if (process == null) {
+				return Collections.emptyList();
+			}
+			if (canceled) {
+				process.destroy();
+			}
+			final List<String> lines = new ArrayList<String>();
+			BufferedReader input = new BufferedReader(new InputStreamReader(
+					process.getInputStream()));
+			try {
+				String line = null;
+				while ((line = input.readLine()) != null) {
+					lines.add(line);
+				}
+			} catch (IOException e) {
+				// throw new CoreException();
+			} finally {
+				try {
+					input.close();
+				} catch (IOException e) {
+					// ignore
+				}
+			}
+			return lines;
+		}
+
+		void cancel() {
+			canceled = true;
+			future.cancel(false);
+			final Process p = process;
+			if (p != null) {
+				p.destroy();
+			}
+		}
+
+		Request findRequest(IValidatorProblem problem) {
+			if (requests.size() == 1) {
+				return requests.get(0);
+			}
+			final String fileName = problem.getFileName();
+			if (fileName == null) {
+				return null;
+			}
+			final String name = normalize(fileName.trim());
+			for (Request request : requests) {
+				final String path = normalize(request.path);
+				if (path.equals(name)
+						|| (path.endsWith(name) && path.charAt(path.length()
+								- name.length() - 1) == '/')) {
+					return request;
+				}
+			}
+			return null;
+		}
+	}
+
+	private static final String BATCH_SEQUENCE = "%F"; //$NON-NLS-1$
+
+	private static final int DEFAULT_BATCH_SIZE = 64;
+
+	private final List<Request> pending = new ArrayList<Request>();
+	private final LinkedList<Invocation> invocations = new LinkedList<Invocation>();
+	private ExecutorService executor;
+
+	/**
+	 * Schedules the validation of the resource. The checker is executed by the
+	 * pool thread, the problems are reported by the subsequent calls of this
+	 * method or by {@link #endValidation(IValidatorOutput, IProgressMonitor)}.
+	 */
 	public void runValidator(IResource resource, IValidatorOutput console,
 			IExternalReporterDelegate delegate) throws CoreException {
-		CommandLine cmdLine = new CommandLine(arguments);
-		cmdLine.replaceSequence('f', getResourcePath(resource));
-		cmdLine.add(0, command);
-		final String[] env;
-		if (passInterpreterEnvironmentVars) {
-			final IProject project = resource.getProject();
-			EnvContainer envContainer = projectEnvs.get(project);
-			if (envContainer == null) {
-				envContainer = new EnvContainer();
-				IInterpreterInstall install = ScriptRuntime
-						.getInterpreterInstall(DLTKCore.create(project));
-				if (install != null) {
-					EnvironmentVariable[] resolved = EnvironmentResolver
-							.resolve(execEnvironment
-									.getEnvironmentVariables(true), install
-									.getEnvironmentVariables(), true);
-					if (resolved != null) {
-						envContainer.environmentVars = new String[resolved.length];
-						for (int i = 0; i < resolved.length; ++i) {
-							envContainer.environmentVars[i] = resolved[i]
-									.toString();
-						}
+		final Request request = new Request(getResourcePath(resource),
+				getEnvironmentVars(resource), delegate);
+		// resources of the single invocation should share the environment
+		if (!pending.isEmpty()
+				&& pending.get(0).environmentVars != request.environmentVars) {
+			submitPending();
+		}
+		pending.add(request);
+		if (pending.size() >= batchSize) {
+			submitPending();
+		}
+		while (!invocations.isEmpty() && invocations.getFirst().future.isDone()) {
+			report(invocations.removeFirst(), console);
+		}
+	}
+
+	/**
+	 * Waits for the scheduled invocations and reports their problems, or
+	 * cancels them if the monitor is canceled.
+	 */
+	public void endValidation(IValidatorOutput console, IProgressMonitor monitor) {
+		try {
+			if (!monitor.isCanceled()) {
+				submitPending();
+			}
+			pending.clear();
+			while (!invocations.isEmpty()) {
+				if (monitor.isCanceled()) {
+					for (Invocation invocation : invocations) {
+						invocation.cancel();
 					}
+					invocations.clear();
+					break;
+				}
+				try {
+					report(invocations.removeFirst(), console);
+				} catch (CoreException e) {
+					ExternalCheckerPlugin.getDefault().getLog().log(
+							e.getStatus());
 				}
-				projectEnvs.put(project, envContainer);
 			}
-			env = envContainer.environmentVars;
-		} else {
-			env = null;
+		} finally {
+			if (executor != null) {
+				executor.shutdown();
+				executor = null;
+			}
+		}
+	}
+
+	private void submitPending() {
+		if (pending.isEmpty()) {
+			return;
+		}
+		if (executor == null) {
+			executor = Executors.newFixedThreadPool(processes);
 		}
-		Process process = execEnvironment.exec(cmdLine.toArray(), null, env);
-		BufferedReader input = new BufferedReader(new InputStreamReader(process
-				.getInputStream()));
+		final Invocation invocation = new Invocation(new ArrayList<Request>(
+				pending));
+		pending.clear();
+		invocation.future = executor.submit(invocation);
+		invocations.add(invocation);
+	}
 
+	private void report(Invocation invocation, IValidatorOutput console)
+			throws CoreException {
+		final List<String> lines;
 		try {
-			String line = null;
-			while ((line = input.readLine()) != null) {
-				console.println(line);
+			lines = invocation.future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			invocation.cancel();
+			return;
+		} catch (ExecutionException e) {
+			throw new CoreException(new Status(IStatus.ERROR,
+					ExternalCheckerPlugin.PLUGIN_ID, e.getCause().toString(),
+					e.getCause()));
+		}
+		int unmatched = 0;
+		String firstUnmatched = null;
+		for (String line : lines) {
+			console.println(line);
+
+			final IValidatorProblem problem = parseProblem(line);
+			if (problem != null) {
+				final Request request = invocation.findRequest(problem);
+				if (request != null) {
+					request.reporter.report(problem);
+				} else if (unmatched++ == 0) {
+					firstUnmatched = line;
+				}
+			}
+		}
+		if (unmatched != 0) {
+			// file name of the problem does not match the validated resources
+			final String message = unmatched
+					+ " problem(s) not reported, unknown file name in \"" //$NON-NLS-1$
+					+ firstUnmatched + "\""; //$NON-NLS-1$
+			console.println(message);
+			ExternalCheckerPlugin.getDefault().getLog().log(
+					new Status(IStatus.WARNING,
+							ExternalCheckerPlugin.PLUGIN_ID, message));
+		}
+	}
+
+	private String[] createCommandLine(List<Request> requests) {
+		final CommandLine cmdLine;
+		if (batchMode) {
+			cmdLine = new CommandLine();
+			// same tokens as in the single resource mode
+			for (String arg : new CommandLine(arguments).toArray()) {
+				if (BATCH_SEQUENCE.equals(arg)) {
+					for (Request request : requests) {
+						cmdLine.add(request.path);
+					}
+				} else {
+					cmdLine.add(arg);
+				}
+			}
+		} else {
+			cmdLine = new CommandLine(arguments);
+			cmdLine.replaceSequence('f', requests.get(0).path);
+		}
+		cmdLine.add(0, command);
+		return cmdLine.toArray();
+	}
 
-				IValidatorProblem problem = parseProblem(line);
-				delegate.report(problem);
+	private String[] getEnvironmentVars(IResource resource) {
+		if (!passInterpreterEnvironmentVars) {
+			return null;
+		}
+		final IProject project = resource.getProject();
+		EnvContainer envContainer = projectEnvs.get(project);
+		if (envContainer == null) {
+			envContainer = new EnvContainer();
+			IInterpreterInstall install = ScriptRuntime
+					.getInterpreterInstall(DLTKCore.create(project));
+			if (install != null) {
+				EnvironmentVariable[] resolved = EnvironmentResolver.resolve(
+						execEnvironment.getEnvironmentVariables(true), install
+								.getEnvironmentVariables(), true);
+				if (resolved != null) {
+					envContainer.environmentVars = new String[resolved.length];
+					for (int i = 0; i < resolved.length; ++i) {
+						envContainer.environmentVars[i] = resolved[i]
+								.toString();
+					}
+				}
 			}
-		} catch (IOException e) {
-			// throw new CoreException();
+			projectEnvs.put(project, envContainer);
 		}
+		return envContainer.environmentVars;
+	}
+
+	private static String normalize(String path) {
+		return path.replace('\\', '/');
 	}
 
 	private String getResourcePath(IResource resource) {
@@ -161,14 +392,9 @@ class ExternalCheckerDelegate {
 	}
 
 	private IValidatorProblem parseProblem(String problem) {
-		List wlist = ExternalCheckerWildcardManager.loadCustomWildcards();
-		for (int i = 0; i < rules.size(); i++) {
-			Rule rule = (Rule) this.rules.get(i);
-			// String wcard = rule.getDescription();
-			// List tlist = null;
+		for (int i = 0; i < rules.length; i++) {
 			try {
-				WildcardMatcher wmatcher = new WildcardMatcher(wlist);
-				IValidatorProblem cproblem = wmatcher.match(rule, problem);
+				IValidatorProblem cproblem = rules[i].match(problem);
 				if (cproblem != null) {
 					return cproblem;
 				}
@@ -194,6 +420,21 @@ class ExternalCheckerDelegate {
 		return result;
 	}
 
+	private static int getOption(String key, int defaultValue) {
+		final String value = System.getProperty(key);
+		if (value != null) {
+			try {
+				final int result = Integer.parseInt(value.trim());
+				if (result > 0) {
+					return result;
+				}
+			} catch (NumberFormatException e) {
+				// use default
+			}
+		}
+		return defaultValue;
+	}
+
 	private String[] prepareExtensions(String extensions) {
 		final String[] parts = extensions.split("[\\s;]+"); // $NON-NLS-1$
 		for (int i = 0; i < parts.length; ++i) {
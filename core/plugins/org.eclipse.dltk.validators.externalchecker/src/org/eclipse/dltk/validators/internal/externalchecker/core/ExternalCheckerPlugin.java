@@ -11,6 +11,19 @@ public class ExternalCheckerPlugin extends AbstractUIPlugin {
 	// The plug-in ID
 	public static final String PLUGIN_ID = "org.eclipse.dltk.validators.externalchecker"; //$NON-NLS-1$
 
+	/**
+	 * System property with the maximum number of files passed to a single
+	 * checker invocation if the arguments contain the <code>%F</code>
+	 * sequence.
+	 */
+	public static final String BATCH_SIZE = PLUGIN_ID + ".batchSize"; //$NON-NLS-1$
+
+	/**
+	 * System property with the maximum number of the checker processes
+	 * running in parallel, the number of available processors by default.
+	 */
+	public static final String PROCESSES = PLUGIN_ID + ".processes"; //$NON-NLS-1$
+
 	// The shared instance
 	private static ExternalCheckerPlugin plugin;
 
@@ -42,10 +42,19 @@ public class ExternalCheckerWildcardManager {
 	}
 
 	public static List loadCustomWildcards() {
+		return parseWildcards(getWildcardsPreference());
+	}
+
+	/**
+	 * Returns the current value of the {@link #WILDCARDS} preference.
+	 */
+	static String getWildcardsPreference() {
+		return ExternalCheckerPlugin.getDefault().getPluginPreferences()
+				.getString(ExternalCheckerWildcardManager.WILDCARDS);
+	}
+
+	static List parseWildcards(String preference) {
 		List wildcards = new ArrayList();
-		String preference = ExternalCheckerPlugin.getDefault()
-				.getPluginPreferences().getString(
-						ExternalCheckerWildcardManager.WILDCARDS);
 		if (DLTKCore.DEBUG) {
 			System.out.println(preference);
 		}
@@ -35,6 +35,11 @@ public class ExternalResourceWorker extends ResourceValidatorWorker {
 				});
 	}
 	
+	protected void endValidation(IValidatorOutput console,
+			IProgressMonitor monitor) {
+		delegate.endValidation(console, monitor);
+	}
+
 	protected IValidatorReporter createValidatorReporter() {
 		return delegate.createValidatorReporter();
 	}
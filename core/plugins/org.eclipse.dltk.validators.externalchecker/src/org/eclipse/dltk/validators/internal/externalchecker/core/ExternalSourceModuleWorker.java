@@ -37,6 +37,11 @@ public class ExternalSourceModuleWorker extends SourceModuleValidatorWorker {
 		super.clean(resources);
 	}
 
+	protected void endValidation(IValidatorOutput console,
+			IProgressMonitor monitor) {
+		delegate.endValidation(console, monitor);
+	}
+
 	protected IValidatorReporter createValidatorReporter() {
 		return delegate.createValidatorReporter();
 	}
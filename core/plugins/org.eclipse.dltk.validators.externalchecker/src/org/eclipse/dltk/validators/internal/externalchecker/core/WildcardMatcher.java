@@ -2,11 +2,9 @@ package org.eclipse.dltk.validators.internal.externalchecker.core;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import org.eclipse.dltk.validators.core.IValidatorProblem;
-import org.eclipse.dltk.validators.core.ValidatorProblem;
 
 public class WildcardMatcher {
 
@@ -20,49 +18,28 @@ public class WildcardMatcher {
 	public IValidatorProblem match(Rule pattern, String input)
 			throws WildcardException {
 		tokenList = parseWildcard(pattern.getDescription());
-		String bigpattern = makeBigPattern(pattern.getDescription(), wcards);
-		Pattern pat = Pattern.compile(bigpattern);
-		Matcher matcher = pat.matcher(input);
-
-		if (matcher.matches()) {
-			String fileName = null;
-			int lineNumber = -1;
-			String message = null;
-			Pattern lPattern = Pattern.compile(getPattern('n', wcards));
-			Pattern mPattern = Pattern.compile(getPattern('m', wcards));
-			Pattern fPattern = Pattern.compile(getPattern('f', wcards));
-			for (int i = 1; i <= matcher.groupCount(); i++) {
-				if (matcher.group(i) != null) {
-					String group = matcher.group(i);
-					Matcher lMatch = lPattern.matcher(group);
-					if (lMatch.find()) {
-						lineNumber = Integer.parseInt(lMatch.group());
-						continue;
-					}
-
-					Matcher fMatch = fPattern.matcher(group);
-					if (fMatch.find()) {
-						if (fileName == null) {
-							fileName = fMatch.group();
-							continue;
-						}
-					}
-
-					Matcher mMatch = mPattern.matcher(group);
-					if (mMatch.find()) {
-						message = mMatch.group();
-						continue;
-					}
-				}
-			}
-			if (message == null) {
-				message = input;
-			}
+		return compile(pattern).match(input);
+	}
 
-			return new ValidatorProblem(fileName, message, lineNumber, pattern
-					.getProblemType());
+	/**
+	 * Expands the wildcards of the rule and compiles the resulting patterns,
+	 * so the rule could be matched against many lines.
+	 * 
+	 * @throws WildcardException
+	 *             if the file name, line number or message wildcard is not
+	 *             defined
+	 */
+	public CompiledRule compile(Rule rule) throws WildcardException {
+		final String fPattern = getPattern('f', wcards);
+		final String nPattern = getPattern('n', wcards);
+		final String mPattern = getPattern('m', wcards);
+		if (fPattern == null || nPattern == null || mPattern == null) {
+			throw new WildcardException();
 		}
-		return null;
+		return new CompiledRule(Pattern.compile(makeBigPattern(rule
+				.getDescription(), wcards)), Pattern.compile(fPattern),
+				Pattern.compile(nPattern), Pattern.compile(mPattern), rule
+						.getProblemType());
 	}
 
 	public ArrayList parseWildcard(String wildcard) {
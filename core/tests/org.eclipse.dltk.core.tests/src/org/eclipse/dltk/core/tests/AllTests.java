@@ -13,6 +13,7 @@ import org.eclipse.dltk.core.tests.builder.BuildParticipantManagerTests;
 import org.eclipse.dltk.core.tests.buildpath.BuildpathTests;
 import org.eclipse.dltk.core.tests.buildpath.SetContainerEventsTest;
 import org.eclipse.dltk.core.tests.cache.CacheTests;
+import org.eclipse.dltk.core.tests.cache.ContentVerdictCacheTests;
 import org.eclipse.dltk.core.tests.cache.SourceModuleInfoCacheTest;
 import org.eclipse.dltk.core.tests.compiler.CompilerCharOperationTests;
 import org.eclipse.dltk.core.tests.compiler.CompilerUtilTests;
@@ -28,6 +29,10 @@ import org.eclipse.dltk.core.tests.model.NamespaceTests;
 import org.eclipse.dltk.core.tests.model.WorkingCopyTests;
 import org.eclipse.dltk.core.tests.parser.SourceParserTests;
 import org.eclipse.dltk.core.tests.search.Bug387751Test;
+import org.eclipse.dltk.core.tests.search.IndexQueryTests;
+import org.eclipse.dltk.core.tests.search.IndexSegmentsTests;
+import org.eclipse.dltk.core.tests.search.MappedIndexQueryTests;
+import org.eclipse.dltk.core.tests.search.ParallelJobManagerTests;
 import org.eclipse.dltk.core.tests.util.CharacterStackTests;
 import org.eclipse.dltk.core.tests.utils.CharOperationTests;
 import org.eclipse.dltk.core.tests.utils.IntListTests;
@@ -49,6 +54,7 @@ public class AllTests {
 		suite.addTest(new TestSuite(UserLibraryTests.class));
 
 		suite.addTest(new TestSuite(CacheTests.class));
+		suite.addTestSuite(ContentVerdictCacheTests.class);
 
 		suite.addTest(new TestSuite(CompilerUtilTests.class));
 		suite.addTest(new TestSuite(CompilerCharOperationTests.class));
@@ -61,6 +67,10 @@ public class AllTests {
 
 		suite.addTest(new TestSuite(MixinIndexTests.class));
 		suite.addTest(new TestSuite(MixinModelTests.class));
+		suite.addTestSuite(IndexQueryTests.class);
+		suite.addTestSuite(MappedIndexQueryTests.class);
+		suite.addTestSuite(IndexSegmentsTests.class);
+		suite.addTestSuite(ParallelJobManagerTests.class);
 
 		suite.addTest(BufferTests.suite());
 		suite.addTest(ModelMembersTests.suite());
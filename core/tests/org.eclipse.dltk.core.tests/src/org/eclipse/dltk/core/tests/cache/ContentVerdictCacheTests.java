@@ -0,0 +1,159 @@
+/*******************************************************************************
+ * Copyright (c) 2016 xored software, Inc. and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     xored software, Inc. - initial API and Implementation
+ *******************************************************************************/
+package org.eclipse.dltk.core.tests.cache;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import junit.framework.TestCase;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.dltk.internal.core.ContentVerdictCache;
+
+public class ContentVerdictCacheTests extends TestCase {
+
+	private static final String NATURE = "org.eclipse.dltk.core.tests.nature";
+
+	private File file;
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		file = File.createTempFile("verdicts", ".dat");
+		file.delete();
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		file.delete();
+		new File(file.getPath() + ".tmp").delete();
+		super.tearDown();
+	}
+
+	public void testSaveAndRead() throws CoreException {
+		final ContentVerdictCache cache = new ContentVerdictCache(file);
+		cache.put(NATURE, "/a.txt", 10, 1000, true);
+		cache.put(NATURE, "/b.txt", 20, 2000, false);
+		cache.put("other", "/a.txt", 30, 3000, false);
+		cache.save();
+		assertTrue(file.exists());
+		assertFalse(new File(file.getPath() + ".tmp").exists());
+
+		final ContentVerdictCache read = new ContentVerdictCache(file);
+		assertEquals(Boolean.TRUE, read.get(NATURE, "/a.txt", 10, 1000));
+		assertEquals(Boolean.FALSE, read.get(NATURE, "/b.txt", 20, 2000));
+		assertEquals(Boolean.FALSE, read.get("other", "/a.txt", 30, 3000));
+		assertNull(read.get(NATURE, "/c.txt", 10, 1000));
+	}
+
+	public void testSaveReplacesPrevious() throws CoreException {
+		final ContentVerdictCache cache = new ContentVerdictCache(file);
+		cache.put(NATURE, "/a.txt", 10, 1000, true);
+		cache.save();
+		cache.clear();
+		cache.put(NATURE, "/b.txt", 20, 2000, true);
+		cache.save();
+
+		final ContentVerdictCache read = new ContentVerdictCache(file);
+		assertNull(read.get(NATURE, "/a.txt", 10, 1000));
+		assertEquals(Boolean.TRUE, read.get(NATURE, "/b.txt", 20, 2000));
+	}
+
+	public void testVersionMismatch() throws IOException, CoreException {
+		final DataOutputStream out = new DataOutputStream(
+				new FileOutputStream(file));
+		try {
+			out.writeInt(Integer.MAX_VALUE);
+			out.writeInt(1);
+			out.writeUTF(NATURE + "|/a.txt");
+			out.writeLong(10);
+			out.writeLong(1000);
+			out.writeBoolean(true);
+		} finally {
+			out.close();
+		}
+		final ContentVerdictCache cache = new ContentVerdictCache(file);
+		assertNull(cache.get(NATURE, "/a.txt", 10, 1000));
+		// the file of the other version is overwritten
+		cache.put(NATURE, "/b.txt", 20, 2000, true);
+		cache.save();
+		final ContentVerdictCache read = new ContentVerdictCache(file);
+		assertEquals(Boolean.TRUE, read.get(NATURE, "/b.txt", 20, 2000));
+	}
+
+	public void testEviction() throws CoreException {
+		final int limit = 10;
+		final ContentVerdictCache cache = new ContentVerdictCache(file, limit);
+		for (int i = 0; i < limit; ++i) {
+			cache.put(NATURE, "/" + i, i, i, true);
+		}
+		// the first entry becomes the most recently used one
+		assertEquals(Boolean.TRUE, cache.get(NATURE, "/0", 0, 0));
+		cache.put(NATURE, "/" + limit, limit, limit, true);
+		assertEquals(Boolean.TRUE, cache.get(NATURE, "/0", 0, 0));
+		assertNull(cache.get(NATURE, "/1", 1, 1));
+		for (int i = 2; i <= limit; ++i) {
+			assertEquals(Boolean.TRUE, cache.get(NATURE, "/" + i, i, i));
+		}
+		cache.save();
+		final ContentVerdictCache read = new ContentVerdictCache(file, limit);
+		assertNull(read.get(NATURE, "/1", 1, 1));
+		assertEquals(Boolean.TRUE, read.get(NATURE, "/0", 0, 0));
+		assertEquals(Boolean.TRUE, read.get(NATURE, "/" + limit, limit, limit));
+	}
+
+	public void testStaleEntry() throws IOException {
+		final File content = File.createTempFile("content", ".txt");
+		try {
+			writeContent(content, "first");
+			final ContentVerdictCache cache = new ContentVerdictCache(file);
+			final String path = content.getAbsolutePath();
+			cache.put(NATURE, path, content.length(), content.lastModified(),
+					true);
+			assertEquals(Boolean.TRUE, cache.get(NATURE, path,
+					content.length(), content.lastModified()));
+
+			// changed size
+			writeContent(content, "second version");
+			assertNull(cache.get(NATURE, path, content.length(),
+					content.lastModified()));
+			cache.put(NATURE, path, content.length(), content.lastModified(),
+					false);
+
+			// same size, changed modification time
+			final long length = content.length();
+			final long lastModified = content.lastModified();
+			writeContent(content, "second VERSION");
+			assertTrue(content.setLastModified(lastModified + 2000));
+			assertEquals(length, content.length());
+			assertNull(cache.get(NATURE, path, content.length(),
+					content.lastModified()));
+			assertEquals(Boolean.FALSE, cache.get(NATURE, path, length,
+					lastModified));
+		} finally {
+			content.delete();
+		}
+	}
+
+	private static void writeContent(File file, String content)
+			throws IOException {
+		final FileOutputStream out = new FileOutputStream(file);
+		try {
+			out.write(content.getBytes("UTF-8"));
+		} finally {
+			out.close();
+		}
+	}
+
+}
@@ -11,6 +11,7 @@ package org.eclipse.dltk.core.tests.ddp;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Iterator;
 
 import junit.framework.Test;
@@ -23,7 +24,8 @@ import org.eclipse.dltk.core.tests.model.SuiteOfTestCases;
 import org.eclipse.dltk.ti.DefaultTypeInferencer;
 import org.eclipse.dltk.ti.GoalState;
 import org.eclipse.dltk.ti.IGoalEvaluatorFactory;
-import org.eclipse.dltk.ti.ITypeInferencer;
+import org.eclipse.dltk.ti.ParallelGoalEngine;
+import org.eclipse.dltk.ti.goals.AbstractTypeGoal;
 import org.eclipse.dltk.ti.goals.ExpressionTypeGoal;
 import org.eclipse.dltk.ti.goals.GoalEvaluator;
 import org.eclipse.dltk.ti.goals.IGoal;
@@ -138,7 +140,24 @@ public class CoreDDPTests extends SuiteOfTestCases {
 
 	}
 
+	private IEvaluatedType evaluate(IGoalEvaluatorFactory factory,
+			AbstractTypeGoal rootGoal, boolean parallel) {
+		if (parallel) {
+			return (IEvaluatedType) new ParallelGoalEngine(factory)
+					.evaluateGoal(rootGoal, null, null);
+		}
+		return new DefaultTypeInferencer(factory).evaluateType(rootGoal, -1);
+	}
+
 	public void testSimple() throws Exception {
+		doTestSimple(false);
+	}
+
+	public void testSimpleParallel() throws Exception {
+		doTestSimple(true);
+	}
+
+	private void doTestSimple(boolean parallel) throws Exception {
 		// y = 2; x = y; x?
 		final Expression x = new SimpleReference(0, 0, "x");
 		final Expression y = new SimpleReference(0, 0, "y");
@@ -165,21 +184,28 @@ public class CoreDDPTests extends SuiteOfTestCases {
 
 		};
 
-		final ITypeInferencer man = new DefaultTypeInferencer(factory);
-
 		ExpressionTypeGoal rootGoal = new ExpressionTypeGoal(null, x);
-		IEvaluatedType answer = man.evaluateType(rootGoal, -1);
+		IEvaluatedType answer = evaluate(factory, rootGoal, parallel);
 
 		assertTrue(answer instanceof MyNum);
 	}
 
 	public void testCycles() throws Exception {
+		doTestCycles(false);
+	}
+
+	public void testCyclesParallel() throws Exception {
+		doTestCycles(true);
+	}
+
+	private void doTestCycles(boolean parallel) throws Exception {
 		final Expression x = new SimpleReference(0, 0, "x");
 		final Expression y = new SimpleReference(0, 0, "y");
 		final Expression z = new SimpleReference(0, 0, "z");
 		final Expression num = new NumericLiteral(0,0,0);
 		
-		final Collection<GoalEvaluator> evaluators = new ArrayList<GoalEvaluator>();
+		final Collection<GoalEvaluator> evaluators = Collections
+				.synchronizedList(new ArrayList<GoalEvaluator>());
 		IGoalEvaluatorFactory factory = new IGoalEvaluatorFactory() {
 
 			public GoalEvaluator createEvaluator2(IGoal goal) {
@@ -211,10 +237,8 @@ public class CoreDDPTests extends SuiteOfTestCases {
 			
 		};
 
-		final ITypeInferencer man = new DefaultTypeInferencer(factory);
-
 		ExpressionTypeGoal rootGoal = new ExpressionTypeGoal(null, x);
-		IEvaluatedType answer = man.evaluateType(rootGoal, -1);
+		IEvaluatedType answer = evaluate(factory, rootGoal, parallel);
 
 		assertTrue(answer instanceof MyNum);
 		for (Iterator<GoalEvaluator> iter = evaluators.iterator(); iter.hasNext();) {
@@ -11,9 +11,14 @@
  *******************************************************************************/
 package org.eclipse.dltk.core.tests.mixin;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
 import junit.framework.TestCase;
 
 import org.eclipse.core.resources.IProject;
+import org.eclipse.dltk.core.ISourceModule;
 import org.eclipse.dltk.core.mixin.IMixinElement;
 import org.eclipse.dltk.core.mixin.MixinModel;
 import org.eclipse.dltk.core.search.index.MixinIndex;
@@ -74,4 +79,57 @@ public class MixinModelTests extends AbstractModelTests {
 			model.stop();
 		}
 	}
+
+	/**
+	 * Readers of the elements validate them while the other thread removes and
+	 * reports the modules again, none of them should block forever.
+	 */
+	public void testReadersDuringReporting() throws Throwable {
+		final MixinModel model = new MixinModel(
+				TestLanguageToolkit.getDefault());
+		final List<Throwable> errors = Collections
+				.synchronizedList(new ArrayList<Throwable>());
+		final Thread[] threads = new Thread[4];
+		try {
+			for (int t = 0; t < threads.length; ++t) {
+				final boolean writer = t == 0;
+				threads[t] = new Thread(new Runnable() {
+					public void run() {
+						try {
+							for (int i = 0; i < 100; ++i) {
+								for (IMixinElement element : model
+										.find("{foo*")) {
+									if (writer) {
+										for (ISourceModule module : element
+												.getSourceModules()) {
+											model.remove(module);
+											model.reportModule(module);
+										}
+									} else {
+										element.getAllObjects();
+										element.getChildren();
+										element.getSourceModules();
+									}
+								}
+								model.get("Module");
+							}
+						} catch (Throwable e) {
+							errors.add(e);
+						}
+					}
+				});
+				threads[t].start();
+			}
+			for (Thread thread : threads) {
+				thread.join(60000);
+				assertFalse("Deadlock", thread.isAlive());
+			}
+			if (!errors.isEmpty()) {
+				throw errors.get(0);
+			}
+			TestCase.assertEquals(3, model.find("{foo*").length);
+		} finally {
+			model.stop();
+		}
+	}
 }
@@ -0,0 +1,214 @@
+/*******************************************************************************
+ * Copyright (c) 2016 xored software, Inc. and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     xored software, Inc. - initial API and Implementation
+ *******************************************************************************/
+package org.eclipse.dltk.core.tests.search;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import junit.framework.TestCase;
+
+import org.eclipse.dltk.core.search.SearchPattern;
+import org.eclipse.dltk.core.search.index.EntryResult;
+import org.eclipse.dltk.core.search.index.Index;
+
+/**
+ * Tests the queries against the sorted category tables of the saved
+ * {@link Index}.
+ */
+public class IndexQueryTests extends TestCase {
+
+	private static final char[] CATEGORY = "ref".toCharArray();
+
+	private static final char[] OTHER_CATEGORY = "def".toCharArray();
+
+	private static final String[] PREFIXES = { "a", "A", "ab", "Foo",
+			"fooBar", "FooBar", "get", "GetValue", "z", "_", "\u00e9t\u00e9" };
+
+	private File file;
+	protected Index index;
+	private List<String> words;
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		file = File.createTempFile("query", ".index");
+		index = new Index(file.getPath(), file.getPath(), false);
+		words = new ArrayList<String>();
+		for (String prefix : PREFIXES) {
+			for (int i = 0; i < 40; i++) {
+				final String word = prefix + i;
+				words.add(word);
+				index.addIndexEntry(CATEGORY, word.toCharArray(), "doc"
+						+ (i % 7));
+			}
+		}
+		// large document array, stored before the table
+		for (int i = 0; i < 300; i++) {
+			index.addIndexEntry(CATEGORY, "FooBar0".toCharArray(), "large"
+					+ i);
+		}
+		for (int i = 0; i < 400; i += 2) {
+			index.addIndexEntry(OTHER_CATEGORY, "FooBar0".toCharArray(),
+					"large" + i);
+		}
+		index.addIndexEntry(OTHER_CATEGORY, "FooBar0".toCharArray(), "other");
+		index.save();
+		index = new Index(file.getPath(), file.getPath(), true);
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		index.releaseMappedBuffer();
+		index = null;
+		file.delete();
+		super.tearDown();
+	}
+
+	protected void assertQuery(String key, int matchRule) throws IOException {
+		final List<String> expected = new ArrayList<String>();
+		for (String word : words) {
+			if (Index.isMatch(key.toCharArray(), word.toCharArray(),
+					matchRule)) {
+				expected.add(word);
+			}
+		}
+		Collections.sort(expected);
+		final List<String> actual = new ArrayList<String>();
+		index.startQuery();
+		try {
+			final EntryResult[] results = index.query(
+					new char[][] { CATEGORY }, key.toCharArray(), matchRule);
+			if (results != null) {
+				for (EntryResult result : results) {
+					actual.add(new String(result.getWord()));
+					assertTrue(result.getDocumentNames(index).length > 0);
+				}
+			}
+		} finally {
+			index.stopQuery();
+		}
+		Collections.sort(actual);
+		assertEquals(key + "/" + matchRule, expected, actual);
+	}
+
+	public void testExactMatch() throws IOException {
+		final int rule = SearchPattern.R_EXACT_MATCH
+				| SearchPattern.R_CASE_SENSITIVE;
+		assertQuery("Foo1", rule);
+		assertQuery("z39", rule);
+		assertQuery("a0", rule);
+		assertQuery("b", rule);
+		assertQuery("\u00e9t\u00e95", rule);
+		assertQuery("FOO1", SearchPattern.R_EXACT_MATCH);
+	}
+
+	public void testPrefixMatch() throws IOException {
+		final int rule = SearchPattern.R_PREFIX_MATCH
+				| SearchPattern.R_CASE_SENSITIVE;
+		assertQuery("Foo", rule);
+		assertQuery("fooB", rule);
+		assertQuery("a", rule);
+		assertQuery("_1", rule);
+		assertQuery("\u00e9", rule);
+		assertQuery("foo", SearchPattern.R_PREFIX_MATCH);
+		assertQuery("GET", SearchPattern.R_PREFIX_MATCH);
+		assertQuery("\u00c9T", SearchPattern.R_PREFIX_MATCH);
+	}
+
+	public void testPatternMatch() throws IOException {
+		assertQuery("Foo*1", SearchPattern.R_PATTERN_MATCH
+				| SearchPattern.R_CASE_SENSITIVE);
+		assertQuery("get?", SearchPattern.R_PATTERN_MATCH);
+		assertQuery("*Bar2", SearchPattern.R_PATTERN_MATCH);
+	}
+
+	public void testCamelCaseMatch() throws IOException {
+		assertQuery("FB", SearchPattern.R_EXACT_MATCH
+				| SearchPattern.R_CAMELCASE_MATCH
+				| SearchPattern.R_CASE_SENSITIVE);
+		assertQuery("GV", SearchPattern.R_PREFIX_MATCH
+				| SearchPattern.R_CAMELCASE_MATCH);
+	}
+
+	public void testMultipleCategories() throws IOException {
+		index.startQuery();
+		try {
+			final EntryResult[] results = index.query(new char[][] {
+					CATEGORY, OTHER_CATEGORY }, "FooBar0".toCharArray(),
+					SearchPattern.R_EXACT_MATCH
+							| SearchPattern.R_CASE_SENSITIVE);
+			assertEquals(1, results.length);
+			final Set<String> expected = new HashSet<String>();
+			expected.add("doc0");
+			expected.add("other");
+			for (int i = 0; i < 400; i++) {
+				if (i < 300 || i % 2 == 0) {
+					expected.add("large" + i);
+				}
+			}
+			final String[] names = results[0].getDocumentNames(index);
+			assertEquals(expected.size(), names.length);
+			assertEquals(expected, new HashSet<String>(Arrays.asList(names)));
+		} finally {
+			index.stopQuery();
+		}
+	}
+
+	public void testNullKey() throws IOException {
+		index.startQuery();
+		try {
+			final EntryResult[] results = index.query(
+					new char[][] { CATEGORY }, null,
+					SearchPattern.R_PREFIX_MATCH);
+			assertEquals(words.size(), results.length);
+		} finally {
+			index.stopQuery();
+		}
+	}
+
+	public void testMergeLargeArrays() throws IOException {
+		// the large arrays of the merged table are read in the table order
+		for (int i = 0; i < 400; i++) {
+			index.addIndexEntry(CATEGORY, "a0".toCharArray(), "other" + i);
+		}
+		index.save();
+		index.addIndexEntry(CATEGORY, "z0".toCharArray(), "merged");
+		index.save();
+		index = new Index(file.getPath(), file.getPath(), true);
+		assertDocumentCount("FooBar0", 301);
+		assertDocumentCount("a0", 401);
+		assertDocumentCount("z0", 2);
+	}
+
+	private void assertDocumentCount(String word, int expected)
+			throws IOException {
+		index.startQuery();
+		try {
+			final EntryResult[] results = index.query(
+					new char[][] { CATEGORY }, word.toCharArray(),
+					SearchPattern.R_EXACT_MATCH
+							| SearchPattern.R_CASE_SENSITIVE);
+			assertEquals(1, results.length);
+			assertEquals(word, expected,
+					results[0].getDocumentNames(index).length);
+		} finally {
+			index.stopQuery();
+		}
+	}
+
+}
@@ -0,0 +1,119 @@
+/*******************************************************************************
+ * Copyright (c) 2016 xored software, Inc. and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     xored software, Inc. - initial API and Implementation
+ *******************************************************************************/
+package org.eclipse.dltk.core.tests.search;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+
+import org.eclipse.dltk.core.search.SearchPattern;
+import org.eclipse.dltk.core.search.index.EntryResult;
+import org.eclipse.dltk.core.search.index.Index;
+
+/**
+ * Tests saving the changes of the {@link Index} as segments.
+ */
+public class IndexSegmentsTests extends TestCase {
+
+	private static final char[] CATEGORY = "ref".toCharArray();
+
+	private File file;
+	private File segmentsFile;
+	private Index index;
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		file = File.createTempFile("segments", ".index");
+		segmentsFile = new File(file.getPath() + Index.SEGMENTS_SUFFIX);
+		index = new Index(file.getPath(), file.getPath(), false);
+		index.addIndexEntry(CATEGORY, "key".toCharArray(), "A");
+		index.addIndexEntry(CATEGORY, "key".toCharArray(), "B");
+		index.save();
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		index = null;
+		file.delete();
+		segmentsFile.delete();
+		super.tearDown();
+	}
+
+	private String[] query(String key) throws IOException {
+		index.startQuery();
+		try {
+			final EntryResult[] results = index.query(
+					new char[][] { CATEGORY }, key.toCharArray(),
+					SearchPattern.R_EXACT_MATCH
+							| SearchPattern.R_CASE_SENSITIVE);
+			if (results == null || results.length == 0) {
+				return new String[0];
+			}
+			assertEquals(1, results.length);
+			final String[] docNames = results[0].getDocumentNames(index);
+			Arrays.sort(docNames);
+			return docNames;
+		} finally {
+			index.stopQuery();
+		}
+	}
+
+	private void change() throws IOException {
+		index.remove("A");
+		index.addIndexEntry(CATEGORY, "key".toCharArray(), "C");
+		index.addIndexEntry(CATEGORY, "other".toCharArray(), "C");
+		index.save();
+	}
+
+	public void testEmptyIndexIsWrittenDirectly() {
+		assertFalse(segmentsFile.exists());
+		assertFalse(index.hasChanged());
+	}
+
+	public void testSaveAppendsSegment() throws IOException {
+		final long length = file.length();
+		final long lastModified = file.lastModified();
+		change();
+		assertFalse(index.hasChanged());
+		assertTrue(segmentsFile.exists());
+		assertEquals(length, file.length());
+		assertEquals(lastModified, file.lastModified());
+		assertEquals(Arrays.asList("B", "C"), Arrays.asList(query("key")));
+	}
+
+	public void testReopen() throws IOException {
+		change();
+		index = new Index(file.getPath(), file.getPath(), true);
+		assertFalse(index.hasChanged());
+		assertEquals(Arrays.asList("B", "C"), Arrays.asList(query("key")));
+		assertEquals(Arrays.asList("C"), Arrays.asList(query("other")));
+	}
+
+	public void testCompact() throws IOException {
+		change();
+		index.compact();
+		assertFalse(segmentsFile.exists());
+		index = new Index(file.getPath(), file.getPath(), true);
+		assertEquals(Arrays.asList("B", "C"), Arrays.asList(query("key")));
+	}
+
+	public void testNewIndexDiscardsSegments() throws IOException {
+		change();
+		index = new Index(file.getPath(), file.getPath(), false);
+		assertFalse(segmentsFile.exists());
+		assertEquals(0, query("key").length);
+	}
+
+}
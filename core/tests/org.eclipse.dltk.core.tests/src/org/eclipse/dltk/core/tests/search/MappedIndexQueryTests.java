@@ -0,0 +1,56 @@
+/*******************************************************************************
+ * Copyright (c) 2016 xored software, Inc. and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     xored software, Inc. - initial API and Implementation
+ *******************************************************************************/
+package org.eclipse.dltk.core.tests.search;
+
+import java.io.IOException;
+
+import org.eclipse.dltk.core.DLTKCore;
+import org.eclipse.dltk.core.search.SearchPattern;
+
+/**
+ * Runs the {@link IndexQueryTests} reading the index file through the memory
+ * mapped buffer.
+ */
+public class MappedIndexQueryTests extends IndexQueryTests {
+
+	private String previous;
+
+	@Override
+	protected void setUp() throws Exception {
+		previous = System.setProperty(DLTKCore.INDEXER_MEMORY_MAPPED,
+				Boolean.TRUE.toString());
+		super.setUp();
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		try {
+			super.tearDown();
+		} finally {
+			if (previous != null) {
+				System.setProperty(DLTKCore.INDEXER_MEMORY_MAPPED, previous);
+			} else {
+				System.getProperties().remove(DLTKCore.INDEXER_MEMORY_MAPPED);
+			}
+		}
+	}
+
+	public void testQueryAfterRelease() throws IOException {
+		final int rule = SearchPattern.R_PREFIX_MATCH
+				| SearchPattern.R_CASE_SENSITIVE;
+		assertQuery("Foo", rule);
+		index.releaseMappedBuffer();
+		assertQuery("Foo", rule);
+		assertQuery("ab1", rule);
+	}
+
+}
@@ -0,0 +1,222 @@
+/*******************************************************************************
+ * Copyright (c) 2016 xored software, Inc. and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     xored software, Inc. - initial API and Implementation
+ *******************************************************************************/
+package org.eclipse.dltk.core.tests.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.TestCase;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.dltk.internal.core.search.processing.IParallelJob;
+import org.eclipse.dltk.internal.core.search.processing.JobManager;
+
+/**
+ * Tests the {@link JobManager} executing the jobs with several worker threads.
+ */
+public class ParallelJobManagerTests extends TestCase {
+
+	private static final int WORKERS = 3;
+
+	private static final long TIMEOUT = 30000;
+
+	private TestJobManager manager;
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		manager = new TestJobManager();
+		manager.reset();
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		manager.shutdown();
+		super.tearDown();
+	}
+
+	public void testParallelExecution() {
+		final List<TestJob> jobs = new ArrayList<TestJob>();
+		final JobKey[] keys = new JobKey[WORKERS];
+		for (int i = 0; i < keys.length; ++i) {
+			keys[i] = new JobKey();
+		}
+		for (int i = 0; i < 4 * WORKERS; ++i) {
+			final TestJob job = new TestJob(keys[i % keys.length], false);
+			jobs.add(job);
+			manager.request(job);
+		}
+		manager.waitUntilReady();
+		for (TestJob job : jobs) {
+			assertTrue(job.executed);
+		}
+		assertTrue("jobs were not executed concurrently",
+				manager.maxActive.get() > 1);
+		for (JobKey key : keys) {
+			assertEquals("jobs with the same key overlapped", 1,
+					key.maxActive.get());
+		}
+		assertEquals("idle notified while the jobs were running", 0,
+				manager.idleViolations.get());
+	}
+
+	public void testExclusiveJob() {
+		final TestJob before = new TestJob(new JobKey(), false);
+		final TestJob exclusive = new TestJob(null, false);
+		final TestJob after = new TestJob(new JobKey(), false);
+		manager.request(before);
+		manager.request(exclusive);
+		manager.request(after);
+		manager.waitUntilReady();
+		assertTrue(before.executed);
+		assertTrue(exclusive.executed);
+		assertTrue(after.executed);
+		assertEquals(1, exclusive.activeOnStart);
+		assertEquals(1, after.activeOnStart);
+	}
+
+	public void testCrashRecovery() throws InterruptedException {
+		final Thread original = manager.getProcessingThread();
+		manager.request(new TestJob(new JobKey(), true));
+		final long deadline = System.currentTimeMillis() + TIMEOUT;
+		Thread recovered;
+		while ((recovered = manager.getProcessingThread()) == original
+				|| recovered == null) {
+			assertTrue("job manager was not restarted",
+					System.currentTimeMillis() < deadline);
+			Thread.sleep(50);
+		}
+		final List<TestJob> jobs = new ArrayList<TestJob>();
+		for (int i = 0; i < 2 * WORKERS; ++i) {
+			final TestJob job = new TestJob(new JobKey(), false);
+			jobs.add(job);
+			manager.request(job);
+		}
+		manager.waitUntilReady();
+		for (TestJob job : jobs) {
+			assertTrue(job.executed);
+		}
+		assertEquals(0, manager.idleViolations.get());
+	}
+
+	static class JobKey {
+		final AtomicInteger active = new AtomicInteger();
+		final AtomicInteger maxActive = new AtomicInteger();
+	}
+
+	class TestJob implements IParallelJob {
+		final JobKey key;
+		final boolean crash;
+		volatile boolean executed;
+		volatile int activeOnStart;
+
+		TestJob(JobKey key, boolean crash) {
+			this.key = key;
+			this.crash = crash;
+		}
+
+		@Override
+		public Object getJobKey() {
+			return key;
+		}
+
+		@Override
+		public boolean belongsTo(String jobFamily) {
+			return false;
+		}
+
+		@Override
+		public void cancel() {
+		}
+
+		@Override
+		public void ensureReadyToRun() {
+		}
+
+		@Override
+		public boolean execute(IProgressMonitor progress) {
+			if (crash) {
+				throw new Error("Expected by the test"); //$NON-NLS-1$
+			}
+			activeOnStart = manager.begin(key);
+			try {
+				Thread.sleep(100);
+			} catch (InterruptedException e) {
+				// ignore
+			} finally {
+				manager.end(key);
+			}
+			executed = true;
+			return COMPLETE;
+		}
+	}
+
+	static class TestJobManager extends JobManager {
+		final AtomicInteger active = new AtomicInteger();
+		final AtomicInteger maxActive = new AtomicInteger();
+		final AtomicInteger idleViolations = new AtomicInteger();
+
+		int begin(JobKey key) {
+			if (key != null) {
+				updateMax(key.maxActive, key.active.incrementAndGet());
+			}
+			final int value = active.incrementAndGet();
+			updateMax(maxActive, value);
+			return value;
+		}
+
+		void end(JobKey key) {
+			active.decrementAndGet();
+			if (key != null) {
+				key.active.decrementAndGet();
+			}
+		}
+
+		private static void updateMax(AtomicInteger max, int value) {
+			int current;
+			while ((current = max.get()) < value
+					&& !max.compareAndSet(current, value)) {
+				// retry
+			}
+		}
+
+		synchronized Thread getProcessingThread() {
+			return processingThread;
+		}
+
+		@Override
+		protected int getWorkerCount() {
+			return WORKERS;
+		}
+
+		@Override
+		protected void notifyIdle() {
+			if (active.get() != 0) {
+				idleViolations.incrementAndGet();
+			}
+		}
+
+		@Override
+		protected void notifyIdle(long idlingTime) {
+			if (active.get() != 0) {
+				idleViolations.incrementAndGet();
+			}
+		}
+
+		@Override
+		public String processName() {
+			return "Parallel Test Job Manager"; //$NON-NLS-1$
+		}
+	}
+
+}
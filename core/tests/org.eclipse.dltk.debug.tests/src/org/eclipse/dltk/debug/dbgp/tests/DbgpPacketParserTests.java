@@ -0,0 +1,144 @@
+/*******************************************************************************
+ * Copyright (c) 2016 xored software, Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ *******************************************************************************/
+package org.eclipse.dltk.debug.dbgp.tests;
+
+import org.eclipse.dltk.dbgp.IDbgpProperty;
+import org.eclipse.dltk.dbgp.exceptions.DbgpProtocolException;
+import org.eclipse.dltk.dbgp.internal.packets.DbgpNotifyPacket;
+import org.eclipse.dltk.dbgp.internal.packets.DbgpPacket;
+import org.eclipse.dltk.dbgp.internal.packets.DbgpResponsePacket;
+import org.eclipse.dltk.dbgp.internal.packets.DbgpStreamPacket;
+import org.eclipse.dltk.dbgp.internal.utils.DbgpXmlEntityParser;
+import org.eclipse.dltk.dbgp.internal.utils.DbgpXmlPacketParser;
+import org.eclipse.dltk.dbgp.internal.utils.DbgpXmlParser;
+import org.w3c.dom.Element;
+
+public class DbgpPacketParserTests extends DbgpProtocolTests {
+
+	private DbgpPacket parse(String xml) throws Exception {
+		return DbgpXmlPacketParser.parsePacket(xml.getBytes("ISO-8859-1")); //$NON-NLS-1$
+	}
+
+	private DbgpPacket parseDom(String xml) throws Exception {
+		return DbgpXmlPacketParser.parsePacket(DbgpXmlParser.parseXml(xml
+				.getBytes("ISO-8859-1"))); //$NON-NLS-1$
+	}
+
+	private static void assertPropertiesEqual(IDbgpProperty[] expected,
+			IDbgpProperty[] actual) {
+		assertEquals(expected.length, actual.length);
+		for (int i = 0; i < expected.length; ++i) {
+			assertEquals(expected[i].getName(), actual[i].getName());
+			assertEquals(expected[i].getEvalName(), actual[i].getEvalName());
+			assertEquals(expected[i].getType(), actual[i].getType());
+			assertEquals(expected[i].getValue(), actual[i].getValue());
+			assertEquals(expected[i].getChildrenCount(), actual[i]
+					.getChildrenCount());
+			assertEquals(expected[i].hasChildren(), actual[i].hasChildren());
+			assertEquals(expected[i].isConstant(), actual[i].isConstant());
+			assertEquals(expected[i].getKey(), actual[i].getKey());
+			assertEquals(expected[i].getAddress(), actual[i].getAddress());
+			assertEquals(expected[i].getPage(), actual[i].getPage());
+			assertEquals(expected[i].getPageSize(), actual[i].getPageSize());
+			assertPropertiesEqual(expected[i].getAvailableChildren(),
+					actual[i].getAvailableChildren());
+		}
+	}
+
+	private void assertDecodedProperties(String xml) throws Exception {
+		final DbgpPacket packet = parse(xml);
+		assertTrue(packet instanceof DbgpResponsePacket);
+		final DbgpPacket expected = parseDom(xml);
+		assertEquals(((DbgpResponsePacket) expected).getTransactionId(),
+				((DbgpResponsePacket) packet).getTransactionId());
+		final Element response = packet.getContent();
+		// the properties are decoded without the element tree
+		assertNotNull(response
+				.getUserData(DbgpXmlEntityParser.PROPERTIES_KEY));
+		assertEquals(0, response.getElementsByTagName(
+				DbgpXmlEntityParser.TAG_PROPERTY).getLength());
+		assertEquals(expected.getContent().getAttribute("command"), //$NON-NLS-1$
+				response.getAttribute("command")); //$NON-NLS-1$
+		assertPropertiesEqual(DbgpXmlEntityParser.getProperties(expected
+				.getContent()), DbgpXmlEntityParser.getProperties(response));
+	}
+
+	public void testResponse() throws Exception {
+		assertDecodedProperties(getResourceAsString("property_get.xml")); //$NON-NLS-1$
+	}
+
+	public void testContextProperties() throws Exception {
+		assertDecodedProperties(getResourceAsString("context_get.xml")); //$NON-NLS-1$
+	}
+
+	public void testNestedProperties() throws Exception {
+		assertDecodedProperties("<response command=\"context_get\" transaction_id=\"3\">" //$NON-NLS-1$
+				+ "<property name=\"a\" fullname=\"$a\" type=\"array\" children=\"1\" numchildren=\"2\" pagesize=\"32\">" //$NON-NLS-1$
+				+ "<property name=\"0\" fullname=\"$a[0]\" type=\"int\" children=\"0\">1</property>" //$NON-NLS-1$
+				+ "<property children=\"0\"><name encoding=\"base64\">eA==</name><fullname>$a['x']</fullname>" //$NON-NLS-1$
+				+ "<value encoding=\"base64\"><![CDATA[aGVsbG8=]]></value></property></property>\n" //$NON-NLS-1$
+				+ "<property name=\"b\" children=\"0\">  <!-- c -->text</property>" //$NON-NLS-1$
+				+ "<property name=\"c\" children=\"0\"><![CDATA[one]]><![CDATA[two]]></property>" //$NON-NLS-1$
+				+ "<property name=\"d\" children=\"0\" constant=\"1\">a&amp;b<x>y</x>z</property>" //$NON-NLS-1$
+				+ "</response>"); //$NON-NLS-1$
+	}
+
+	public void testInvalidProperty() throws Exception {
+		final String xml = "<response command=\"property_get\" transaction_id=\"4\">" //$NON-NLS-1$
+				+ "<property name=\"x\" numchildren=\"?\" children=\"0\">v</property></response>"; //$NON-NLS-1$
+		final DbgpPacket packet = parse(xml);
+		// left to the command, which reports the error
+		assertNull(packet.getContent().getUserData(
+				DbgpXmlEntityParser.PROPERTIES_KEY));
+		assertTrue(parseDom(xml).getContent().isEqualNode(packet.getContent()));
+	}
+
+	public void testStateReset() throws Exception {
+		try {
+			parse("<response command=\"property_get\" transaction_id=\"5\">" //$NON-NLS-1$
+					+ "<property name=\"x\" encoding=\"base64\"><![CDATA[dg"); //$NON-NLS-1$
+			fail();
+		} catch (DbgpProtocolException e) {
+			// expected
+		}
+		assertDecodedProperties(getResourceAsString("property_get.xml")); //$NON-NLS-1$
+		parse("<response command=\"property_get\" transaction_id=\"4\">" //$NON-NLS-1$
+				+ "<property name=\"x\" numchildren=\"?\" children=\"0\">v</property></response>"); //$NON-NLS-1$
+		assertDecodedProperties(getResourceAsString("context_get.xml")); //$NON-NLS-1$
+	}
+
+	public void testErrorResponse() throws Exception {
+		final String xml = "<response command=\"property_get\" transaction_id=\"6\" success=\"0\">" //$NON-NLS-1$
+				+ "<error code=\"300\"><message><![CDATA[no such]]></message></error></response>"; //$NON-NLS-1$
+		assertTrue(parseDom(xml).getContent().isEqualNode(
+				parse(xml).getContent()));
+	}
+
+	public void testInit() throws Exception {
+		final DbgpPacket packet = parse("<init appid=\"1\" idekey=\"key\"/>"); //$NON-NLS-1$
+		assertTrue(packet instanceof DbgpResponsePacket);
+		assertEquals(-1, ((DbgpResponsePacket) packet).getTransactionId());
+		assertEquals("key", packet.getContent().getAttribute("idekey")); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	public void testNotify() throws Exception {
+		final String xml = "<notify name=\"break\"><message><![CDATA[text]]></message></notify>"; //$NON-NLS-1$
+		final DbgpPacket packet = parse(xml);
+		assertTrue(packet instanceof DbgpNotifyPacket);
+		assertEquals("break", ((DbgpNotifyPacket) packet).getName()); //$NON-NLS-1$
+		assertTrue(parseDom(xml).getContent().isEqualNode(packet.getContent()));
+	}
+
+	public void testStream() throws Exception {
+		final DbgpPacket packet = parse("<stream type=\"stdout\" encoding=\"base64\">aGVs\nbG8=</stream>"); //$NON-NLS-1$
+		assertTrue(packet instanceof DbgpStreamPacket);
+		assertTrue(((DbgpStreamPacket) packet).isStdout());
+		assertEquals("hello", ((DbgpStreamPacket) packet).getTextContent()); //$NON-NLS-1$
+	}
+}
@@ -0,0 +1,52 @@
+/*******************************************************************************
+ * Copyright (c) 2016 xored software, Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ *******************************************************************************/
+package org.eclipse.dltk.debug.dbgp.tests;
+
+import org.eclipse.dltk.dbgp.internal.packets.DbgpResponcePacketWaiter;
+import org.eclipse.dltk.dbgp.internal.packets.DbgpResponseFuture;
+import org.eclipse.dltk.dbgp.internal.packets.DbgpResponsePacket;
+
+public class DbgpResponseWaiterTests extends DbgpProtocolTests {
+
+	private DbgpResponsePacket createPacket(int id) {
+		return new DbgpResponsePacket(
+				parseResponse("<response transaction_id=\"" + id + "\"/>"), id); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	public void testResponseBeforeWait() throws Exception {
+		final DbgpResponcePacketWaiter waiter = new DbgpResponcePacketWaiter();
+		final DbgpResponsePacket packet = createPacket(1);
+		waiter.put(packet);
+		assertSame(packet, waiter.waitPacket(1, 1000));
+	}
+
+	public void testPipelinedResponses() throws Exception {
+		final DbgpResponcePacketWaiter waiter = new DbgpResponcePacketWaiter();
+		final DbgpResponseFuture first = waiter.getFuture(1);
+		final DbgpResponseFuture second = waiter.getFuture(2);
+		final DbgpResponsePacket packet = createPacket(2);
+		waiter.put(packet);
+		assertFalse(first.isDone());
+		assertTrue(second.isDone());
+		assertSame(packet, second.get(1000));
+		assertNull(first.get(10));
+	}
+
+	public void testTerminate() throws Exception {
+		final DbgpResponcePacketWaiter waiter = new DbgpResponcePacketWaiter();
+		final DbgpResponseFuture future = waiter.getFuture(1);
+		waiter.terminate();
+		try {
+			future.get(0);
+			fail();
+		} catch (InterruptedException e) {
+			// expected
+		}
+	}
+}
@@ -17,8 +17,10 @@ import org.eclipse.dltk.debug.dbgp.tests.DbgpBreakpointCommandsTests;
 import org.eclipse.dltk.debug.dbgp.tests.DbgpContextCommandsTests;
 import org.eclipse.dltk.debug.dbgp.tests.DbgpContinuationCommandsTests;
 import org.eclipse.dltk.debug.dbgp.tests.DbgpFeatureCommandsTests;
+import org.eclipse.dltk.debug.dbgp.tests.DbgpPacketParserTests;
 import org.eclipse.dltk.debug.dbgp.tests.DbgpPropertyCommandsTests;
 import org.eclipse.dltk.debug.dbgp.tests.DbgpRequestTests;
+import org.eclipse.dltk.debug.dbgp.tests.DbgpResponseWaiterTests;
 import org.eclipse.dltk.debug.dbgp.tests.DbgpStackCommandsTests;
 import org.eclipse.dltk.debug.dbgp.tests.DbgpStackLevelTests;
 import org.eclipse.dltk.debug.dbgp.tests.DbgpStatusCommandsTests;
@@ -50,6 +52,8 @@ public class AllTests {
 		dbgpSuite.addTestSuite(DbgpStatusCommandsTests.class);
 		dbgpSuite.addTestSuite(DbgpBase64Tests.class);
 		dbgpSuite.addTestSuite(DbgpStatusTests.class);
+		dbgpSuite.addTestSuite(DbgpPacketParserTests.class);
+		dbgpSuite.addTestSuite(DbgpResponseWaiterTests.class);
 		suite.addTest(dbgpSuite);
 
 		final TestSuite serviceSuite = new TestSuite("DBGP Service tests");
@@ -11,6 +11,7 @@ public class AllTests {
 		// $JUnit-BEGIN$
 		suite.addTestSuite(ValidatorContainerTests.class);
 		suite.addTestSuite(CommandLineTests.class);
+		suite.addTestSuite(ValidatorWorkerTests.class);
 		// $JUnit-END$
 		return suite;
 	}
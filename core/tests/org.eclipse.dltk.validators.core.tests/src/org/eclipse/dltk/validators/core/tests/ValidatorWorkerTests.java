@@ -0,0 +1,154 @@
+/*******************************************************************************
+ * Copyright (c) 2016 xored software, Inc. and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     xored software, Inc. - initial API and Implementation
+ *******************************************************************************/
+package org.eclipse.dltk.validators.core.tests;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.dltk.validators.core.IValidatorOutput;
+import org.eclipse.dltk.validators.core.IValidatorProblem;
+import org.eclipse.dltk.validators.core.IValidatorReporter;
+import org.eclipse.dltk.validators.core.NullValidatorOutput;
+import org.eclipse.dltk.validators.core.ResourceValidatorWorker;
+import org.eclipse.dltk.validators.core.ValidatorProblem;
+import org.eclipse.dltk.validators.core.ValidatorRuntime;
+
+public class ValidatorWorkerTests extends TestCase {
+
+	private static final String PROJECT_NAME = "ValidatorWorkerTests";
+
+	private static final int FILE_COUNT = 20;
+
+	private IProject project;
+
+	private IResource[] files;
+
+	protected void setUp() throws Exception {
+		super.setUp();
+		project = ResourcesPlugin.getWorkspace().getRoot()
+				.getProject(PROJECT_NAME);
+		if (!project.exists()) {
+			project.create(null);
+		}
+		project.open(null);
+		files = new IResource[FILE_COUNT];
+		for (int i = 0; i < FILE_COUNT; ++i) {
+			final IFile file = project.getFile("file" + i + ".txt");
+			if (!file.exists()) {
+				file.create(new ByteArrayInputStream(new byte[0]), true, null);
+			}
+			files[i] = file;
+		}
+		System.setProperty(ValidatorRuntime.VALIDATION_WORKERS, "3");
+	}
+
+	protected void tearDown() throws Exception {
+		System.getProperties().remove(ValidatorRuntime.VALIDATION_WORKERS);
+		project.delete(true, null);
+		super.tearDown();
+	}
+
+	public void testReportReturnsMarkers() throws CoreException {
+		final TestValidator validator = new TestValidator(false);
+		final IStatus status = validator.validate(files,
+				new NullValidatorOutput(), new NullProgressMonitor());
+		assertTrue(status.isOK());
+		assertEquals(FILE_COUNT, validator.markers.size());
+		for (IMarker marker : validator.markers) {
+			assertNotNull(marker);
+			assertTrue(marker.exists());
+		}
+		assertMarkers();
+	}
+
+	public void testConcurrentValidation() throws CoreException {
+		final TestValidator validator = new TestValidator(true);
+		for (int pass = 0; pass < 2; ++pass) {
+			validator.markers.clear();
+			final IStatus status = validator.validate(files,
+					new NullValidatorOutput(), new NullProgressMonitor());
+			assertTrue(status.isOK());
+			assertEquals(FILE_COUNT, validator.markers.size());
+			// the markers are created after all the files are validated
+			for (IMarker marker : validator.markers) {
+				assertNull(marker);
+			}
+			assertMarkers();
+		}
+	}
+
+	private void assertMarkers() throws CoreException {
+		for (IResource file : files) {
+			final IMarker[] markers = file.findMarkers(IMarker.PROBLEM, false,
+					IResource.DEPTH_ZERO);
+			assertEquals(file.getName(), 1, markers.length);
+			assertEquals(file.getName(),
+					markers[0].getAttribute(IMarker.MESSAGE, null));
+		}
+	}
+
+	static class TestValidator extends ResourceValidatorWorker {
+		final List<IMarker> markers = Collections
+				.synchronizedList(new ArrayList<IMarker>());
+		private final boolean concurrent;
+
+		TestValidator(boolean concurrent) {
+			this.concurrent = concurrent;
+		}
+
+		protected boolean isConcurrent() {
+			return concurrent;
+		}
+
+		protected boolean isValidResource(IResource resource) {
+			return true;
+		}
+
+		protected void runValidator(IResource resource,
+				IValidatorOutput console, IValidatorReporter reporter,
+				IProgressMonitor monitor) throws CoreException {
+			markers.add(reporter.report(resource, new ValidatorProblem(
+					resource.getName(), resource.getName(), 1,
+					IValidatorProblem.Type.ERROR)));
+		}
+
+		protected String getMarkerId() {
+			return IMarker.PROBLEM;
+		}
+
+		protected String getNullResourceMessage() {
+			return null;
+		}
+
+		protected String getPluginId() {
+			return Activator.PLUGIN_ID;
+		}
+
+		protected String getTaskName() {
+			return PROJECT_NAME;
+		}
+	}
+
+}
@@ -0,0 +1,25 @@
+/*******************************************************************************
+ * Copyright (c) 2016 xored software, Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ *******************************************************************************/
+package org.eclipse.dltk.validators.internal.externalchecker.core;
+
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+public class AllTests {
+
+	public static Test suite() {
+		TestSuite suite = new TestSuite(
+				"org.eclipse.dltk.validators.externalchecker.tests");
+		// $JUnit-BEGIN$
+		suite.addTestSuite(WildcardMatcherTests.class);
+		// $JUnit-END$
+		return suite;
+	}
+
+}
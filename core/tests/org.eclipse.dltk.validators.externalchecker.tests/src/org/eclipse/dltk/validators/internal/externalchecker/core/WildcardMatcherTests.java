@@ -0,0 +1,96 @@
+/*******************************************************************************
+ * Copyright (c) 2016 xored software, Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ *******************************************************************************/
+package org.eclipse.dltk.validators.internal.externalchecker.core;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.eclipse.dltk.validators.core.IValidatorProblem;
+
+public class WildcardMatcherTests extends TestCase {
+
+	private WildcardMatcher matcher;
+
+	protected void setUp() throws Exception {
+		super.setUp();
+		// the default wildcards, see ExternalCheckerWildcardManager
+		final List wildcards = new ArrayList();
+		wildcards.add(new CustomWildcard("f", "[\\w]?:?.+", "File name"));
+		wildcards.add(new CustomWildcard("m", ".*", "Message"));
+		wildcards.add(new CustomWildcard("n", "[0-9]+", "Line number"));
+		matcher = new WildcardMatcher(wildcards);
+	}
+
+	private static Rule rule(String description) {
+		return new Rule(description, Messages.ExternalChecker_error);
+	}
+
+	public void testCompiledRule() throws WildcardException {
+		final CompiledRule rule = matcher.compile(rule("%f:%n: %m"));
+		final IValidatorProblem problem = rule
+				.match("src/main.tcl:12: unknown command \"foo\"");
+		assertNotNull(problem);
+		assertEquals("src/main.tcl", problem.getFileName());
+		assertEquals(12, problem.getLineNumber());
+		assertEquals("unknown command \"foo\"", problem.getMessage());
+		assertTrue(problem.isError());
+	}
+
+	public void testCompiledRuleNoMatch() throws WildcardException {
+		final CompiledRule rule = matcher.compile(rule("%f:%n: %m"));
+		assertNull(rule.match("unknown command"));
+		assertNull(rule.match("src/main.tcl:line: unknown command"));
+	}
+
+	/**
+	 * The problems extracted by the compiled rule are the same as the ones
+	 * previously extracted by {@link WildcardMatcher#match(Rule, String)},
+	 * including the line number found in the message.
+	 */
+	public void testPreviousResults() throws WildcardException {
+		final String[][] results = {
+				{ "C:/work/main.tcl:7:   wrong # args", "C:/work/main.tcl",
+						"7", "wrong # args" },
+				{ "lib/a.tcl:3: unknown variable x", "lib/a.tcl", "3",
+						"unknown variable x" },
+				{ "lib/a.tcl:3: expected 2 arguments", "lib/a.tcl", "2",
+						"lib/a.tcl:3: expected 2 arguments" } };
+		final Rule rule = rule("%f:%n: %m");
+		final CompiledRule compiled = matcher.compile(rule);
+		for (int i = 0; i < results.length; ++i) {
+			final String line = results[i][0];
+			final IValidatorProblem problem = compiled.match(line);
+			assertNotNull(line, problem);
+			assertEquals(line, results[i][1], problem.getFileName());
+			assertEquals(line, Integer.parseInt(results[i][2]), problem
+					.getLineNumber());
+			assertEquals(line, results[i][3], problem.getMessage());
+
+			final IValidatorProblem matched = matcher.match(rule, line);
+			assertEquals(line, problem.getFileName(), matched.getFileName());
+			assertEquals(line, problem.getLineNumber(), matched
+					.getLineNumber());
+			assertEquals(line, problem.getMessage(), matched.getMessage());
+		}
+	}
+
+	public void testUndefinedWildcard() {
+		final List wildcards = new ArrayList();
+		wildcards.add(new CustomWildcard("f", "[\\w]?:?.+", "File name"));
+		try {
+			new WildcardMatcher(wildcards).compile(rule("%f:%n: %m"));
+			fail();
+		} catch (WildcardException e) {
+			// expected
+		}
+	}
+
+}
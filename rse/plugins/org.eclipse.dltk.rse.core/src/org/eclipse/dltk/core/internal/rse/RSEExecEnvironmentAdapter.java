@@ -2,9 +2,12 @@ package org.eclipse.dltk.core.internal.rse;
 
 import org.eclipse.core.runtime.IAdapterFactory;
 import org.eclipse.dltk.core.environment.IExecutionEnvironment;
+import org.eclipse.dltk.core.environment.IFileStatProvider;
+import org.eclipse.dltk.core.environment.IFileTreeProvider;
 
 public class RSEExecEnvironmentAdapter implements IAdapterFactory {
-	public static final Class[] ADAPTER_LIST = { IExecutionEnvironment.class };
+	public static final Class[] ADAPTER_LIST = { IExecutionEnvironment.class,
+			IFileTreeProvider.class, IFileStatProvider.class };
 	
 	public Object getAdapter(Object adaptableObject, Class adapterType) {
 		if (adapterType == IExecutionEnvironment.class && 
@@ -12,6 +15,10 @@ public class RSEExecEnvironmentAdapter implements IAdapterFactory {
 			RSEEnvironment env = (RSEEnvironment) adaptableObject;
 			return new RSEExecEnvironment(env);
 		}
+		if ((adapterType == IFileTreeProvider.class || adapterType == IFileStatProvider.class)
+				&& adaptableObject instanceof RSEEnvironment) {
+			return new RSEFileTreeProvider((RSEEnvironment) adaptableObject);
+		}
 		return null;
 	}
 	public Class[] getAdapterList() {
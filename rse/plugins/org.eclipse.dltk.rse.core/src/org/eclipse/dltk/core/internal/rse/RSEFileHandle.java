@@ -18,8 +18,6 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.util.HashMap;
-import java.util.Map;
 
 import org.eclipse.core.filesystem.EFS;
 import org.eclipse.core.filesystem.IFileInfo;
@@ -45,22 +43,20 @@ import org.eclipse.rse.core.model.IHost;
 
 public class RSEFileHandle implements IFileHandle, IFileStoreProvider {
 	private static final int SYMLINK_CONNECTION_TIMEOUT = 30 * 1000;
-	private static final int CACHE_LIMIT = 1000;
+	private static final int CACHE_LIMIT = 20000;
 	private static final long CACHE_ENTRY_LIFETIME = 10 * 1000;
 
-	private static class CacheEntry {
-		final IFileInfo fileInfo;
-		final long timestamp;
-
-		public CacheEntry(IFileInfo fileInfo, long timestamp) {
-			this.fileInfo = fileInfo;
-			this.timestamp = timestamp;
-		}
+	private static final RSEFileInfoCache cache = new RSEFileInfoCache(
+			CACHE_LIMIT, CACHE_ENTRY_LIFETIME);
 
+	/**
+	 * Caches the listing of the directory obtained in bulk, e.g. by the
+	 * {@link RSEFileTreeProvider}.
+	 */
+	static void cacheChildInfos(IFileStore directory, IFileInfo[] infos) {
+		cache.putChildInfos(directory, infos);
 	}
 
-	private static final Map<IFileStore, CacheEntry> cache = new HashMap<IFileStore, CacheEntry>();
-
 	private final IFileStore file;
 	private final IEnvironment environment;
 	private ISshFileHandle sshFile;
@@ -124,38 +120,19 @@ public class RSEFileHandle implements IFileHandle, IFileStoreProvider {
 
 	private IFileInfo fetchInfo(boolean force) {
 		final boolean isRemote = !environment.isLocal();
-		long now = 0;
 		if (isRemote && !force) {
-			CacheEntry entry;
-			synchronized (cache) {
-				entry = cache.get(getCacheKey());
-			}
-			if (entry != null) {
-				now = System.currentTimeMillis();
-				if (now - entry.timestamp < CACHE_ENTRY_LIFETIME) {
-					return entry.fileInfo;
-				}
+			final IFileInfo info = cache.getInfo(getCacheKey());
+			if (info != null) {
+				return info;
 			}
 		}
 		final IFileInfo info = file.fetchInfo();
 		if (isRemote) {
-			if (now == 0) {
-				now = System.currentTimeMillis();
-			}
-			synchronized (cache) {
-				checkCacheLimit();
-				cache.put(getCacheKey(), new CacheEntry(info, now));
-			}
+			cache.putInfo(getCacheKey(), info);
 		}
 		return info;
 	}
 
-	private static void checkCacheLimit() {
-		if (cache.size() > CACHE_LIMIT) {
-			cache.clear();
-		}
-	}
-
 	/**
 	 * @return
 	 */
@@ -212,32 +189,30 @@ public class RSEFileHandle implements IFileHandle, IFileStoreProvider {
 				DLTKRSEPlugin.log(e);
 			}
 		}
-		try {
-			final IFileInfo[] infos = file.childInfos(EFS.NONE,
-					new NullProgressMonitor());
-			if (infos.length != 0) {
-				synchronized (cache) {
-					checkCacheLimit();
-				}
+		final boolean isRemote = !environment.isLocal();
+		IFileInfo[] infos = isRemote ? cache.getChildInfos(getCacheKey())
+				: null;
+		if (infos == null) {
+			try {
+				infos = file.childInfos(EFS.NONE, new NullProgressMonitor());
+			} catch (CoreException e) {
+				if (DLTKCore.DEBUG)
+					e.printStackTrace();
+				return null;
 			}
-			final IFileHandle[] children = new IFileHandle[infos.length];
-			final long now = System.currentTimeMillis();
-			for (int i = 0; i < infos.length; i++) {
-				final IFileInfo childInfo = infos[i];
-				children[i] = new RSEFileHandle(environment, file
-						.getChild(childInfo.getName()));
-				final IFileStore childCacheKey = ((RSEFileHandle) children[i])
-						.getCacheKey();
-				synchronized (cache) {
-					cache.put(childCacheKey, new CacheEntry(childInfo, now));
-				}
+			if (isRemote) {
+				cache.putChildInfos(getCacheKey(), infos);
 			}
-			return children;
-		} catch (CoreException e) {
-			if (DLTKCore.DEBUG)
-				e.printStackTrace();
-			return null;
 		}
+		final IFileHandle[] children = new IFileHandle[infos.length];
+		for (int i = 0; i < infos.length; i++) {
+			children[i] = new RSEFileHandle(environment, file
+					.getChild(infos[i].getName()));
+		}
+		if (isRemote) {
+			cache.prefetch(getCacheKey(), infos);
+		}
+		return children;
 	}
 
 	public IEnvironment getEnvironment() {
@@ -354,9 +329,7 @@ public class RSEFileHandle implements IFileHandle, IFileStoreProvider {
 		if (!environment.connect()) {
 			return null;
 		}
-		synchronized (cache) {
-			cache.clear();
-		}
+		cache.remove(getCacheKey());
 		fetchSshFile();
 		if (sshFile != null) {
 			try {
@@ -487,9 +460,7 @@ public class RSEFileHandle implements IFileHandle, IFileStoreProvider {
 	 * @since 2.0
 	 */
 	public void clearLastModifiedCache() {
-		synchronized (cache) {
-			cache.remove(getCacheKey());
-		}
+		cache.remove(getCacheKey());
 	}
 
 	/**
@@ -539,12 +510,18 @@ public class RSEFileHandle implements IFileHandle, IFileStoreProvider {
 
 	public void move(IFileHandle destination) throws CoreException {
 		fetchSshFile();
-		if (sshFile != null) {
-			sshFile.move(FileHandles.asPath(destination, environment));
-		} else {
-			file
-					.move(FileHandles.asFileStore(destination), EFS.OVERWRITE,
-							null);
+		try {
+			if (sshFile != null) {
+				sshFile.move(FileHandles.asPath(destination, environment));
+			} else {
+				file.move(FileHandles.asFileStore(destination),
+						EFS.OVERWRITE, null);
+			}
+		} finally {
+			clearLastModifiedCache();
+			if (destination instanceof RSEFileHandle) {
+				((RSEFileHandle) destination).clearLastModifiedCache();
+			}
 		}
 	}
 }
@@ -0,0 +1,180 @@
+/*******************************************************************************
+ * Copyright (c) 2016 xored software, Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ *******************************************************************************/
+package org.eclipse.dltk.core.internal.rse;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.core.filesystem.EFS;
+import org.eclipse.core.filesystem.IFileInfo;
+import org.eclipse.core.filesystem.IFileStore;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.dltk.core.DLTKCore;
+import org.eclipse.dltk.internal.core.util.StripedLRUCache;
+
+/**
+ * Bounded LRU cache of the remote file infos and directory listings. Every
+ * entry expires when its lifetime elapses. The listings populate the infos of
+ * the children, and the subdirectories of the listed directory could be read
+ * ahead in the background (see {@link #PREFETCH}).
+ */
+class RSEFileInfoCache {
+
+	/**
+	 * System property with the maximum number of the subdirectories listed in
+	 * the background after their parent directory is listed, <code>0</code>
+	 * (default) disables the read-ahead.
+	 */
+	static final String PREFETCH = DLTKRSEPlugin.PLUGIN_ID + ".prefetch"; //$NON-NLS-1$
+
+	private static final int PREFETCH_THREADS = 2;
+	private static final int PREFETCH_QUEUE = 256;
+
+	private static class Entry<T> {
+		final T value;
+		final long timestamp;
+
+		Entry(T value, long timestamp) {
+			this.value = value;
+			this.timestamp = timestamp;
+		}
+	}
+
+	private final StripedLRUCache<IFileStore, Entry<IFileInfo>> infos;
+	private final StripedLRUCache<IFileStore, Entry<IFileInfo[]>> listings;
+	private final long lifetime;
+	private final int prefetch;
+	private ThreadPoolExecutor executor;
+
+	RSEFileInfoCache(int limit, long lifetime) {
+		this.infos = new StripedLRUCache<IFileStore, Entry<IFileInfo>>(limit,
+				16);
+		this.listings = new StripedLRUCache<IFileStore, Entry<IFileInfo[]>>(
+				Math.max(1, limit / 10), 16);
+		this.lifetime = lifetime;
+		this.prefetch = Math.max(0, Integer.getInteger(PREFETCH, 0)
+				.intValue());
+	}
+
+	private <T> T get(StripedLRUCache<IFileStore, Entry<T>> cache,
+			IFileStore store) {
+		final Entry<T> entry = cache.get(store);
+		if (entry != null) {
+			if (System.currentTimeMillis() - entry.timestamp < lifetime) {
+				return entry.value;
+			}
+			cache.remove(store, entry);
+		}
+		return null;
+	}
+
+	IFileInfo getInfo(IFileStore store) {
+		return get(infos, store);
+	}
+
+	void putInfo(IFileStore store, IFileInfo info) {
+		infos.put(store, new Entry<IFileInfo>(info, System.currentTimeMillis()));
+	}
+
+	/**
+	 * Returns the cached infos of the directory children or <code>null</code>
+	 */
+	IFileInfo[] getChildInfos(IFileStore directory) {
+		return get(listings, directory);
+	}
+
+	/**
+	 * Caches the listing of the directory and the infos of its children.
+	 */
+	void putChildInfos(IFileStore directory, IFileInfo[] childInfos) {
+		final long now = System.currentTimeMillis();
+		listings.put(directory, new Entry<IFileInfo[]>(childInfos, now));
+		for (IFileInfo childInfo : childInfos) {
+			infos.put(directory.getChild(childInfo.getName()),
+					new Entry<IFileInfo>(childInfo, now));
+		}
+	}
+
+	/**
+	 * Removes the info of the file and the listing of its parent.
+	 */
+	void remove(IFileStore store) {
+		infos.remove(store);
+		listings.remove(store);
+		final IFileStore parent = store.getParent();
+		if (parent != null) {
+			listings.remove(parent);
+		}
+	}
+
+	void clear() {
+		infos.clear();
+		listings.clear();
+	}
+
+	/**
+	 * Schedules the listing of the not cached subdirectories of the listed
+	 * directory if the read-ahead is enabled. The requests exceeding the
+	 * queue capacity are dropped.
+	 */
+	void prefetch(IFileStore directory, IFileInfo[] childInfos) {
+		if (prefetch == 0) {
+			return;
+		}
+		int count = 0;
+		for (IFileInfo childInfo : childInfos) {
+			if (count >= prefetch) {
+				break;
+			}
+			if (childInfo.isDirectory()) {
+				final IFileStore child = directory.getChild(childInfo
+						.getName());
+				if (getChildInfos(child) == null) {
+					getExecutor().execute(new Runnable() {
+						public void run() {
+							if (getChildInfos(child) != null) {
+								return;
+							}
+							try {
+								putChildInfos(child, child.childInfos(
+										EFS.NONE, new NullProgressMonitor()));
+							} catch (CoreException e) {
+								if (DLTKCore.DEBUG) {
+									e.printStackTrace();
+								}
+							}
+						}
+					});
+					++count;
+				}
+			}
+		}
+	}
+
+	private synchronized ThreadPoolExecutor getExecutor() {
+		if (executor == null) {
+			executor = new ThreadPoolExecutor(PREFETCH_THREADS,
+					PREFETCH_THREADS, 0L, TimeUnit.MILLISECONDS,
+					new ArrayBlockingQueue<Runnable>(PREFETCH_QUEUE),
+					new ThreadFactory() {
+						public Thread newThread(Runnable r) {
+							final Thread thread = new Thread(r,
+									"RSE directory prefetch"); //$NON-NLS-1$
+							thread.setDaemon(true);
+							return thread;
+						}
+					}, new ThreadPoolExecutor.DiscardPolicy());
+		}
+		return executor;
+	}
+
+}
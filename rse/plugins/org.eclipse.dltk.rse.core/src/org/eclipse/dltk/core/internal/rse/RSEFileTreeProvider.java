@@ -0,0 +1,267 @@
+/*******************************************************************************
+ * Copyright (c) 2016 xored software, Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ *******************************************************************************/
+package org.eclipse.dltk.core.internal.rse;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.core.filesystem.EFS;
+import org.eclipse.core.filesystem.IFileInfo;
+import org.eclipse.core.filesystem.IFileStore;
+import org.eclipse.core.filesystem.provider.FileInfo;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.dltk.core.DLTKCore;
+import org.eclipse.dltk.core.environment.FileTree;
+import org.eclipse.dltk.core.environment.IExecutionEnvironment;
+import org.eclipse.dltk.core.environment.IFileHandle;
+import org.eclipse.dltk.core.environment.IFileStatProvider;
+import org.eclipse.dltk.core.environment.IFileTreeProvider;
+
+/**
+ * Lists the remote directory trees and queries the modification times of the
+ * remote files with a single <code>find</code> command instead of the
+ * round-trips per file. The listed trees also populate the file info cache of
+ * the {@link RSEFileHandle}s. The commands require GNU <code>find</code>,
+ * <code>null</code> is returned on the Windows hosts, if the command is not
+ * supported or fails, and the files are queried one by one then.
+ */
+public class RSEFileTreeProvider implements IFileTreeProvider,
+		IFileStatProvider {
+
+	/**
+	 * The marker printed after the command output, so the truncated output is
+	 * not mistaken for the complete one
+	 */
+	private static final String END_MARKER = "DLTK_FIND_END"; //$NON-NLS-1$
+
+	private static final int STAT_BATCH_SIZE = 500;
+
+	private static final int TIMEOUT = 60 * 1000;
+
+	private final RSEEnvironment environment;
+
+	public RSEFileTreeProvider(RSEEnvironment environment) {
+		this.environment = environment;
+	}
+
+	public FileTree getTree(IFileHandle directory) {
+		if (!isSupported()) {
+			return null;
+		}
+		// the root is followed if it is the link, the marker is printed only
+		// if the whole tree is listed
+		final List<String> records = execute("find -H " //$NON-NLS-1$
+				+ quote(directory.toOSString())
+				+ " -printf '%y %Y %s %T@ %P\\0' 2>/dev/null && echo " //$NON-NLS-1$
+				+ END_MARKER);
+		if (records == null || records.size() < 2) {
+			// the root only or nothing, let the caller walk the directory
+			return null;
+		}
+		final FileTree tree = new FileTree();
+		boolean root = false;
+		for (String record : records) {
+			// type, target type, size, time, relative path
+			final String[] fields = record.split(" ", 5); //$NON-NLS-1$
+			if (fields.length != 5 || fields[0].length() != 1
+					|| fields[1].length() != 1) {
+				return null;
+			}
+			final boolean directoryEntry = fields[1].charAt(0) == 'd';
+			if (fields[4].length() == 0) {
+				if (!directoryEntry) {
+					return null;
+				}
+				root = true;
+				continue;
+			}
+			try {
+				tree.add(fields[4], directoryEntry, fields[0].charAt(0) == 'l',
+						Long.parseLong(fields[2]), parseTime(fields[3]));
+			} catch (NumberFormatException e) {
+				return null;
+			}
+		}
+		if (!root) {
+			return null;
+		}
+		if (directory instanceof RSEFileHandle) {
+			cacheInfos(tree, "", ((RSEFileHandle) directory).getFileStore()); //$NON-NLS-1$
+		}
+		return tree;
+	}
+
+	private static void cacheInfos(FileTree tree, String path,
+			IFileStore store) {
+		final FileTree.Entry[] entries = tree.getChildren(path);
+		if (entries == null) {
+			return;
+		}
+		final IFileInfo[] infos = new IFileInfo[entries.length];
+		for (int i = 0; i < entries.length; ++i) {
+			final FileTree.Entry entry = entries[i];
+			final FileInfo info = new FileInfo(entry.getName());
+			info.setExists(true);
+			info.setDirectory(entry.isDirectory());
+			info.setLength(entry.getLength());
+			info.setLastModified(entry.getLastModified());
+			info.setAttribute(EFS.ATTRIBUTE_SYMLINK, entry.isSymlink());
+			infos[i] = info;
+			if (entry.isDirectory() && !entry.isSymlink()) {
+				cacheInfos(tree, path.length() == 0 ? entry.getName() : path
+						+ '/' + entry.getName(), store.getChild(entry
+						.getName()));
+			}
+		}
+		RSEFileHandle.cacheChildInfos(store, infos);
+	}
+
+	public long[] lastModified(IFileHandle[] files) {
+		if (!isSupported()) {
+			return null;
+		}
+		final Map<String, Long> times = new HashMap<String, Long>();
+		for (int start = 0; start < files.length; start += STAT_BATCH_SIZE) {
+			final int end = Math.min(start + STAT_BATCH_SIZE, files.length);
+			// find fails for the missing files, so the root is listed first
+			// to tell them from the unsupported command
+			final StringBuffer command = new StringBuffer("find -L /"); //$NON-NLS-1$
+			for (int i = start; i < end; ++i) {
+				command.append(' ').append(quote(files[i].toOSString()));
+			}
+			command.append(" -maxdepth 0 -printf '%T@ %p\\0' 2>/dev/null; echo "); //$NON-NLS-1$
+			command.append(END_MARKER);
+			final List<String> records = execute(command.toString());
+			if (records == null || records.isEmpty()
+					|| !records.get(0).endsWith(" /")) { //$NON-NLS-1$
+				return null;
+			}
+			for (String record : records) {
+				final int pos = record.indexOf(' ');
+				if (pos <= 0) {
+					return null;
+				}
+				try {
+					times.put(record.substring(pos + 1), Long
+							.valueOf(parseTime(record.substring(0, pos))));
+				} catch (NumberFormatException e) {
+					return null;
+				}
+			}
+		}
+		final long[] result = new long[files.length];
+		for (int i = 0; i < files.length; ++i) {
+			final Long time = times.get(files[i].toOSString());
+			result[i] = time != null ? time.longValue() : 0;
+		}
+		return result;
+	}
+
+	private boolean isSupported() {
+		return !environment.getHost().getSystemType().isWindows()
+				&& environment.connect();
+	}
+
+	/**
+	 * Converts the <code>%T@</code> seconds with the fraction to the
+	 * milliseconds, truncated to the whole seconds as reported by the remote
+	 * file service.
+	 */
+	private static long parseTime(String value) {
+		final int pos = value.indexOf('.');
+		return Long.parseLong(pos >= 0 ? value.substring(0, pos) : value) * 1000;
+	}
+
+	private static String quote(String value) {
+		return '\'' + value.replace("'", "'\\''") + '\''; //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	/**
+	 * Executes the command and returns the records of its output separated by
+	 * the <code>'\0'</code> characters, so the names with the line breaks
+	 * are read correctly. Returns <code>null</code> if the command failed or
+	 * its output is incomplete, i.e. the {@link #END_MARKER} is not printed
+	 * after the last record.
+	 */
+	private List<String> execute(String command) {
+		final IExecutionEnvironment exec = (IExecutionEnvironment) environment
+				.getAdapter(IExecutionEnvironment.class);
+		if (exec == null) {
+			return null;
+		}
+		final Process process;
+		try {
+			process = exec.exec(new String[] { command }, null, null);
+		} catch (CoreException e) {
+			if (DLTKCore.DEBUG) {
+				e.printStackTrace();
+			}
+			return null;
+		}
+		if (process == null) {
+			return null;
+		}
+		final StringBuilder output = new StringBuilder();
+		final boolean[] complete = new boolean[1];
+		final BufferedReader input = new BufferedReader(new InputStreamReader(
+				process.getInputStream()));
+		final Thread reader = new Thread("Remote file tree listing") { //$NON-NLS-1$
+			@Override
+			public void run() {
+				try {
+					String line;
+					while ((line = input.readLine()) != null) {
+						// the marker follows the last record on the same line
+						final int pos = line.length() - END_MARKER.length();
+						if (line.endsWith(END_MARKER)
+								&& (pos == 0 || line.charAt(pos - 1) == '\0')) {
+							synchronized (complete) {
+								output.append(line, 0, pos);
+								complete[0] = true;
+							}
+							break;
+						}
+						output.append(line).append('\n');
+					}
+				} catch (IOException e) {
+					if (DLTKCore.DEBUG) {
+						e.printStackTrace();
+					}
+				}
+			}
+		};
+		reader.start();
+		try {
+			reader.join(TIMEOUT);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		process.destroy();
+		synchronized (complete) {
+			if (!complete[0]) {
+				return null;
+			}
+			final List<String> records = new ArrayList<String>();
+			int start = 0;
+			int end;
+			while ((end = output.indexOf("\0", start)) >= 0) { //$NON-NLS-1$
+				records.add(output.substring(start, end));
+				start = end + 1;
+			}
+			return start == output.length() ? records : null;
+		}
+	}
+
+}
@@ -0,0 +1,103 @@
+/*******************************************************************************
+ * Copyright (c) 2016 xored software, Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ *******************************************************************************/
+package org.eclipse.dltk.core.internal.rse;
+
+import junit.framework.TestCase;
+
+import org.eclipse.core.filesystem.EFS;
+import org.eclipse.core.filesystem.IFileInfo;
+import org.eclipse.core.filesystem.IFileStore;
+import org.eclipse.core.filesystem.provider.FileInfo;
+import org.eclipse.core.runtime.Path;
+
+public class RSEFileInfoCacheTests extends TestCase {
+
+	private static final int LIMIT = 160;
+
+	private static final long LIFETIME = 60000;
+
+	private final IFileStore root = EFS.getLocalFileSystem().getStore(
+			new Path("/rse-cache-test"));
+
+	private static IFileInfo info(String name, boolean directory) {
+		final FileInfo info = new FileInfo(name);
+		info.setExists(true);
+		info.setDirectory(directory);
+		return info;
+	}
+
+	public void testGetInfo() {
+		final RSEFileInfoCache cache = new RSEFileInfoCache(LIMIT, LIFETIME);
+		final IFileStore file = root.getChild("file");
+		assertNull(cache.getInfo(file));
+		final IFileInfo info = info("file", false);
+		cache.putInfo(file, info);
+		assertSame(info, cache.getInfo(file));
+		cache.clear();
+		assertNull(cache.getInfo(file));
+	}
+
+	public void testExpiration() throws InterruptedException {
+		final RSEFileInfoCache cache = new RSEFileInfoCache(LIMIT, 100);
+		final IFileStore file = root.getChild("file");
+		cache.putInfo(file, info("file", false));
+		cache.putChildInfos(root, new IFileInfo[] { info("file", false) });
+		assertNotNull(cache.getInfo(file));
+		assertNotNull(cache.getChildInfos(root));
+		Thread.sleep(250);
+		assertNull(cache.getInfo(file));
+		assertNull(cache.getChildInfos(root));
+	}
+
+	public void testLimit() {
+		final RSEFileInfoCache cache = new RSEFileInfoCache(LIMIT, LIFETIME);
+		final IFileStore recent = root.getChild("recent");
+		cache.putInfo(recent, info("recent", false));
+		final int count = LIMIT * 10;
+		for (int i = 0; i < count; i++) {
+			cache.putInfo(root.getChild("file" + i), info("file" + i, false));
+			// keeps the entry recently used
+			assertNotNull(cache.getInfo(recent));
+		}
+		int cached = 0;
+		for (int i = 0; i < count; i++) {
+			if (cache.getInfo(root.getChild("file" + i)) != null) {
+				++cached;
+			}
+		}
+		assertTrue("cached " + cached, cached > 0 && cached <= LIMIT);
+		assertNotNull(cache.getInfo(root.getChild("file" + (count - 1))));
+		assertNull(cache.getInfo(root.getChild("file0")));
+	}
+
+	public void testChildInfos() {
+		final RSEFileInfoCache cache = new RSEFileInfoCache(LIMIT, LIFETIME);
+		final IFileInfo[] children = { info("a", false), info("b", true) };
+		cache.putChildInfos(root, children);
+		assertSame(children, cache.getChildInfos(root));
+		assertSame(children[0], cache.getInfo(root.getChild("a")));
+		assertSame(children[1], cache.getInfo(root.getChild("b")));
+	}
+
+	public void testRemoveInvalidatesParentListing() {
+		final RSEFileInfoCache cache = new RSEFileInfoCache(LIMIT, LIFETIME);
+		final IFileStore directory = root.getChild("b");
+		cache.putChildInfos(root, new IFileInfo[] { info("a", false),
+				info("b", true) });
+		cache.putChildInfos(directory, new IFileInfo[] { info("c", false) });
+		cache.remove(directory);
+		assertNull(cache.getInfo(directory));
+		assertNull(cache.getChildInfos(directory));
+		assertNull(cache.getChildInfos(root));
+		// the siblings and the children are kept
+		assertNotNull(cache.getInfo(root.getChild("a")));
+		assertNotNull(cache.getInfo(directory.getChild("c")));
+	}
+
+}